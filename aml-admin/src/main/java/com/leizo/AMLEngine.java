@@ -25,9 +25,11 @@ import com.leizo.model.IngestionResult;
 import com.leizo.loader.SanctionListLoader;
 import com.leizo.service.*;
 import com.leizo.admin.util.AlertFSS;
+import com.leizo.admin.util.AlertQuery;
 import com.leizo.admin.util.RuleFSS;
 import com.leizo.admin.util.SanctionedEntityFSS;
 import com.leizo.admin.util.TransactionFSS;
+import com.leizo.admin.util.TransactionQuery;
 
 /**
  * AMLEngine - Refactored to use unified services
@@ -190,46 +192,69 @@ public class AMLEngine {
     // Transaction FSS: Filter, Search, Sort using TransactionFSS
     // ======================
 
+    //Run a composed transaction query in the database, loading only its page.
+    public List<Transaction> queryTransactions(TransactionQuery query) {
+        return transactionHistoryService.findTransactions(query);
+    }
+
     //Filter transactions by sender, country, and amount range.
     public List<Transaction> filterTransactions(String sender, String country, BigDecimal min, BigDecimal max) {
-        return TransactionFSS.filter(transactionHistoryService.getAllTransactions(), sender, country, min, max);
+        return queryTransactions(TransactionQuery.create().sender(sender).country(country).amountBetween(min, max));
     }
 
     //Search transactions by receiver name.
     public List<Transaction> searchTransactionsByReceiver(String receiver) {
-        return TransactionFSS.searchByReceiver(transactionHistoryService.getAllTransactions(), receiver);
+        if (receiver == null) {
+            return new ArrayList<>();
+        }
+        return queryTransactions(TransactionQuery.create().receiverContains(receiver));
     }
 
-    //Sort transactions by amount using merge sort.
+    //Sort transactions by amount.
     public Transaction[] sortTransactionsByAmount(boolean descending) {
         return TransactionFSS.sortByAmount(transactionHistoryService.getAllTransactions(), descending);
     }
 
-    //Sort transactions by risk score using merge sort.
+    //Sort transactions by risk score.
     public Transaction[] sortTransactionsByRiskScore(boolean descending) {
         return TransactionFSS.sortByRiskScore(transactionHistoryService.getAllTransactions(), descending);
     }
 
+    //Largest transactions by amount, without sorting the full history.
+    public List<Transaction> topTransactionsByAmount(int limit) {
+        return queryTransactions(TransactionQuery.create().orderByAmount(true).limit(limit));
+    }
+
     // ======================
     // Alert FSS: Filter, Search, Sort using AlertFSS
     // ======================
 
+    //Run a composed alert query in the database, loading only its page.
+    public List<Alert> queryAlerts(AlertQuery query) {
+        return alertHistoryService.findAlerts(query);
+    }
+
     //Filter alerts by sender and priority level.
     public List<Alert> filterAlerts(String sender, String priorityLevel) {
-        return AlertFSS.filter(alertHistoryService.getAllAlerts(), sender, priorityLevel);
+        return queryAlerts(AlertQuery.create().sender(sender).priorityLevel(priorityLevel));
     }
 
     //Search alerts by reason keyword.
     public List<Alert> searchAlertsByReason(String keyword) {
-        return AlertFSS.searchAlertsByReason(alertHistoryService.getAllAlerts(), keyword);
+        return queryAlerts(AlertQuery.create().reasonContains(keyword));
     }
 
-    //Sort alerts by priority score using merge sort.
+    //Sort alerts by priority score.
     public Alert[] sortAlertsByPriority(boolean descending) {
         Alert[] array = alertHistoryService.getAllAlerts().toArray(new Alert[0]);
         return AlertFSS.sortByPriority(array, descending);
     }
 
+    //Highest-priority alerts, without sorting the full history.
+    public List<Alert> topAlertsByPriority(int limit) {
+        return queryAlerts(AlertQuery.create().orderByPriority(true).limit(limit));
+    }
+
     // ======================
     // Rule FSS: Filter, Search, Sort using RuleFSS
     // ======================
@@ -22,12 +22,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import java.nio.charset.StandardCharsets;
 import com.leizo.common.entity.Users;
 import com.leizo.common.security.JwtUtil;
 import java.util.concurrent.ConcurrentHashMap;
 import com.leizo.admin.auth.UserRequest;
 import com.leizo.admin.auth.UserResponse;
+import com.leizo.admin.service.export.ExportDataset;
+import com.leizo.admin.service.export.ExportFormat;
+import com.leizo.admin.service.export.StreamingExporter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/users")
@@ -45,6 +48,9 @@ public class UserController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private StreamingExporter streamingExporter;
+
     // In-memory refresh token store (for demo; use persistent store in production)
     private final ConcurrentHashMap<String, String> refreshTokenStore = new ConcurrentHashMap<>();
 
@@ -247,23 +253,14 @@ public class UserController {
 
     @GetMapping("/export")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> exportUsersToCsv() {
-        List<Users> users = userRepository.findAll();
-        StringBuilder sb = new StringBuilder();
-        sb.append("Username,Role,Email,Name,CreatedAt,Enabled\n");
-        for (Users u : users) {
-            sb.append(u.getUsername()).append(",")
-              .append(u.getRole()).append(",")
-              .append(u.getEmail() != null ? u.getEmail() : "").append(",")
-              .append(u.getName() != null ? u.getName() : "").append(",")
-              .append(u.getCreatedAt() != null ? u.getCreatedAt() : "").append(",")
-              .append(u.isEnabled() ? "Active" : "Disabled").append("\n");
-        }
-        byte[] csvBytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+    public ResponseEntity<StreamingResponseBody> exportUsersToCsv() {
+        // Streamed from a database cursor instead of loading every user first
+        StreamingResponseBody body = out -> streamingExporter.export(ExportDataset.USERS, ExportFormat.CSV,
+                null, null, false, out);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/csv"));
         headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.csv");
-        return ResponseEntity.ok().headers(headers).body(csvBytes);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
     // Utility endpoint for admin: delete users with plain text passwords (for cleanup)
@@ -5,6 +5,7 @@ package com.leizo.admin.config;
  *   jwt.secret, jwt.expiration, jwt.audience
  */
 import com.leizo.common.security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -40,6 +41,8 @@ public class SecurityConfig {
                 .csrf(customizer -> customizer.disable())
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests(auth -> auth
+                        // Completion dispatches of alert streams; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                             "/public/**",
                             "/users/login",
@@ -50,6 +53,7 @@ public class SecurityConfig {
                             "/admin/db-health",
                             "/ingest/transactions",
                             "/ingest/file",
+                            "/cluster/internal/**",
                             "/test/**"
                         ).permitAll()
                         .anyRequest().authenticated())
@@ -3,11 +3,15 @@ package com.leizo.admin.controller;
 import com.leizo.common.entity.Users;
 import com.leizo.common.repository.UserRepository;
 import com.leizo.admin.repository.AlertRepository;
-import com.leizo.pojo.entity.Alert;
+import com.leizo.admin.dto.AlertSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -212,10 +216,16 @@ public class AMLAdminController {
     }
 
     @GetMapping("/alerts")
-    public ResponseEntity<List<Alert>> getAllAlerts() {
+    public ResponseEntity<List<AlertSummary>> getAllAlerts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
         try {
             if (alertRepository != null) {
-                return ResponseEntity.ok(alertRepository.findAll());
+                // Newest first, one page of summary rows; the full export is GET /alerts/export
+                Pageable pageable = PageRequest.of(page, Math.min(Math.max(size, 1), 500),
+                        Sort.by(Sort.Direction.DESC, "timestamp"));
+                return ResponseEntity.ok(alertRepository.findSummaries("", "",
+                        LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.now().plusYears(100), pageable).getContent());
             } else {
                 // Mock response when database is not available
                 return ResponseEntity.ok(new ArrayList<>());
@@ -1,23 +1,40 @@
 package com.leizo.admin.controller;
 
+import com.leizo.admin.dto.AlertSummary;
 import com.leizo.pojo.entity.Alert;
 import com.leizo.admin.repository.AlertRepository;
 import com.leizo.admin.service.MockAlertDataService;
+import com.leizo.admin.service.analytics.DashboardAggregates;
+import com.leizo.admin.service.export.ExportDataset;
+import com.leizo.admin.service.export.ExportFormat;
+import com.leizo.admin.service.export.StreamingExporter;
+import com.leizo.admin.service.stream.AlertStreamHub;
+import com.leizo.admin.service.suppression.CooldownPolicyRegistry;
+import com.leizo.admin.util.DateTimeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/alerts")
@@ -31,6 +48,21 @@ public class AlertController {
     @Autowired
     private MockAlertDataService mockAlertDataService;
 
+    @Autowired
+    private CooldownPolicyRegistry cooldownPolicyRegistry;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
+    @Autowired
+    private AlertStreamHub alertStreamHub;
+
+    @Autowired
+    private StreamingExporter streamingExporter;
+
+    @Value("${aml.alerts.stream.timeout-minutes:30}")
+    private long streamTimeoutMinutes = 30;
+
     @GetMapping
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
     public ResponseEntity<?> getAllAlerts(
@@ -50,18 +82,15 @@ public class AlertController {
             // Create pageable with sorting by timestamp descending (newest first)
             Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
 
-            Page<Alert> alertsPage;
+            // Unbounded dates become the widest range so every filter combination is one projection query
+            LocalDateTime from = DateTimeUtils.parseRangeStart(dateFrom);
+            LocalDateTime to = DateTimeUtils.parseRangeEnd(dateTo);
+            from = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+            to = to != null ? to : LocalDateTime.now().plusYears(100);
 
-            // Apply filters if provided - only use fields that exist in the Alert entity
-            if (alertType != null && !alertType.isEmpty()) {
-                alertsPage = alertRepository.findByAlertTypeContainingIgnoreCase(alertType, pageable);
-            } else if (priorityLevel != null && !priorityLevel.isEmpty()) {
-                alertsPage = alertRepository.findByPriorityLevelContainingIgnoreCase(priorityLevel, pageable);
-            } else {
-                // No filters or unsupported filters - get all alerts
-                // Note: status and riskLevel filters are ignored since these fields don't exist in Alert entity
-                alertsPage = alertRepository.findAll(pageable);
-            }
+            // Note: status and riskLevel filters are ignored since these fields don't exist in Alert entity
+            Page<AlertSummary> alertsPage = alertRepository.findSummaries(
+                    alertType != null ? alertType : "", priorityLevel != null ? priorityLevel : "", from, to, pageable);
 
             logger.info("Found {} alerts out of {} total", alertsPage.getContent().size(), alertsPage.getTotalElements());
 
@@ -83,10 +112,101 @@ public class AlertController {
         }
     }
 
+    /**
+     * Streams every alert as NDJSON; kept for existing clients of this path, the full export
+     * with CSV, gzip and date ranges is {@code /exports/alerts}
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<StreamingResponseBody> exportAlerts() {
+        StreamingResponseBody body = out ->
+                streamingExporter.export(ExportDataset.ALERTS, ExportFormat.NDJSON, null, null, false, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportFormat.NDJSON.getContentType()))
+                .body(body);
+    }
+
+    /**
+     * Server-sent event stream of newly raised alerts
+     *
+     * Events are named "alert" and carry the cursor as their id; a reconnecting client sends it
+     * back as Last-Event-ID (or the cursor parameter) to resume. A "reset" event means the
+     * cursor could not be resumed and a "coalesced" event means events were skipped because the
+     * client fell behind; in both cases the client should refetch the alert list.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<?> streamAlerts(
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String policy,
+            @RequestParam(required = false) Long cursor,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        AlertStreamHub.OverflowPolicy overflowPolicy;
+        Long resumeFrom;
+        try {
+            overflowPolicy = policy != null ? AlertStreamHub.OverflowPolicy.valueOf(policy.toUpperCase()) : null;
+            resumeFrom = cursor != null ? cursor : (lastEventId != null ? Long.valueOf(lastEventId.trim()) : null);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("error", "Invalid stream parameters");
+            resp.put("message", "policy must be DROP_OLDEST, DROP_NEWEST or COALESCE and the cursor a number");
+            return ResponseEntity.badRequest().body(resp);
+        }
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(streamTimeoutMinutes));
+        AlertStreamHub.EventSink sink = new AlertStreamHub.EventSink() {
+            @Override
+            public void send(long id, String name, Object data) throws IOException {
+                emitter.send(SseEmitter.event().id(String.valueOf(id)).name(name).data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void complete() {
+                emitter.complete();
+            }
+        };
+        long subscriberId;
+        try {
+            subscriberId = alertStreamHub.subscribe(sink, splitParam(priority), splitParam(type), overflowPolicy, resumeFrom);
+        } catch (IllegalStateException e) {
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(resp);
+        }
+        emitter.onCompletion(() -> alertStreamHub.unsubscribe(subscriberId));
+        emitter.onTimeout(() -> alertStreamHub.unsubscribe(subscriberId));
+        emitter.onError(e -> alertStreamHub.unsubscribe(subscriberId));
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/stream/stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<?> getStreamStats() {
+        return ResponseEntity.ok(alertStreamHub.getStats());
+    }
+
+    private static List<String> splitParam(String csv) {
+        List<String> values = new ArrayList<>();
+        if (csv != null) {
+            for (String value : csv.split(",")) {
+                if (!value.isBlank()) {
+                    values.add(value.trim());
+                }
+            }
+        }
+        return values;
+    }
+
     @GetMapping("/test")
     public ResponseEntity<?> testAlerts() {
         try {
-            long count = alertRepository.count();
+            long count = dashboardAggregates.getAlertCount();
             List<Alert> sampleAlerts = alertRepository.findAll(PageRequest.of(0, 5)).getContent();
 
             Map<String, Object> response = new HashMap<>();
@@ -104,6 +224,50 @@ public class AlertController {
         }
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<?> searchAlerts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String dateFrom,
+            @RequestParam(required = false) String dateTo) {
+
+        if (query == null || query.isBlank()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Search query must not be empty");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        try {
+            // Results are ordered by relevance in the query itself, so the pageable carries no sort
+            Pageable pageable = PageRequest.of(page, Math.max(1, Math.min(size, 100)));
+            LocalDateTime from = DateTimeUtils.parseRangeStart(dateFrom);
+            LocalDateTime to = DateTimeUtils.parseRangeEnd(dateTo);
+            Page<Alert> resultsPage = alertRepository.searchAlerts(query.trim(),
+                    from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0),
+                    to != null ? to : LocalDateTime.now().plusYears(100),
+                    pageable);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("query", query.trim());
+            response.put("content", resultsPage.getContent());
+            response.put("totalElements", resultsPage.getTotalElements());
+            response.put("totalPages", resultsPage.getTotalPages());
+            response.put("currentPage", resultsPage.getNumber());
+            response.put("size", resultsPage.getSize());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error searching alerts for '{}': {}", query, e.getMessage(), e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to search alerts");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
     public ResponseEntity<?> getAlertById(@PathVariable Integer id) {
@@ -157,8 +321,10 @@ public class AlertController {
             Alert alert = alertOpt.get();
             String status = body.get("status");
             if (status != null) {
+                String previous = alert.getPriorityLevel();
                 alert.setPriorityLevel(status);
                 alertRepository.save(alert);
+                dashboardAggregates.recordAlertPriorityChange(previous, status);
                 return ResponseEntity.ok(alert);
             } else {
                 Map<String, Object> resp = new HashMap<>();
@@ -261,7 +427,7 @@ public class AlertController {
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
     public ResponseEntity<?> getAlertCount() {
         try {
-            long count = mockAlertDataService.getAlertCount();
+            long count = dashboardAggregates.getAlertCount();
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("count", count);
@@ -274,4 +440,33 @@ public class AlertController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
+
+    /**
+     * Get the active cooldown policies
+     */
+    @GetMapping("/cooldown-policies")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<?> getCooldownPolicies() {
+        return ResponseEntity.ok(cooldownPolicyRegistry.getPolicies());
+    }
+
+    /**
+     * Reload cooldown policies from configuration, with optional overrides keyed like the
+     * aml.cooldown.* properties without the prefix (e.g. "rules", "escalation.cooldown-ms")
+     */
+    @PostMapping("/cooldown-policies/reload")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<?> reloadCooldownPolicies(@RequestBody(required = false) Map<String, String> overrides) {
+        try {
+            Map<String, Object> response = new HashMap<>(cooldownPolicyRegistry.reload(overrides));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected cooldown policy reload: {}", e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.leizo.admin.controller;
+
+import com.leizo.admin.dto.TransactionDTO;
+import com.leizo.admin.service.cluster.HttpClusterTransport;
+import com.leizo.admin.service.cluster.SenderPartitioner;
+import com.leizo.admin.service.ingest.TransactionIngestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sender partitioning endpoints
+ *
+ * /cluster/status and /cluster/members are for operators. /cluster/internal/** is called by
+ * other instances and is authenticated by the shared aml.cluster.token instead of a user JWT.
+ */
+@RestController
+@RequestMapping("/cluster")
+public class ClusterController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterController.class);
+
+    @Autowired
+    private SenderPartitioner senderPartitioner;
+
+    @Autowired
+    private TransactionIngestService transactionIngestService;
+
+    @Value("${aml.cluster.token:}")
+    private String clusterToken;
+
+    @GetMapping("/status")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(senderPartitioner.getStatus());
+    }
+
+    @PostMapping("/members")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> joinMember(@RequestBody Map<String, String> member) {
+        String nodeId = member.get("nodeId");
+        String url = member.get("url");
+        if (nodeId == null || nodeId.isBlank() || url == null || url.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("status", "ERROR", "message", "nodeId and url are required"));
+        }
+        Map<String, Object> result = senderPartitioner.join(nodeId, url, true);
+        result.put("status", "OK");
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/members/{nodeId}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> leaveMember(@PathVariable String nodeId) {
+        Map<String, Object> result = senderPartitioner.leave(nodeId, true);
+        result.put("status", "OK");
+        return ResponseEntity.ok(result);
+    }
+
+    // Rows forwarded here were validated by the forwarding node; they are evaluated here and never forwarded again
+    @PostMapping("/internal/ingest")
+    public ResponseEntity<Map<String, Object>> ingestForwarded(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody List<TransactionDTO> transactions) {
+        if (!isClusterCall(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(transactionIngestService.ingestOwned(transactions));
+    }
+
+    @PostMapping("/internal/handoff/{stateName}")
+    public ResponseEntity<Void> receiveHandoff(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @PathVariable String stateName,
+            @RequestBody Map<String, Object> state) {
+        if (!isClusterCall(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            senderPartitioner.receiveHandoff(stateName, state);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected handoff: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/internal/membership")
+    public ResponseEntity<Map<String, Object>> applyMembership(
+            @RequestHeader(value = HttpClusterTransport.TOKEN_HEADER, required = false) String token,
+            @RequestBody Map<String, String> change) {
+        if (!isClusterCall(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String action = change.get("action");
+        String nodeId = change.get("nodeId");
+        if ("join".equals(action) && nodeId != null && change.get("url") != null) {
+            return ResponseEntity.ok(senderPartitioner.join(nodeId, change.get("url"), false));
+        }
+        if ("leave".equals(action) && nodeId != null) {
+            return ResponseEntity.ok(senderPartitioner.leave(nodeId, false));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    // Internal calls are refused unless a token is configured and matches
+    private boolean isClusterCall(String token) {
+        if (clusterToken == null || clusterToken.isBlank() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(clusterToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
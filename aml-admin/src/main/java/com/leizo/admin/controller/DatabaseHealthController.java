@@ -1,10 +1,8 @@
 package com.leizo.admin.controller;
 
-import com.leizo.common.repository.UserRepository;
-import com.leizo.common.entity.Users;
-import com.leizo.admin.repository.TransactionRepository;
-import com.leizo.admin.repository.AlertRepository;
+import com.leizo.admin.service.analytics.DashboardAggregates;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -18,23 +16,21 @@ import java.util.Map;
 public class DatabaseHealthController {
 
     @Autowired
-    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
 
     @Autowired
-    private TransactionRepository transactionRepository;
-
-    @Autowired
-    private AlertRepository alertRepository;
+    private DashboardAggregates dashboardAggregates;
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> checkDatabaseHealth() {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Test database connection by counting records
-            long userCount = userRepository.count();
-            long transactionCount = transactionRepository.count();
-            long alertCount = alertRepository.count();
+            // Test the database connection; counts come from the in-memory aggregates
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            long userCount = dashboardAggregates.getUserCount();
+            long transactionCount = dashboardAggregates.getTransactionCount();
+            long alertCount = dashboardAggregates.getAlertCount();
             
             response.put("status", "OK");
             response.put("message", "Database connection successful");
@@ -66,19 +62,19 @@ public class DatabaseHealthController {
             
             // Get table statistics
             tables.put("users", Map.of(
-                "count", userRepository.count(),
+                "count", dashboardAggregates.getUserCount(),
                 "table_name", "users",
                 "description", "User accounts and authentication"
             ));
             
             tables.put("transactions", Map.of(
-                "count", transactionRepository.count(),
+                "count", dashboardAggregates.getTransactionCount(),
                 "table_name", "transactions", 
                 "description", "Financial transactions and transfers"
             ));
             
             tables.put("alerts", Map.of(
-                "count", alertRepository.count(),
+                "count", dashboardAggregates.getAlertCount(),
                 "table_name", "alerts",
                 "description", "AML alerts and suspicious activity reports"
             ));
@@ -0,0 +1,86 @@
+package com.leizo.admin.controller;
+
+import com.leizo.admin.service.export.ExportDataset;
+import com.leizo.admin.service.export.ExportFormat;
+import com.leizo.admin.service.export.StreamingExporter;
+import com.leizo.admin.util.DateTimeUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Full-table extracts for regulators, streamed as CSV or NDJSON with optional gzip
+ */
+@RestController
+@RequestMapping("/exports")
+public class ExportController {
+
+    @Autowired
+    private StreamingExporter streamingExporter;
+
+    @GetMapping("/transactions")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<?> exportTransactions(@RequestParam(defaultValue = "csv") String format,
+                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                @RequestParam(required = false) String from,
+                                                @RequestParam(required = false) String to) {
+        return export(ExportDataset.TRANSACTIONS, format, gzip, from, to);
+    }
+
+    @GetMapping("/alerts")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<?> exportAlerts(@RequestParam(defaultValue = "csv") String format,
+                                          @RequestParam(defaultValue = "false") boolean gzip,
+                                          @RequestParam(required = false) String from,
+                                          @RequestParam(required = false) String to) {
+        return export(ExportDataset.ALERTS, format, gzip, from, to);
+    }
+
+    @GetMapping("/users")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportUsers(@RequestParam(defaultValue = "csv") String format,
+                                         @RequestParam(defaultValue = "false") boolean gzip) {
+        return export(ExportDataset.USERS, format, gzip, null, null);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_ANALYST') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(streamingExporter.getStats());
+    }
+
+    /**
+     * Builds the streamed response for a dataset; rows are written from a database cursor as
+     * the client reads them, so nothing is buffered beyond one fetch batch
+     */
+    ResponseEntity<?> export(ExportDataset dataset, String formatName, boolean gzip, String from, String to) {
+        ExportFormat format;
+        LocalDateTime fromTime;
+        LocalDateTime toTime;
+        try {
+            format = ExportFormat.parse(formatName);
+            fromTime = DateTimeUtils.parseRangeStart(from);
+            toTime = DateTimeUtils.parseRangeEnd(to);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("error", "Invalid export parameters");
+            resp.put("message", "format must be csv or ndjson and from/to ISO dates");
+            return ResponseEntity.badRequest().body(resp);
+        }
+
+        String fileName = dataset.getFileName() + "." + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> streamingExporter.export(dataset, format, fromTime, toTime, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .body(body);
+    }
+}
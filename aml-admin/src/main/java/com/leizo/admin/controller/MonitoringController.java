@@ -1,11 +1,21 @@
 package com.leizo.admin.controller;
 
+import com.leizo.admin.monitoring.DecisionTrace;
+import com.leizo.admin.monitoring.RuleProfiler;
 import com.leizo.admin.monitoring.TransactionMetrics;
+import com.leizo.admin.service.analytics.ColumnarTransactionStore;
+import com.leizo.admin.service.analytics.DashboardAggregates;
+import com.leizo.admin.service.partition.TimePartitionManager;
+import com.leizo.admin.util.DateTimeUtils;
+import com.leizo.enums.RiskScore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -15,6 +25,21 @@ public class MonitoringController {
     @Autowired
     private TransactionMetrics transactionMetrics;
 
+    @Autowired
+    private TimePartitionManager timePartitionManager;
+
+    @Autowired
+    private RuleProfiler ruleProfiler;
+
+    @Autowired
+    private ColumnarTransactionStore columnarTransactionStore;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+
+    @Autowired
+    private DecisionTrace decisionTrace;
+
     @GetMapping("/metrics")
     public ResponseEntity<Map<String, Object>> getMetrics() {
         Map<String, Object> metrics = new HashMap<>();
@@ -86,9 +111,14 @@ public class MonitoringController {
     public ResponseEntity<Map<String, Object>> getBusinessMetrics() {
         Map<String, Object> business = new HashMap<>();
         
-        // Business intelligence metrics
-        business.put("countryDistribution", transactionMetrics.getCountryTransactionCounts());
-        business.put("currencyDistribution", transactionMetrics.getCurrencyTransactionCounts());
+        // Business intelligence metrics, aggregated over the recent transactions in the columnar store
+        ColumnarTransactionStore.Filter recent = ColumnarTransactionStore.Filter.all();
+        business.put("countryDistribution", columnarTransactionStore.countBy(ColumnarTransactionStore.Dimension.COUNTRY, recent));
+        business.put("currencyDistribution", columnarTransactionStore.countBy(ColumnarTransactionStore.Dimension.CURRENCY, recent));
+        business.put("riskDistribution", columnarTransactionStore.countBy(ColumnarTransactionStore.Dimension.RISK_SCORE, recent));
+        business.put("amountByCurrency", columnarTransactionStore.groupBy(ColumnarTransactionStore.Dimension.CURRENCY, recent, Integer.MAX_VALUE));
+        business.put("topSenders", columnarTransactionStore.groupBy(ColumnarTransactionStore.Dimension.SENDER, recent, 10));
+        business.put("recentTransactions", columnarTransactionStore.size());
         business.put("totalTransactions", transactionMetrics.getTransactionsProcessedCount());
         business.put("totalAlerts", transactionMetrics.getAlertsGeneratedCount());
         business.put("sanctionsMatches", transactionMetrics.getSanctionsMatchesCount());
@@ -107,4 +137,144 @@ public class MonitoringController {
         }
         return 0.0;
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/partitions")
+    public ResponseEntity<Map<String, Object>> getPartitions() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("stats", timePartitionManager.getPartitionStats());
+            response.put("partitions", timePartitionManager.describePartitions());
+            response.put("status", "OK");
+        } catch (Exception e) {
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/partitions/maintain")
+    public ResponseEntity<Map<String, Object>> runPartitionMaintenance() {
+        try {
+            return ResponseEntity.ok(timePartitionManager.runMaintenance());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+            return ResponseEntity.ok(response);
+        }
+    }
+
+    @GetMapping("/rules")
+    public ResponseEntity<Map<String, Object>> getRuleProfile() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("summary", ruleProfiler.getSummary());
+        response.put("rules", ruleProfiler.getProfile());
+        response.put("status", "OK");
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/trace")
+    public ResponseEntity<Map<String, Object>> getDecisionTrace() {
+        return ResponseEntity.ok(decisionTrace.getStats());
+    }
+
+    /**
+     * Switches the decision trace level (OFF, SUMMARY, DETAIL) and sample rate at runtime
+     */
+    @PutMapping("/trace")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> configureDecisionTrace(@RequestParam(required = false) String level,
+                                                                      @RequestParam(required = false) Double sampleRate) {
+        try {
+            decisionTrace.configure(level, sampleRate);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Unknown trace level: " + level);
+            response.put("levels", DecisionTrace.Level.values());
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(decisionTrace.getStats());
+    }
+
+    /**
+     * Dashboard counts and hourly histograms, served from the incrementally maintained aggregates
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<Map<String, Object>> getDashboard() {
+        Map<String, Object> response = new HashMap<>(dashboardAggregates.getSnapshot());
+        response.put("reconciliation", dashboardAggregates.getStats());
+        response.put("status", "OK");
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> getAnalyticsStats() {
+        Map<String, Object> response = new HashMap<>(columnarTransactionStore.getStats());
+        response.put("status", "OK");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Groups recent transactions by sender, country, currency, risk_score or day
+     */
+    @GetMapping("/analytics/group-by")
+    public ResponseEntity<Map<String, Object>> groupTransactions(
+            @RequestParam String dimension,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String riskScore,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            ColumnarTransactionStore.Dimension parsed = ColumnarTransactionStore.Dimension.valueOf(dimension.trim().toUpperCase(Locale.ROOT));
+            ColumnarTransactionStore.Filter filter = analyticsFilter(from, to, sender, country, currency, riskScore, minAmount, maxAmount);
+            response.put("dimension", parsed.name());
+            response.put("groups", columnarTransactionStore.groupBy(parsed, filter, Math.max(1, limit)));
+            response.put("status", "OK");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "ERROR");
+            response.put("message", "Invalid analytics query: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/analytics/largest")
+    public ResponseEntity<Map<String, Object>> largestTransactions(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String sender,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String riskScore) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            ColumnarTransactionStore.Filter filter = analyticsFilter(from, to, sender, country, currency, riskScore, null, null);
+            response.put("transactions", columnarTransactionStore.largest(Math.min(Math.max(1, limit), 1000), filter));
+            response.put("status", "OK");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "ERROR");
+            response.put("message", "Invalid analytics query: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    private static ColumnarTransactionStore.Filter analyticsFilter(String from, String to, String sender, String country,
+                                                                   String currency, String riskScore,
+                                                                   BigDecimal minAmount, BigDecimal maxAmount) {
+        return ColumnarTransactionStore.Filter.all()
+                .between(DateTimeUtils.parseRangeStart(from), DateTimeUtils.parseRangeEnd(to))
+                .sender(sender)
+                .country(country)
+                .currency(currency != null ? currency.toUpperCase(Locale.ROOT) : null)
+                .riskScore(riskScore != null && !riskScore.isBlank() ? RiskScore.valueOf(riskScore.trim().toUpperCase(Locale.ROOT)) : null)
+                .amountBetween(minAmount, maxAmount);
+    }
+}
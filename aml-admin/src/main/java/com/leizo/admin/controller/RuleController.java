@@ -0,0 +1,192 @@
+package com.leizo.admin.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.leizo.admin.service.backtest.BacktestEngine;
+import com.leizo.admin.service.backtest.BacktestJob;
+import com.leizo.admin.service.rules.RuleDefinitionException;
+import com.leizo.admin.service.rules.ShadowRuleEvaluator;
+import com.leizo.admin.util.DateTimeUtils;
+import com.leizo.loader.RuleLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rule definition endpoints
+ *
+ * Rule sets are validated as a whole before they replace the active rules, so a rejected
+ * request leaves evaluation untouched. A shadow rule set can be loaded alongside the active
+ * rules to compare its decisions on live traffic without raising alerts, and back-tested over
+ * stored transactions or an export file.
+ */
+@RestController
+@RequestMapping("/rules")
+public class RuleController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleController.class);
+
+    @Autowired
+    private RuleLoader ruleLoader;
+
+    @Autowired
+    private ShadowRuleEvaluator shadowRuleEvaluator;
+
+    @Autowired
+    private BacktestEngine backtestEngine;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(ruleLoader.getStatus());
+    }
+
+    @PostMapping("/validate")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<Map<String, Object>> validate(@RequestBody JsonNode definitions) {
+        List<String> errors = ruleLoader.validate(definitions);
+        Map<String, Object> response = new HashMap<>();
+        response.put("valid", errors.isEmpty());
+        response.put("errors", errors);
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> replaceRules(@RequestBody JsonNode definitions) {
+        try {
+            Map<String, Object> response = ruleLoader.replaceRules(definitions);
+            response.put("status", "OK");
+            return ResponseEntity.ok(response);
+        } catch (RuleDefinitionException e) {
+            return ResponseEntity.badRequest().body(rejected(e));
+        }
+    }
+
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> reload() {
+        try {
+            Map<String, Object> response = ruleLoader.reload();
+            response.put("status", "OK");
+            return ResponseEntity.ok(response);
+        } catch (RuleDefinitionException e) {
+            return ResponseEntity.badRequest().body(rejected(e));
+        } catch (Exception e) {
+            logger.error("Failed to reload rules: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "ERROR");
+            response.put("message", "Failed to reload rules: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    @GetMapping("/shadow")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<Map<String, Object>> getShadowStatus() {
+        return ResponseEntity.ok(shadowRuleEvaluator.getStatus());
+    }
+
+    @PutMapping("/shadow")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> loadShadowRules(@RequestBody JsonNode definitions) {
+        try {
+            Map<String, Object> response = shadowRuleEvaluator.load(definitions);
+            response.put("status", "OK");
+            return ResponseEntity.ok(response);
+        } catch (RuleDefinitionException e) {
+            return ResponseEntity.badRequest().body(rejected(e));
+        }
+    }
+
+    @DeleteMapping("/shadow")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> clearShadowRules() {
+        shadowRuleEvaluator.clear();
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "OK");
+        response.put("message", "Shadow rules cleared");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Starts a back-test. Body: {"rules": [...], "from": "...", "to": "..."} replays stored
+     * transactions in the date range; {"rules": [...], "exportFile": "..."} replays an export file.
+     */
+    @PostMapping("/backtests")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> startBacktest(@RequestBody JsonNode request) {
+        Map<String, Object> response = new HashMap<>();
+        JsonNode definitions = request.get("rules");
+        if (definitions == null) {
+            response.put("status", "ERROR");
+            response.put("message", "Missing rules in request body");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            BacktestJob job;
+            if (request.hasNonNull("exportFile")) {
+                job = backtestEngine.submitExport(definitions, request.get("exportFile").asText());
+            } else {
+                job = backtestEngine.submitDatabase(definitions,
+                        DateTimeUtils.parseRangeStart(request.path("from").asText(null)),
+                        DateTimeUtils.parseRangeEnd(request.path("to").asText(null)));
+            }
+            response.putAll(job.describe(false));
+            response.put("status", "OK");
+            return ResponseEntity.status(202).body(response);
+        } catch (RuleDefinitionException e) {
+            return ResponseEntity.badRequest().body(rejected(e));
+        } catch (IllegalArgumentException | IOException e) {
+            response.put("status", "ERROR");
+            response.put("message", "Cannot read export file: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/backtests")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<List<Map<String, Object>>> getBacktests() {
+        return ResponseEntity.ok(backtestEngine.getJobs());
+    }
+
+    @GetMapping("/backtests/{id}")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_SUPERVISOR')")
+    public ResponseEntity<Map<String, Object>> getBacktest(@PathVariable String id) {
+        BacktestJob job = backtestEngine.getJob(id);
+        if (job == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Back-test not found");
+            return ResponseEntity.status(404).body(response);
+        }
+        return ResponseEntity.ok(job.describe(true));
+    }
+
+    @DeleteMapping("/backtests/{id}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> cancelBacktest(@PathVariable String id) {
+        Map<String, Object> response = new HashMap<>();
+        if (!backtestEngine.cancel(id)) {
+            response.put("error", "Back-test not found");
+            return ResponseEntity.status(404).body(response);
+        }
+        response.put("status", "OK");
+        response.put("message", "Cancellation requested");
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> rejected(RuleDefinitionException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "ERROR");
+        response.put("message", "Rule definitions rejected; active rules unchanged");
+        response.put("errors", e.getErrors());
+        return response;
+    }
+}
@@ -2,6 +2,10 @@ package com.leizo.admin.controller;
 
 import com.leizo.pojo.entity.Transaction;
 import com.leizo.admin.repository.TransactionRepository;
+import com.leizo.admin.repository.TransactionSpecifications;
+import com.leizo.admin.service.ingest.TransactionIngestService;
+import com.leizo.admin.util.DateTimeUtils;
+import com.leizo.admin.util.KeysetCursor;
 import com.leizo.service.RuleEngine;
 import com.leizo.service.RiskScoringService;
 import com.leizo.service.SanctionsChecker;
@@ -9,11 +13,14 @@ import com.leizo.pojo.entity.Alert;
 import com.leizo.admin.repository.AlertRepository;
 import com.leizo.service.TransactionEvaluatorService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
-import org.springframework.dao.DataAccessException;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -27,10 +34,8 @@ import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.leizo.admin.dto.TransactionDTO;
 import com.leizo.admin.dto.TransactionCsvParser;
-import com.leizo.admin.dto.TransactionMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.leizo.service.AlertDecisionResult;
 
 @RestController
 @RequestMapping("/ingest")
@@ -49,9 +54,11 @@ public class TransactionController {
     private AlertRepository alertRepository;
     @Autowired
     private TransactionEvaluatorService transactionEvaluatorService;
+    @Autowired
+    private TransactionIngestService transactionIngestService;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-    private static final int BATCH_SIZE = 100; // Process transactions in batches
+    private static final int MAX_PAGE_SIZE = 500;
 
     // Helper for mapping CSV fields to TransactionDTO (for ingestion)
     private static TransactionDTO mapFieldsToDTO(String[] fields) {
@@ -74,6 +81,8 @@ public class TransactionController {
     public ResponseEntity<?> ingestFile(@RequestParam("file") MultipartFile file) {
         List<Map<String, Object>> errors = new ArrayList<>();
         int processed = 0, success = 0, failed = 0;
+        // Validated rows, stored and evaluated on the node that owns their sender
+        List<TransactionDTO> validRows = new ArrayList<>();
         final List<String> requiredHeaders = List.of("transactionId", "timestamp", "amount", "currency", "senderName", "receiverName", "senderAccount", "receiverAccount", "country", "manualFlag", "description");
         try {
             if (file == null || file.isEmpty()) {
@@ -144,9 +153,7 @@ public class TransactionController {
                         if (dto.getDescription() == null || dto.getDescription().trim().isEmpty())
                             throw new IllegalArgumentException("Description missing");
                         
-                        // Save transaction
-                        transactionRepository.save(TransactionMapper.toEntity(dto));
-                        success++;
+                        validRows.add(dto);
                     } catch (Exception e) {
                         failed++;
                         errors.add(Map.of("row", rowNum, "error", e.getMessage()));
@@ -163,10 +170,19 @@ public class TransactionController {
                     "processed", 0, "successful", 0, "failed", 0, "errors", List.of("Unsupported file type")
                 ));
             }
+            Map<String, Object> result = transactionIngestService.ingest(validRows);
+            success += ((Number) result.getOrDefault("successful", 0)).intValue();
+            failed += ((Number) result.getOrDefault("failed", 0)).intValue();
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> ingestErrors = (List<Map<String, Object>>) result.get("errors");
+            errors.addAll(ingestErrors);
             return ResponseEntity.ok(Map.of(
                 "processed", processed,
                 "successful", success,
                 "failed", failed,
+                "forwarded", result.getOrDefault("forwarded", 0),
+                "retryable", result.getOrDefault("retryable", 0),
+                "alertsGenerated", result.getOrDefault("alertsGenerated", 0),
                 "errors", errors
             ));
         } catch (Exception e) {
@@ -179,93 +195,6 @@ public class TransactionController {
         }
     }
 
-    private Map<String, Object> processTransactionsBatch(List<Transaction> transactions) {
-        int successful = 0, failed = 0, alertsGenerated = 0;
-        List<String> errors = new ArrayList<>();
-        
-        // Process in batches for efficiency
-        for (int i = 0; i < transactions.size(); i += BATCH_SIZE) {
-            int endIndex = Math.min(i + BATCH_SIZE, transactions.size());
-            List<Transaction> batch = transactions.subList(i, endIndex);
-            
-            for (Transaction txn : batch) {
-                try {
-                    // Validate transaction data before processing with defaults
-                    if (txn.getSender() == null || txn.getSender().trim().isEmpty()) {
-                        logger.warn("Transaction missing sender, using default: {}", txn.getId());
-                        txn.setSender("Unknown Sender"); // Use default instead of throwing
-                    }
-                    if (txn.getAmount() == null || txn.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-                        logger.warn("Transaction has invalid amount: {}, using default: {}", txn.getAmount(), txn.getId());
-                        txn.setAmount(BigDecimal.ONE); // Use default instead of throwing
-                    }
-                    
-                    // Risk scoring with error handling
-                    try {
-                        txn.setRiskScore(riskScoringService.assessRisk(txn));
-                    } catch (Exception e) {
-                        logger.warn("Risk scoring failed for transaction {}: {}", txn.getId(), e.getMessage());
-                        txn.setRiskScore(com.leizo.enums.RiskScore.MEDIUM); // Default fallback
-                    }
-                    
-                    // NEW: Use TransactionEvaluatorService for comprehensive alert evaluation
-                    try {
-                        AlertDecisionResult alertResult = transactionEvaluatorService.evaluateForAlert(txn);
-                        
-                        if (alertResult.shouldTriggerAlert()) {
-                            try {
-                                Alert alert = alertResult.getAlert();
-                                if (alert != null) {
-                                    alertRepository.save(alert);
-                                    alertsGenerated++;
-                                    logger.info("Alert saved to database for transaction {}: {}", txn.getId(), alert.getReason());
-                                }
-                            } catch (Exception e) {
-                                logger.error("Failed to save alert for transaction {}: {}", txn.getId(), e.getMessage());
-                                // Continue processing even if alert saving fails
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Alert evaluation failed for transaction {}: {}", txn.getId(), e.getMessage());
-                        // Continue processing even if alert evaluation fails
-                    }
-                    
-                    // Save transaction with validation
-                    try {
-                        // Ensure required fields are set
-                        if (txn.getCurrency() == null || txn.getCurrency().trim().isEmpty()) {
-                            txn.setCurrency("USD"); // Default currency
-                        }
-                        
-                        transactionRepository.save(txn);
-                        successful++;
-                    } catch (DataAccessException e) {
-                        logger.error("Database error saving transaction {}: {}", txn.getId(), e.getMessage());
-                        // Continue processing instead of throwing - just log the error
-                        String errorMsg = "Database error saving transaction " + (txn.getId() != null ? txn.getId() : "unknown") + ": " + e.getMessage();
-                        errors.add(errorMsg);
-                        failed++;
-                        continue; // Skip this transaction and continue with the next
-                    }
-                    
-                } catch (Exception e) {
-                    failed++;
-                    String errorMsg = "Transaction " + (txn.getId() != null ? txn.getId() : "unknown") + " failed: " + e.getMessage();
-                    errors.add(errorMsg);
-                    logger.error(errorMsg, e);
-                    // Continue processing the next transaction instead of stopping the batch
-                }
-            }
-        }
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("successful", successful);
-        result.put("failed", failed);
-        result.put("alertsGenerated", alertsGenerated);
-        result.put("errors", errors);
-        return result;
-    }
-
     private Alert createSanctionsAlert(Transaction txn) {
         Alert alert = new Alert();
         alert.setMatchedEntityName(txn.getSender());
@@ -280,54 +209,72 @@ public class TransactionController {
     }
 
     // GET endpoints for transaction history
+    // Filters are pushed into SQL; pass "cursor" (empty for the first page) for keyset pagination,
+    // otherwise the legacy page/size mode is used
     @GetMapping("/transactions")
     public ResponseEntity<?> getTransactions(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String transactionType,
+            @RequestParam(required = false) String currency,
             @RequestParam(required = false) String dateFrom,
-            @RequestParam(required = false) String dateTo) {
+            @RequestParam(required = false) String dateTo,
+            @RequestParam(required = false) String cursor) {
         
         try {
-            List<Transaction> allTransactions = transactionRepository.findAll();
-            
-            // Apply filters
-            List<Transaction> filteredTransactions = allTransactions;
-            
-            if (status != null && !status.isEmpty()) {
-                filteredTransactions = filteredTransactions.stream()
-                    .filter(t -> status.equalsIgnoreCase(t.getRiskScore().toString()))
-                    .collect(Collectors.toList());
-            }
-            
-            if (transactionType != null && !transactionType.isEmpty()) {
-                filteredTransactions = filteredTransactions.stream()
-                    .filter(t -> transactionType.equalsIgnoreCase(t.getCurrency()))
-                    .collect(Collectors.toList());
-            }
-            
-            // Note: Date filtering removed as Transaction entity doesn't have timestamp field
-            
-            // Apply pagination
-            int totalElements = filteredTransactions.size();
-            int totalPages = (int) Math.ceil((double) totalElements / size);
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, totalElements);
-            
-            List<Transaction> pagedTransactions = filteredTransactions.subList(startIndex, endIndex);
-            
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            Specification<Transaction> filters = Specification.allOf(
+                    TransactionSpecifications.hasRiskScore(status),
+                    // transactionType has historically filtered on currency
+                    TransactionSpecifications.hasCurrency(currency != null ? currency : transactionType),
+                    TransactionSpecifications.timestampFrom(DateTimeUtils.parseRangeStart(dateFrom)),
+                    TransactionSpecifications.timestampTo(DateTimeUtils.parseRangeEnd(dateTo)));
+            Sort keysetOrder = Sort.by(Sort.Direction.DESC, "timestamp").and(Sort.by(Sort.Direction.DESC, "id"));
+
             Map<String, Object> response = new HashMap<>();
-            response.put("content", pagedTransactions);
-            response.put("totalElements", totalElements);
-            response.put("totalPages", totalPages);
+
+            if (cursor != null) {
+                // Keyset mode: seek past the last row of the previous page, read one extra row to detect more
+                KeysetCursor after = KeysetCursor.decode(cursor);
+                Specification<Transaction> seek = after != null
+                        ? filters.and(TransactionSpecifications.seekAfter(after.getTimestamp(), after.getId()))
+                        : filters;
+                List<Transaction> rows = transactionRepository.findBy(seek,
+                        query -> query.sortBy(keysetOrder).limit(pageSize + 1).all());
+
+                boolean hasNext = rows.size() > pageSize;
+                List<Transaction> content = hasNext ? rows.subList(0, pageSize) : rows;
+
+                response.put("content", content);
+                response.put("size", pageSize);
+                response.put("hasNext", hasNext);
+                response.put("nextCursor", hasNext ? cursorOf(content.get(content.size() - 1)) : null);
+                response.put("first", after == null);
+                response.put("last", !hasNext);
+                return ResponseEntity.ok(response);
+            }
+
+            Page<Transaction> transactionsPage = transactionRepository.findAll(filters, PageRequest.of(page, pageSize, keysetOrder));
+            List<Transaction> content = transactionsPage.getContent();
+
+            response.put("content", content);
+            response.put("totalElements", transactionsPage.getTotalElements());
+            response.put("totalPages", transactionsPage.getTotalPages());
             response.put("currentPage", page);
-            response.put("size", size);
-            response.put("first", page == 0);
-            response.put("last", page >= totalPages - 1);
+            response.put("size", pageSize);
+            response.put("first", transactionsPage.isFirst());
+            response.put("last", transactionsPage.isLast());
+            // Lets a client switch from page mode to keyset mode after any page
+            response.put("nextCursor", transactionsPage.hasNext() ? cursorOf(content.get(content.size() - 1)) : null);
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "ERROR");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Failed to retrieve transactions: {}", e.getMessage(), e);
             // Return 200 OK with error status instead of 500
@@ -346,6 +293,10 @@ public class TransactionController {
         }
     }
 
+    private static String cursorOf(Transaction transaction) {
+        return new KeysetCursor(transaction.getTimestamp(), transaction.getId()).encode();
+    }
+
     @GetMapping("/transactions/{id}")
     public ResponseEntity<?> getTransactionById(@PathVariable Integer id) {
         try {
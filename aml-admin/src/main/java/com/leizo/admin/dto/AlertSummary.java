@@ -0,0 +1,28 @@
+package com.leizo.admin.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the alert list views, selected column by column instead of loading the Alert entity.
+ * The reason is cut to {@link #REASON_PREVIEW_LENGTH} characters; the full text is only loaded
+ * by the alert detail view.
+ */
+public record AlertSummary(
+        Integer id,
+        String alertId,
+        Integer transactionId,
+        String alertType,
+        String priorityLevel,
+        Integer priorityScore,
+        String matchedEntityName,
+        String matchedList,
+        LocalDateTime timestamp,
+        String reason) {
+
+    public static final int REASON_PREVIEW_LENGTH = 200;
+
+    // Constructor expression shared by the AlertRepository summary queries; keep in step with the components
+    public static final String SELECT = "SELECT new com.leizo.admin.dto.AlertSummary(a.id, a.alertId, a.transactionId, "
+            + "a.alertType, a.priorityLevel, a.priorityScore, a.matchedEntityName, a.matchedList, a.timestamp, "
+            + "SUBSTRING(a.reason, 1, " + REASON_PREVIEW_LENGTH + ")) FROM Alert a ";
+}
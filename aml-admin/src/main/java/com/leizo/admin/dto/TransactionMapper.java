@@ -1,5 +1,6 @@
 package com.leizo.admin.dto;
 
+import com.leizo.admin.util.DateTimeUtils;
 import com.leizo.pojo.entity.Transaction;
 import java.util.HashMap;
 import java.util.Map;
@@ -13,6 +14,8 @@ public class TransactionMapper {
         txn.setAmount(dto.getAmount());
         txn.setCurrency(dto.getCurrency());
         txn.setCountry(dto.getCountry());
+        // Event time drives partition routing; falls back to persist time when absent
+        txn.setTimestamp(DateTimeUtils.parseTimestamp(dto.getTimestamp()));
         // Store additional fields in metadata
         Map<String, String> metadata = new HashMap<>();
         metadata.put("transactionId", dto.getTransactionId());
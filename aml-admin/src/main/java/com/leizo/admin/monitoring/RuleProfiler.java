@@ -0,0 +1,197 @@
+package com.leizo.admin.monitoring;
+
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-rule execution profile
+ *
+ * Counts invocations, matches and exceptions of every rule predicate in striped
+ * {@link LongAdder}s and times one in {@code aml.rules.profiler.sample-every} invocations with
+ * {@link System#nanoTime()}, so the hot path pays two adder increments and a random draw. The
+ * counts and sampled timings are published to Micrometer tagged with the rule description
+ * ({@code aml.rule.evaluations}, {@code aml.rule.evaluation.matches},
+ * {@code aml.rule.evaluation.errors}, {@code aml.rule.evaluation.time}) and summarised by
+ * {@link #getProfile()}. The names stay clear of the untagged {@code aml.rule.matches} counter
+ * of {@link TransactionMetrics}, since Prometheus requires one tag set per meter name.
+ */
+@Component
+public class RuleProfiler {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RuleStats> stats = new ConcurrentHashMap<>();
+
+    @Value("${aml.rules.profiler.sample-every:64}")
+    private int sampleEvery = 64;
+
+    @Autowired
+    public RuleProfiler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates a profiler with an explicit sampling interval (for tests)
+     */
+    public RuleProfiler(MeterRegistry meterRegistry, int sampleEvery) {
+        this.meterRegistry = meterRegistry;
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Evaluates a rule and records the outcome; exceptions are counted and rethrown
+     */
+    public boolean evaluate(Rule rule, Transaction transaction, BigDecimal normalizedAmount) {
+        RuleStats ruleStats = statsFor(rule.getDescription());
+        ruleStats.invocations.increment();
+        boolean sampled = sampleEvery <= 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+        long start = sampled ? System.nanoTime() : 0;
+        try {
+            boolean matched = rule.appliesTo(transaction, normalizedAmount);
+            if (matched) {
+                ruleStats.matches.increment();
+            }
+            return matched;
+        } catch (RuntimeException e) {
+            ruleStats.errors.increment();
+            throw e;
+        } finally {
+            if (sampled) {
+                ruleStats.recordSample(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Drops the statistics and meters of rules that are no longer active
+     */
+    public void retain(Collection<Rule> activeRules) {
+        Set<String> active = new HashSet<>();
+        activeRules.forEach(rule -> active.add(rule.getDescription()));
+        stats.entrySet().removeIf(entry -> {
+            if (active.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().meters.forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    /**
+     * Rules ordered by estimated total evaluation time, most expensive first
+     */
+    public List<Map<String, Object>> getProfile() {
+        List<Map<String, Object>> profile = new ArrayList<>();
+        stats.forEach((description, ruleStats) -> profile.add(ruleStats.describe(description)));
+        profile.sort(Comparator.comparingDouble((Map<String, Object> entry) -> (double) entry.get("estimatedTotalMs")).reversed());
+        return profile;
+    }
+
+    public Map<String, Object> getSummary() {
+        long invocations = 0, matches = 0, errors = 0;
+        List<String> neverMatched = new ArrayList<>();
+        for (Map.Entry<String, RuleStats> entry : stats.entrySet()) {
+            RuleStats ruleStats = entry.getValue();
+            long ruleInvocations = ruleStats.invocations.sum();
+            long ruleMatches = ruleStats.matches.sum();
+            invocations += ruleInvocations;
+            matches += ruleMatches;
+            errors += ruleStats.errors.sum();
+            if (ruleInvocations > 0 && ruleMatches == 0) {
+                neverMatched.add(entry.getKey());
+            }
+        }
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("rulesProfiled", stats.size());
+        summary.put("invocations", invocations);
+        summary.put("matches", matches);
+        summary.put("errors", errors);
+        summary.put("neverMatched", neverMatched);
+        summary.put("sampleEvery", sampleEvery);
+        return summary;
+    }
+
+    private RuleStats statsFor(String description) {
+        RuleStats ruleStats = stats.get(description);
+        return ruleStats != null ? ruleStats : stats.computeIfAbsent(description, this::register);
+    }
+
+    private RuleStats register(String description) {
+        RuleStats ruleStats = new RuleStats();
+        ruleStats.meters.add(FunctionCounter.builder("aml.rule.evaluations", ruleStats.invocations, LongAdder::sum)
+            .description("Rule predicate evaluations")
+            .tag("rule", description)
+            .register(meterRegistry));
+        ruleStats.meters.add(FunctionCounter.builder("aml.rule.evaluation.matches", ruleStats.matches, LongAdder::sum)
+            .description("Rule predicate matches")
+            .tag("rule", description)
+            .register(meterRegistry));
+        ruleStats.meters.add(FunctionCounter.builder("aml.rule.evaluation.errors", ruleStats.errors, LongAdder::sum)
+            .description("Rule predicate exceptions")
+            .tag("rule", description)
+            .register(meterRegistry));
+        ruleStats.timer = Timer.builder("aml.rule.evaluation.time")
+            .description("Sampled rule predicate evaluation time")
+            .tag("rule", description)
+            .register(meterRegistry);
+        ruleStats.meters.add(ruleStats.timer);
+        return ruleStats;
+    }
+
+    private static final class RuleStats {
+        final LongAdder invocations = new LongAdder();
+        final LongAdder matches = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder samples = new LongAdder();
+        final LongAdder sampledNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final List<Meter> meters = new ArrayList<>();
+        Timer timer;
+
+        void recordSample(long nanos) {
+            samples.increment();
+            sampledNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        Map<String, Object> describe(String description) {
+            long invocationCount = invocations.sum();
+            long matchCount = matches.sum();
+            long sampleCount = samples.sum();
+            double averageNanos = sampleCount > 0 ? (double) sampledNanos.sum() / sampleCount : 0;
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("rule", description);
+            entry.put("invocations", invocationCount);
+            entry.put("matches", matchCount);
+            entry.put("errors", errors.sum());
+            entry.put("matchRate", invocationCount > 0 ? (double) matchCount / invocationCount : 0.0);
+            entry.put("samples", sampleCount);
+            entry.put("averageNanos", averageNanos);
+            entry.put("maxSampledNanos", maxNanos.get());
+            entry.put("estimatedTotalMs", averageNanos * invocationCount / 1_000_000.0);
+            return entry;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.leizo.admin.repository;
 
+import com.leizo.admin.dto.AlertSummary;
 import com.leizo.pojo.entity.Alert;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +33,29 @@ public interface AlertRepository extends JpaRepository<Alert, Integer> {
     // Find alerts by alert type with pagination
     Page<Alert> findByAlertTypeContainingIgnoreCase(String alertType, Pageable pageable);
 
+    // Time-bounded variants - constrain the partition key so only matching partitions are scanned
+    Page<Alert> findByTimestampBetween(LocalDateTime startTimestamp, LocalDateTime endTimestamp, Pageable pageable);
+
+    Page<Alert> findByAlertTypeContainingIgnoreCaseAndTimestampBetween(String alertType, LocalDateTime startTimestamp,
+                                                                       LocalDateTime endTimestamp, Pageable pageable);
+
+    Page<Alert> findByPriorityLevelContainingIgnoreCaseAndTimestampBetween(String priorityLevel, LocalDateTime startTimestamp,
+                                                                           LocalDateTime endTimestamp, Pageable pageable);
+
+    // List-view projections: only the summary columns are selected, with the TEXT reason cut to a preview.
+    // Empty filter strings match every alert, including ones without a type or priority
+    String SUMMARY_FILTER = "WHERE (:alertType = '' OR LOWER(a.alertType) LIKE LOWER(CONCAT('%', :alertType, '%'))) " +
+                            "AND (:priorityLevel = '' OR LOWER(a.priorityLevel) LIKE LOWER(CONCAT('%', :priorityLevel, '%'))) " +
+                            "AND a.timestamp BETWEEN :startTimestamp AND :endTimestamp";
+
+    @Query(value = AlertSummary.SELECT + SUMMARY_FILTER,
+           countQuery = "SELECT COUNT(a) FROM Alert a " + SUMMARY_FILTER)
+    Page<AlertSummary> findSummaries(@Param("alertType") String alertType,
+                                     @Param("priorityLevel") String priorityLevel,
+                                     @Param("startTimestamp") LocalDateTime startTimestamp,
+                                     @Param("endTimestamp") LocalDateTime endTimestamp,
+                                     Pageable pageable);
+
     // Find alerts by priority level - removed due to missing ruleId field
     // List<Alert> findByRuleId(String ruleId);
 
@@ -71,6 +95,19 @@ public interface AlertRepository extends JpaRepository<Alert, Integer> {
     @Query("SELECT a FROM Alert a WHERE LOWER(a.reason) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Alert> findByReasonContaining(@Param("keyword") String keyword);
 
+    // Ranked full-text search over reason, matched entity name and match reason (GIN index on search_vector)
+    @Query(value = "SELECT a.* FROM alerts a, websearch_to_tsquery('english', :query) q " +
+                   "WHERE a.search_vector @@ q AND a.timestamp BETWEEN :startTimestamp AND :endTimestamp " +
+                   "ORDER BY ts_rank_cd(a.search_vector, q) DESC, a.timestamp DESC, a.id DESC",
+           countQuery = "SELECT COUNT(*) FROM alerts a " +
+                        "WHERE a.search_vector @@ websearch_to_tsquery('english', :query) " +
+                        "AND a.timestamp BETWEEN :startTimestamp AND :endTimestamp",
+           nativeQuery = true)
+    Page<Alert> searchAlerts(@Param("query") String query,
+                             @Param("startTimestamp") LocalDateTime startTimestamp,
+                             @Param("endTimestamp") LocalDateTime endTimestamp,
+                             Pageable pageable);
+
     // Find alerts by timestamp range - fixed to use LocalDateTime
     @Query("SELECT a FROM Alert a WHERE a.timestamp BETWEEN :startTimestamp AND :endTimestamp")
     List<Alert> findByTimestampRange(@Param("startTimestamp") LocalDateTime startTimestamp,
@@ -1,16 +1,20 @@
 package com.leizo.admin.repository;
 
 import com.leizo.pojo.entity.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Integer> {
+public interface TransactionRepository extends JpaRepository<Transaction, Integer>, JpaSpecificationExecutor<Transaction> {
 
     // Find transactions by sender
     List<Transaction> findBySender(String sender);
@@ -41,10 +45,13 @@ public interface TransactionRepository extends JpaRepository<Transaction, Intege
     @Query("SELECT t FROM Transaction t WHERE t.amount > 10000")
     List<Transaction> findHighValueTransactions();
 
-    // Find transactions by date range - removed due to missing createdAt field
-    // @Query("SELECT t FROM Transaction t WHERE t.createdAt BETWEEN :startDate AND :endDate")
-    // List<Transaction> findByDateRange(@Param("startDate") java.time.LocalDateTime startDate, 
-    //                                  @Param("endDate") java.time.LocalDateTime endDate);
+    // Find transactions by timestamp range - bounded on the partition key so only matching partitions are scanned
+    @Query("SELECT t FROM Transaction t WHERE t.timestamp BETWEEN :startTimestamp AND :endTimestamp")
+    List<Transaction> findByTimestampRange(@Param("startTimestamp") LocalDateTime startTimestamp,
+                                           @Param("endTimestamp") LocalDateTime endTimestamp);
+
+    // Find transactions by timestamp range with pagination
+    Page<Transaction> findByTimestampBetween(LocalDateTime startTimestamp, LocalDateTime endTimestamp, Pageable pageable);
 
     // Count transactions by country
     @Query("SELECT t.country, COUNT(t) FROM Transaction t GROUP BY t.country")
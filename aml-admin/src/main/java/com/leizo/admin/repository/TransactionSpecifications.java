@@ -0,0 +1,68 @@
+package com.leizo.admin.repository;
+
+import com.leizo.enums.RiskScore;
+import com.leizo.pojo.entity.Transaction;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Specifications for filtering transactions in the database instead of in memory
+ *
+ * Each factory returns null when its filter is not provided, so they can be combined
+ * with {@link Specification#allOf(Specification[])} without null checks.
+ */
+public class TransactionSpecifications {
+
+    // Filter by risk score (the transaction list's "status" filter); unknown values match nothing
+    public static Specification<Transaction> hasRiskScore(String riskScore) {
+        if (riskScore == null || riskScore.isBlank()) {
+            return null;
+        }
+        RiskScore parsed;
+        try {
+            parsed = RiskScore.valueOf(riskScore.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return (root, query, cb) -> cb.disjunction();
+        }
+        return (root, query, cb) -> cb.equal(root.get("riskScore"), parsed);
+    }
+
+    // Filter by currency code
+    public static Specification<Transaction> hasCurrency(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return null;
+        }
+        String normalized = currency.trim().toUpperCase();
+        return (root, query, cb) -> cb.equal(root.get("currency"), normalized);
+    }
+
+    // Lower timestamp bound (inclusive) - constrains the partition key
+    public static Specification<Transaction> timestampFrom(LocalDateTime from) {
+        if (from == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("timestamp"), from);
+    }
+
+    // Upper timestamp bound (inclusive) - constrains the partition key
+    public static Specification<Transaction> timestampTo(LocalDateTime to) {
+        if (to == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("timestamp"), to);
+    }
+
+    /**
+     * Seek predicate for keyset pagination in (timestamp DESC, id DESC) order:
+     * rows strictly after the last row of the previous page
+     */
+    public static Specification<Transaction> seekAfter(LocalDateTime timestamp, Integer id) {
+        if (timestamp == null || id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("timestamp"), timestamp),
+                cb.and(cb.equal(root.get("timestamp"), timestamp), cb.lessThan(root.get("id"), id)));
+    }
+}
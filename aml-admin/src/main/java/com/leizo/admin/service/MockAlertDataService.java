@@ -2,6 +2,7 @@ package com.leizo.admin.service;
 
 import com.leizo.pojo.entity.Alert;
 import com.leizo.admin.repository.AlertRepository;
+import com.leizo.admin.service.analytics.DashboardAggregates;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
@@ -20,6 +21,9 @@ public class MockAlertDataService {
     
     @Autowired
     private AlertRepository alertRepository;
+
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
     
     private final Random random = new Random();
     
@@ -115,7 +119,7 @@ public class MockAlertDataService {
                 baseTime = baseTime.plusMinutes(random.nextInt(180) + 30); // 30-210 minutes
             }
             
-            alertRepository.saveAll(alerts);
+            alertRepository.saveAll(alerts).forEach(dashboardAggregates::recordAlert);
             logger.info("Successfully populated {} mock alerts", alerts.size());
             
         } catch (Exception e) {
@@ -169,6 +173,7 @@ public class MockAlertDataService {
         try {
             long count = alertRepository.count();
             alertRepository.deleteAll();
+            dashboardAggregates.recordAlertsCleared();
             logger.info("Cleared {} alerts from database", count);
         } catch (Exception e) {
             logger.error("Failed to clear alerts: {}", e.getMessage(), e);
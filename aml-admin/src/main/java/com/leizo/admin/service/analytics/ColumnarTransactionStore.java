@@ -0,0 +1,708 @@
+package com.leizo.admin.service.analytics;
+
+import com.leizo.admin.service.backtest.JdbcTransactionChunkSource;
+import com.leizo.enums.RiskScore;
+import com.leizo.pojo.entity.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Columnar Transaction Store
+ *
+ * Keeps recent transactions in memory column by column for the analytics endpoints, so
+ * distributions, group-bys and top-N lists are computed from primitive arrays instead of
+ * loading entities. Sender, country and currency are dictionary-encoded to int codes, amounts
+ * are stored as long minor units, timestamps as epoch milliseconds (UTC) and risk scores are
+ * packed two bits per row.
+ *
+ * Rows live in fixed-size segments. Appends take the store lock and publish a row by bumping
+ * the segment's volatile size, so queries run without locking and see every row published
+ * before they reached its segment. Each segment keeps its time range, letting queries skip
+ * segments outside the filter. Whole segments are dropped once the store exceeds
+ * {@code aml.analytics.columnar.capacity} rows or they fall out of the retention window.
+ * Queries filter a segment one column at a time over a selection vector, then aggregate the
+ * surviving rows by dictionary code.
+ *
+ * Dictionaries keep every value seen since the last {@link #reload()}.
+ */
+@Service
+public class ColumnarTransactionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarTransactionStore.class);
+    private static final long DAY_MS = 86_400_000L;
+    private static final int RELOAD_CHUNK_SIZE = 5000;
+    private static final int AMOUNT_SCALE = 2;
+    private static final int RISK_BITS = 2;
+    private static final int RISK_PER_WORD = Long.SIZE / RISK_BITS;
+    private static final RiskScore[] RISK_SCORES = RiskScore.values();
+
+    /**
+     * Columns a query can group by
+     */
+    public enum Dimension {
+        SENDER, COUNTRY, CURRENCY, RISK_SCORE, DAY
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dictionary senders = new Dictionary();
+    private final Dictionary countries = new Dictionary();
+    private final Dictionary currencies = new Dictionary();
+    private volatile Segment[] segments = new Segment[0];
+    private volatile long rows;
+    private ExecutorService warmup;
+
+    private final AtomicLong appended = new AtomicLong(0);
+    private final AtomicLong evicted = new AtomicLong(0);
+    private final AtomicLong skipped = new AtomicLong(0);
+    private final AtomicLong queries = new AtomicLong(0);
+    private volatile String warmupState = "NOT_STARTED";
+
+    @Value("${aml.analytics.columnar.capacity:1000000}")
+    private long capacity = 1_000_000;
+
+    @Value("${aml.analytics.columnar.segment-rows:65536}")
+    private int segmentRows = 65_536;
+
+    @Value("${aml.analytics.columnar.retention-days:30}")
+    private int retentionDays = 30;
+
+    @Autowired
+    public ColumnarTransactionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates an empty store without database warm-up (for tests)
+     */
+    public ColumnarTransactionStore(long capacity, int segmentRows, int retentionDays) {
+        this.jdbcTemplate = null;
+        this.capacity = capacity;
+        this.segmentRows = segmentRows;
+        this.retentionDays = retentionDays;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        warmup = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "columnar-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        warmup.execute(this::reloadSafely);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (warmup != null) {
+            warmup.shutdownNow();
+        }
+    }
+
+    /**
+     * Appends a stored transaction; transactions without an amount are ignored
+     */
+    public synchronized void append(Transaction transaction) {
+        if (transaction == null || transaction.getAmount() == null) {
+            skipped.incrementAndGet();
+            return;
+        }
+        Segment tail = segments.length > 0 ? segments[segments.length - 1] : null;
+        if (tail == null || tail.size == tail.capacity) {
+            tail = roll();
+        }
+        int row = tail.size;
+        long time = transaction.getTimestamp() != null
+                ? transaction.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : System.currentTimeMillis();
+        tail.ids[row] = transaction.getId() != null ? transaction.getId() : 0;
+        tail.senders[row] = senders.encode(transaction.getSender());
+        tail.countries[row] = countries.encode(transaction.getCountry());
+        tail.currencies[row] = currencies.encode(transaction.getCurrency());
+        tail.amounts[row] = toMinorUnits(transaction.getAmount());
+        tail.times[row] = time;
+        if (transaction.getRiskScore() != null) {
+            tail.risks[row / RISK_PER_WORD] |= (long) (transaction.getRiskScore().ordinal() + 1) << (row % RISK_PER_WORD * RISK_BITS);
+        }
+        tail.minTime = Math.min(tail.minTime, time);
+        tail.maxTime = Math.max(tail.maxTime, time);
+        // Publishes the row to queries
+        tail.size = row + 1;
+        rows++;
+        appended.incrementAndGet();
+    }
+
+    /**
+     * Replaces the contents with the transactions of the retention window read from the database
+     *
+     * @return number of rows loaded
+     */
+    public long reload() {
+        LocalDateTime started = LocalDateTime.now(ZoneOffset.UTC);
+        Segment markSegment;
+        int markRow;
+        synchronized (this) {
+            markSegment = segments.length > 0 ? segments[segments.length - 1] : null;
+            markRow = markSegment != null ? markSegment.size : 0;
+        }
+        ColumnarTransactionStore fresh = new ColumnarTransactionStore(capacity, segmentRows, retentionDays);
+        JdbcTransactionChunkSource source = new JdbcTransactionChunkSource(jdbcTemplate,
+                started.minusDays(retentionDays), null, RELOAD_CHUNK_SIZE, false);
+        long loaded = 0;
+        int maxLoadedId = 0;
+        List<Transaction> chunk;
+        while (!(chunk = source.nextChunk()).isEmpty()) {
+            for (Transaction txn : chunk) {
+                fresh.append(txn);
+                maxLoadedId = Math.max(maxLoadedId, txn.getId());
+            }
+            loaded += chunk.size();
+        }
+        synchronized (this) {
+            // Carry over rows appended while loading, i.e. those after the mark, unless the
+            // scan already read them (ids are assigned in insert order)
+            Segment[] current = segments;
+            int first = Arrays.asList(current).indexOf(markSegment);
+            for (int index = Math.max(first, 0); index < current.length; index++) {
+                Segment segment = current[index];
+                for (int row = index == first ? markRow : 0; row < segment.size; row++) {
+                    if (segment.ids[row] == 0 || segment.ids[row] > maxLoadedId) {
+                        fresh.append(segment.toTransaction(row, this));
+                    }
+                }
+            }
+            senders.replaceWith(fresh.senders);
+            countries.replaceWith(fresh.countries);
+            currencies.replaceWith(fresh.currencies);
+            segments = fresh.segments;
+            rows = fresh.rows;
+        }
+        logger.info("Columnar store loaded {} transactions of the last {} days", loaded, retentionDays);
+        return loaded;
+    }
+
+    /**
+     * Counts and amount totals of the matching rows grouped by a dimension
+     *
+     * @param dimension column to group by
+     * @param filter    rows to include
+     * @param limit     largest groups to return by count (days are returned in order, all of them)
+     * @return one entry per group with key, count and amount
+     */
+    public List<Map<String, Object>> groupBy(Dimension dimension, Filter filter, int limit) {
+        queries.incrementAndGet();
+        if (dimension == Dimension.DAY) {
+            return groupByDay(filter);
+        }
+        GroupAccumulator accumulator = new GroupAccumulator(dimension == Dimension.RISK_SCORE ? RISK_SCORES.length : 64);
+        scan(filter, (segment, selection, count) -> {
+            if (dimension == Dimension.RISK_SCORE) {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    accumulator.add(segment.risk(row) - 1, segment.amounts[row]);
+                }
+            } else {
+                int[] codes = codesOf(segment, dimension);
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    accumulator.add(codes[row], segment.amounts[row]);
+                }
+            }
+        });
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int code : accumulator.top(limit)) {
+            String key = dimension == Dimension.RISK_SCORE ? RISK_SCORES[code].name() : dictionaryOf(dimension).decode(code);
+            result.add(group(key, accumulator.counts[code], accumulator.sums[code]));
+        }
+        return result;
+    }
+
+    /**
+     * Row counts per group, for distribution charts
+     */
+    public Map<String, Long> countBy(Dimension dimension, Filter filter) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map<String, Object> group : groupBy(dimension, filter, Integer.MAX_VALUE)) {
+            counts.put((String) group.get("key"), (Long) group.get("count"));
+        }
+        return counts;
+    }
+
+    /**
+     * The largest matching transactions by amount
+     *
+     * @param limit number of transactions to return
+     * @param filter rows to include
+     * @return transactions in descending amount order
+     */
+    public List<Map<String, Object>> largest(int limit, Filter filter) {
+        queries.incrementAndGet();
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Min-heap of (amount, segment, row); only rows beating the current minimum are offered
+        PriorityQueue<Object[]> heap = new PriorityQueue<>(limit, (a, b) -> Long.compare((long) a[0], (long) b[0]));
+        scan(filter, (segment, selection, count) -> {
+            long[] amounts = segment.amounts;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                long amount = amounts[row];
+                if (heap.size() < limit) {
+                    heap.add(new Object[]{amount, segment, row});
+                } else if (amount > (long) heap.peek()[0]) {
+                    heap.poll();
+                    heap.add(new Object[]{amount, segment, row});
+                }
+            }
+        });
+        List<Map<String, Object>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Object[] entry = heap.poll();
+            result.add(((Segment) entry[1]).describe((int) entry[2], this));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Segment[] snapshot = segments;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("rows", rows);
+        stats.put("segments", snapshot.length);
+        stats.put("capacity", capacity);
+        stats.put("retentionDays", retentionDays);
+        stats.put("appended", appended.get());
+        stats.put("evicted", evicted.get());
+        stats.put("skipped", skipped.get());
+        stats.put("queries", queries.get());
+        stats.put("warmup", warmupState);
+        stats.put("distinctSenders", senders.size());
+        stats.put("distinctCountries", countries.size());
+        stats.put("distinctCurrencies", currencies.size());
+        long bytes = 0;
+        for (Segment segment : snapshot) {
+            bytes += segment.bytes();
+        }
+        stats.put("columnBytes", bytes);
+        if (snapshot.length > 0) {
+            stats.put("oldest", Instant.ofEpochMilli(snapshot[0].minTime).toString());
+            stats.put("newest", Instant.ofEpochMilli(snapshot[snapshot.length - 1].maxTime).toString());
+        }
+        return stats;
+    }
+
+    public long size() {
+        return rows;
+    }
+
+    private void reloadSafely() {
+        warmupState = "RUNNING";
+        try {
+            reload();
+            warmupState = "COMPLETED";
+        } catch (Exception e) {
+            warmupState = "FAILED: " + e.getMessage();
+            logger.warn("Columnar store warm-up failed, serving live appends only: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a new tail segment and drops segments beyond capacity or retention
+     */
+    private Segment roll() {
+        Segment segment = new Segment(segmentRows);
+        List<Segment> kept = new ArrayList<>(Arrays.asList(segments));
+        kept.add(segment);
+        long cutoff = retentionDays > 0 ? System.currentTimeMillis() - retentionDays * DAY_MS : Long.MIN_VALUE;
+        long total = rows;
+        while (kept.size() > 1 && (total > capacity - segmentRows || kept.get(0).maxTime < cutoff)) {
+            Segment dropped = kept.remove(0);
+            total -= dropped.size;
+            evicted.addAndGet(dropped.size);
+        }
+        rows = total;
+        segments = kept.toArray(new Segment[0]);
+        return segment;
+    }
+
+    private interface SelectionConsumer {
+        void accept(Segment segment, int[] selection, int count);
+    }
+
+    /**
+     * Applies the filter to every segment column by column and hands over the surviving rows
+     */
+    private void scan(Filter filter, SelectionConsumer consumer) {
+        int sender = filter.sender != null ? senders.lookup(filter.sender) : -1;
+        int country = filter.country != null ? countries.lookup(filter.country) : -1;
+        int currency = filter.currency != null ? currencies.lookup(filter.currency) : -1;
+        if ((filter.sender != null && sender < 0) || (filter.country != null && country < 0)
+                || (filter.currency != null && currency < 0)) {
+            return;
+        }
+        int risk = filter.riskScore != null ? filter.riskScore.ordinal() + 1 : 0;
+        int[] selection = null;
+        for (Segment segment : segments) {
+            // Read the published size before any column
+            int size = segment.size;
+            if (size == 0 || segment.maxTime < filter.from || segment.minTime > filter.to) {
+                continue;
+            }
+            if (selection == null || selection.length < size) {
+                selection = new int[segment.capacity];
+            }
+            int count = 0;
+            if (filter.from == Long.MIN_VALUE && filter.to == Long.MAX_VALUE) {
+                for (int row = 0; row < size; row++) {
+                    selection[row] = row;
+                }
+                count = size;
+            } else {
+                long[] times = segment.times;
+                for (int row = 0; row < size; row++) {
+                    long time = times[row];
+                    if (time >= filter.from && time <= filter.to) {
+                        selection[count++] = row;
+                    }
+                }
+            }
+            if (sender >= 0) {
+                count = keepEqual(segment.senders, sender, selection, count);
+            }
+            if (country >= 0) {
+                count = keepEqual(segment.countries, country, selection, count);
+            }
+            if (currency >= 0) {
+                count = keepEqual(segment.currencies, currency, selection, count);
+            }
+            if (filter.minAmount != Long.MIN_VALUE || filter.maxAmount != Long.MAX_VALUE) {
+                long[] amounts = segment.amounts;
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    long amount = amounts[selection[i]];
+                    if (amount >= filter.minAmount && amount <= filter.maxAmount) {
+                        selection[kept++] = selection[i];
+                    }
+                }
+                count = kept;
+            }
+            if (risk > 0) {
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    if (segment.risk(selection[i]) == risk) {
+                        selection[kept++] = selection[i];
+                    }
+                }
+                count = kept;
+            }
+            if (count > 0) {
+                consumer.accept(segment, selection, count);
+            }
+        }
+    }
+
+    private static int keepEqual(int[] column, int code, int[] selection, int count) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (column[row] == code) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+
+    private List<Map<String, Object>> groupByDay(Filter filter) {
+        TreeMap<Long, long[]> days = new TreeMap<>();
+        scan(filter, (segment, selection, count) -> {
+            long currentDay = Long.MIN_VALUE;
+            long[] totals = null;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                long day = Math.floorDiv(segment.times[row], DAY_MS);
+                // Rows arrive mostly in time order, so consecutive rows usually share a day
+                if (day != currentDay) {
+                    currentDay = day;
+                    totals = days.computeIfAbsent(day, d -> new long[2]);
+                }
+                totals[0]++;
+                totals[1] += segment.amounts[row];
+            }
+        });
+        List<Map<String, Object>> result = new ArrayList<>(days.size());
+        days.forEach((day, totals) -> result.add(group(LocalDate.ofEpochDay(day).toString(), totals[0], totals[1])));
+        return result;
+    }
+
+    private static Map<String, Object> group(String key, long count, long minorUnits) {
+        Map<String, Object> group = new HashMap<>();
+        group.put("key", key);
+        group.put("count", count);
+        group.put("amount", BigDecimal.valueOf(minorUnits, AMOUNT_SCALE));
+        return group;
+    }
+
+    private static int[] codesOf(Segment segment, Dimension dimension) {
+        return switch (dimension) {
+            case SENDER -> segment.senders;
+            case COUNTRY -> segment.countries;
+            case CURRENCY -> segment.currencies;
+            default -> throw new IllegalArgumentException("Not a dictionary column: " + dimension);
+        };
+    }
+
+    private Dictionary dictionaryOf(Dimension dimension) {
+        return switch (dimension) {
+            case SENDER -> senders;
+            case COUNTRY -> countries;
+            case CURRENCY -> currencies;
+            default -> throw new IllegalArgumentException("Not a dictionary column: " + dimension);
+        };
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /**
+     * Row filter; unset criteria match everything
+     */
+    public static final class Filter {
+        private long from = Long.MIN_VALUE;
+        private long to = Long.MAX_VALUE;
+        private long minAmount = Long.MIN_VALUE;
+        private long maxAmount = Long.MAX_VALUE;
+        private String sender;
+        private String country;
+        private String currency;
+        private RiskScore riskScore;
+
+        public static Filter all() {
+            return new Filter();
+        }
+
+        // Inclusive timestamp bounds (UTC); null leaves a side open
+        public Filter between(LocalDateTime from, LocalDateTime to) {
+            this.from = from != null ? from.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE;
+            this.to = to != null ? to.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MAX_VALUE;
+            return this;
+        }
+
+        // Inclusive amount bounds; null leaves a side open
+        public Filter amountBetween(BigDecimal min, BigDecimal max) {
+            this.minAmount = min != null ? toMinorUnits(min) : Long.MIN_VALUE;
+            this.maxAmount = max != null ? toMinorUnits(max) : Long.MAX_VALUE;
+            return this;
+        }
+
+        public Filter sender(String sender) {
+            this.sender = blankToNull(sender);
+            return this;
+        }
+
+        public Filter country(String country) {
+            this.country = blankToNull(country);
+            return this;
+        }
+
+        public Filter currency(String currency) {
+            this.currency = blankToNull(currency);
+            return this;
+        }
+
+        public Filter riskScore(RiskScore riskScore) {
+            this.riskScore = riskScore;
+            return this;
+        }
+
+        private static String blankToNull(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    /**
+     * Dense value-to-code mapping; codes index the group-by arrays directly
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[256];
+        private volatile int size;
+
+        // Called under the store lock only
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = size;
+            String[] current = values;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, next * 2);
+            }
+            current[next] = value;
+            values = current;
+            size = next + 1;
+            codes.put(value, next);
+            return next;
+        }
+
+        int lookup(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : -1;
+        }
+
+        String decode(int code) {
+            return code >= 0 ? values[code] : null;
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Called under the store lock only
+        void replaceWith(Dictionary other) {
+            codes.clear();
+            codes.putAll(other.codes);
+            values = other.values;
+            size = other.size;
+        }
+    }
+
+    /**
+     * Fixed-capacity block of rows, one primitive array per column
+     */
+    private static final class Segment {
+        final int capacity;
+        final int[] ids;
+        final int[] senders;
+        final int[] countries;
+        final int[] currencies;
+        final long[] amounts;
+        final long[] times;
+        final long[] risks;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        volatile int size;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            ids = new int[capacity];
+            senders = new int[capacity];
+            countries = new int[capacity];
+            currencies = new int[capacity];
+            amounts = new long[capacity];
+            times = new long[capacity];
+            risks = new long[(capacity + RISK_PER_WORD - 1) / RISK_PER_WORD];
+        }
+
+        // 0 when the row has no risk score, otherwise ordinal + 1
+        int risk(int row) {
+            return (int) (risks[row / RISK_PER_WORD] >>> (row % RISK_PER_WORD * RISK_BITS)) & ((1 << RISK_BITS) - 1);
+        }
+
+        long bytes() {
+            return (long) capacity * (Integer.BYTES * 4 + Long.BYTES * 2) + (long) risks.length * Long.BYTES;
+        }
+
+        Map<String, Object> describe(int row, ColumnarTransactionStore store) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("id", ids[row] != 0 ? ids[row] : null);
+            entry.put("sender", store.senders.decode(senders[row]));
+            entry.put("country", store.countries.decode(countries[row]));
+            entry.put("currency", store.currencies.decode(currencies[row]));
+            entry.put("amount", BigDecimal.valueOf(amounts[row], AMOUNT_SCALE));
+            entry.put("timestamp", Instant.ofEpochMilli(times[row]).toString());
+            int risk = risk(row);
+            entry.put("riskScore", risk > 0 ? RISK_SCORES[risk - 1].name() : null);
+            return entry;
+        }
+
+        Transaction toTransaction(int row, ColumnarTransactionStore store) {
+            Transaction txn = new Transaction(store.senders.decode(senders[row]), null,
+                    BigDecimal.valueOf(amounts[row], AMOUNT_SCALE), store.currencies.decode(currencies[row]),
+                    store.countries.decode(countries[row]), null);
+            txn.setId(ids[row] != 0 ? ids[row] : null);
+            txn.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(times[row]), ZoneOffset.UTC));
+            int risk = risk(row);
+            txn.setRiskScore(risk > 0 ? RISK_SCORES[risk - 1] : null);
+            return txn;
+        }
+    }
+
+    /**
+     * Per-code counts and amount sums, growing with the dictionary
+     */
+    private static final class GroupAccumulator {
+        long[] counts;
+        long[] sums;
+
+        GroupAccumulator(int initialSize) {
+            counts = new long[initialSize];
+            sums = new long[initialSize];
+        }
+
+        void add(int code, long amount) {
+            if (code < 0) {
+                return;
+            }
+            if (code >= counts.length) {
+                int length = Math.max(code + 1, counts.length * 2);
+                counts = Arrays.copyOf(counts, length);
+                sums = Arrays.copyOf(sums, length);
+            }
+            counts[code]++;
+            sums[code] += amount;
+        }
+
+        // Codes of the largest groups by count, largest first
+        int[] top(int limit) {
+            PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> Long.compare(counts[a], counts[b]));
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] == 0) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    heap.add(code);
+                } else if (counts[code] > counts[heap.peek()]) {
+                    heap.poll();
+                    heap.add(code);
+                }
+            }
+            int[] codes = new int[heap.size()];
+            for (int i = codes.length - 1; i >= 0; i--) {
+                codes[i] = heap.poll();
+            }
+            return codes;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.leizo.admin.service.analytics;
+
+import com.leizo.pojo.entity.Alert;
+import com.leizo.pojo.entity.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Dashboard Aggregates
+ *
+ * Incrementally maintained counts behind the dashboards: table totals, alerts by priority
+ * level and type, transactions by country and currency, and hourly histograms of both. Alert
+ * and transaction writes update them as they happen, so a dashboard refresh reads memory
+ * instead of running COUNT and GROUP BY queries, and database load does not grow with the
+ * number of analysts watching.
+ *
+ * Every {@code aml.dashboard.reconcile-interval-minutes} the counts are rebuilt from the
+ * database to absorb writes made outside this instance. Writes recorded while the rebuild
+ * runs are replayed on top of it, so none are lost; a write that lands while the reconcile
+ * queries run may be counted twice until the next pass. User counts change rarely and are
+ * only refreshed by reconciliation.
+ */
+@Service
+public class DashboardAggregates {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardAggregates.class);
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final JdbcTemplate jdbcTemplate;
+    private ScheduledExecutorService scheduler;
+
+    // Writers share the read lock; reconciliation takes the write lock only to swap counts
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Counts counts = new Counts();
+    private Counts inFlight;
+
+    private final AtomicLong reconciles = new AtomicLong(0);
+    private final AtomicLong reconcileFailures = new AtomicLong(0);
+    private volatile LocalDateTime lastReconciled;
+
+    @Value("${aml.dashboard.reconcile-interval-minutes:15}")
+    private long reconcileIntervalMinutes = 15;
+
+    @Value("${aml.dashboard.histogram-hours:48}")
+    private int histogramHours = 48;
+
+    @Autowired
+    public DashboardAggregates(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates aggregates that are never reconciled (for tests)
+     */
+    public DashboardAggregates(int histogramHours) {
+        this.jdbcTemplate = null;
+        this.histogramHours = histogramHours;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dashboard-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcileSafely, 0, reconcileIntervalMinutes * 60, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts a stored transaction
+     */
+    public void recordTransaction(Transaction transaction) {
+        if (transaction == null) {
+            return;
+        }
+        long hour = epochHour(transaction.getTimestamp());
+        record(c -> {
+            c.transactions.increment();
+            increment(c.transactionsByCountry, transaction.getCountry(), 1);
+            increment(c.transactionsByCurrency, transaction.getCurrency(), 1);
+            c.transactionsByHour.computeIfAbsent(hour, h -> new LongAdder()).increment();
+        });
+    }
+
+    /**
+     * Counts a newly stored alert
+     */
+    public void recordAlert(Alert alert) {
+        if (alert == null) {
+            return;
+        }
+        long hour = epochHour(alert.getTimestamp());
+        record(c -> {
+            c.alerts.increment();
+            increment(c.alertsByPriority, alert.getPriorityLevel(), 1);
+            increment(c.alertsByType, alert.getAlertType(), 1);
+            c.alertsByHour.computeIfAbsent(hour, h -> new LongAdder()).increment();
+        });
+    }
+
+    /**
+     * Moves an existing alert between priority levels
+     */
+    public void recordAlertPriorityChange(String from, String to) {
+        record(c -> {
+            increment(c.alertsByPriority, from, -1);
+            increment(c.alertsByPriority, to, 1);
+        });
+    }
+
+    /**
+     * Resets alert counts after the alerts table was emptied
+     */
+    public void recordAlertsCleared() {
+        lock.writeLock().lock();
+        try {
+            counts.clearAlerts();
+            if (inFlight != null) {
+                inFlight.clearAlerts();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getUserCount() {
+        return counts.users.sum();
+    }
+
+    public long getTransactionCount() {
+        return counts.transactions.sum();
+    }
+
+    public long getAlertCount() {
+        return counts.alerts.sum();
+    }
+
+    /**
+     * Everything a dashboard shows, read from memory
+     */
+    public Map<String, Object> getSnapshot() {
+        Counts current = counts;
+        long oldestHour = currentHour() - histogramHours + 1;
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("users", current.users.sum());
+        snapshot.put("transactions", current.transactions.sum());
+        snapshot.put("alerts", current.alerts.sum());
+        snapshot.put("alertsByPriority", sums(current.alertsByPriority));
+        snapshot.put("alertsByType", sums(current.alertsByType));
+        snapshot.put("transactionsByCountry", sums(current.transactionsByCountry));
+        snapshot.put("transactionsByCurrency", sums(current.transactionsByCurrency));
+        snapshot.put("transactionsByHour", histogram(current.transactionsByHour, oldestHour));
+        snapshot.put("alertsByHour", histogram(current.alertsByHour, oldestHour));
+        snapshot.put("lastReconciled", lastReconciled != null ? lastReconciled.toString() : null);
+        return snapshot;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("reconcileIntervalMinutes", reconcileIntervalMinutes);
+        stats.put("histogramHours", histogramHours);
+        stats.put("reconciles", reconciles.get());
+        stats.put("reconcileFailures", reconcileFailures.get());
+        stats.put("lastReconciled", lastReconciled != null ? lastReconciled.toString() : null);
+        return stats;
+    }
+
+    /**
+     * Rebuilds the counts from the database, keeping writes recorded meanwhile
+     */
+    public void reconcile() {
+        lock.writeLock().lock();
+        try {
+            inFlight = new Counts();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Counts fresh = new Counts();
+        try {
+            LocalDateTime since = LocalDateTime.now().minusHours(histogramHours);
+            fresh.users.add(count("SELECT COUNT(*) FROM users"));
+            fresh.transactions.add(count("SELECT COUNT(*) FROM transactions"));
+            fresh.alerts.add(count("SELECT COUNT(*) FROM alerts"));
+            loadGroups(fresh.alertsByPriority, "SELECT priority_level, COUNT(*) FROM alerts GROUP BY priority_level");
+            loadGroups(fresh.alertsByType, "SELECT alert_type, COUNT(*) FROM alerts GROUP BY alert_type");
+            loadGroups(fresh.transactionsByCountry, "SELECT country, COUNT(*) FROM transactions GROUP BY country");
+            loadGroups(fresh.transactionsByCurrency, "SELECT currency, COUNT(*) FROM transactions GROUP BY currency");
+            loadHistogram(fresh.transactionsByHour, "transactions", since);
+            loadHistogram(fresh.alertsByHour, "alerts", since);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                inFlight = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            fresh.merge(inFlight);
+            fresh.pruneHours(currentHour() - histogramHours);
+            counts = fresh;
+            inFlight = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastReconciled = LocalDateTime.now();
+        reconciles.incrementAndGet();
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+            logger.debug("Dashboard aggregates reconciled: {} transactions, {} alerts", getTransactionCount(), getAlertCount());
+        } catch (Exception e) {
+            reconcileFailures.incrementAndGet();
+            logger.warn("Dashboard aggregate reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private void record(Consumer<Counts> update) {
+        lock.readLock().lock();
+        try {
+            update.accept(counts);
+            if (inFlight != null) {
+                update.accept(inFlight);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value != null ? value : 0;
+    }
+
+    private void loadGroups(Map<String, LongAdder> target, String sql) {
+        jdbcTemplate.query(sql, rs -> {
+            increment(target, rs.getString(1), rs.getLong(2));
+        });
+    }
+
+    private void loadHistogram(Map<Long, LongAdder> target, String table, LocalDateTime since) {
+        jdbcTemplate.query("SELECT date_trunc('hour', timestamp), COUNT(*) FROM " + table
+                        + " WHERE timestamp >= ? GROUP BY 1",
+                rs -> {
+                    Timestamp hour = rs.getTimestamp(1);
+                    if (hour != null) {
+                        target.computeIfAbsent(epochHour(hour.toLocalDateTime()), h -> new LongAdder()).add(rs.getLong(2));
+                    }
+                },
+                Timestamp.valueOf(since));
+    }
+
+    private static void increment(Map<String, LongAdder> target, String key, long delta) {
+        target.computeIfAbsent(key != null ? key : UNKNOWN, k -> new LongAdder()).add(delta);
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> groups) {
+        Map<String, Long> result = new HashMap<>();
+        groups.forEach((key, adder) -> {
+            long sum = adder.sum();
+            if (sum > 0) {
+                result.put(key, sum);
+            }
+        });
+        return result;
+    }
+
+    private static List<Map<String, Object>> histogram(Map<Long, LongAdder> hours, long oldestHour) {
+        TreeMap<Long, Long> sorted = new TreeMap<>();
+        hours.forEach((hour, adder) -> {
+            if (hour >= oldestHour) {
+                sorted.put(hour, adder.sum());
+            }
+        });
+        List<Map<String, Object>> result = new ArrayList<>(sorted.size());
+        sorted.forEach((hour, count) -> {
+            Map<String, Object> bucket = new HashMap<>();
+            bucket.put("hour", LocalDateTime.ofEpochSecond(hour * 3600, 0, ZoneOffset.UTC).toString());
+            bucket.put("count", count);
+            result.add(bucket);
+        });
+        return result;
+    }
+
+    private static long currentHour() {
+        return epochHour(LocalDateTime.now());
+    }
+
+    // Timestamps are wall-clock LocalDateTimes; UTC is only used to number the hours
+    private static long epochHour(LocalDateTime timestamp) {
+        LocalDateTime time = timestamp != null ? timestamp : LocalDateTime.now();
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    private static final class Counts {
+        final LongAdder users = new LongAdder();
+        final LongAdder transactions = new LongAdder();
+        final LongAdder alerts = new LongAdder();
+        final Map<String, LongAdder> alertsByPriority = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> alertsByType = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> transactionsByCountry = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> transactionsByCurrency = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> transactionsByHour = new ConcurrentHashMap<>();
+        final Map<Long, LongAdder> alertsByHour = new ConcurrentHashMap<>();
+
+        void clearAlerts() {
+            alerts.reset();
+            alertsByPriority.clear();
+            alertsByType.clear();
+            alertsByHour.clear();
+        }
+
+        void merge(Counts other) {
+            users.add(other.users.sum());
+            transactions.add(other.transactions.sum());
+            alerts.add(other.alerts.sum());
+            mergeGroups(alertsByPriority, other.alertsByPriority);
+            mergeGroups(alertsByType, other.alertsByType);
+            mergeGroups(transactionsByCountry, other.transactionsByCountry);
+            mergeGroups(transactionsByCurrency, other.transactionsByCurrency);
+            mergeGroups(transactionsByHour, other.transactionsByHour);
+            mergeGroups(alertsByHour, other.alertsByHour);
+        }
+
+        void pruneHours(long beforeHour) {
+            transactionsByHour.keySet().removeIf(hour -> hour <= beforeHour);
+            alertsByHour.keySet().removeIf(hour -> hour <= beforeHour);
+        }
+
+        private static <K> void mergeGroups(Map<K, LongAdder> target, Map<K, LongAdder> source) {
+            source.forEach((key, adder) -> target.computeIfAbsent(key, k -> new LongAdder()).add(adder.sum()));
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.leizo.admin.service.backtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.leizo.admin.service.rules.RuleCompiler;
+import com.leizo.admin.service.rules.RuleDefinitionException;
+import com.leizo.admin.service.rules.SenderWindowStore;
+import com.leizo.loader.RuleLoader;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Rule Back-testing Engine
+ *
+ * Replays historical transactions through a candidate rule set and reports how often each
+ * rule would have matched and alerted, per rule and per day. Transactions are streamed in
+ * chunks from the database ({@link JdbcTransactionChunkSource}) or an export file
+ * ({@link CsvTransactionChunkSource}); while one chunk is evaluated the next is read, so
+ * memory holds at most two chunks plus the report however many rows are replayed.
+ *
+ * Each chunk is split by sender into slices that a dedicated fork-join pool evaluates in
+ * parallel. A sender's transactions always land in the same slice, in event order, so window
+ * aggregates replay correctly: candidate rules are compiled against their own sender windows
+ * whose clock is the event time of the transaction being evaluated, and the live windows are
+ * never touched. Jobs run one at a time on a background thread.
+ */
+@Service
+public class BacktestEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestEngine.class);
+    private static final int MAX_RETAINED_JOBS = 20;
+    // Bounds the rows held in memory per chunk
+    private static final int MAX_CHUNK_SIZE = 10_000;
+    private static final int SLICES_PER_THREAD = 4;
+
+    private final RuleLoader ruleLoader;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, BacktestJob> jobs = new LinkedHashMap<>();
+    private ExecutorService jobExecutor;
+    private ForkJoinPool evaluationPool;
+
+    @Value("${aml.backtest.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    // 0 uses one evaluation thread per available core
+    @Value("${aml.backtest.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${aml.backtest.export-dir:exports}")
+    private String exportDir = "exports";
+
+    @Autowired
+    public BacktestEngine(RuleLoader ruleLoader, JdbcTemplate jdbcTemplate) {
+        this.ruleLoader = ruleLoader;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates an engine with explicit sizing (for tests); call {@link #start()} before use
+     */
+    public BacktestEngine(RuleLoader ruleLoader, JdbcTemplate jdbcTemplate, int chunkSize, int parallelism) {
+        this.ruleLoader = ruleLoader;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    @PostConstruct
+    public void start() {
+        chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        jobExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "rule-backtest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evaluationPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("rule-backtest-worker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        synchronized (jobs) {
+            jobs.values().forEach(BacktestJob::cancel);
+        }
+        if (jobExecutor != null) {
+            jobExecutor.shutdownNow();
+        }
+        if (evaluationPool != null) {
+            evaluationPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Back-tests rule definitions over stored transactions
+     *
+     * @param definitions array of rule definitions in the rules.json format
+     * @param from        inclusive lower timestamp bound, or null
+     * @param to          inclusive upper timestamp bound, or null
+     * @return the queued job
+     * @throws RuleDefinitionException if the definitions are invalid
+     */
+    public BacktestJob submitDatabase(JsonNode definitions, LocalDateTime from, LocalDateTime to) {
+        return submit(definitions, new JdbcTransactionChunkSource(jdbcTemplate, from, to, chunkSize));
+    }
+
+    /**
+     * Back-tests rule definitions over an export file in {@code aml.backtest.export-dir}
+     *
+     * @param definitions array of rule definitions in the rules.json format
+     * @param fileName    file name relative to the export directory
+     * @return the queued job
+     * @throws RuleDefinitionException  if the definitions are invalid
+     * @throws IllegalArgumentException if the file name leaves the export directory
+     * @throws IOException              if the file cannot be opened
+     */
+    public BacktestJob submitExport(JsonNode definitions, String fileName) throws IOException {
+        Path base = Path.of(exportDir).toAbsolutePath().normalize();
+        Path file = base.resolve(fileName).normalize();
+        if (!file.startsWith(base)) {
+            throw new IllegalArgumentException("Export file must be inside " + base);
+        }
+        return submit(definitions, new CsvTransactionChunkSource(file, chunkSize));
+    }
+
+    /**
+     * Back-tests rule definitions over any chunk source; the source is closed when the job ends
+     *
+     * @throws RuleDefinitionException if the definitions are invalid
+     */
+    public BacktestJob submit(JsonNode definitions, TransactionChunkSource source) {
+        JobRules jobRules;
+        try {
+            jobRules = compile(definitions);
+        } catch (RuntimeException e) {
+            closeQuietly(source);
+            throw e;
+        }
+        BacktestJob job = new BacktestJob(UUID.randomUUID().toString(), source.describe(), jobRules.names);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            pruneJobs();
+        }
+        jobExecutor.execute(() -> run(job, jobRules, source));
+        logger.info("Queued back-test {} of {} rules over {}", job.getId(), jobRules.rules.size(), source.describe());
+        return job;
+    }
+
+    public BacktestJob getJob(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<Map<String, Object>> getJobs() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> result.add(job.describe(false)));
+        }
+        return result;
+    }
+
+    /**
+     * Requests cancellation; a running job stops after its current chunk
+     *
+     * @return false if the job is unknown
+     */
+    public boolean cancel(String id) {
+        BacktestJob job = getJob(id);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    private void run(BacktestJob job, JobRules jobRules, TransactionChunkSource source) {
+        job.started();
+        try (source) {
+            List<Transaction> chunk = source.nextChunk();
+            while (!chunk.isEmpty()) {
+                if (job.isCancelRequested()) {
+                    job.finished(BacktestJob.Status.CANCELLED, null);
+                    logger.info("Back-test {} cancelled", job.getId());
+                    return;
+                }
+                ForkJoinTask<BacktestReport> pending = evaluationPool.submit(new SliceTask(jobRules, slice(chunk), 0, slices()));
+                // Read ahead while the workers evaluate
+                List<Transaction> next = source.nextChunk();
+                job.getReport().merge(pending.join());
+                jobRules.evictIdle(chunk);
+                job.chunkProcessed(chunk.size(), source.getSkippedRows());
+                chunk = next;
+            }
+            job.finished(BacktestJob.Status.COMPLETED, null);
+            logger.info("Back-test {} completed", job.getId());
+        } catch (Exception e) {
+            logger.error("Back-test {} failed: {}", job.getId(), e.getMessage(), e);
+            job.finished(BacktestJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private JobRules compile(JsonNode definitions) {
+        JobRules jobRules = new JobRules();
+        SenderWindowStore windows = ruleLoader.newWindowStore(() -> jobRules.eventTime.get()[0]);
+        RuleCompiler.CompiledRules compiled = ruleLoader.compileDetached(definitions, windows);
+        List<Rule> ordered = new ArrayList<>(compiled.getRules());
+        // Same order as production, so the first match is the rule production would alert on
+        ordered.sort(Comparator.<Rule>comparingInt(rule -> rule.getSensitivity().getWeight()).reversed()
+                .thenComparingInt(Rule::getEvaluationCost));
+        jobRules.rules = List.copyOf(ordered);
+        jobRules.names = ordered.stream().map(Rule::getDescription).toList();
+        jobRules.windows = compiled.usesWindows() ? windows : null;
+        return jobRules;
+    }
+
+    private int slices() {
+        return parallelism * SLICES_PER_THREAD;
+    }
+
+    private List<List<Transaction>> slice(List<Transaction> chunk) {
+        int count = slices();
+        List<List<Transaction>> slices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            slices.add(new ArrayList<>(chunk.size() / count + 1));
+        }
+        for (Transaction txn : chunk) {
+            slices.get(Math.floorMod(Objects.hashCode(txn.getSender()), count)).add(txn);
+        }
+        return slices;
+    }
+
+    private void pruneJobs() {
+        Iterator<BacktestJob> iterator = jobs.values().iterator();
+        while (jobs.size() > MAX_RETAINED_JOBS && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void closeQuietly(TransactionChunkSource source) {
+        try {
+            source.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close {}: {}", source.describe(), e.getMessage());
+        }
+    }
+
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Compiled candidate rules of one job and the event-time clock of their windows
+     */
+    private static final class JobRules {
+        // Event time of the transaction each worker is evaluating; undated ones reuse the last
+        final ThreadLocal<long[]> eventTime = ThreadLocal.withInitial(() -> new long[1]);
+        List<Rule> rules;
+        List<String> names;
+        SenderWindowStore windows;
+
+        void evictIdle(List<Transaction> chunk) {
+            LocalDateTime last = chunk.get(chunk.size() - 1).getTimestamp();
+            if (windows != null && last != null) {
+                eventTime.get()[0] = epochMillis(last);
+                windows.evictIdle();
+            }
+        }
+    }
+
+    /**
+     * Evaluates a range of sender slices, splitting until each task holds one slice
+     */
+    private static final class SliceTask extends RecursiveTask<BacktestReport> {
+        private final JobRules jobRules;
+        private final List<List<Transaction>> slices;
+        private final int from;
+        private final int to;
+
+        SliceTask(JobRules jobRules, List<List<Transaction>> slices, int from, int to) {
+            this.jobRules = jobRules;
+            this.slices = slices;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BacktestReport compute() {
+            if (to - from == 1) {
+                return evaluate(slices.get(from));
+            }
+            int mid = (from + to) >>> 1;
+            SliceTask left = new SliceTask(jobRules, slices, from, mid);
+            left.fork();
+            BacktestReport right = new SliceTask(jobRules, slices, mid, to).compute();
+            BacktestReport report = left.join();
+            report.merge(right);
+            return report;
+        }
+
+        private BacktestReport evaluate(List<Transaction> slice) {
+            List<Rule> rules = jobRules.rules;
+            BacktestReport report = new BacktestReport(jobRules.names);
+            int[] matched = new int[rules.size()];
+            long[] clock = jobRules.eventTime.get();
+            for (Transaction txn : slice) {
+                LocalDateTime timestamp = txn.getTimestamp();
+                if (timestamp != null) {
+                    clock[0] = epochMillis(timestamp);
+                }
+                BigDecimal amount = txn.getAmount();
+                int matchCount = 0;
+                for (int i = 0; i < rules.size(); i++) {
+                    try {
+                        if (rules.get(i).appliesTo(txn, amount)) {
+                            matched[matchCount++] = i;
+                        }
+                    } catch (RuntimeException e) {
+                        report.recordError(i);
+                    }
+                }
+                report.record(timestamp != null ? timestamp.toLocalDate() : null, matched, matchCount);
+                // Recorded after matching, as in production
+                if (jobRules.windows != null && amount != null) {
+                    jobRules.windows.record(txn.getSender(), amount.doubleValue());
+                }
+            }
+            return report;
+        }
+    }
+}
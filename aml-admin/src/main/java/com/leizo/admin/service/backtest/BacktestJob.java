@@ -0,0 +1,121 @@
+package com.leizo.admin.service.backtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State and progress of one back-test run
+ *
+ * The report is merged after every chunk, so a running job already shows partial results.
+ */
+public class BacktestJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final String source;
+    private final BacktestReport report;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final AtomicLong processed = new AtomicLong(0);
+    private final AtomicLong chunks = new AtomicLong(0);
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long skippedRows;
+    private volatile String error;
+
+    BacktestJob(String id, String source, List<String> rules) {
+        this.id = id;
+        this.source = source;
+        this.report = new BacktestReport(rules);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public BacktestReport getReport() {
+        return report;
+    }
+
+    public boolean isFinished() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Waits for the job to finish
+     *
+     * @return true if the job finished within the timeout
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void chunkProcessed(int size, long skipped) {
+        processed.addAndGet(size);
+        chunks.incrementAndGet();
+        skippedRows = skipped;
+    }
+
+    void finished(Status finalStatus, String failure) {
+        error = failure;
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+        done.countDown();
+    }
+
+    /**
+     * Job status, optionally with the report
+     */
+    public Map<String, Object> describe(boolean includeReport) {
+        Map<String, Object> description = new HashMap<>();
+        description.put("id", id);
+        description.put("source", source);
+        description.put("state", status.name());
+        description.put("processed", processed.get());
+        description.put("chunks", chunks.get());
+        description.put("skippedRows", skippedRows);
+        description.put("submittedAt", submittedAt.toString());
+        description.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        description.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        description.put("error", error);
+        if (startedAt != null) {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            long elapsedMs = Math.max(1, Duration.between(startedAt, end).toMillis());
+            description.put("elapsedMs", elapsedMs);
+            description.put("transactionsPerSecond", processed.get() * 1000.0 / elapsedMs);
+        }
+        if (includeReport) {
+            description.put("report", report.describe());
+        }
+        return description;
+    }
+}
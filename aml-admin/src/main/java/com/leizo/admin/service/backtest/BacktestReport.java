@@ -0,0 +1,152 @@
+package com.leizo.admin.service.backtest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Match and alert counts of a back-test, per rule and per day
+ *
+ * A transaction counts as a match for every rule that applies to it and as an alert for the
+ * first of them in evaluation order, i.e. the rule production would have selected. Cooldowns
+ * and duplicate suppression are not replayed, so alert counts are an upper bound. Memory is
+ * proportional to rules times days, independent of the number of transactions. A report is
+ * filled by one thread; partial reports of parallel tasks are combined with {@link #merge}.
+ */
+public class BacktestReport {
+
+    private final List<String> rules;
+    private final TreeMap<LocalDate, DayCounts> days = new TreeMap<>();
+    private final long[] errors;
+    private DayCounts undated;
+
+    public BacktestReport(List<String> rules) {
+        this.rules = List.copyOf(rules);
+        this.errors = new long[rules.size()];
+    }
+
+    /**
+     * Counts a transaction
+     *
+     * @param day        event date, or null if the transaction has no timestamp
+     * @param matched    indexes of the matching rules in evaluation order, ascending
+     * @param matchCount number of valid entries in matched
+     */
+    public void record(LocalDate day, int[] matched, int matchCount) {
+        DayCounts counts = day != null ? days.computeIfAbsent(day, d -> new DayCounts(rules.size())) : undated();
+        counts.transactions++;
+        for (int i = 0; i < matchCount; i++) {
+            counts.matches[matched[i]]++;
+        }
+        if (matchCount > 0) {
+            counts.alerts[matched[0]]++;
+        }
+    }
+
+    /**
+     * Counts a rule that threw while being evaluated; it is treated as not matching
+     */
+    public void recordError(int rule) {
+        errors[rule]++;
+    }
+
+    /**
+     * Adds the counts of another report over the same rules
+     */
+    public synchronized void merge(BacktestReport other) {
+        other.days.forEach((day, counts) -> days.computeIfAbsent(day, d -> new DayCounts(rules.size())).add(counts));
+        if (other.undated != null) {
+            undated().add(other.undated);
+        }
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] += other.errors[i];
+        }
+    }
+
+    public synchronized Map<String, Object> describe() {
+        DayCounts total = new DayCounts(rules.size());
+        days.values().forEach(total::add);
+        if (undated != null) {
+            total.add(undated);
+        }
+
+        List<Map<String, Object>> byRule = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("rule", rules.get(i));
+            entry.put("matches", total.matches[i]);
+            entry.put("alerts", total.alerts[i]);
+            entry.put("errors", errors[i]);
+            entry.put("matchRate", total.transactions > 0 ? (double) total.matches[i] / total.transactions : 0.0);
+            byRule.add(entry);
+        }
+
+        List<Map<String, Object>> daily = new ArrayList<>();
+        days.forEach((day, counts) -> daily.add(counts.describe(day.toString())));
+        if (undated != null) {
+            daily.add(undated.describe("undated"));
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("transactions", total.transactions);
+        report.put("alerts", total.alertCount());
+        report.put("alertRate", total.transactions > 0 ? (double) total.alertCount() / total.transactions : 0.0);
+        report.put("rules", byRule);
+        report.put("daily", daily);
+        return report;
+    }
+
+    private DayCounts undated() {
+        if (undated == null) {
+            undated = new DayCounts(rules.size());
+        }
+        return undated;
+    }
+
+    private final class DayCounts {
+        long transactions;
+        final long[] matches;
+        final long[] alerts;
+
+        DayCounts(int ruleCount) {
+            matches = new long[ruleCount];
+            alerts = new long[ruleCount];
+        }
+
+        void add(DayCounts other) {
+            transactions += other.transactions;
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] += other.matches[i];
+                alerts[i] += other.alerts[i];
+            }
+        }
+
+        long alertCount() {
+            long count = 0;
+            for (long alert : alerts) {
+                count += alert;
+            }
+            return count;
+        }
+
+        Map<String, Object> describe(String date) {
+            // Only rules that matched that day, to keep long reports readable
+            Map<String, Map<String, Long>> byRule = new LinkedHashMap<>();
+            for (int i = 0; i < matches.length; i++) {
+                if (matches[i] > 0) {
+                    byRule.put(rules.get(i), Map.of("matches", matches[i], "alerts", alerts[i]));
+                }
+            }
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("date", date);
+            entry.put("transactions", transactions);
+            entry.put("alerts", alertCount());
+            entry.put("rules", byRule);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.leizo.admin.service.backtest;
+
+import com.leizo.admin.util.DateTimeUtils;
+import com.leizo.pojo.entity.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a transaction export file line by line
+ *
+ * Columns are located by header name, so both the ingest CSV layout (senderName,
+ * receiverName, manualFlag, ...) and plain table exports (sender, receiver, dob, ...) are
+ * accepted and unused columns are ignored. Only amount and sender are required. The file is
+ * expected in ascending timestamp order, as window aggregates are replayed in file order.
+ */
+public class CsvTransactionChunkSource implements TransactionChunkSource {
+
+    private final Path file;
+    private final int chunkSize;
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long skippedRows;
+
+    /**
+     * @param file      export file with a header row
+     * @param chunkSize rows per chunk
+     * @throws IOException if the file cannot be opened or has no usable header
+     */
+    public CsvTransactionChunkSource(Path file, int chunkSize) throws IOException {
+        this.file = file;
+        this.chunkSize = chunkSize;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        String header = reader.readLine();
+        if (header == null) {
+            reader.close();
+            throw new IOException("Export file is empty: " + file);
+        }
+        String[] names = header.split(",");
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (column("amount") < 0 || column("sender", "sendername") < 0) {
+            reader.close();
+            throw new IOException("Export file must have amount and sender (or senderName) columns: " + file);
+        }
+    }
+
+    @Override
+    public List<Transaction> nextChunk() throws IOException {
+        List<Transaction> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while (chunk.size() < chunkSize && (line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Transaction txn = parse(line.split(",", -1));
+            if (txn != null) {
+                chunk.add(txn);
+            } else {
+                skippedRows++;
+            }
+        }
+        return chunk;
+    }
+
+    @Override
+    public String describe() {
+        return "export " + file.getFileName();
+    }
+
+    @Override
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Transaction parse(String[] parts) {
+        String sender = value(parts, "sender", "sendername");
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value(parts, "amount"));
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (sender == null) {
+            return null;
+        }
+        Transaction txn = new Transaction(
+                sender,
+                value(parts, "receiver", "receivername"),
+                amount,
+                upper(value(parts, "currency")),
+                value(parts, "country"),
+                value(parts, "dob"));
+        txn.setTimestamp(DateTimeUtils.parseTimestamp(value(parts, "timestamp")));
+        String manualFlag = value(parts, "manualflag");
+        if (manualFlag != null) {
+            txn.getMetadata().put("manualFlag", manualFlag);
+        }
+        return txn;
+    }
+
+    private String value(String[] parts, String... names) {
+        int index = column(names);
+        if (index < 0 || index >= parts.length) {
+            return null;
+        }
+        String value = parts[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private int column(String... names) {
+        for (String name : names) {
+            Integer index = columns.get(name);
+            if (index != null) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static String upper(String value) {
+        return value != null ? value.toUpperCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,151 @@
+package com.leizo.admin.service.backtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leizo.enums.RiskScore;
+import com.leizo.pojo.entity.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads stored transactions in (timestamp, id) order with keyset pagination
+ *
+ * Every chunk is one bounded query that seeks past the last row of the previous chunk, so
+ * the cost per chunk stays flat however deep the scan goes and the timestamp bounds let the
+ * planner prune partitions. Metadata lives in the transaction row (typed columns plus the
+ * extra_metadata JSON), so a chunk is exactly one query.
+ */
+public class JdbcTransactionChunkSource implements TransactionChunkSource {
+
+    private static final String COLUMNS =
+            "SELECT id, sender, receiver, amount, currency, country, risk_score, dob, timestamp, external_id, "
+                    + "sender_account, receiver_account, manual_flag, extra_metadata FROM transactions ";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> EXTRA_METADATA = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final int chunkSize;
+    private final boolean loadMetadata;
+    private final String firstSql;
+    private final String nextSql;
+
+    private LocalDateTime lastTimestamp;
+    private Integer lastId;
+    private boolean exhausted;
+
+    /**
+     * @param jdbcTemplate database access
+     * @param from         inclusive lower timestamp bound, or null for no bound
+     * @param to           inclusive upper timestamp bound, or null for no bound
+     * @param chunkSize    rows per chunk
+     */
+    public JdbcTransactionChunkSource(JdbcTemplate jdbcTemplate, LocalDateTime from, LocalDateTime to, int chunkSize) {
+        this(jdbcTemplate, from, to, chunkSize, true);
+    }
+
+    /**
+     * @param loadMetadata whether to parse the extra metadata JSON; readers that only need the
+     *                     transaction columns skip the parsing
+     */
+    public JdbcTransactionChunkSource(JdbcTemplate jdbcTemplate, LocalDateTime from, LocalDateTime to, int chunkSize,
+                                      boolean loadMetadata) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+        this.loadMetadata = loadMetadata;
+        // Rows without a timestamp cannot be seek-paged; partition maintenance backfills them
+        StringBuilder where = new StringBuilder("WHERE timestamp IS NOT NULL ");
+        if (from != null) {
+            where.append("AND timestamp >= ? ");
+        }
+        if (to != null) {
+            where.append("AND timestamp <= ? ");
+        }
+        String order = "ORDER BY timestamp, id LIMIT ?";
+        this.firstSql = COLUMNS + where + order;
+        this.nextSql = COLUMNS + where + "AND (timestamp > ? OR (timestamp = ? AND id > ?)) " + order;
+    }
+
+    @Override
+    public List<Transaction> nextChunk() {
+        if (exhausted) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            args.add(Timestamp.valueOf(to));
+        }
+        String sql = firstSql;
+        if (lastId != null) {
+            Timestamp seek = Timestamp.valueOf(lastTimestamp);
+            args.add(seek);
+            args.add(seek);
+            args.add(lastId);
+            sql = nextSql;
+        }
+        args.add(chunkSize);
+
+        List<Transaction> chunk = jdbcTemplate.query(sql, (rs, rowNum) -> mapRow(rs, loadMetadata), args.toArray());
+        if (chunk.size() < chunkSize) {
+            exhausted = true;
+        }
+        if (!chunk.isEmpty()) {
+            Transaction last = chunk.get(chunk.size() - 1);
+            lastTimestamp = last.getTimestamp();
+            lastId = last.getId();
+        }
+        return chunk;
+    }
+
+    @Override
+    public String describe() {
+        return "database [" + (from != null ? from : "-") + ", " + (to != null ? to : "-") + "]";
+    }
+
+    private static Transaction mapRow(ResultSet rs, boolean loadMetadata) throws SQLException {
+        Transaction txn = new Transaction(
+                rs.getString("sender"),
+                rs.getString("receiver"),
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                rs.getString("country"),
+                rs.getString("dob"));
+        txn.setId(rs.getInt("id"));
+        txn.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        String riskScore = rs.getString("risk_score");
+        if (riskScore != null) {
+            try {
+                txn.setRiskScore(RiskScore.valueOf(riskScore));
+            } catch (IllegalArgumentException ignored) {
+                // Unknown legacy values are not needed to evaluate rules
+            }
+        }
+        txn.setExternalId(rs.getString("external_id"));
+        txn.setSenderAccount(rs.getString("sender_account"));
+        txn.setReceiverAccount(rs.getString("receiver_account"));
+        txn.setManualFlag((Boolean) rs.getObject("manual_flag"));
+        String extraMetadata = rs.getString("extra_metadata");
+        if (loadMetadata && extraMetadata != null) {
+            try {
+                txn.getMetadata().putAll(JSON.readValue(extraMetadata, EXTRA_METADATA));
+            } catch (JsonProcessingException e) {
+                throw new SQLException("Malformed extra_metadata on transaction " + txn.getId(), e);
+            }
+        }
+        return txn;
+    }
+}
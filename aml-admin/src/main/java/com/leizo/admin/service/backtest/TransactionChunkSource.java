@@ -0,0 +1,40 @@
+package com.leizo.admin.service.backtest;
+
+import com.leizo.pojo.entity.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stream of historical transactions read in bounded chunks for back-testing
+ *
+ * Chunks are returned in ascending event time so that window aggregates replay in order;
+ * only the chunk being evaluated and the one being read are held in memory.
+ */
+public interface TransactionChunkSource extends Closeable {
+
+    /**
+     * Reads the next chunk
+     *
+     * @return up to the configured chunk size of transactions, or an empty list at the end
+     * @throws IOException if the source cannot be read
+     */
+    List<Transaction> nextChunk() throws IOException;
+
+    /**
+     * Short description of the source for job listings
+     */
+    String describe();
+
+    /**
+     * Rows that could not be turned into transactions and were skipped
+     */
+    default long getSkippedRows() {
+        return 0;
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
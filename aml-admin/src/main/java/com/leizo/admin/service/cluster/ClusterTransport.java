@@ -0,0 +1,43 @@
+package com.leizo.admin.service.cluster;
+
+import com.leizo.admin.dto.TransactionDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node-to-node calls made by the {@link SenderPartitioner}
+ *
+ * {@link HttpClusterTransport} talks to the /cluster/internal endpoints of other instances;
+ * tests can connect several in-process partitioners directly.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Sends transactions to the node that owns their senders
+     *
+     * @param nodeUrl      base URL of the owning node
+     * @param transactions the transactions to ingest there
+     * @return the owner's ingest result (processed, successful, failed, errors)
+     */
+    Map<String, Object> forwardIngest(String nodeUrl, List<TransactionDTO> transactions);
+
+    /**
+     * Sends exported sender state to its new owner
+     *
+     * @param nodeUrl   base URL of the new owner
+     * @param stateName the participant the state belongs to
+     * @param state     the exported state
+     */
+    void sendHandoff(String nodeUrl, String stateName, Map<String, Object> state);
+
+    /**
+     * Tells another node about a membership change
+     *
+     * @param nodeUrl base URL of the node to notify
+     * @param action  "join" or "leave"
+     * @param nodeId  the node joining or leaving
+     * @param url     base URL of the joining node (ignored for "leave")
+     */
+    void sendMembership(String nodeUrl, String action, String nodeId, String url);
+}
@@ -0,0 +1,150 @@
+package com.leizo.admin.service.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Consistent Hash Ring
+ *
+ * Places each node on a 64-bit ring at a number of virtual points; a hash is owned by the node
+ * of the first point at or after it, wrapping around. Adding or removing a node therefore only
+ * moves the hashes adjacent to that node's points, about 1/N of the total.
+ *
+ * Lookups read an immutable snapshot of sorted points and are lock-free; membership changes
+ * are synchronized and publish a new snapshot.
+ */
+public class ConsistentHashRing {
+
+    private final int virtualNodes;
+    private final Set<String> nodes = new TreeSet<>();
+    private volatile long[] points = new long[0];
+    private volatile String[] owners = new String[0];
+
+    /**
+     * @param virtualNodes points per node; more points give a more even spread
+     */
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Adds a node
+     *
+     * @param nodeId the node identifier
+     * @return true if the node was not already a member
+     */
+    public synchronized boolean addNode(String nodeId) {
+        if (!nodes.add(nodeId)) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Removes a node
+     *
+     * @param nodeId the node identifier
+     * @return true if the node was a member
+     */
+    public synchronized boolean removeNode(String nodeId) {
+        if (!nodes.remove(nodeId)) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    /**
+     * @return the current members in sorted order
+     */
+    public synchronized Set<String> getNodes() {
+        return Collections.unmodifiableSet(new TreeSet<>(nodes));
+    }
+
+    /**
+     * Finds the node owning a hash
+     *
+     * @param hash any 64-bit hash
+     * @return the owning node, or null if the ring is empty
+     */
+    public String ownerOf(long hash) {
+        long[] currentPoints = points;
+        String[] currentOwners = owners;
+        if (currentPoints.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(currentPoints, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return currentOwners[index == currentPoints.length ? 0 : index];
+    }
+
+    /**
+     * Hashes a string onto the ring (FNV-1a over UTF-8 with a 64-bit avalanche mix)
+     *
+     * @param value the value to hash
+     * @return 64-bit ring position
+     */
+    public static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * 64-bit finalizer used to spread structured inputs (e.g. partition numbers) over the ring
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private void rebuild() {
+        int total = nodes.size() * virtualNodes;
+        long[] newPoints = new long[total];
+        String[] pointOwners = new String[total];
+        int i = 0;
+        for (String node : nodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                newPoints[i] = hash(node + "#" + v);
+                pointOwners[i] = node;
+                i++;
+            }
+        }
+        // Sort points and carry their owners along; ties resolve to the smaller node id
+        Integer[] order = new Integer[total];
+        for (int j = 0; j < total; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byPoint = Long.compare(newPoints[a], newPoints[b]);
+            return byPoint != 0 ? byPoint : pointOwners[a].compareTo(pointOwners[b]);
+        });
+        long[] sortedPoints = new long[total];
+        String[] sortedOwners = new String[total];
+        for (int j = 0; j < total; j++) {
+            sortedPoints[j] = newPoints[order[j]];
+            sortedOwners[j] = pointOwners[order[j]];
+        }
+        owners = sortedOwners;
+        points = sortedPoints;
+    }
+}
@@ -0,0 +1,78 @@
+package com.leizo.admin.service.cluster;
+
+import com.leizo.admin.dto.TransactionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP cluster transport
+ *
+ * Calls the /cluster/internal endpoints of other instances, authenticated by the shared
+ * {@code aml.cluster.token} in the {@value #TOKEN_HEADER} header.
+ */
+@Component
+public class HttpClusterTransport implements ClusterTransport {
+
+    public static final String TOKEN_HEADER = "X-AML-Cluster-Token";
+
+    private final RestTemplate restTemplate;
+
+    @Value("${aml.cluster.token:}")
+    private String clusterToken;
+
+    public HttpClusterTransport() {
+        this.restTemplate = createRestTemplateWithTimeouts();
+    }
+
+    private RestTemplate createRestTemplateWithTimeouts() {
+        RestTemplate template = new RestTemplate();
+
+        org.springframework.http.client.SimpleClientHttpRequestFactory factory =
+            new org.springframework.http.client.SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(2000); // 2 seconds
+        factory.setReadTimeout(30000);   // 30 seconds, a forwarded batch is ingested synchronously
+
+        template.setRequestFactory(factory);
+        return template;
+    }
+
+    @Override
+    public Map<String, Object> forwardIngest(String nodeUrl, List<TransactionDTO> transactions) {
+        Map<String, Object> result = restTemplate.exchange(
+                nodeUrl + "/cluster/internal/ingest", HttpMethod.POST, request(transactions),
+                new ParameterizedTypeReference<Map<String, Object>>() {}).getBody();
+        return result != null ? result : new HashMap<>();
+    }
+
+    @Override
+    public void sendHandoff(String nodeUrl, String stateName, Map<String, Object> state) {
+        restTemplate.exchange(nodeUrl + "/cluster/internal/handoff/" + stateName, HttpMethod.POST,
+                request(state), Void.class);
+    }
+
+    @Override
+    public void sendMembership(String nodeUrl, String action, String nodeId, String url) {
+        Map<String, String> body = new HashMap<>();
+        body.put("action", action);
+        body.put("nodeId", nodeId);
+        body.put("url", url);
+        restTemplate.exchange(nodeUrl + "/cluster/internal/membership", HttpMethod.POST, request(body), Void.class);
+    }
+
+    private <T> HttpEntity<T> request(T body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(TOKEN_HEADER, clusterToken);
+        return new HttpEntity<>(body, headers);
+    }
+}
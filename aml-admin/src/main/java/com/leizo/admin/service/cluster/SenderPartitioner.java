@@ -0,0 +1,357 @@
+package com.leizo.admin.service.cluster;
+
+import com.leizo.admin.dto.TransactionDTO;
+import com.leizo.admin.service.suppression.CooldownStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sender Partitioner
+ *
+ * Assigns every sender to one node so that per-sender state (cooldowns, duplicate claims,
+ * sender history) is only ever built on one node:
+ * - A sender belongs to one of {@code aml.cluster.partitions} partitions, taken from the
+ *   16-bit sender prefix of {@link CooldownStore#senderPrefix(String)}
+ * - Partitions are placed on nodes with a {@link ConsistentHashRing}, so a join or leave only
+ *   moves the partitions next to that node's ring points
+ * - Ingest rows for senders owned elsewhere are forwarded to the owner, which stores and
+ *   evaluates them (see TransactionIngestService)
+ * - When membership changes, each node exports the state of the partitions it lost from every
+ *   {@link SenderStateParticipant} and sends it to the new owner; a failed handoff is
+ *   re-imported locally so no state is dropped
+ *
+ * Membership is static ({@code aml.cluster.nodes}) plus join/leave calls through
+ * /cluster/members, which are propagated to the other members. A node that receives forwarded
+ * rows always processes them, even if its view of the ring differs briefly, so rows never
+ * bounce between nodes. With clustering disabled every sender is local.
+ */
+@Service
+public class SenderPartitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SenderPartitioner.class);
+
+    private final List<SenderStateParticipant> participants;
+    private final ClusterTransport transport;
+    private final Map<String, String> nodeUrls = new ConcurrentHashMap<>();
+    private ConsistentHashRing ring;
+    private volatile String[] partitionOwners = new String[0];
+
+    private final AtomicLong forwardedTransactions = new AtomicLong(0);
+    private final AtomicLong forwardFailures = new AtomicLong(0);
+    private final AtomicLong handoffsSent = new AtomicLong(0);
+    private final AtomicLong handoffsReceived = new AtomicLong(0);
+    private final AtomicLong handoffFailures = new AtomicLong(0);
+    private final AtomicLong membershipChanges = new AtomicLong(0);
+
+    @Value("${aml.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${aml.cluster.node-id:local}")
+    private String nodeId;
+
+    @Value("${aml.cluster.node-url:http://localhost:8080}")
+    private String nodeUrl;
+
+    // Comma-separated id=url pairs of the other nodes known at startup
+    @Value("${aml.cluster.nodes:}")
+    private String seedNodes;
+
+    @Value("${aml.cluster.partitions:256}")
+    private int partitionCount;
+
+    @Value("${aml.cluster.virtual-nodes:64}")
+    private int virtualNodes;
+
+    @Autowired
+    public SenderPartitioner(List<SenderStateParticipant> participants, ClusterTransport transport) {
+        this.participants = participants;
+        this.transport = transport;
+    }
+
+    /**
+     * Creates an enabled single-member partitioner (for in-process multi-node tests)
+     *
+     * @param nodeId         this node's identifier
+     * @param nodeUrl        this node's base URL
+     * @param partitionCount number of sender partitions (power of two, at most 65536)
+     * @param virtualNodes   ring points per node
+     * @param participants   components holding per-sender state
+     * @param transport      node-to-node calls
+     */
+    public SenderPartitioner(String nodeId, String nodeUrl, int partitionCount, int virtualNodes,
+                             List<SenderStateParticipant> participants, ClusterTransport transport) {
+        this(participants, transport);
+        this.enabled = true;
+        this.nodeId = nodeId;
+        this.nodeUrl = nodeUrl;
+        this.seedNodes = "";
+        this.partitionCount = partitionCount;
+        this.virtualNodes = virtualNodes;
+        start();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (partitionCount <= 0 || partitionCount > 65536 || Integer.bitCount(partitionCount) != 1) {
+            throw new IllegalStateException("aml.cluster.partitions must be a power of two up to 65536");
+        }
+        ring = new ConsistentHashRing(virtualNodes);
+        ring.addNode(nodeId);
+        nodeUrls.put(nodeId, nodeUrl);
+        if (seedNodes != null && !seedNodes.isBlank()) {
+            for (String entry : seedNodes.split(",")) {
+                String[] parts = entry.trim().split("=", 2);
+                if (parts.length == 2 && !parts[0].isBlank()) {
+                    ring.addNode(parts[0].trim());
+                    nodeUrls.put(parts[0].trim(), parts[1].trim());
+                }
+            }
+        }
+        partitionOwners = computeOwners();
+        if (enabled) {
+            logger.info("Sender partitioning enabled: node={}, members={}, partitions={}",
+                    nodeId, ring.getNodes(), partitionCount);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getLocalNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Gets the partition of a sender
+     *
+     * @param sender the transaction sender
+     * @return partition in [0, partitions)
+     */
+    public int partitionOf(String sender) {
+        return CooldownStore.senderPrefix(sender) & (partitionCount - 1);
+    }
+
+    /**
+     * Gets the node that owns a sender
+     *
+     * @param sender the transaction sender
+     * @return the owning node id (this node when clustering is disabled)
+     */
+    public String ownerOf(String sender) {
+        if (!enabled) {
+            return nodeId;
+        }
+        return partitionOwners[partitionOf(sender)];
+    }
+
+    /**
+     * Gets the owner of a sender if it is another node
+     *
+     * @param sender the transaction sender
+     * @return the owning node id, or null if the sender is handled here
+     */
+    public String remoteOwnerOf(String sender) {
+        String owner = ownerOf(sender);
+        return nodeId.equals(owner) ? null : owner;
+    }
+
+    /**
+     * Ingests transactions on the node that owns their senders
+     *
+     * @param owner        the owning node id
+     * @param transactions transactions whose senders the owner holds
+     * @return the owner's ingest result
+     */
+    public Map<String, Object> forwardIngest(String owner, List<TransactionDTO> transactions) {
+        try {
+            Map<String, Object> result = transport.forwardIngest(nodeUrls.get(owner), transactions);
+            forwardedTransactions.addAndGet(transactions.size());
+            return result;
+        } catch (RuntimeException e) {
+            forwardFailures.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a node and hands off the partitions it takes over from this node
+     *
+     * @param joiningId  the node joining
+     * @param joiningUrl its base URL
+     * @param propagate  whether to notify the other members (false when applying a notification)
+     * @return map describing the change
+     */
+    public synchronized Map<String, Object> join(String joiningId, String joiningUrl, boolean propagate) {
+        List<String> others = otherMembers(joiningId);
+        nodeUrls.put(joiningId, joiningUrl);
+        boolean added = ring.addNode(joiningId);
+        Map<String, Object> result = rebalance();
+        result.put("added", added);
+        if (propagate) {
+            for (String member : others) {
+                notifyMember(member, "join", joiningId, joiningUrl);
+            }
+            // The new node learns the existing membership, including this node
+            for (String member : others) {
+                notifyMember(joiningId, "join", member, nodeUrls.get(member));
+            }
+            notifyMember(joiningId, "join", nodeId, nodeUrl);
+        }
+        return result;
+    }
+
+    /**
+     * Removes a node; if it is this node, all of its partitions are handed off
+     *
+     * @param leavingId the node leaving
+     * @param propagate whether to notify the other members (false when applying a notification)
+     * @return map describing the change
+     */
+    public synchronized Map<String, Object> leave(String leavingId, boolean propagate) {
+        List<String> others = otherMembers(leavingId);
+        boolean removed = ring.removeNode(leavingId);
+        Map<String, Object> result = rebalance();
+        result.put("removed", removed);
+        if (propagate) {
+            for (String member : others) {
+                notifyMember(member, "leave", leavingId, null);
+            }
+            if (!leavingId.equals(nodeId)) {
+                notifyMember(leavingId, "leave", leavingId, null);
+            }
+        }
+        if (!leavingId.equals(nodeId)) {
+            nodeUrls.remove(leavingId);
+        }
+        return result;
+    }
+
+    /**
+     * Imports state handed off by a previous owner
+     *
+     * @param stateName the participant the state belongs to
+     * @param state     the exported state
+     */
+    public void receiveHandoff(String stateName, Map<String, Object> state) {
+        for (SenderStateParticipant participant : participants) {
+            if (participant.getStateName().equals(stateName)) {
+                participant.importState(state);
+                handoffsReceived.incrementAndGet();
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sender state: " + stateName);
+    }
+
+    /**
+     * Gets membership, partition ownership and forwarding statistics
+     *
+     * @return map containing cluster status
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", enabled);
+        status.put("nodeId", nodeId);
+        status.put("members", new TreeMap<>(nodeUrls));
+        status.put("partitions", partitionCount);
+        Map<String, Integer> partitionsPerNode = new TreeMap<>();
+        for (String owner : partitionOwners) {
+            partitionsPerNode.merge(owner, 1, Integer::sum);
+        }
+        status.put("partitionsPerNode", partitionsPerNode);
+        status.put("forwardedTransactions", forwardedTransactions.get());
+        status.put("forwardFailures", forwardFailures.get());
+        status.put("handoffsSent", handoffsSent.get());
+        status.put("handoffsReceived", handoffsReceived.get());
+        status.put("handoffFailures", handoffFailures.get());
+        status.put("membershipChanges", membershipChanges.get());
+        return status;
+    }
+
+    private Map<String, Object> rebalance() {
+        String[] before = partitionOwners;
+        String[] after = computeOwners();
+        partitionOwners = after;
+        membershipChanges.incrementAndGet();
+
+        // Partitions this node owned and no longer does, grouped by their new owner
+        Map<String, BitSet> lostByNewOwner = new HashMap<>();
+        for (int p = 0; p < partitionCount; p++) {
+            if (nodeId.equals(before[p]) && after[p] != null && !nodeId.equals(after[p])) {
+                lostByNewOwner.computeIfAbsent(after[p], k -> new BitSet(partitionCount)).set(p);
+            }
+        }
+
+        int moved = 0;
+        for (Map.Entry<String, BitSet> entry : lostByNewOwner.entrySet()) {
+            BitSet lost = entry.getValue();
+            moved += lost.cardinality();
+            int mask = partitionCount - 1;
+            for (SenderStateParticipant participant : participants) {
+                Map<String, Object> state = participant.exportState(prefix -> lost.get(prefix & mask));
+                if (state.isEmpty()) {
+                    continue;
+                }
+                try {
+                    transport.sendHandoff(nodeUrls.get(entry.getKey()), participant.getStateName(), state);
+                    handoffsSent.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Keep the state here rather than lose it; the new owner starts without it
+                    handoffFailures.incrementAndGet();
+                    participant.importState(state);
+                    logger.warn("Handoff of {} to {} failed: {}", participant.getStateName(), entry.getKey(), e.getMessage());
+                }
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("members", ring.getNodes());
+        result.put("partitionsHandedOff", moved);
+        logger.info("Sender partitions rebalanced: members={}, handed off {} partitions", ring.getNodes(), moved);
+        return result;
+    }
+
+    private String[] computeOwners() {
+        String[] owners = new String[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            owners[p] = ring.ownerOf(ConsistentHashRing.mix(p + 1L));
+        }
+        return owners;
+    }
+
+    private List<String> otherMembers(String excluded) {
+        List<String> others = new ArrayList<>();
+        for (String member : ring.getNodes()) {
+            if (!member.equals(nodeId) && !member.equals(excluded)) {
+                others.add(member);
+            }
+        }
+        return others;
+    }
+
+    private void notifyMember(String member, String action, String subjectId, String subjectUrl) {
+        String url = nodeUrls.get(member);
+        if (url == null) {
+            return;
+        }
+        try {
+            transport.sendMembership(url, action, subjectId, subjectUrl);
+        } catch (RuntimeException e) {
+            logger.warn("Could not notify {} of {} {}: {}", member, action, subjectId, e.getMessage());
+        }
+    }
+}
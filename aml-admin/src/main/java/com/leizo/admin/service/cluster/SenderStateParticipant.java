@@ -0,0 +1,38 @@
+package com.leizo.admin.service.cluster;
+
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Sender State Participant
+ *
+ * Implemented by components that keep per-sender state in memory. When sender partitions move
+ * to another node, the {@link SenderPartitioner} exports the state of the moved senders from
+ * the old owner and imports it on the new one.
+ *
+ * Senders are selected by the 16-bit sender prefix of
+ * {@link com.leizo.admin.service.suppression.CooldownStore#senderPrefix(String)}, which also
+ * determines a sender's partition.
+ */
+public interface SenderStateParticipant {
+
+    /**
+     * @return unique name used to route handed-off state to the same participant on the new owner
+     */
+    String getStateName();
+
+    /**
+     * Removes and returns the state of every sender whose prefix matches
+     *
+     * @param senderPrefixFilter selects the sender prefixes being handed off
+     * @return JSON-serializable state, empty if there is nothing to hand off
+     */
+    Map<String, Object> exportState(IntPredicate senderPrefixFilter);
+
+    /**
+     * Merges state exported by {@link #exportState(IntPredicate)} on another node
+     *
+     * @param state the exported state
+     */
+    void importState(Map<String, Object> state);
+}
@@ -0,0 +1,170 @@
+package com.leizo.admin.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Output formats of the streaming exports
+ */
+public enum ExportFormat {
+
+    /** RFC 4180 CSV with a header row of column names */
+    CSV("text/csv", "csv") {
+        @Override
+        public RowWriter open(OutputStream out, List<String> columns) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writeCsvLine(writer, columns.toArray());
+            return new RowWriter() {
+                @Override
+                public void write(Object[] values) throws IOException {
+                    writeCsvLine(writer, values);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    writer.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.close();
+                }
+            };
+        }
+    },
+
+    /** One JSON object per line, keyed by column name */
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public RowWriter open(OutputStream out, List<String> columns) throws IOException {
+            JsonGenerator generator = JSON.createGenerator(out);
+            // Lines, not one document: each object is followed by a newline instead of a separator
+            generator.setRootValueSeparator(null);
+            return new RowWriter() {
+                @Override
+                public void write(Object[] values) throws IOException {
+                    generator.writeStartObject();
+                    for (int i = 0; i < values.length; i++) {
+                        generator.writeFieldName(columns.get(i));
+                        writeJsonValue(generator, values[i]);
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    generator.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+            };
+        }
+    };
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Starts writing rows with the given columns to the stream; closing the writer closes the stream
+     */
+    public abstract RowWriter open(OutputStream out, List<String> columns) throws IOException;
+
+    /**
+     * Parses a format name, ignoring case
+     *
+     * @throws IllegalArgumentException for unknown formats
+     */
+    public static ExportFormat parse(String name) {
+        if (name == null || name.isBlank()) {
+            return CSV;
+        }
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes one row at a time; values are JDBC column values in column order
+     */
+    public interface RowWriter {
+        void write(Object[] values) throws IOException;
+
+        void flush() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String text = text(values[i]);
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.doubleValue());
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else {
+            generator.writeString(text(value));
+        }
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+}
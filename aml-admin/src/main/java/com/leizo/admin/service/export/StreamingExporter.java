@@ -0,0 +1,160 @@
+package com.leizo.admin.service.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams whole tables to an HTTP response as CSV or NDJSON
+ *
+ * Rows are read through a forward-only, read-only cursor: PostgreSQL only honours the fetch
+ * size inside a transaction, so the connection leaves autocommit for the duration of the
+ * export. Each fetched batch is written and flushed before the next is read, so memory stays
+ * flat however many rows there are, and the first row is flushed on its own so the client
+ * sees bytes as soon as the query starts returning.
+ */
+@Service
+public class StreamingExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingExporter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${aml.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    private final AtomicInteger active = new AtomicInteger(0);
+    private final AtomicLong completed = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong rowsWritten = new AtomicLong(0);
+
+    @Autowired
+    public StreamingExporter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates an exporter with the given fetch size (for tests)
+     */
+    public StreamingExporter(JdbcTemplate jdbcTemplate, int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes a dataset to the stream and closes it
+     *
+     * @param from inclusive lower bound on the dataset's time column, or null
+     * @param to   inclusive upper bound on the dataset's time column, or null
+     * @param gzip whether to gzip the output
+     * @return the number of rows written
+     */
+    public long export(ExportDataset dataset, ExportFormat format, LocalDateTime from, LocalDateTime to,
+                       boolean gzip, OutputStream out) throws IOException {
+        List<Object> args = new ArrayList<>(2);
+        if (from != null) {
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            args.add(Timestamp.valueOf(to));
+        }
+        String sql = dataset.sql(from != null, to != null);
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024, true) : out;
+        active.incrementAndGet();
+        long startNanos = System.nanoTime();
+        try {
+            long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                    streamRows(connection, sql, args, format, target));
+            completed.incrementAndGet();
+            rowsWritten.addAndGet(rows);
+            logger.info("Exported {} {} rows as {} in {} ms", rows, dataset.getFileName(), format,
+                    (System.nanoTime() - startNanos) / 1_000_000);
+            return rows;
+        } catch (UncheckedIOException e) {
+            // Usually the client closing the download
+            failed.incrementAndGet();
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("active", active.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("rowsWritten", rowsWritten.get());
+        stats.put("fetchSize", fetchSize);
+        return stats;
+    }
+
+    private long streamRows(Connection connection, String sql, List<Object> args, ExportFormat format,
+                            OutputStream out) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columnCount = meta.getColumnCount();
+                List<String> columns = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    columns.add(meta.getColumnLabel(i));
+                }
+                ExportFormat.RowWriter writer = format.open(out, columns);
+                long rows = 0;
+                while (rs.next()) {
+                    Object[] values = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    writer.write(values);
+                    rows++;
+                    // Flush the first row, then once per fetched batch
+                    if (rows == 1 || rows % fetchSize == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.close();
+                return rows;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // The export only reads; end the cursor's transaction before the connection goes back to the pool
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
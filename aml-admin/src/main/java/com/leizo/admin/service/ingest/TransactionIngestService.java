@@ -0,0 +1,216 @@
+package com.leizo.admin.service.ingest;
+
+import com.leizo.admin.dto.TransactionDTO;
+import com.leizo.admin.dto.TransactionMapper;
+import com.leizo.admin.repository.TransactionRepository;
+import com.leizo.admin.service.analytics.ColumnarTransactionStore;
+import com.leizo.admin.service.analytics.DashboardAggregates;
+import com.leizo.admin.service.cluster.SenderPartitioner;
+import com.leizo.enums.RiskScore;
+import com.leizo.pojo.entity.Alert;
+import com.leizo.pojo.entity.Transaction;
+import com.leizo.service.AlertDecisionEngine;
+import com.leizo.service.AlertDecisionResult;
+import com.leizo.service.RiskScoringService;
+import com.leizo.service.TransactionEvaluatorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transaction Ingest
+ *
+ * Stores ingested transactions and evaluates them for alerts on the node that owns their
+ * senders, so cooldowns, duplicate claims and sender windows are built where the sender's
+ * traffic is evaluated:
+ * - {@link #ingest(List)} evaluates rows of locally owned senders and forwards the rest to
+ *   their owners through {@link SenderPartitioner}; rows whose owner cannot be reached are
+ *   reported as failed and retryable, since the owner may have stored them before the call
+ *   failed and evaluating them here would bypass the owner's sender state
+ * - {@link #ingestOwned(List)} evaluates rows without routing them, for rows another node
+ *   forwarded here
+ *
+ * Each row is saved first so that its alert references the stored transaction, then evaluated
+ * by {@link TransactionEvaluatorService}. Alerts are handed to {@link AlertDecisionEngine},
+ * which persists them through the write-behind queue.
+ */
+@Service
+public class TransactionIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionIngestService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final RiskScoringService riskScoringService;
+    private final TransactionEvaluatorService transactionEvaluatorService;
+    private final AlertDecisionEngine alertDecisionEngine;
+    private final SenderPartitioner senderPartitioner;
+    private final ColumnarTransactionStore columnarTransactionStore;
+    private final DashboardAggregates dashboardAggregates;
+
+    public TransactionIngestService(TransactionRepository transactionRepository,
+                                    RiskScoringService riskScoringService,
+                                    TransactionEvaluatorService transactionEvaluatorService,
+                                    AlertDecisionEngine alertDecisionEngine,
+                                    SenderPartitioner senderPartitioner,
+                                    ColumnarTransactionStore columnarTransactionStore,
+                                    DashboardAggregates dashboardAggregates) {
+        this.transactionRepository = transactionRepository;
+        this.riskScoringService = riskScoringService;
+        this.transactionEvaluatorService = transactionEvaluatorService;
+        this.alertDecisionEngine = alertDecisionEngine;
+        this.senderPartitioner = senderPartitioner;
+        this.columnarTransactionStore = columnarTransactionStore;
+        this.dashboardAggregates = dashboardAggregates;
+    }
+
+    /**
+     * Ingests validated rows, each on the node that owns its sender
+     *
+     * @param rows validated transaction rows
+     * @return map with processed, successful, failed, forwarded, retryable, alertsGenerated and errors
+     */
+    public Map<String, Object> ingest(List<TransactionDTO> rows) {
+        IngestTally tally = new IngestTally();
+        // Rows whose sender is owned by another node, grouped by that node
+        Map<String, List<TransactionDTO>> remoteRows = new LinkedHashMap<>();
+        for (TransactionDTO dto : rows) {
+            String owner = senderPartitioner.remoteOwnerOf(dto.getSenderName());
+            if (owner != null) {
+                remoteRows.computeIfAbsent(owner, k -> new ArrayList<>()).add(dto);
+            } else {
+                ingestRow(dto, tally);
+            }
+        }
+
+        for (Map.Entry<String, List<TransactionDTO>> entry : remoteRows.entrySet()) {
+            List<TransactionDTO> forwarded = entry.getValue();
+            try {
+                Map<String, Object> result = senderPartitioner.forwardIngest(entry.getKey(), forwarded);
+                tally.addRemote(entry.getKey(), result);
+                tally.forwarded += forwarded.size();
+            } catch (Exception e) {
+                // The owner may have stored the rows before a timeout, so they are handed back to the
+                // caller to retry rather than stored here a second time
+                logger.warn("Forwarding {} rows to {} failed, reporting them as retryable: {}",
+                        forwarded.size(), entry.getKey(), e.getMessage());
+                for (TransactionDTO dto : forwarded) {
+                    Map<String, Object> error = error(dto, "Forwarding to owner failed: " + e.getMessage());
+                    error.put("node", entry.getKey());
+                    error.put("retryable", true);
+                    tally.errors.add(error);
+                }
+                tally.failed += forwarded.size();
+                tally.retryable += forwarded.size();
+            }
+        }
+        return tally.toMap();
+    }
+
+    /**
+     * Ingests rows on this node without routing them
+     *
+     * @param rows validated transaction rows whose senders this node owns
+     * @return map with processed, successful, failed, alertsGenerated and errors
+     */
+    public Map<String, Object> ingestOwned(List<TransactionDTO> rows) {
+        IngestTally tally = new IngestTally();
+        rows.forEach(dto -> ingestRow(dto, tally));
+        return tally.toMap();
+    }
+
+    private void ingestRow(TransactionDTO dto, IngestTally tally) {
+        Transaction saved;
+        try {
+            Transaction txn = TransactionMapper.toEntity(dto);
+            try {
+                txn.setRiskScore(riskScoringService.assessRisk(txn));
+            } catch (Exception e) {
+                logger.warn("Risk scoring failed for transaction {}: {}", dto.getTransactionId(), e.getMessage());
+                txn.setRiskScore(RiskScore.MEDIUM);
+            }
+            saved = transactionRepository.save(txn);
+        } catch (Exception e) {
+            tally.failed++;
+            tally.errors.add(error(dto, String.valueOf(e.getMessage())));
+            return;
+        }
+        tally.successful++;
+        columnarTransactionStore.append(saved);
+        dashboardAggregates.recordTransaction(saved);
+
+        try {
+            AlertDecisionResult decision = transactionEvaluatorService.evaluateForAlert(saved);
+            if (decision.shouldTriggerAlert()) {
+                // The engine assigns the alert id and source details the evaluator leaves out
+                Alert alert = alertDecisionEngine.createAlert(saved, decision.getMatchedRule(), decision.getReason(),
+                        decision.getPriorityScore(), decision.getSanctionsResult());
+                if (alertDecisionEngine.processAlert(alert)) {
+                    tally.alertsGenerated++;
+                }
+            }
+        } catch (Exception e) {
+            // The transaction is stored; a failed evaluation is reported but does not fail the row
+            logger.warn("Alert evaluation failed for transaction {}: {}", saved.getId(), e.getMessage());
+            tally.errors.add(error(dto, "Alert evaluation failed: " + e.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> error(TransactionDTO dto, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("transactionId", String.valueOf(dto.getTransactionId()));
+        error.put("error", message);
+        return error;
+    }
+
+    /**
+     * Running counts of one ingest call
+     */
+    private static class IngestTally {
+        int successful;
+        int failed;
+        int forwarded;
+        int retryable;
+        int alertsGenerated;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+
+        void addRemote(String node, Map<String, Object> result) {
+            successful += count(result, "successful");
+            failed += count(result, "failed");
+            alertsGenerated += count(result, "alertsGenerated");
+            if (result.get("errors") instanceof List<?> remoteErrors) {
+                for (Object remoteError : remoteErrors) {
+                    Map<String, Object> error = new HashMap<>();
+                    if (remoteError instanceof Map<?, ?> details) {
+                        details.forEach((key, value) -> error.put(String.valueOf(key), value));
+                    } else {
+                        error.put("error", String.valueOf(remoteError));
+                    }
+                    error.put("node", node);
+                    errors.add(error);
+                }
+            }
+        }
+
+        private static int count(Map<String, Object> result, String key) {
+            return result.get(key) instanceof Number number ? number.intValue() : 0;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> result = new HashMap<>();
+            result.put("processed", successful + failed);
+            result.put("successful", successful);
+            result.put("failed", failed);
+            result.put("forwarded", forwarded);
+            result.put("retryable", retryable);
+            result.put("alertsGenerated", alertsGenerated);
+            result.put("errors", errors);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.leizo.admin.service.partition;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.leizo.admin.util.DateTimeUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Time Partition Manager
+ *
+ * Maintains the monthly or daily range partitions of the time-partitioned transactions and
+ * alerts tables (see scripts/partition_transactions_alerts.sql):
+ * - Creates partitions ahead of time so inserts never land in the default partition
+ * - Detaches partitions that fall outside the retention window; a detached partition stays in
+ *   the database as a standalone table until an operator archives or drops it
+ * - Keeps the (timestamp DESC, id DESC) index on the partitioned parent, which PostgreSQL
+ *   propagates to every partition
+ *
+ * Partitions are named {@code <table>_pYYYY_MM} (monthly) or {@code <table>_pYYYY_MM_DD} (daily)
+ * and their bounds are derived from the name. Tables that have not been converted to
+ * partitioned tables, and non-PostgreSQL databases, are left untouched, except that missing
+ * timestamps are filled from the recorded event time: a transaction's 'timestamp' metadata
+ * value and an alert's transaction. Rows without a usable event time keep a null timestamp
+ * and are reported, so the conversion script refuses to partition them instead of inventing
+ * a date.
+ */
+@Service
+public class TimePartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimePartitionManager.class);
+
+    private static final String[] MANAGED_TABLES = {"transactions", "alerts"};
+    private static final DateTimeFormatter MONTHLY_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter DAILY_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM_dd");
+    private static final Pattern PARTITION_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})(?:_(\\d{2}))?$");
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+            "WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace";
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    // Event time recorded as metadata by ingests from before transactions had a timestamp column
+    private static final String METADATA_TIMESTAMPS_SQL =
+            "SELECT t.id, m.meta_value FROM transactions t " +
+            "JOIN transaction_metadata m ON m.transaction_id = t.id AND m.meta_key = 'timestamp' " +
+            "WHERE t.timestamp IS NULL";
+
+    private static final String ALERT_TIMESTAMPS_SQL =
+            "UPDATE alerts a SET timestamp = t.timestamp FROM transactions t " +
+            "WHERE a.timestamp IS NULL AND t.id = a.transaction_id AND t.timestamp IS NOT NULL";
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT child.relname AS partition_name, pg_get_expr(child.relpartbound, child.oid) AS bounds, " +
+            "pg_total_relation_size(child.oid) AS size_bytes " +
+            "FROM pg_inherits i " +
+            "JOIN pg_class parent ON parent.oid = i.inhparent " +
+            "JOIN pg_class child ON child.oid = i.inhrelid " +
+            "WHERE parent.relname = ? AND parent.relnamespace = current_schema()::regnamespace " +
+            "ORDER BY child.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong partitionsCreated = new AtomicLong(0);
+    private final AtomicLong partitionsDetached = new AtomicLong(0);
+    private final AtomicLong maintenanceRuns = new AtomicLong(0);
+    private final AtomicLong maintenanceFailures = new AtomicLong(0);
+    private volatile LocalDateTime lastMaintenance;
+    private volatile Boolean postgres;
+    private final Set<String> backfilledTables = ConcurrentHashMap.newKeySet();
+
+    @Value("${aml.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aml.partitions.granularity:monthly}")
+    private String granularity;
+
+    @Value("${aml.partitions.premake:3}")
+    private int premake;
+
+    @Value("${aml.partitions.retention:0}")
+    private int retention;
+
+    @Value("${aml.partitions.maintenance-interval-minutes:360}")
+    private long maintenanceIntervalMinutes;
+
+    public TimePartitionManager(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Partition maintenance disabled");
+            return;
+        }
+        // Run off the startup path; the first run happens shortly after boot
+        scheduler.scheduleWithFixedDelay(this::runMaintenanceSafely, 30, maintenanceIntervalMinutes * 60, TimeUnit.SECONDS);
+        logger.info("Partition maintenance scheduled: granularity={}, premake={}, retention={}, interval={}min",
+                granularity, premake, retention, maintenanceIntervalMinutes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs one maintenance pass over all managed tables
+     *
+     * @return map containing the per-table outcome
+     */
+    public Map<String, Object> runMaintenance() {
+        Map<String, Object> result = new HashMap<>();
+        if (!isPostgres()) {
+            result.put("status", "SKIPPED");
+            result.put("message", "Partition maintenance requires PostgreSQL");
+            return result;
+        }
+
+        for (String table : MANAGED_TABLES) {
+            Map<String, Object> tableResult = new HashMap<>();
+            if (!isPartitioned(table)) {
+                // Rows written before the timestamp column existed cannot be range-filtered or seek-paged
+                if (backfilledTables.add(table)) {
+                    tableResult.put("backfilled", backfillTimestamps(table));
+                    Integer missing = jdbcTemplate.queryForObject(
+                            String.format("SELECT COUNT(*) FROM %s WHERE timestamp IS NULL", table), Integer.class);
+                    tableResult.put("missingTimestamp", missing);
+                    if (missing != null && missing > 0) {
+                        logger.warn("{} rows of {} have no recorded event time and cannot be partitioned", missing, table);
+                    }
+                }
+                tableResult.put("partitioned", false);
+                result.put(table, tableResult);
+                continue;
+            }
+            tableResult.put("partitioned", true);
+            tableResult.put("created", ensureUpcomingPartitions(table));
+            tableResult.put("detached", detachExpiredPartitions(table));
+            ensureParentIndex(table);
+            result.put(table, tableResult);
+        }
+
+        maintenanceRuns.incrementAndGet();
+        lastMaintenance = LocalDateTime.now();
+        result.put("status", "OK");
+        return result;
+    }
+
+    /**
+     * Lists the partitions of every managed table with their bounds and size
+     *
+     * @return map of table name to partition descriptions
+     */
+    public Map<String, Object> describePartitions() {
+        Map<String, Object> result = new HashMap<>();
+        if (!isPostgres()) {
+            return result;
+        }
+        for (String table : MANAGED_TABLES) {
+            if (isPartitioned(table)) {
+                result.put(table, jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, table));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a table has been converted to a partitioned table
+     *
+     * @param table the table name
+     * @return true if the table is range partitioned
+     */
+    public boolean isPartitioned(String table) {
+        Integer count = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Gets maintenance statistics
+     *
+     * @return map containing maintenance statistics
+     */
+    public Map<String, Object> getPartitionStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("granularity", granularity);
+        stats.put("premake", premake);
+        stats.put("retention", retention);
+        stats.put("maintenanceRuns", maintenanceRuns.get());
+        stats.put("maintenanceFailures", maintenanceFailures.get());
+        stats.put("partitionsCreated", partitionsCreated.get());
+        stats.put("partitionsDetached", partitionsDetached.get());
+        stats.put("lastMaintenance", lastMaintenance);
+        return stats;
+    }
+
+    private void runMaintenanceSafely() {
+        try {
+            runMaintenance();
+        } catch (Exception e) {
+            maintenanceFailures.incrementAndGet();
+            logger.warn("Partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fills missing timestamps from the recorded event time; transactions must be filled first,
+     * since alerts take the time of their transaction
+     *
+     * @return the number of rows filled
+     */
+    int backfillTimestamps(String table) {
+        if ("alerts".equals(table)) {
+            return jdbcTemplate.update(ALERT_TIMESTAMPS_SQL);
+        }
+        if (!relationExists("transaction_metadata")) {
+            return 0;
+        }
+        // Parsed like ingest parses the CSV value, so backfilled rows match newly ingested ones
+        List<Object[]> updates = new ArrayList<>();
+        int[] filled = {0};
+        jdbcTemplate.query(METADATA_TIMESTAMPS_SQL, rs -> {
+            LocalDateTime eventTime = DateTimeUtils.parseTimestamp(rs.getString("meta_value"));
+            if (eventTime == null) {
+                return;
+            }
+            updates.add(new Object[] {Timestamp.valueOf(eventTime), rs.getInt("id")});
+            if (updates.size() == BACKFILL_BATCH_SIZE) {
+                filled[0] += applyTimestamps(updates);
+            }
+        });
+        return filled[0] + applyTimestamps(updates);
+    }
+
+    private int applyTimestamps(List<Object[]> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE transactions SET timestamp = ? WHERE id = ? AND timestamp IS NULL", List.copyOf(updates));
+        int applied = updates.size();
+        updates.clear();
+        return applied;
+    }
+
+    private List<String> ensureUpcomingPartitions(String table) {
+        List<String> created = new ArrayList<>();
+        LocalDate start = periodStart(LocalDate.now());
+        for (int i = 0; i <= premake; i++) {
+            LocalDate from = plusPeriods(start, i);
+            LocalDate to = plusPeriods(from, 1);
+            String name = partitionName(table, from);
+            if (relationExists(name)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                        name, table, from, to));
+                partitionsCreated.incrementAndGet();
+                created.add(name);
+                logger.info("Created partition {} [{} - {})", name, from, to);
+            } catch (Exception e) {
+                // Usually rows for this range already sit in the default partition and must be moved first
+                logger.warn("Could not create partition {}: {}", name, e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    private List<String> detachExpiredPartitions(String table) {
+        List<String> detached = new ArrayList<>();
+        if (retention <= 0) {
+            return detached;
+        }
+        LocalDate cutoff = plusPeriods(periodStart(LocalDate.now()), -retention);
+        for (Map<String, Object> partition : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, table)) {
+            String name = (String) partition.get("partition_name");
+            LocalDate end = parsePartitionEnd(name);
+            if (end == null || end.isAfter(cutoff)) {
+                continue;
+            }
+            // Detached only: AML records are archived or dropped by an operator, never by maintenance
+            jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", table, name));
+            partitionsDetached.incrementAndGet();
+            detached.add(name);
+            logger.info("Detached expired partition {} (cutoff {}); it is kept as a standalone table", name, cutoff);
+        }
+        return detached;
+    }
+
+    private void ensureParentIndex(String table) {
+        jdbcTemplate.execute(String.format(
+                "CREATE INDEX IF NOT EXISTS idx_%s_ts_id ON %s (timestamp DESC, id DESC)", table, table));
+    }
+
+    private boolean relationExists(String name) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try {
+                postgres = jdbcTemplate.execute((Connection connection) -> {
+                    DatabaseMetaData metaData = connection.getMetaData();
+                    return metaData.getDatabaseProductName().toLowerCase().contains("postgresql");
+                });
+            } catch (Exception e) {
+                logger.warn("Could not determine database product: {}", e.getMessage());
+                return false;
+            }
+        }
+        return Boolean.TRUE.equals(postgres);
+    }
+
+    private boolean isDaily() {
+        return "daily".equalsIgnoreCase(granularity);
+    }
+
+    private LocalDate periodStart(LocalDate date) {
+        return isDaily() ? date : date.withDayOfMonth(1);
+    }
+
+    private LocalDate plusPeriods(LocalDate date, long periods) {
+        return isDaily() ? date.plus(periods, ChronoUnit.DAYS) : date.plus(periods, ChronoUnit.MONTHS);
+    }
+
+    String partitionName(String table, LocalDate from) {
+        return table + "_p" + from.format(isDaily() ? DAILY_SUFFIX : MONTHLY_SUFFIX);
+    }
+
+    /**
+     * Derives the exclusive upper bound of a partition from its name, so partitions created
+     * under a different granularity setting are still expired correctly
+     */
+    static LocalDate parsePartitionEnd(String partitionName) {
+        Matcher matcher = PARTITION_SUFFIX.matcher(partitionName);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            int year = Integer.parseInt(matcher.group(1));
+            int month = Integer.parseInt(matcher.group(2));
+            if (matcher.group(3) != null) {
+                return LocalDate.of(year, month, Integer.parseInt(matcher.group(3))).plusDays(1);
+            }
+            return LocalDate.of(year, month, 1).plusMonths(1);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
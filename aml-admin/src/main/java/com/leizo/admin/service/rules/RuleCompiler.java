@@ -0,0 +1,467 @@
+package com.leizo.admin.service.rules;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Rule Compiler
+ *
+ * Validates declarative rule definitions and compiles their conditions into predicate trees.
+ * Thresholds, value sets and windows are parsed once at compile time, so evaluating a rule
+ * only compares already-built values. Every condition gets a static cost estimate; the
+ * branches of all/any are tried cheapest first and the rule carries the total as its
+ * evaluation cost.
+ *
+ * Each rule has a {@code description}, a {@code sensitivity}, optional {@code tags} and a
+ * condition in {@code when}:
+ * <pre>
+ * {"field": "amount", "op": "gt", "value": 10000}              comparison (gt, gte, lt, lte, eq, ne)
+ * {"field": "country", "in": ["Iran", "Syria"]}                set membership, also "notIn"
+ * {"field": "metadata.manualFlag", "exists": true}             presence of a field
+ * {"aggregate": "sum", "minutes": 60, "op": "gte", "value": 50000}
+ *                                                              sender window (count or sum), including
+ *                                                              the transaction being evaluated
+ * {"all": [...]}, {"any": [...]}, {"not": {...}}               combinators
+ * {"predicate": "manual_flag"}                                 named predicate provided by the application
+ * </pre>
+ * String fields are sender, receiver, currency, country, dob and metadata.&lt;key&gt;; they compare
+ * case-insensitively and only support eq and ne. amount is the normalized amount. A missing field
+ * never matches. The legacy {@code "type": "<name>"} form is accepted: the built-in types of the
+ * old rules format (high_value, low_value, medium_risk_country, high_risk_country,
+ * fatf_grey_list, money_laundering_risk) are translated to the equivalent condition, and any
+ * other name is looked up as a named predicate.
+ */
+public class RuleCompiler {
+
+    private static final Set<String> RULE_KEYS = Set.of("description", "sensitivity", "tags", "when", "type");
+    private static final Set<String> STRING_FIELDS = Set.of("sender", "receiver", "currency", "country", "dob");
+    private static final String METADATA_PREFIX = "metadata.";
+
+    // Static cost estimates; window aggregates lock and scan a sender's buckets
+    private static final int FIELD_COST = 1;
+    private static final int SET_COST = 2;
+    private static final int PREDICATE_COST = 4;
+    private static final int AGGREGATE_COST = 8;
+
+    // Conditions equivalent to the built-in types of the old rules format, so older rules files keep loading
+    private static final Map<String, JsonNode> LEGACY_TYPES = Map.of(
+            "high_value", legacyCondition("{\"field\": \"amount\", \"op\": \"gt\", \"value\": 10000}"),
+            "low_value", legacyCondition("{\"field\": \"amount\", \"op\": \"lt\", \"value\": 500}"),
+            "medium_risk_country", legacyCondition("{\"field\": \"country\", \"in\": [\"Turkey\", \"Mexico\"]}"),
+            "high_risk_country", legacyCondition("{\"field\": \"country\", \"in\": [\"Iran\", \"North Korea\", \"Syria\", "
+                    + "\"Russia\", \"Venezuela\", \"Belarus\", \"Zimbabwe\", \"Sudan\", \"Libya\", \"Somalia\"]}"),
+            "fatf_grey_list", legacyCondition("{\"field\": \"country\", \"in\": [\"Panama\", \"Albania\", \"Barbados\", "
+                    + "\"Cayman Islands\", \"Turkey\", \"Mexico\"]}"),
+            "money_laundering_risk", legacyCondition("{\"field\": \"country\", \"in\": [\"Cayman Islands\", \"Bahamas\", "
+                    + "\"Bermuda\", \"Cyprus\", \"Liechtenstein\", \"San Marino\"]}"));
+
+    private final Supplier<SenderWindowStore> windows;
+    private final Map<String, BiPredicate<Transaction, BigDecimal>> namedPredicates;
+
+    /**
+     * Result of a successful compilation
+     */
+    public static final class CompiledRules {
+        private final List<Rule> rules;
+        private final boolean usesWindows;
+
+        CompiledRules(List<Rule> rules, boolean usesWindows) {
+            this.rules = List.copyOf(rules);
+            this.usesWindows = usesWindows;
+        }
+
+        public List<Rule> getRules() {
+            return rules;
+        }
+
+        /**
+         * Whether any rule aggregates over sender windows, i.e. whether transactions must be recorded
+         */
+        public boolean usesWindows() {
+            return usesWindows;
+        }
+    }
+
+    private static final class Condition {
+        final BiPredicate<Transaction, BigDecimal> predicate;
+        final int cost;
+
+        Condition(BiPredicate<Transaction, BigDecimal> predicate, int cost) {
+            this.predicate = predicate;
+            this.cost = cost;
+        }
+    }
+
+    private enum Op {
+        GT, GTE, LT, LTE, EQ, NE;
+
+        boolean test(int comparison) {
+            return switch (this) {
+                case GT -> comparison > 0;
+                case GTE -> comparison >= 0;
+                case LT -> comparison < 0;
+                case LTE -> comparison <= 0;
+                case EQ -> comparison == 0;
+                case NE -> comparison != 0;
+            };
+        }
+    }
+
+    /**
+     * @param windows         sender windows read by aggregate conditions
+     * @param namedPredicates predicates that rules may reference by name
+     */
+    public RuleCompiler(SenderWindowStore windows, Map<String, BiPredicate<Transaction, BigDecimal>> namedPredicates) {
+        this(() -> windows, namedPredicates);
+    }
+
+    /**
+     * @param windows         supplies the sender windows each time an aggregate condition is evaluated
+     * @param namedPredicates predicates that rules may reference by name
+     */
+    public RuleCompiler(Supplier<SenderWindowStore> windows, Map<String, BiPredicate<Transaction, BigDecimal>> namedPredicates) {
+        this.windows = windows;
+        this.namedPredicates = Map.copyOf(namedPredicates);
+    }
+
+    /**
+     * Validates and compiles an array of rule definitions
+     *
+     * @param root the parsed rules file
+     * @return the compiled rules, in file order
+     * @throws RuleDefinitionException listing every invalid node if any definition is invalid
+     */
+    public CompiledRules compile(JsonNode root) {
+        List<String> errors = new ArrayList<>();
+        if (root == null || !root.isArray()) {
+            throw new RuleDefinitionException(List.of("$: expected an array of rules"));
+        }
+        List<Rule> rules = new ArrayList<>();
+        Set<String> descriptions = new HashSet<>();
+        boolean[] usesWindows = {false};
+        for (int i = 0; i < root.size(); i++) {
+            Rule rule = compileRule(root.get(i), "$[" + i + "]", descriptions, usesWindows, errors);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new RuleDefinitionException(errors);
+        }
+        return new CompiledRules(rules, usesWindows[0]);
+    }
+
+    private Rule compileRule(JsonNode node, String path, Set<String> descriptions, boolean[] usesWindows, List<String> errors) {
+        if (node == null || !node.isObject()) {
+            errors.add(path + ": expected a rule object");
+            return null;
+        }
+        int errorCount = errors.size();
+        for (Iterator<String> keys = node.fieldNames(); keys.hasNext(); ) {
+            String key = keys.next();
+            if (!RULE_KEYS.contains(key)) {
+                errors.add(path + "." + key + ": unknown rule property");
+            }
+        }
+
+        String description = node.path("description").asText("").trim();
+        if (description.isEmpty()) {
+            errors.add(path + ".description: required");
+        } else if (!descriptions.add(description)) {
+            errors.add(path + ".description: duplicate rule '" + description + "'");
+        }
+
+        RuleSensitivity sensitivity = null;
+        try {
+            sensitivity = RuleSensitivity.valueOf(node.path("sensitivity").asText("").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(path + ".sensitivity: expected LOW, MEDIUM or HIGH");
+        }
+
+        Set<String> tags = new LinkedHashSet<>();
+        JsonNode tagsNode = node.get("tags");
+        if (tagsNode != null) {
+            if (!tagsNode.isArray()) {
+                errors.add(path + ".tags: expected an array");
+            } else {
+                tagsNode.forEach(tag -> tags.add(tag.asText()));
+            }
+        }
+
+        Condition condition = null;
+        if (node.has("when") == node.has("type")) {
+            errors.add(path + ": exactly one of 'when' or 'type' is required");
+        } else if (node.has("when")) {
+            condition = compileCondition(node.get("when"), path + ".when", usesWindows, errors);
+        } else {
+            condition = legacyType(node.get("type").asText(), path + ".type", usesWindows, errors);
+        }
+
+        if (errors.size() != errorCount || condition == null) {
+            return null;
+        }
+        Rule rule = new Rule(description, sensitivity, condition.predicate, tags);
+        rule.setEvaluationCost(condition.cost);
+        return rule;
+    }
+
+    private Condition compileCondition(JsonNode node, String path, boolean[] usesWindows, List<String> errors) {
+        if (node == null || !node.isObject()) {
+            errors.add(path + ": expected a condition object");
+            return null;
+        }
+        if (node.has("all") || node.has("any")) {
+            boolean all = node.has("all");
+            String key = all ? "all" : "any";
+            JsonNode children = node.get(key);
+            if (node.size() != 1 || !children.isArray() || children.isEmpty()) {
+                errors.add(path + "." + key + ": expected a non-empty array as the only property");
+                return null;
+            }
+            List<Condition> parts = new ArrayList<>();
+            for (int i = 0; i < children.size(); i++) {
+                parts.add(compileCondition(children.get(i), path + "." + key + "[" + i + "]", usesWindows, errors));
+            }
+            if (parts.contains(null)) {
+                return null;
+            }
+            return all ? allOf(parts) : anyOf(parts);
+        }
+        if (node.has("not")) {
+            if (node.size() != 1) {
+                errors.add(path + ".not: must be the only property");
+                return null;
+            }
+            Condition inner = compileCondition(node.get("not"), path + ".not", usesWindows, errors);
+            return inner == null ? null : new Condition(inner.predicate.negate(), inner.cost);
+        }
+        if (node.has("predicate")) {
+            return namedPredicate(node.get("predicate").asText(), path + ".predicate", errors);
+        }
+        if (node.has("aggregate")) {
+            BiPredicate<Transaction, BigDecimal> aggregate = compileAggregate(node, path, errors);
+            usesWindows[0] |= aggregate != null;
+            return aggregate == null ? null : new Condition(aggregate, AGGREGATE_COST);
+        }
+        if (node.has("field")) {
+            BiPredicate<Transaction, BigDecimal> field = compileField(node, path, errors);
+            boolean set = node.has("in") || node.has("notIn");
+            return field == null ? null : new Condition(field, set ? SET_COST : FIELD_COST);
+        }
+        errors.add(path + ": expected one of all, any, not, predicate, aggregate or field");
+        return null;
+    }
+
+    private BiPredicate<Transaction, BigDecimal> compileField(JsonNode node, String path, List<String> errors) {
+        String field = node.get("field").asText();
+        if ("amount".equals(field)) {
+            Op op = op(node, path, errors);
+            JsonNode value = node.get("value");
+            if (op == null) {
+                return null;
+            }
+            if (value == null || !value.isNumber()) {
+                errors.add(path + ".value: expected a number for amount");
+                return null;
+            }
+            BigDecimal threshold = value.decimalValue();
+            return (txn, amount) -> amount != null && op.test(amount.compareTo(threshold));
+        }
+
+        Function<Transaction, String> accessor = stringAccessor(field);
+        if (accessor == null) {
+            errors.add(path + ".field: unknown field '" + field + "'");
+            return null;
+        }
+        if (node.has("in") || node.has("notIn")) {
+            boolean negated = node.has("notIn");
+            JsonNode values = node.get(negated ? "notIn" : "in");
+            if (!values.isArray() || values.isEmpty()) {
+                errors.add(path + ": expected a non-empty array of values");
+                return null;
+            }
+            Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            values.forEach(value -> set.add(value.asText()));
+            return (txn, amount) -> {
+                String value = accessor.apply(txn);
+                return value != null && set.contains(value) != negated;
+            };
+        }
+        if (node.has("exists")) {
+            boolean expected = node.get("exists").asBoolean();
+            return (txn, amount) -> (accessor.apply(txn) != null) == expected;
+        }
+        Op op = op(node, path, errors);
+        if (op == null) {
+            return null;
+        }
+        if (op != Op.EQ && op != Op.NE) {
+            errors.add(path + ".op: only eq and ne apply to '" + field + "'");
+            return null;
+        }
+        if (!node.has("value")) {
+            errors.add(path + ".value: required");
+            return null;
+        }
+        String expected = node.get("value").asText();
+        boolean equal = op == Op.EQ;
+        return (txn, amount) -> {
+            String value = accessor.apply(txn);
+            return value != null && value.equalsIgnoreCase(expected) == equal;
+        };
+    }
+
+    private BiPredicate<Transaction, BigDecimal> compileAggregate(JsonNode node, String path, List<String> errors) {
+        String aggregate = node.get("aggregate").asText();
+        boolean sum = "sum".equals(aggregate);
+        if (!sum && !"count".equals(aggregate)) {
+            errors.add(path + ".aggregate: expected count or sum");
+            return null;
+        }
+        JsonNode minutes = node.get("minutes");
+        long windowMs = minutes != null && minutes.canConvertToLong() ? minutes.asLong() * 60_000L : 0;
+        long maxWindowMs = windows.get().getMaxWindowMs();
+        if (windowMs <= 0 || windowMs > maxWindowMs) {
+            errors.add(path + ".minutes: expected a whole number of minutes up to " + maxWindowMs / 60_000L);
+            return null;
+        }
+        Op op = op(node, path, errors);
+        JsonNode value = node.get("value");
+        if (op == null) {
+            return null;
+        }
+        if (value == null || !value.isNumber()) {
+            errors.add(path + ".value: expected a number");
+            return null;
+        }
+        double threshold = value.doubleValue();
+        if (sum) {
+            return (txn, amount) -> {
+                double total = windows.get().sum(txn.getSender(), windowMs) + (amount != null ? amount.doubleValue() : 0);
+                return op.test(Double.compare(total, threshold));
+            };
+        }
+        return (txn, amount) -> op.test(Double.compare(windows.get().count(txn.getSender(), windowMs) + 1, threshold));
+    }
+
+    private Op op(JsonNode node, String path, List<String> errors) {
+        try {
+            return Op.valueOf(node.path("op").asText("").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(path + ".op: expected gt, gte, lt, lte, eq or ne");
+            return null;
+        }
+    }
+
+    private Condition legacyType(String name, String path, boolean[] usesWindows, List<String> errors) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (namedPredicates.containsKey(key)) {
+            return namedPredicate(name, path, errors);
+        }
+        if (LEGACY_TYPES.containsKey(key)) {
+            return compileCondition(LEGACY_TYPES.get(key), path, usesWindows, errors);
+        }
+        Set<String> known = new TreeSet<>(namedPredicates.keySet());
+        known.addAll(LEGACY_TYPES.keySet());
+        errors.add(path + ": unknown type '" + name + "', expected one of " + known);
+        return null;
+    }
+
+    private static JsonNode legacyCondition(String json) {
+        try {
+            return new ObjectMapper().readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid legacy rule condition: " + json, e);
+        }
+    }
+
+    private Condition namedPredicate(String name, String path, List<String> errors) {
+        BiPredicate<Transaction, BigDecimal> predicate = namedPredicates.get(name.toLowerCase(Locale.ROOT));
+        if (predicate == null) {
+            errors.add(path + ": unknown predicate '" + name + "', expected one of " + new TreeSet<>(namedPredicates.keySet()));
+            return null;
+        }
+        return new Condition(predicate, PREDICATE_COST);
+    }
+
+    private static Function<Transaction, String> stringAccessor(String field) {
+        if (field.startsWith(METADATA_PREFIX) && field.length() > METADATA_PREFIX.length()) {
+            String key = field.substring(METADATA_PREFIX.length());
+            return txn -> txn.getMetadata() != null ? txn.getMetadata().get(key) : null;
+        }
+        if (!STRING_FIELDS.contains(field)) {
+            return null;
+        }
+        return switch (field) {
+            case "sender" -> Transaction::getSender;
+            case "receiver" -> Transaction::getReceiver;
+            case "currency" -> Transaction::getCurrency;
+            case "country" -> Transaction::getCountry;
+            default -> Transaction::getDob;
+        };
+    }
+
+    // Conditions have no side effects, so evaluating the cheapest branch first keeps the result
+    @SuppressWarnings("unchecked")
+    private static Condition allOf(List<Condition> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        BiPredicate<Transaction, BigDecimal>[] array = cheapestFirst(parts);
+        return new Condition((txn, amount) -> {
+            for (BiPredicate<Transaction, BigDecimal> part : array) {
+                if (!part.test(txn, amount)) {
+                    return false;
+                }
+            }
+            return true;
+        }, totalCost(parts));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Condition anyOf(List<Condition> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        BiPredicate<Transaction, BigDecimal>[] array = cheapestFirst(parts);
+        return new Condition((txn, amount) -> {
+            for (BiPredicate<Transaction, BigDecimal> part : array) {
+                if (part.test(txn, amount)) {
+                    return true;
+                }
+            }
+            return false;
+        }, totalCost(parts));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiPredicate<Transaction, BigDecimal>[] cheapestFirst(List<Condition> parts) {
+        return parts.stream()
+                .sorted(Comparator.comparingInt(part -> part.cost))
+                .map(part -> part.predicate)
+                .toArray(BiPredicate[]::new);
+    }
+
+    private static int totalCost(List<Condition> parts) {
+        return parts.stream().mapToInt(part -> part.cost).sum();
+    }
+}
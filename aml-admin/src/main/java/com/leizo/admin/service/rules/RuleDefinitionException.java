@@ -0,0 +1,21 @@
+package com.leizo.admin.service.rules;
+
+import java.util.List;
+
+/**
+ * Thrown when a rule definition file fails validation; carries every problem found, each
+ * prefixed with the JSON path of the offending node
+ */
+public class RuleDefinitionException extends IllegalArgumentException {
+
+    private final List<String> errors;
+
+    public RuleDefinitionException(List<String> errors) {
+        super("Invalid rule definitions: " + String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,287 @@
+package com.leizo.admin.service.rules;
+
+import com.leizo.admin.service.cluster.SenderStateParticipant;
+import com.leizo.admin.service.suppression.CooldownStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Sender Window Store
+ *
+ * Per-sender transaction counts and amount sums over a sliding window, for the window
+ * aggregates of compiled rules. Each sender keeps a fixed ring of time buckets, so memory is
+ * bounded per sender and queries never scan transactions; a window of N minutes is answered
+ * at bucket granularity. Senders without a transaction in the longest window are evicted by
+ * {@link #evictIdle()}.
+ *
+ * When sender partitions move between nodes, the windows of the moved senders are exported
+ * and merged into the new owner's store. Bucket ids are wall-clock based, so windows only move
+ * between stores with the same bucket length.
+ */
+public class SenderWindowStore implements SenderStateParticipant {
+
+    private final int bucketCount;
+    private final long bucketMs;
+    private final LongSupplier clock;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private final AtomicLong recorded = new AtomicLong(0);
+    private final AtomicLong evicted = new AtomicLong(0);
+    private final AtomicLong handedOff = new AtomicLong(0);
+    private final AtomicLong importedSenders = new AtomicLong(0);
+
+    /**
+     * @param maxWindowMinutes longest window a rule may aggregate over
+     * @param bucketCount      buckets per sender; the resolution is maxWindowMinutes / bucketCount
+     * @param clock            time source in epoch milliseconds
+     */
+    public SenderWindowStore(int maxWindowMinutes, int bucketCount, LongSupplier clock) {
+        if (maxWindowMinutes <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("maxWindowMinutes and bucketCount must be positive");
+        }
+        this.bucketCount = bucketCount;
+        this.bucketMs = Math.max(1, maxWindowMinutes * 60_000L / bucketCount);
+        this.clock = clock;
+    }
+
+    private SenderWindowStore(long bucketMs, int bucketCount, LongSupplier clock) {
+        this.bucketCount = bucketCount;
+        this.bucketMs = bucketMs;
+        this.clock = clock;
+    }
+
+    public long getMaxWindowMs() {
+        return bucketMs * bucketCount;
+    }
+
+    /**
+     * Adds a transaction to its sender's window
+     */
+    public void record(String sender, double amount) {
+        if (sender == null) {
+            return;
+        }
+        long bucket = clock.getAsLong() / bucketMs;
+        windows.computeIfAbsent(sender, s -> new Window(bucketCount)).add(bucket, amount);
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * Number of recorded transactions of the sender within the last windowMs
+     */
+    public long count(String sender, long windowMs) {
+        Window window = sender != null ? windows.get(sender) : null;
+        return window == null ? 0 : (long) window.aggregate(clock.getAsLong() / bucketMs, bucketsFor(windowMs), false);
+    }
+
+    /**
+     * Sum of the recorded amounts of the sender within the last windowMs
+     */
+    public double sum(String sender, long windowMs) {
+        Window window = sender != null ? windows.get(sender) : null;
+        return window == null ? 0 : window.aggregate(clock.getAsLong() / bucketMs, bucketsFor(windowMs), true);
+    }
+
+    /**
+     * Copies the sender's window into a detached store whose clock stays at the current time,
+     * so aggregates read from the copy later see the window as it is now
+     */
+    public SenderWindowStore snapshot(String sender) {
+        long now = clock.getAsLong();
+        SenderWindowStore snapshot = new SenderWindowStore(bucketMs, bucketCount, () -> now);
+        Window window = sender != null ? windows.get(sender) : null;
+        if (window != null) {
+            snapshot.windows.put(sender, window.copy());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Removes senders whose most recent transaction is older than the longest window
+     *
+     * @return number of senders removed
+     */
+    public int evictIdle() {
+        long oldest = clock.getAsLong() / bucketMs - bucketCount;
+        int removed = 0;
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            if (entry.getValue().lastBucket() <= oldest && windows.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        evicted.addAndGet(removed);
+        return removed;
+    }
+
+    public void clear() {
+        windows.clear();
+    }
+
+    @Override
+    public String getStateName() {
+        return "sender-windows";
+    }
+
+    @Override
+    public Map<String, Object> exportState(IntPredicate senderPrefixFilter) {
+        long oldest = clock.getAsLong() / bucketMs - bucketCount;
+        Map<String, Object> exported = new HashMap<>();
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            if (senderPrefixFilter.test(CooldownStore.senderPrefix(entry.getKey()))
+                    && windows.remove(entry.getKey(), entry.getValue())) {
+                Map<String, Object> window = entry.getValue().export(oldest);
+                if (window != null) {
+                    exported.put(entry.getKey(), window);
+                }
+            }
+        }
+        Map<String, Object> state = new HashMap<>();
+        if (exported.isEmpty()) {
+            return state;
+        }
+        handedOff.addAndGet(exported.size());
+        state.put("bucketMs", bucketMs);
+        state.put("windows", exported);
+        return state;
+    }
+
+    @Override
+    public void importState(Map<String, Object> state) {
+        if (!(state.get("bucketMs") instanceof Number stateBucketMs) || stateBucketMs.longValue() != bucketMs) {
+            throw new IllegalArgumentException("Sender windows use a different bucket length: " + state.get("bucketMs"));
+        }
+        if (!(state.get("windows") instanceof Map<?, ?> imported)) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : imported.entrySet()) {
+            if (!(entry.getValue() instanceof Map<?, ?> window)
+                    || !(window.get("buckets") instanceof List<?> buckets)
+                    || !(window.get("counts") instanceof List<?> counts)
+                    || !(window.get("sums") instanceof List<?> sums)) {
+                continue;
+            }
+            // Merged, since the new owner may already have recorded the sender during the move
+            Window target = windows.computeIfAbsent(String.valueOf(entry.getKey()), s -> new Window(bucketCount));
+            for (int i = 0; i < Math.min(buckets.size(), Math.min(counts.size(), sums.size())); i++) {
+                target.merge(((Number) buckets.get(i)).longValue(), ((Number) counts.get(i)).longValue(),
+                        ((Number) sums.get(i)).doubleValue());
+            }
+            importedSenders.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("senders", windows.size());
+        stats.put("recorded", recorded.get());
+        stats.put("evicted", evicted.get());
+        stats.put("handedOff", handedOff.get());
+        stats.put("imported", importedSenders.get());
+        stats.put("bucketMs", bucketMs);
+        stats.put("maxWindowMs", getMaxWindowMs());
+        return stats;
+    }
+
+    private int bucketsFor(long windowMs) {
+        return (int) Math.min(bucketCount, Math.max(1, (windowMs + bucketMs - 1) / bucketMs));
+    }
+
+    private static final class Window {
+        private final long[] bucketIds;
+        private final long[] counts;
+        private final double[] sums;
+        private long lastBucket = Long.MIN_VALUE;
+
+        Window(int size) {
+            bucketIds = new long[size];
+            counts = new long[size];
+            sums = new double[size];
+            Arrays.fill(bucketIds, Long.MIN_VALUE);
+        }
+
+        synchronized Window copy() {
+            Window copy = new Window(bucketIds.length);
+            System.arraycopy(bucketIds, 0, copy.bucketIds, 0, bucketIds.length);
+            System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+            System.arraycopy(sums, 0, copy.sums, 0, sums.length);
+            copy.lastBucket = lastBucket;
+            return copy;
+        }
+
+        synchronized void add(long bucket, double amount) {
+            int slot = (int) Math.floorMod(bucket, (long) bucketIds.length);
+            if (bucketIds[slot] != bucket) {
+                bucketIds[slot] = bucket;
+                counts[slot] = 0;
+                sums[slot] = 0;
+            }
+            counts[slot]++;
+            sums[slot] += amount;
+            lastBucket = Math.max(lastBucket, bucket);
+        }
+
+        synchronized void merge(long bucket, long count, double sum) {
+            int slot = (int) Math.floorMod(bucket, (long) bucketIds.length);
+            if (bucketIds[slot] == bucket) {
+                counts[slot] += count;
+                sums[slot] += sum;
+            } else if (bucketIds[slot] < bucket) {
+                bucketIds[slot] = bucket;
+                counts[slot] = count;
+                sums[slot] = sum;
+            } else {
+                // The slot already holds a newer bucket; the imported one has left the window
+                return;
+            }
+            lastBucket = Math.max(lastBucket, bucket);
+        }
+
+        /**
+         * @return the buckets newer than oldestBucket as JSON-friendly lists, or null if there are none
+         */
+        synchronized Map<String, Object> export(long oldestBucket) {
+            List<Long> buckets = new ArrayList<>();
+            List<Long> bucketCounts = new ArrayList<>();
+            List<Double> bucketSums = new ArrayList<>();
+            for (int i = 0; i < bucketIds.length; i++) {
+                if (bucketIds[i] > oldestBucket) {
+                    buckets.add(bucketIds[i]);
+                    bucketCounts.add(counts[i]);
+                    bucketSums.add(sums[i]);
+                }
+            }
+            if (buckets.isEmpty()) {
+                return null;
+            }
+            Map<String, Object> window = new HashMap<>();
+            window.put("buckets", buckets);
+            window.put("counts", bucketCounts);
+            window.put("sums", bucketSums);
+            return window;
+        }
+
+        synchronized double aggregate(long currentBucket, int buckets, boolean sum) {
+            double total = 0;
+            long first = currentBucket - buckets + 1;
+            for (int i = 0; i < bucketIds.length; i++) {
+                long id = bucketIds[i];
+                if (id >= first && id <= currentBucket) {
+                    total += sum ? sums[i] : counts[i];
+                }
+            }
+            return total;
+        }
+
+        synchronized long lastBucket() {
+            return lastBucket;
+        }
+    }
+}
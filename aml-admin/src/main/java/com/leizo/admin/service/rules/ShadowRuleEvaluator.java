@@ -0,0 +1,293 @@
+package com.leizo.admin.service.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.leizo.loader.RuleLoader;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shadow Rule Evaluator
+ *
+ * Runs a candidate rule set against live traffic without letting it raise alerts. After the
+ * production rules have decided, the evaluator hands the transaction and the production
+ * decision to a bounded executor of its own; the shadow rules are evaluated there and their
+ * would-have-fired counts and disagreements with production are recorded.
+ *
+ * Production latency is protected by sampling ({@code aml.rules.shadow.sample-rate}) and by
+ * shedding: when the queue is full a transaction is simply not shadowed, never run on the
+ * caller's thread. The sender's windows are copied when the transaction is submitted, before
+ * it is recorded, so window aggregates see what production saw however long the task queues.
+ */
+@Service
+public class ShadowRuleEvaluator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShadowRuleEvaluator.class);
+    private static final int RECENT_DIFFS_LIMIT = 50;
+
+    private final RuleLoader ruleLoader;
+    private Executor executor;
+    private ThreadPoolExecutor ownedExecutor;
+
+    private volatile List<Rule> shadowRules = List.of();
+    private volatile Map<String, LongAdder> wouldFire = Map.of();
+    private volatile LocalDateTime loadedAt;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder agreements = new LongAdder();
+    private final LongAdder shadowOnly = new LongAdder();
+    private final LongAdder productionOnly = new LongAdder();
+    private final LongAdder differentRule = new LongAdder();
+    private final AtomicLong evaluationNanos = new AtomicLong(0);
+    private final Deque<Map<String, Object>> recentDiffs = new ArrayDeque<>();
+
+    @Value("${aml.rules.shadow.threads:1}")
+    private int threads = 1;
+
+    @Value("${aml.rules.shadow.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${aml.rules.shadow.sample-rate:1.0}")
+    private double sampleRate = 1.0;
+
+    @Autowired
+    public ShadowRuleEvaluator(RuleLoader ruleLoader) {
+        this.ruleLoader = ruleLoader;
+    }
+
+    /**
+     * Creates an evaluator that runs shadow work on the given executor (for tests)
+     *
+     * @param ruleLoader compiles the shadow definitions
+     * @param executor   runs shadow evaluations
+     * @param sampleRate fraction of transactions to shadow
+     */
+    public ShadowRuleEvaluator(RuleLoader ruleLoader, Executor executor, double sampleRate) {
+        this.ruleLoader = ruleLoader;
+        this.executor = executor;
+        this.sampleRate = sampleRate;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (executor != null) {
+            return;
+        }
+        ownedExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "shadow-rules");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                (task, pool) -> shed.increment());
+        executor = ownedExecutor;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Replaces the shadow rule set and resets its statistics
+     *
+     * @param definitions array of rule definitions in the rules.json format
+     * @return the shadow status
+     * @throws RuleDefinitionException if the definitions are invalid
+     */
+    public Map<String, Object> load(JsonNode definitions) {
+        List<Rule> compiled = new ArrayList<>(ruleLoader.compileShadowRules(definitions));
+        compiled.sort(Comparator.<Rule>comparingInt(rule -> rule.getSensitivity().getWeight()).reversed()
+                .thenComparingInt(Rule::getEvaluationCost));
+        Map<String, LongAdder> counters = new LinkedHashMap<>();
+        compiled.forEach(rule -> counters.put(rule.getDescription(), new LongAdder()));
+        synchronized (this) {
+            resetStats();
+            wouldFire = counters;
+            shadowRules = List.copyOf(compiled);
+            loadedAt = LocalDateTime.now();
+        }
+        logger.info("Loaded {} shadow rules", compiled.size());
+        return getStatus();
+    }
+
+    public synchronized void clear() {
+        shadowRules = List.of();
+        wouldFire = Map.of();
+        loadedAt = null;
+        ruleLoader.clearShadowRules();
+        logger.info("Cleared shadow rules");
+    }
+
+    public boolean isActive() {
+        return !shadowRules.isEmpty();
+    }
+
+    /**
+     * Queues a transaction for shadow evaluation; returns immediately
+     *
+     * @param transaction      the evaluated transaction
+     * @param normalizedAmount the amount the production rules saw
+     * @param productionRule   the rule production selected, or null if none matched
+     */
+    public void submit(Transaction transaction, BigDecimal normalizedAmount, Rule productionRule) {
+        List<Rule> rules = shadowRules;
+        if (rules.isEmpty()) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        submitted.increment();
+        String productionDecision = productionRule != null ? productionRule.getDescription() : null;
+        SenderWindowStore windows = ruleLoader.snapshotShadowWindows(transaction.getSender());
+        try {
+            executor.execute(() -> evaluate(rules, windows, transaction, normalizedAmount, productionDecision));
+        } catch (RejectedExecutionException e) {
+            shed.increment();
+        }
+    }
+
+    private void evaluate(List<Rule> rules, SenderWindowStore windows, Transaction transaction,
+                          BigDecimal normalizedAmount, String productionDecision) {
+        long start = System.nanoTime();
+        String shadowDecision;
+        try {
+            shadowDecision = ruleLoader.evaluateShadow(windows, () -> countMatches(rules, transaction, normalizedAmount));
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.debug("Shadow evaluation failed for transaction {}: {}", transaction.getId(), e.getMessage());
+            return;
+        } finally {
+            evaluationNanos.addAndGet(System.nanoTime() - start);
+        }
+        evaluated.increment();
+        compare(transaction, productionDecision, shadowDecision);
+    }
+
+    /**
+     * @return the description of the first matching rule, or null if none matched
+     */
+    private String countMatches(List<Rule> rules, Transaction transaction, BigDecimal normalizedAmount) {
+        String shadowDecision = null;
+        Map<String, LongAdder> counters = wouldFire;
+        for (Rule rule : rules) {
+            if (rule.appliesTo(transaction, normalizedAmount)) {
+                if (shadowDecision == null) {
+                    shadowDecision = rule.getDescription();
+                }
+                LongAdder counter = counters.get(rule.getDescription());
+                if (counter != null) {
+                    counter.increment();
+                }
+            }
+        }
+        return shadowDecision;
+    }
+
+    private void compare(Transaction transaction, String productionDecision, String shadowDecision) {
+        if (Objects.equals(productionDecision, shadowDecision)) {
+            agreements.increment();
+            return;
+        }
+        String kind;
+        if (productionDecision == null) {
+            shadowOnly.increment();
+            kind = "SHADOW_ONLY";
+        } else if (shadowDecision == null) {
+            productionOnly.increment();
+            kind = "PRODUCTION_ONLY";
+        } else {
+            differentRule.increment();
+            kind = "DIFFERENT_RULE";
+        }
+        Map<String, Object> diff = new HashMap<>();
+        diff.put("kind", kind);
+        diff.put("transactionId", transaction.getId());
+        diff.put("sender", transaction.getSender());
+        diff.put("productionRule", productionDecision);
+        diff.put("shadowRule", shadowDecision);
+        diff.put("timestamp", LocalDateTime.now().toString());
+        synchronized (recentDiffs) {
+            if (recentDiffs.size() == RECENT_DIFFS_LIMIT) {
+                recentDiffs.removeFirst();
+            }
+            recentDiffs.addLast(diff);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("active", isActive());
+        status.put("loadedAt", loadedAt != null ? loadedAt.toString() : null);
+        status.put("rules", shadowRules.stream().map(Rule::getDescription).toList());
+        Map<String, Long> fired = new LinkedHashMap<>();
+        wouldFire.forEach((rule, counter) -> fired.put(rule, counter.sum()));
+        status.put("wouldFire", fired);
+        status.put("submitted", submitted.sum());
+        status.put("evaluated", evaluated.sum());
+        status.put("sampledOut", sampledOut.sum());
+        status.put("shed", shed.sum());
+        status.put("failures", failures.sum());
+        status.put("agreements", agreements.sum());
+        status.put("shadowOnly", shadowOnly.sum());
+        status.put("productionOnly", productionOnly.sum());
+        status.put("differentRule", differentRule.sum());
+        long evaluatedCount = evaluated.sum();
+        status.put("averageEvaluationMicros", evaluatedCount > 0 ? evaluationNanos.get() / 1000.0 / evaluatedCount : 0.0);
+        status.put("sampleRate", sampleRate);
+        if (ownedExecutor != null) {
+            status.put("queueDepth", ownedExecutor.getQueue().size());
+        }
+        synchronized (recentDiffs) {
+            status.put("recentDiffs", new ArrayList<>(recentDiffs));
+        }
+        return status;
+    }
+
+    private void resetStats() {
+        for (LongAdder adder : List.of(submitted, evaluated, sampledOut, shed, failures,
+                agreements, shadowOnly, productionOnly, differentRule)) {
+            adder.reset();
+        }
+        evaluationNanos.set(0);
+        synchronized (recentDiffs) {
+            recentDiffs.clear();
+        }
+    }
+}
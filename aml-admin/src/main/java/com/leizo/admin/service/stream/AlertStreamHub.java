@@ -0,0 +1,397 @@
+package com.leizo.admin.service.stream;
+
+import com.leizo.pojo.entity.Alert;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alert Stream Hub
+ *
+ * Pushes alerts to live dashboards as they are raised, so an open dashboard costs no database
+ * queries. Every published alert gets a sequence number, which is its SSE event id and the
+ * cursor a client resumes from; the last {@code aml.alerts.stream.replay-size} events are kept
+ * for resumption, and a client whose cursor has fallen out of that window is told to refetch.
+ *
+ * Publishing never blocks the alert path: each subscriber has a bounded buffer that is drained
+ * on the hub's own threads, and a subscriber that cannot keep up loses events according to
+ * its {@link OverflowPolicy} instead of slowing the others down.
+ */
+@Service
+public class AlertStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertStreamHub.class);
+
+    /**
+     * What a full subscriber buffer does with the next event
+     */
+    public enum OverflowPolicy {
+        /** Drops the oldest buffered event */
+        DROP_OLDEST,
+        /** Drops the incoming event */
+        DROP_NEWEST,
+        /** Replaces everything buffered with one "coalesced" event telling the client to refetch */
+        COALESCE
+    }
+
+    /**
+     * Where a subscriber's events are written; implemented over an SseEmitter by the controller
+     */
+    public interface EventSink {
+        void send(long id, String name, Object data) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void complete();
+    }
+
+    private final Object publishLock = new Object();
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong(0);
+    private Event[] ring;
+    private long sequence;
+    private Executor drainExecutor;
+    private ExecutorService ownedDrainExecutor;
+    private ScheduledExecutorService heartbeats;
+
+    private final AtomicLong published = new AtomicLong(0);
+    private final AtomicLong delivered = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+    private final AtomicLong resets = new AtomicLong(0);
+    private final AtomicLong rejectedSubscribers = new AtomicLong(0);
+
+    @Value("${aml.alerts.stream.replay-size:1000}")
+    private int replaySize = 1000;
+
+    @Value("${aml.alerts.stream.client-buffer:256}")
+    private int clientBuffer = 256;
+
+    @Value("${aml.alerts.stream.max-subscribers:200}")
+    private int maxSubscribers = 200;
+
+    @Value("${aml.alerts.stream.threads:2}")
+    private int threads = 2;
+
+    @Value("${aml.alerts.stream.heartbeat-seconds:15}")
+    private long heartbeatSeconds = 15;
+
+    public AlertStreamHub() {
+    }
+
+    /**
+     * Creates a started hub that drains on the given executor, without heartbeats (for tests)
+     */
+    public AlertStreamHub(Executor drainExecutor, int replaySize, int clientBuffer, int maxSubscribers) {
+        this.replaySize = replaySize;
+        this.clientBuffer = clientBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.ring = new Event[replaySize];
+        this.drainExecutor = drainExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        ring = new Event[Math.max(1, replaySize)];
+        ownedDrainExecutor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "alert-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainExecutor = ownedDrainExecutor;
+        heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "alert-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        subscribers.values().forEach(subscriber -> subscriber.sink.complete());
+        subscribers.clear();
+        if (ownedDrainExecutor != null) {
+            ownedDrainExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Publishes a newly raised alert to every matching subscriber
+     */
+    public void publish(Alert alert) {
+        if (alert == null) {
+            return;
+        }
+        Map<String, Object> payload = payload(alert);
+        Event event;
+        synchronized (publishLock) {
+            long id = ++sequence;
+            payload.put("cursor", id);
+            event = new Event(id, upper(alert.getPriorityLevel()), upper(alert.getAlertType()),
+                    Collections.unmodifiableMap(payload));
+            ring[(int) (id % ring.length)] = event;
+        }
+        published.incrementAndGet();
+        for (Subscriber subscriber : subscribers.values()) {
+            // Events up to the subscriber's registration were already replayed to it
+            if (event.id > subscriber.after && subscriber.accepts(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Registers a subscriber, replaying events after its cursor
+     *
+     * @param sink where the subscriber's events are written
+     * @param priorities priority levels to receive; empty for all
+     * @param types alert types to receive; empty for all
+     * @param policy overflow policy of the subscriber's buffer
+     * @param cursor id of the last event the client saw, or null to start from now
+     * @return the subscriber id, for {@link #unsubscribe(long)}
+     * @throws IllegalStateException when the hub already has the maximum number of subscribers
+     */
+    public long subscribe(EventSink sink, Collection<String> priorities, Collection<String> types,
+                          OverflowPolicy policy, Long cursor) {
+        if (subscribers.size() >= maxSubscribers) {
+            rejectedSubscribers.incrementAndGet();
+            throw new IllegalStateException("Too many alert stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), sink, normalize(priorities),
+                normalize(types), policy != null ? policy : OverflowPolicy.DROP_OLDEST);
+        // Registering under the publish lock keeps replay and live events free of gaps and repeats
+        synchronized (publishLock) {
+            if (cursor != null && cursor != sequence) {
+                long oldest = Math.max(1, sequence - ring.length + 1);
+                // A cursor ahead of the sequence was issued before this instance restarted
+                if (cursor + 1 < oldest || cursor > sequence) {
+                    resets.incrementAndGet();
+                    Map<String, Object> reset = new HashMap<>();
+                    reset.put("cursor", sequence);
+                    reset.put("reason", "Cursor is outside the replay window; refetch alerts");
+                    subscriber.control(sequence, "reset", reset);
+                } else {
+                    for (long id = cursor + 1; id <= sequence; id++) {
+                        Event event = ring[(int) (id % ring.length)];
+                        if (subscriber.accepts(event)) {
+                            subscriber.offer(event);
+                        }
+                    }
+                }
+            }
+            subscriber.after = sequence;
+            subscribers.put(subscriber.id, subscriber);
+        }
+        subscriber.scheduleDrain();
+        return subscriber.id;
+    }
+
+    public void unsubscribe(long subscriberId) {
+        subscribers.remove(subscriberId);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (publishLock) {
+            stats.put("cursor", sequence);
+        }
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("replaySize", replaySize);
+        stats.put("clientBuffer", clientBuffer);
+        stats.put("published", published.get());
+        stats.put("delivered", delivered.get());
+        stats.put("dropped", dropped.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("resets", resets.get());
+        stats.put("rejectedSubscribers", rejectedSubscribers.get());
+        return stats;
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.heartbeatDue = true;
+            subscriber.scheduleDrain();
+        }
+    }
+
+    private static Map<String, Object> payload(Alert alert) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("id", alert.getId());
+        payload.put("alertId", alert.getAlertId());
+        payload.put("transactionId", alert.getTransactionId());
+        payload.put("alertType", alert.getAlertType());
+        payload.put("priorityLevel", alert.getPriorityLevel());
+        payload.put("priorityScore", alert.getPriorityScore());
+        payload.put("reason", alert.getReason());
+        payload.put("matchedEntityName", alert.getMatchedEntityName());
+        payload.put("matchedList", alert.getMatchedList());
+        payload.put("timestamp", alert.getTimestamp() != null ? alert.getTimestamp().toString() : null);
+        return payload;
+    }
+
+    private static Set<String> normalize(Collection<String> values) {
+        if (values == null) {
+            return Set.of();
+        }
+        Set<String> normalized = ConcurrentHashMap.newKeySet();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                normalized.add(value.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return normalized;
+    }
+
+    private static String upper(String value) {
+        return value != null ? value.toUpperCase(Locale.ROOT) : null;
+    }
+
+    private record Event(long id, String priorityLevel, String alertType, Map<String, Object> payload) {
+    }
+
+    private record Outgoing(long id, String name, Object data) {
+    }
+
+    private final class Subscriber {
+        final long id;
+        final EventSink sink;
+        final Set<String> priorities;
+        final Set<String> types;
+        final OverflowPolicy policy;
+        volatile long after;
+        // Guarded by this
+        final Deque<Outgoing> buffer = new ArrayDeque<>();
+        long skipped;
+        long lastSkippedId;
+        final AtomicBoolean draining = new AtomicBoolean(false);
+        volatile boolean heartbeatDue;
+
+        Subscriber(long id, EventSink sink, Set<String> priorities, Set<String> types, OverflowPolicy policy) {
+            this.id = id;
+            this.sink = sink;
+            this.priorities = priorities;
+            this.types = types;
+            this.policy = policy;
+        }
+
+        boolean accepts(Event event) {
+            return event != null
+                    && (priorities.isEmpty() || priorities.contains(event.priorityLevel))
+                    && (types.isEmpty() || types.contains(event.alertType));
+        }
+
+        void offer(Event event) {
+            synchronized (this) {
+                if (skipped > 0) {
+                    // Coalescing: the client refetches, so individual events are not needed
+                    skipped++;
+                    lastSkippedId = event.id;
+                    coalesced.incrementAndGet();
+                } else if (buffer.size() < clientBuffer) {
+                    buffer.addLast(new Outgoing(event.id, "alert", event.payload));
+                } else if (policy == OverflowPolicy.DROP_OLDEST) {
+                    buffer.pollFirst();
+                    buffer.addLast(new Outgoing(event.id, "alert", event.payload));
+                    dropped.incrementAndGet();
+                } else if (policy == OverflowPolicy.DROP_NEWEST) {
+                    dropped.incrementAndGet();
+                } else {
+                    skipped = buffer.size() + 1L;
+                    lastSkippedId = event.id;
+                    coalesced.addAndGet(skipped);
+                    buffer.clear();
+                }
+            }
+            scheduleDrain();
+        }
+
+        synchronized void control(long eventId, String name, Object data) {
+            buffer.addLast(new Outgoing(eventId, name, data));
+        }
+
+        void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    drainExecutor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false);
+                    logger.debug("Alert stream drain rejected for subscriber {}: {}", id, e.getMessage());
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Outgoing next = next();
+                    if (next == null) {
+                        if (heartbeatDue) {
+                            heartbeatDue = false;
+                            sink.heartbeat();
+                        }
+                        break;
+                    }
+                    sink.send(next.id, next.name, next.data);
+                    if ("alert".equals(next.name)) {
+                        delivered.incrementAndGet();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The client went away; it resumes from its last event id when it reconnects
+                subscribers.remove(id);
+                sink.complete();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            synchronized (this) {
+                if (buffer.isEmpty() && skipped == 0) {
+                    return;
+                }
+            }
+            scheduleDrain();
+        }
+
+        private synchronized Outgoing next() {
+            if (skipped > 0) {
+                Map<String, Object> notice = new HashMap<>();
+                notice.put("skipped", skipped);
+                notice.put("cursor", lastSkippedId);
+                Outgoing outgoing = new Outgoing(lastSkippedId, "coalesced", notice);
+                skipped = 0;
+                return outgoing;
+            }
+            return buffer.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.leizo.admin.service.suppression;
+
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.model.CooldownPolicy;
+import com.leizo.pojo.entity.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cooldown Policy Registry
+ *
+ * Resolves how long a sender stays in cooldown after an alert, from {@code aml.cooldown.*}:
+ * - {@code rules}: per rule description, e.g. {@code High Value Transfer Rule=300000;Manual Flag Rule=60000}
+ * - {@code sensitivities}: per rule sensitivity, e.g. {@code HIGH=300000;LOW=1800000}
+ * - {@code alert-types}: per alert type, e.g. {@code SANCTIONS=1800000}
+ * - {@code default-ms}: everything else
+ * The most specific match wins in that order. Alerts whose priority score reaches
+ * {@code escalation.priority-score} use {@code escalation.cooldown-ms} if it is shorter.
+ *
+ * The resolved policy is attached to the rule, so the cooldown check is a field read. A reload
+ * starts a new generation and each rule re-resolves its policy on its next alert.
+ */
+@Service
+public class CooldownPolicyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CooldownPolicyRegistry.class);
+
+    private static final String PREFIX = "aml.cooldown.";
+    private static final String RULE_MATCH = "RULE_MATCH";
+    // The bundled rules that had a 5 minute cooldown when it was chosen by 'high' in the rule name
+    private static final String DEFAULT_RULES = "High Value Transfer Rule=300000;High Risk Country Transfer=300000";
+
+    private final Environment environment;
+    private final AtomicLong generation = new AtomicLong(0);
+    private final AtomicLong resolutions = new AtomicLong(0);
+    private volatile Policies policies;
+
+    @Autowired
+    public CooldownPolicyRegistry(Environment environment) {
+        this.environment = environment;
+        this.policies = load(Map.of());
+    }
+
+    /**
+     * Creates a registry from explicit properties, without a Spring environment (for tests)
+     *
+     * @param properties cooldown properties keyed without the {@code aml.cooldown.} prefix
+     */
+    public CooldownPolicyRegistry(Map<String, String> properties) {
+        this.environment = null;
+        this.policies = load(properties);
+    }
+
+    /**
+     * Returns the policy attached to a rule, resolving and attaching it first if the rule has
+     * none or was resolved before the last reload
+     *
+     * @param rule a rule raising a rule-match alert
+     * @return the rule's cooldown policy
+     */
+    public CooldownPolicy policyFor(Rule rule) {
+        Policies current = policies;
+        CooldownPolicy attached = rule.getCooldownPolicy();
+        if (attached != null && attached.getGeneration() == current.generation) {
+            return attached;
+        }
+        CooldownPolicy resolved = current.resolve(rule.getDescription(), rule.getSensitivity(), RULE_MATCH);
+        rule.setCooldownPolicy(resolved);
+        resolutions.incrementAndGet();
+        return resolved;
+    }
+
+    /**
+     * Resolves the policy for callers that only know the rule by name
+     *
+     * @param ruleId    the rule description, may be null
+     * @param alertType the alert type, may be null
+     * @return the matching cooldown policy
+     */
+    public CooldownPolicy policyFor(String ruleId, String alertType) {
+        return policies.resolve(ruleId, null, alertType);
+    }
+
+    /**
+     * Re-reads the {@code aml.cooldown.*} properties, applying the given overrides on top
+     *
+     * @param overrides property values keyed without the {@code aml.cooldown.} prefix
+     * @return the new policy configuration
+     * @throws IllegalArgumentException if a value cannot be parsed; the current policies stay active
+     */
+    public Map<String, Object> reload(Map<String, String> overrides) {
+        policies = load(overrides != null ? overrides : Map.of());
+        logger.info("Reloaded cooldown policies (generation {})", policies.generation);
+        return getPolicies();
+    }
+
+    public Map<String, Object> getPolicies() {
+        Policies current = policies;
+        Map<String, Object> view = new HashMap<>();
+        view.put("generation", current.generation);
+        view.put("defaultMs", current.defaultMs);
+        view.put("rules", new HashMap<>(current.rules));
+        view.put("sensitivities", new HashMap<>(current.sensitivities));
+        view.put("alertTypes", new HashMap<>(current.alertTypes));
+        view.put("escalationPriorityScore", current.escalationScore);
+        view.put("escalationCooldownMs", current.escalatedMs);
+        view.put("resolutions", resolutions.get());
+        return view;
+    }
+
+    private Policies load(Map<String, String> overrides) {
+        long defaultMs = parseMillis("default-ms", property(overrides, "default-ms", "600000"));
+        Map<String, Long> rules = parseMap("rules", property(overrides, "rules", DEFAULT_RULES), false);
+        Map<String, Long> alertTypes = parseMap("alert-types", property(overrides, "alert-types", "SANCTIONS=1800000"), true);
+        Map<RuleSensitivity, Long> sensitivities = new EnumMap<>(RuleSensitivity.class);
+        for (Map.Entry<String, Long> entry : parseMap("sensitivities", property(overrides, "sensitivities", ""), true).entrySet()) {
+            try {
+                sensitivities.put(RuleSensitivity.valueOf(entry.getKey()), entry.getValue());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown rule sensitivity in " + PREFIX + "sensitivities: " + entry.getKey());
+            }
+        }
+        int escalationScore = (int) parseMillis("escalation.priority-score", property(overrides, "escalation.priority-score", "80"));
+        long escalatedMs = parseMillis("escalation.cooldown-ms", property(overrides, "escalation.cooldown-ms", "300000"));
+        return new Policies(generation.incrementAndGet(), defaultMs, rules, sensitivities, alertTypes, escalationScore, escalatedMs);
+    }
+
+    private String property(Map<String, String> overrides, String name, String defaultValue) {
+        if (overrides.containsKey(name)) {
+            return overrides.get(name);
+        }
+        return environment != null ? environment.getProperty(PREFIX + name, defaultValue) : defaultValue;
+    }
+
+    private static long parseMillis(String name, String value) {
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed < 0) {
+                throw new NumberFormatException();
+            }
+            return parsed;
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid value for " + PREFIX + name + ": " + value);
+        }
+    }
+
+    // Entries are separated by ';' because rule descriptions may contain commas
+    private static Map<String, Long> parseMap(String name, String value, boolean upperCaseKeys) {
+        Map<String, Long> parsed = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return parsed;
+        }
+        for (String entry : value.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected name=millis in " + PREFIX + name + ": " + entry);
+            }
+            String key = entry.substring(0, separator).trim();
+            parsed.put(upperCaseKeys ? key.toUpperCase(Locale.ROOT) : key, parseMillis(name, entry.substring(separator + 1)));
+        }
+        return parsed;
+    }
+
+    private static final class Policies {
+        final long generation;
+        final long defaultMs;
+        final Map<String, Long> rules;
+        final Map<RuleSensitivity, Long> sensitivities;
+        final Map<String, Long> alertTypes;
+        final int escalationScore;
+        final long escalatedMs;
+
+        Policies(long generation, long defaultMs, Map<String, Long> rules, Map<RuleSensitivity, Long> sensitivities,
+                 Map<String, Long> alertTypes, int escalationScore, long escalatedMs) {
+            this.generation = generation;
+            this.defaultMs = defaultMs;
+            this.rules = rules;
+            this.sensitivities = sensitivities;
+            this.alertTypes = alertTypes;
+            this.escalationScore = escalationScore;
+            this.escalatedMs = escalatedMs;
+        }
+
+        CooldownPolicy resolve(String ruleId, RuleSensitivity sensitivity, String alertType) {
+            Long cooldownMs;
+            if (ruleId != null && (cooldownMs = rules.get(ruleId)) != null) {
+                return policy(cooldownMs, "rule");
+            }
+            if (sensitivity != null && (cooldownMs = sensitivities.get(sensitivity)) != null) {
+                return policy(cooldownMs, "sensitivity");
+            }
+            if (alertType != null && (cooldownMs = alertTypes.get(alertType.toUpperCase(Locale.ROOT))) != null) {
+                return policy(cooldownMs, "alertType");
+            }
+            return policy(defaultMs, "default");
+        }
+
+        private CooldownPolicy policy(long cooldownMs, String source) {
+            return new CooldownPolicy(generation, cooldownMs, escalationScore, escalatedMs, source);
+        }
+    }
+}
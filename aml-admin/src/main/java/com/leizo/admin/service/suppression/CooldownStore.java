@@ -0,0 +1,566 @@
+package com.leizo.admin.service.suppression;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Cooldown Store
+ *
+ * Tracks active sender/rule cooldowns with memory proportional to the number of cooldowns
+ * that have not yet expired:
+ * - Keys are 64-bit hashes of (sender, ruleId), computed over the characters directly, so
+ *   lookups allocate nothing
+ * - Entries live in sharded open-addressing tables of primitive longs (key, expiry deadline)
+ * - Each shard has a hashed timing wheel; expired entries are evicted as the wheel advances,
+ *   which happens lazily on every access to the shard and on {@link #evictExpired()}
+ *
+ * The top 16 bits of every key are a hash of the sender alone ({@link #senderPrefix(String)}),
+ * so all keys of one sender share a store shard and a cluster sender partition and can be
+ * handed off together ({@link #drain(LongPredicate)}). The remaining 48 bits hash the pair;
+ * two pairs of the same sender collide with probability ~2^-48, pairs of different senders
+ * with ~2^-64. A collision would at worst extend one cooldown to another pair.
+ */
+public class CooldownStore {
+
+    private static final long EMPTY = 0L;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_BUCKET_CAPACITY = 8;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long tickMs;
+    private final int wheelMask;
+    private final LongSupplier clock;
+
+    private final AtomicLong registrations = new AtomicLong(0);
+    private final AtomicLong lookups = new AtomicLong(0);
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong handedOff = new AtomicLong(0);
+
+    /**
+     * Creates a store with 16 shards and a 1024-slot wheel of one-second ticks
+     */
+    public CooldownStore() {
+        this(16, 1000, 1024, System::currentTimeMillis);
+    }
+
+    /**
+     * @param shardCount number of independently locked shards (rounded up to a power of two)
+     * @param tickMs     wheel resolution in milliseconds
+     * @param wheelSlots number of wheel slots (rounded up to a power of two); cooldowns longer
+     *                   than tickMs * wheelSlots simply stay in their slot for extra rotations
+     * @param clock      time source in epoch milliseconds
+     */
+    public CooldownStore(int shardCount, long tickMs, int wheelSlots, LongSupplier clock) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs must be positive");
+        }
+        int shardTotal = powerOfTwo(Math.max(1, shardCount));
+        int slotTotal = powerOfTwo(Math.max(2, wheelSlots));
+        this.shardMask = shardTotal - 1;
+        this.tickMs = tickMs;
+        this.wheelMask = slotTotal - 1;
+        this.clock = clock;
+        this.shards = new Shard[shardTotal];
+        long startTick = clock.getAsLong() / tickMs;
+        for (int i = 0; i < shardTotal; i++) {
+            shards[i] = new Shard(slotTotal, startTick);
+        }
+    }
+
+    /**
+     * Computes the store key of a sender/rule pair without building a composite string
+     *
+     * @param sender the transaction sender
+     * @param ruleId the rule identifier
+     * @return a non-zero 64-bit key
+     */
+    public static long key(String sender, String ruleId) {
+        // FNV-1a over both strings with a length separator, finished with a 64-bit avalanche mix
+        long hash = 0xcbf29ce484222325L;
+        hash = mixString(hash, sender);
+        hash = mixString(hash, ruleId);
+        return withSenderPrefix(senderPrefix(sender), avalanche(hash));
+    }
+
+    /**
+     * Computes the 16-bit sender hash that forms the top bits of every key of that sender
+     *
+     * @param sender the transaction sender
+     * @return hash in [0, 65536)
+     */
+    public static int senderPrefix(String sender) {
+        return (int) (avalanche(mixString(0xcbf29ce484222325L, sender)) >>> 48);
+    }
+
+    /**
+     * Gets the sender prefix a key was built with
+     *
+     * @param key a key produced by {@link #key(String, String)} or {@link #withSenderPrefix(int, long)}
+     * @return the sender prefix in [0, 65536)
+     */
+    public static int senderPrefixOf(long key) {
+        return (int) (key >>> 48);
+    }
+
+    /**
+     * Replaces the top 16 bits of a hash with a sender prefix
+     *
+     * @param senderPrefix a value from {@link #senderPrefix(String)}
+     * @param hash         any 64-bit hash
+     * @return a non-zero key belonging to the sender
+     */
+    public static long withSenderPrefix(int senderPrefix, long hash) {
+        long key = ((long) senderPrefix << 48) | (hash & 0x0000FFFFFFFFFFFFL);
+        return key == EMPTY ? 1L : key;
+    }
+
+    /**
+     * Checks whether a sender/rule pair is in cooldown
+     *
+     * @param sender the transaction sender
+     * @param ruleId the rule identifier
+     * @return true if a cooldown is registered and has not expired
+     */
+    public boolean isInCooldown(String sender, String ruleId) {
+        return isActive(key(sender, ruleId));
+    }
+
+    /**
+     * Checks whether a key is in cooldown
+     *
+     * @param key a key produced by {@link #key(String, String)}
+     * @return true if a cooldown is registered and has not expired
+     */
+    public boolean isActive(long key) {
+        return remainingMillis(key) > 0;
+    }
+
+    /**
+     * Gets the remaining cooldown of a key
+     *
+     * @param key a key produced by {@link #key(String, String)}
+     * @return milliseconds until the cooldown expires, or 0 if none is active
+     */
+    public long remainingMillis(long key) {
+        lookups.incrementAndGet();
+        long now = clock.getAsLong();
+        Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.advance(now);
+            int index = shard.find(key);
+            if (index < 0) {
+                return 0;
+            }
+            long remaining = shard.deadlines[index] - now;
+            if (remaining <= 0) {
+                shard.removeAt(index);
+                evictions.incrementAndGet();
+                return 0;
+            }
+            hits.incrementAndGet();
+            return remaining;
+        }
+    }
+
+    /**
+     * Starts or restarts the cooldown of a sender/rule pair
+     *
+     * @param sender     the transaction sender
+     * @param ruleId     the rule identifier
+     * @param cooldownMs cooldown duration in milliseconds
+     */
+    public void register(String sender, String ruleId, long cooldownMs) {
+        register(key(sender, ruleId), cooldownMs);
+    }
+
+    /**
+     * Starts or restarts the cooldown of a key
+     *
+     * @param key        a key produced by {@link #key(String, String)}
+     * @param cooldownMs cooldown duration in milliseconds
+     */
+    public void register(long key, long cooldownMs) {
+        if (cooldownMs <= 0) {
+            return;
+        }
+        registrations.incrementAndGet();
+        long now = clock.getAsLong();
+        long deadline = now + cooldownMs;
+        Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.advance(now);
+            long previous = shard.put(key, deadline);
+            // A restart landing in the same slot is already scheduled there
+            if (previous == EMPTY || shard.slotOf(previous) != shard.slotOf(deadline)) {
+                shard.schedule(key, deadline);
+            }
+        }
+    }
+
+    /**
+     * Starts the cooldown of a key unless one is already active, as a single atomic step
+     *
+     * @param key        a key produced by {@link #key(String, String)}
+     * @param cooldownMs cooldown duration in milliseconds
+     * @return 0 if the cooldown was started, otherwise the milliseconds left on the active one
+     */
+    public long tryRegister(long key, long cooldownMs) {
+        lookups.incrementAndGet();
+        long now = clock.getAsLong();
+        Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.advance(now);
+            int index = shard.find(key);
+            if (index >= 0) {
+                long remaining = shard.deadlines[index] - now;
+                if (remaining > 0) {
+                    hits.incrementAndGet();
+                    return remaining;
+                }
+                shard.removeAt(index);
+                evictions.incrementAndGet();
+            }
+            if (cooldownMs > 0) {
+                registrations.incrementAndGet();
+                long deadline = now + cooldownMs;
+                shard.put(key, deadline);
+                shard.schedule(key, deadline);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Advances every shard's wheel and evicts all expired entries
+     *
+     * @return number of entries evicted
+     */
+    public long evictExpired() {
+        long before = evictions.get();
+        long now = clock.getAsLong();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.advance(now);
+            }
+        }
+        return evictions.get() - before;
+    }
+
+    /**
+     * Removes and returns every active entry whose key matches a filter (for state handoff)
+     *
+     * @param keyFilter selects the keys to remove
+     * @return map of key to remaining milliseconds
+     */
+    public Map<Long, Long> drain(LongPredicate keyFilter) {
+        Map<Long, Long> drained = new HashMap<>();
+        long now = clock.getAsLong();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.advance(now);
+                List<Long> matched = new ArrayList<>();
+                for (int i = 0; i < shard.keys.length; i++) {
+                    if (shard.keys[i] != EMPTY && keyFilter.test(shard.keys[i])) {
+                        matched.add(shard.keys[i]);
+                    }
+                }
+                // Removal shifts entries, so remove by key after the scan
+                for (long key : matched) {
+                    int index = shard.find(key);
+                    long remaining = shard.deadlines[index] - now;
+                    if (remaining > 0) {
+                        drained.put(key, remaining);
+                        handedOff.incrementAndGet();
+                    } else {
+                        evictions.incrementAndGet();
+                    }
+                    shard.removeAt(index);
+                }
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Removes all cooldowns
+     */
+    public void clear() {
+        long startTick = clock.getAsLong() / tickMs;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.reset(startTick);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of stored cooldowns, including expired ones not yet evicted
+     *
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Lists active cooldowns keyed by the hex form of their key (for admin views)
+     *
+     * @return map of key to remaining milliseconds
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new HashMap<>();
+        long now = clock.getAsLong();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (int i = 0; i < shard.keys.length; i++) {
+                    if (shard.keys[i] != EMPTY && shard.deadlines[i] > now) {
+                        snapshot.put(Long.toHexString(shard.keys[i]), shard.deadlines[i] - now);
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets size, capacity, eviction and handoff metrics; evictions count expired entries only
+     *
+     * @return map containing store statistics
+     */
+    public Map<String, Object> getStats() {
+        int size = 0;
+        long capacity = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+                capacity += shard.keys.length;
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size);
+        stats.put("capacity", capacity);
+        stats.put("shards", shards.length);
+        stats.put("registrations", registrations.get());
+        stats.put("lookups", lookups.get());
+        stats.put("hits", hits.get());
+        stats.put("evictions", evictions.get());
+        stats.put("handedOff", handedOff.get());
+        return stats;
+    }
+
+    private Shard shardFor(long key) {
+        return shards[(int) (key >>> 48) & shardMask];
+    }
+
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mixString(long hash, String value) {
+        if (value == null) {
+            hash ^= 0xffL;
+            return hash * 0x100000001b3L;
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= length;
+        return hash * 0x100000001b3L;
+    }
+
+    private static int powerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+
+    /**
+     * One open-addressing table (linear probing, backward-shift deletion) and its timing wheel.
+     * All access is synchronized on the shard.
+     */
+    private final class Shard {
+        long[] keys;
+        long[] deadlines;
+        int mask;
+        int size;
+
+        final long[][] wheel;
+        final int[] wheelSizes;
+        long lastTick;
+
+        Shard(int slots, long startTick) {
+            this.wheel = new long[slots][];
+            this.wheelSizes = new int[slots];
+            reset(startTick);
+        }
+
+        void reset(long startTick) {
+            keys = new long[INITIAL_CAPACITY];
+            deadlines = new long[INITIAL_CAPACITY];
+            mask = INITIAL_CAPACITY - 1;
+            size = 0;
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = null;
+                wheelSizes[i] = 0;
+            }
+            lastTick = startTick;
+        }
+
+        int find(long key) {
+            int index = (int) key & mask;
+            while (keys[index] != EMPTY) {
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        long put(long key, long deadline) {
+            int index = (int) key & mask;
+            while (keys[index] != EMPTY) {
+                if (keys[index] == key) {
+                    long previous = deadlines[index];
+                    deadlines[index] = deadline;
+                    return previous;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            deadlines[index] = deadline;
+            size++;
+            if (size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            return EMPTY;
+        }
+
+        void removeAt(int index) {
+            int hole = index;
+            int next = index;
+            while (true) {
+                next = (next + 1) & mask;
+                long candidate = keys[next];
+                if (candidate == EMPTY) {
+                    break;
+                }
+                int home = (int) candidate & mask;
+                // Move the entry back unless its home lies cyclically in (hole, next]
+                boolean homeBetween = hole <= next
+                        ? (home > hole && home <= next)
+                        : (home > hole || home <= next);
+                if (!homeBetween) {
+                    keys[hole] = candidate;
+                    deadlines[hole] = deadlines[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = EMPTY;
+            deadlines[hole] = 0;
+            size--;
+        }
+
+        void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldDeadlines = deadlines;
+            keys = new long[capacity];
+            deadlines = new long[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int index = (int) oldKeys[i] & mask;
+                    while (keys[index] != EMPTY) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    deadlines[index] = oldDeadlines[i];
+                }
+            }
+        }
+
+        void schedule(long key, long deadline) {
+            int slot = slotOf(deadline);
+            long[] bucket = wheel[slot];
+            int bucketSize = wheelSizes[slot];
+            if (bucket == null) {
+                bucket = new long[INITIAL_BUCKET_CAPACITY];
+                wheel[slot] = bucket;
+            } else if (bucketSize == bucket.length) {
+                long[] grown = new long[bucket.length * 2];
+                System.arraycopy(bucket, 0, grown, 0, bucketSize);
+                bucket = grown;
+                wheel[slot] = bucket;
+            }
+            bucket[bucketSize] = key;
+            wheelSizes[slot] = bucketSize + 1;
+        }
+
+        void advance(long now) {
+            long currentTick = now / tickMs;
+            if (currentTick <= lastTick) {
+                return;
+            }
+            // After a long idle period one pass over every slot is enough
+            long ticks = Math.min(currentTick - lastTick, wheel.length);
+            for (long tick = currentTick - ticks + 1; tick <= currentTick; tick++) {
+                expireSlot((int) (tick & wheelMask), now);
+            }
+            lastTick = currentTick;
+            if (keys.length > INITIAL_CAPACITY && size * 8 < keys.length) {
+                resize(Math.max(INITIAL_CAPACITY, powerOfTwo(Math.max(1, size * 4))));
+            }
+        }
+
+        void expireSlot(int slot, long now) {
+            long[] bucket = wheel[slot];
+            int bucketSize = wheelSizes[slot];
+            int kept = 0;
+            for (int i = 0; i < bucketSize; i++) {
+                long key = bucket[i];
+                int index = find(key);
+                if (index < 0) {
+                    continue;
+                }
+                long deadline = deadlines[index];
+                if (deadline <= now) {
+                    removeAt(index);
+                    evictions.incrementAndGet();
+                } else if (slotOf(deadline) == slot) {
+                    // Deadline is one or more rotations away
+                    bucket[kept++] = key;
+                }
+                // Otherwise the cooldown was re-registered and is scheduled in another slot
+            }
+            wheelSizes[slot] = kept;
+            if (kept == 0 && bucket != null && bucket.length > INITIAL_BUCKET_CAPACITY) {
+                wheel[slot] = null;
+            }
+        }
+
+        int slotOf(long deadline) {
+            // Round up so that a slot is only processed once all of its deadlines have passed
+            long tick = (deadline + tickMs - 1) / tickMs;
+            return (int) (tick & wheelMask);
+        }
+    }
+}
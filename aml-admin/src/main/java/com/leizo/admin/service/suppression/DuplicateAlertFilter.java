@@ -0,0 +1,290 @@
+package com.leizo.admin.service.suppression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Duplicate Alert Filter
+ *
+ * Time-windowed duplicate detection in fixed memory. Two generations, each a Bloom filter
+ * plus a bounded exact table of 64-bit fingerprints, cover the current and the previous
+ * window; when a window ends the older generation is cleared and reused. An alert is
+ * therefore remembered for at least one and at most two windows.
+ *
+ * A Bloom hit is confirmed against the exact table, so answers are exact while the window
+ * holds no more fingerprints than the table's capacity. Beyond that the filter falls back to
+ * the Bloom answer, with the false-positive rate it was sized for.
+ *
+ * Fingerprints are 128-bit hashes passed as two longs; Bloom probe positions are derived
+ * from them by double hashing after a finalizing mix.
+ */
+public class DuplicateAlertFilter {
+
+    private static final long EMPTY = 0L;
+
+    private final Generation[] generations = new Generation[2];
+    private final long windowMs;
+    private final int bitCount;
+    private final int hashCount;
+    private final int exactCapacity;
+    private final LongSupplier clock;
+
+    private int current;
+    private long windowStart;
+
+    private long insertions;
+    private long duplicates;
+    private long rotations;
+    private long probabilisticAnswers;
+
+    /**
+     * Creates a filter sized for 100,000 alerts per 6-hour window at a 0.1% false-positive rate
+     */
+    public DuplicateAlertFilter() {
+        this(100_000, 0.001, 6 * 60 * 60 * 1000L, System::currentTimeMillis);
+    }
+
+    /**
+     * @param expectedPerWindow  expected distinct alerts per window; also the exact table capacity
+     * @param falsePositiveRate  Bloom false-positive rate once the exact table is saturated
+     * @param windowMs           window length in milliseconds
+     * @param clock              time source in epoch milliseconds
+     */
+    public DuplicateAlertFilter(int expectedPerWindow, double falsePositiveRate, long windowMs, LongSupplier clock) {
+        if (expectedPerWindow <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || windowMs <= 0) {
+            throw new IllegalArgumentException("Invalid duplicate filter sizing");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedPerWindow * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedPerWindow * ln2));
+        this.exactCapacity = expectedPerWindow;
+        this.windowMs = windowMs;
+        this.clock = clock;
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = new Generation();
+        }
+        this.windowStart = clock.getAsLong();
+    }
+
+    /**
+     * Records a fingerprint and reports whether it was already seen in the current or previous window
+     *
+     * @param high upper 64 bits of the fingerprint
+     * @param low  lower 64 bits of the fingerprint
+     * @return true if the fingerprint is a duplicate
+     */
+    public synchronized boolean checkAndAdd(long high, long low) {
+        rotateIfDue();
+        if (contains(high, low)) {
+            duplicates++;
+            return true;
+        }
+        generations[current].add(high, low);
+        insertions++;
+        return false;
+    }
+
+    /**
+     * Reports whether a fingerprint was seen in the current or previous window without recording it
+     *
+     * @param high upper 64 bits of the fingerprint
+     * @param low  lower 64 bits of the fingerprint
+     * @return true if the fingerprint is a duplicate
+     */
+    public synchronized boolean mightContain(long high, long low) {
+        rotateIfDue();
+        return contains(high, low);
+    }
+
+    /**
+     * {@link #checkAndAdd(long, long)} for a hex digest of at least 32 characters (e.g. SHA-256)
+     *
+     * @param hexDigest the digest
+     * @return true if the fingerprint is a duplicate
+     */
+    public boolean checkAndAdd(String hexDigest) {
+        return checkAndAdd(parseHigh(hexDigest), parseLow(hexDigest));
+    }
+
+    /**
+     * {@link #mightContain(long, long)} for a hex digest of at least 32 characters (e.g. SHA-256)
+     *
+     * @param hexDigest the digest
+     * @return true if the fingerprint is a duplicate
+     */
+    public boolean mightContain(String hexDigest) {
+        return mightContain(parseHigh(hexDigest), parseLow(hexDigest));
+    }
+
+    /**
+     * @return window length in milliseconds
+     */
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    /**
+     * Forgets all fingerprints
+     */
+    public synchronized void clear() {
+        for (Generation generation : generations) {
+            generation.clear();
+        }
+        windowStart = clock.getAsLong();
+    }
+
+    /**
+     * Gets sizing and hit statistics
+     *
+     * @return map containing filter statistics
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("windowMs", windowMs);
+        stats.put("bloomBitsPerGeneration", bitCount);
+        stats.put("bloomHashes", hashCount);
+        stats.put("exactCapacityPerGeneration", exactCapacity);
+        stats.put("currentWindowEntries", generations[current].count);
+        stats.put("previousWindowEntries", generations[1 - current].count);
+        stats.put("insertions", insertions);
+        stats.put("duplicates", duplicates);
+        stats.put("rotations", rotations);
+        stats.put("probabilisticAnswers", probabilisticAnswers);
+        return stats;
+    }
+
+    private boolean contains(long high, long low) {
+        for (int i = 0; i < generations.length; i++) {
+            Generation generation = generations[(current + i) % generations.length];
+            if (generation.bloomContains(high, low)) {
+                if (!generation.saturated) {
+                    if (generation.exactContains(high)) {
+                        return true;
+                    }
+                } else {
+                    probabilisticAnswers++;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void rotateIfDue() {
+        long now = clock.getAsLong();
+        long elapsed = now - windowStart;
+        if (elapsed < windowMs) {
+            return;
+        }
+        if (elapsed >= 2 * windowMs) {
+            // Both windows have passed
+            generations[0].clear();
+            generations[1].clear();
+        } else {
+            current = 1 - current;
+            generations[current].clear();
+        }
+        windowStart = now - (elapsed % windowMs);
+        rotations++;
+    }
+
+    private static long parseHigh(String hexDigest) {
+        return Long.parseUnsignedLong(hexDigest, 0, 16, 16);
+    }
+
+    private static long parseLow(String hexDigest) {
+        return Long.parseUnsignedLong(hexDigest, 16, 32, 16);
+    }
+
+    /**
+     * One window: a Bloom filter and an exact open-addressing table of fingerprint high words
+     */
+    private final class Generation {
+        final long[] bits = new long[(bitCount + 63) >>> 6];
+        final long[] exact = new long[tableSize(exactCapacity)];
+        final int exactMask = exact.length - 1;
+        int count;
+        boolean saturated;
+
+        void add(long high, long low) {
+            long h1 = mix(high);
+            long h2 = mix(low ^ high);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = bitIndex(h1, h2, i);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+            count++;
+            if (saturated) {
+                return;
+            }
+            if (count > exactCapacity) {
+                saturated = true;
+                return;
+            }
+            long key = high == EMPTY ? 1L : high;
+            int index = (int) (key ^ (key >>> 32)) & exactMask;
+            while (exact[index] != EMPTY) {
+                if (exact[index] == key) {
+                    return;
+                }
+                index = (index + 1) & exactMask;
+            }
+            exact[index] = key;
+        }
+
+        boolean bloomContains(long high, long low) {
+            long h1 = mix(high);
+            long h2 = mix(low ^ high);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = bitIndex(h1, h2, i);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean exactContains(long high) {
+            long key = high == EMPTY ? 1L : high;
+            int index = (int) (key ^ (key >>> 32)) & exactMask;
+            while (exact[index] != EMPTY) {
+                if (exact[index] == key) {
+                    return true;
+                }
+                index = (index + 1) & exactMask;
+            }
+            return false;
+        }
+
+        void clear() {
+            Arrays.fill(bits, 0L);
+            Arrays.fill(exact, EMPTY);
+            count = 0;
+            saturated = false;
+        }
+
+        private int bitIndex(long h1, long h2, int i) {
+            long combined = h1 + i * h2;
+            return (int) ((combined & Long.MAX_VALUE) % bitCount);
+        }
+    }
+
+    // 64-bit finalizer so that structured fingerprints still spread across the bit array
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static int tableSize(int capacity) {
+        // Keep the exact table at most 75% full
+        int size = Integer.highestOneBit(Math.max(2, (int) Math.ceil(capacity / 0.75)) - 1) << 1;
+        return Math.max(2, size);
+    }
+}
@@ -0,0 +1,72 @@
+package com.leizo.admin.service.suppression;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory suppression backend
+ *
+ * Keeps claims in a {@link CooldownStore} local to this JVM. Suitable for a single instance
+ * and as an embedded stand-in for the shared backend in tests; the shard argument is
+ * ignored because the store shards by key internally.
+ */
+public class InMemorySuppressionBackend implements SuppressionBackend {
+
+    private final CooldownStore store;
+
+    public InMemorySuppressionBackend() {
+        this(new CooldownStore());
+    }
+
+    public InMemorySuppressionBackend(CooldownStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public long tryAcquire(int shard, long key, long ttlMs) {
+        return store.tryRegister(key, ttlMs);
+    }
+
+    @Override
+    public long remainingMillis(int shard, long key) {
+        return store.remainingMillis(key);
+    }
+
+    @Override
+    public void put(int shard, long key, long ttlMs) {
+        store.register(key, ttlMs);
+    }
+
+    @Override
+    public long purgeExpired() {
+        return store.evictExpired();
+    }
+
+    @Override
+    public Map<Long, Long> drain(LongPredicate keyFilter) {
+        return store.drain(keyFilter);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public Map<String, Long> snapshot() {
+        return store.snapshot();
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(store.getStats());
+        stats.put("type", "memory");
+        return stats;
+    }
+}
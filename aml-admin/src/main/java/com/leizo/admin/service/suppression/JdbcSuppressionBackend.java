@@ -0,0 +1,129 @@
+package com.leizo.admin.service.suppression;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * PostgreSQL suppression backend
+ *
+ * Stores claims in the {@code alert_suppression} table (V4 migration), list-partitioned by
+ * sender shard. A claim is taken with a single INSERT ... ON CONFLICT DO UPDATE that only
+ * overwrites an expired row, so two instances racing for the same key cannot both win.
+ * Expiry is measured on the database clock, which keeps instances with skewed clocks consistent.
+ */
+public class JdbcSuppressionBackend implements SuppressionBackend {
+
+    // The outer SELECT sees the row as it was before the statement, i.e. the claim that beat us
+    private static final String TRY_ACQUIRE_SQL =
+            "WITH claimed AS (" +
+            "  INSERT INTO alert_suppression (sender_shard, suppression_key, expires_at) " +
+            "  VALUES (?, ?, now() + ? * INTERVAL '1 millisecond') " +
+            "  ON CONFLICT (sender_shard, suppression_key) DO UPDATE SET expires_at = EXCLUDED.expires_at " +
+            "  WHERE alert_suppression.expires_at <= now() " +
+            "  RETURNING 0::bigint AS remaining) " +
+            "SELECT remaining FROM claimed " +
+            "UNION ALL " +
+            "SELECT GREATEST(1, CEIL(EXTRACT(EPOCH FROM (expires_at - now())) * 1000))::bigint " +
+            "FROM alert_suppression WHERE sender_shard = ? AND suppression_key = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM claimed)";
+
+    private static final String REMAINING_SQL =
+            "SELECT CEIL(EXTRACT(EPOCH FROM (expires_at - now())) * 1000)::bigint " +
+            "FROM alert_suppression WHERE sender_shard = ? AND suppression_key = ? AND expires_at > now()";
+
+    private static final String PUT_SQL =
+            "INSERT INTO alert_suppression (sender_shard, suppression_key, expires_at) " +
+            "VALUES (?, ?, now() + ? * INTERVAL '1 millisecond') " +
+            "ON CONFLICT (sender_shard, suppression_key) DO UPDATE SET expires_at = EXCLUDED.expires_at";
+
+    private static final String PURGE_SQL = "DELETE FROM alert_suppression WHERE expires_at <= now()";
+
+    private static final String SNAPSHOT_SQL =
+            "SELECT suppression_key, CEIL(EXTRACT(EPOCH FROM (expires_at - now())) * 1000)::bigint AS remaining " +
+            "FROM alert_suppression WHERE expires_at > now() ORDER BY expires_at DESC LIMIT ?";
+
+    private static final int SNAPSHOT_LIMIT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong acquireCalls = new AtomicLong(0);
+    private final AtomicLong acquireConflicts = new AtomicLong(0);
+    private final AtomicLong purged = new AtomicLong(0);
+
+    public JdbcSuppressionBackend(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long tryAcquire(int shard, long key, long ttlMs) {
+        acquireCalls.incrementAndGet();
+        List<Long> rows = jdbcTemplate.queryForList(TRY_ACQUIRE_SQL, Long.class, shard, key, ttlMs, shard, key);
+        if (rows.isEmpty()) {
+            // A concurrent claim committed after our snapshot; it exists but its expiry is not visible
+            acquireConflicts.incrementAndGet();
+            return 1;
+        }
+        long remaining = rows.get(0);
+        if (remaining > 0) {
+            acquireConflicts.incrementAndGet();
+        }
+        return remaining;
+    }
+
+    @Override
+    public long remainingMillis(int shard, long key) {
+        List<Long> rows = jdbcTemplate.queryForList(REMAINING_SQL, Long.class, shard, key);
+        return rows.isEmpty() ? 0 : Math.max(0, rows.get(0));
+    }
+
+    @Override
+    public void put(int shard, long key, long ttlMs) {
+        jdbcTemplate.update(PUT_SQL, shard, key, ttlMs);
+    }
+
+    @Override
+    public long purgeExpired() {
+        int removed = jdbcTemplate.update(PURGE_SQL);
+        purged.addAndGet(removed);
+        return removed;
+    }
+
+    @Override
+    public Map<Long, Long> drain(LongPredicate keyFilter) {
+        return new HashMap<>();
+    }
+
+    @Override
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM alert_suppression");
+    }
+
+    @Override
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new HashMap<>();
+        jdbcTemplate.query(SNAPSHOT_SQL, rs -> {
+            snapshot.put(Long.toHexString(rs.getLong("suppression_key")), rs.getLong("remaining"));
+        }, SNAPSHOT_LIMIT);
+        return snapshot;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("type", "jdbc");
+        stats.put("acquireCalls", acquireCalls.get());
+        stats.put("acquireConflicts", acquireConflicts.get());
+        stats.put("purged", purged.get());
+        return stats;
+    }
+}
@@ -0,0 +1,87 @@
+package com.leizo.admin.service.suppression;
+
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Suppression Backend
+ *
+ * Store of time-limited suppression claims (duplicate alerts and sender/rule cooldowns) keyed
+ * by 64-bit hashes. Every key belongs to a sender shard, so all claims of one sender land in
+ * the same partition of a shared store.
+ *
+ * Implementations:
+ * - {@link InMemorySuppressionBackend}: single-instance store, also the stand-in for tests
+ * - {@link JdbcSuppressionBackend}: PostgreSQL table shared by every application instance
+ */
+public interface SuppressionBackend {
+
+    /**
+     * Claims a key for a period unless an unexpired claim already exists, as one atomic step
+     *
+     * @param shard  sender shard of the key
+     * @param key    non-zero suppression key
+     * @param ttlMs  claim duration in milliseconds
+     * @return 0 if the claim was made, otherwise the milliseconds left on the existing claim
+     */
+    long tryAcquire(int shard, long key, long ttlMs);
+
+    /**
+     * Gets the remaining time of a claim
+     *
+     * @param shard sender shard of the key
+     * @param key   non-zero suppression key
+     * @return milliseconds until the claim expires, or 0 if none is active
+     */
+    long remainingMillis(int shard, long key);
+
+    /**
+     * Starts or restarts a claim regardless of any existing one
+     *
+     * @param shard sender shard of the key
+     * @param key   non-zero suppression key
+     * @param ttlMs claim duration in milliseconds
+     */
+    void put(int shard, long key, long ttlMs);
+
+    /**
+     * Removes expired claims
+     *
+     * @return number of claims removed
+     */
+    long purgeExpired();
+
+    /**
+     * Removes and returns the active claims whose keys match a filter (for sender state handoff)
+     *
+     * A shared backend returns nothing: its claims are already visible to the new owner.
+     *
+     * @param keyFilter selects the keys to remove
+     * @return map of key to remaining milliseconds
+     */
+    Map<Long, Long> drain(LongPredicate keyFilter);
+
+    /**
+     * Removes all claims
+     */
+    void clear();
+
+    /**
+     * Lists active claims keyed by the hex form of their key (for admin views)
+     *
+     * @return map of key to remaining milliseconds
+     */
+    Map<String, Long> snapshot();
+
+    /**
+     * @return true if the claims are visible to other application instances
+     */
+    boolean isShared();
+
+    /**
+     * Gets backend statistics
+     *
+     * @return map containing backend statistics
+     */
+    Map<String, Object> getStats();
+}
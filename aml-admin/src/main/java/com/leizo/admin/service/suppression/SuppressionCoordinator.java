@@ -0,0 +1,357 @@
+package com.leizo.admin.service.suppression;
+
+import com.leizo.admin.service.cluster.SenderStateParticipant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Suppression Coordinator
+ *
+ * Single entry point for duplicate-alert and cooldown claims across application instances:
+ * - The backend is chosen by {@code aml.suppression.backend}: {@code memory} (default, this
+ *   instance only) or {@code jdbc} (shared PostgreSQL table)
+ * - Every key is routed to a sender shard, so all claims of one sender share a partition
+ * - With a shared backend, active claims are mirrored in a local near-cache. A claim never
+ *   ends before its expiry, so a near-cache hit is always a correct "suppress" answer; entries
+ *   are capped at {@code aml.suppression.near-cache-max-ms} to bound staleness after a clear
+ *   on another instance
+ *
+ * If the shared backend is unreachable, claims fail open: the alert is raised and the local
+ * checks still apply, because a missed AML alert costs more than a duplicate one.
+ *
+ * All keys carry the sender prefix ({@link CooldownStore#senderPrefix(String)}), so the claims
+ * of moved senders can be handed off when cluster sender partitions are rebalanced.
+ */
+@Service
+public class SuppressionCoordinator implements SenderStateParticipant {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuppressionCoordinator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+    private SuppressionBackend backend;
+    private CooldownStore nearCache;
+
+    private final AtomicLong nearCacheHits = new AtomicLong(0);
+    private final AtomicLong backendCalls = new AtomicLong(0);
+    private final AtomicLong backendFailures = new AtomicLong(0);
+    private final AtomicLong claimsWon = new AtomicLong(0);
+    private final AtomicLong claimsLost = new AtomicLong(0);
+
+    @Value("${aml.suppression.backend:memory}")
+    private String backendType;
+
+    @Value("${aml.suppression.shards:16}")
+    private int shardCount;
+
+    @Value("${aml.suppression.near-cache-max-ms:30000}")
+    private long nearCacheMaxMs;
+
+    @Value("${aml.suppression.purge-interval-seconds:60}")
+    private long purgeIntervalSeconds;
+
+    @Autowired
+    public SuppressionCoordinator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = System::currentTimeMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "suppression-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a coordinator over a given backend without background purging (for tests)
+     *
+     * @param backend        the claim store
+     * @param shardCount     number of sender shards
+     * @param nearCacheMaxMs longest time a claim is served from the near-cache
+     * @param clock          time source in epoch milliseconds
+     */
+    public SuppressionCoordinator(SuppressionBackend backend, int shardCount, long nearCacheMaxMs, LongSupplier clock) {
+        this.jdbcTemplate = null;
+        this.clock = clock;
+        this.scheduler = null;
+        this.shardCount = shardCount;
+        this.nearCacheMaxMs = nearCacheMaxMs;
+        this.backendType = backend.isShared() ? "shared" : "memory";
+        this.backend = backend;
+        this.nearCache = new CooldownStore(16, 1000, 1024, clock);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (backend != null) {
+            return;
+        }
+        if ("jdbc".equalsIgnoreCase(backendType)) {
+            backend = new JdbcSuppressionBackend(jdbcTemplate);
+            scheduler.scheduleWithFixedDelay(this::purgeExpiredSafely, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            backend = new InMemorySuppressionBackend();
+        }
+        nearCache = new CooldownStore(16, 1000, 1024, clock);
+        logger.info("Alert suppression backend: {} ({} sender shards)", backendType, shardCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Claims an alert fingerprint across all instances
+     *
+     * Only consults a shared backend; on a single instance the caller's local duplicate
+     * filter is already authoritative.
+     *
+     * @param sender   the transaction sender
+     * @param high     upper 64 bits of the alert fingerprint
+     * @param low      lower 64 bits of the alert fingerprint
+     * @param windowMs how long the fingerprint suppresses duplicates
+     * @return true if this instance owns the alert, false if another instance already raised it
+     */
+    public boolean claimAlert(String sender, long high, long low, long windowMs) {
+        if (!backend.isShared()) {
+            return true;
+        }
+        return acquire(sender, alertKey(sender, high, low), windowMs) == 0;
+    }
+
+    /**
+     * Checks whether an alert fingerprint has been claimed by any instance, without claiming it
+     *
+     * @param sender the transaction sender
+     * @param high   upper 64 bits of the alert fingerprint
+     * @param low    lower 64 bits of the alert fingerprint
+     * @return true if another instance holds the fingerprint
+     */
+    public boolean isAlertClaimed(String sender, long high, long low) {
+        if (!backend.isShared()) {
+            return false;
+        }
+        return remaining(sender, alertKey(sender, high, low)) > 0;
+    }
+
+    /**
+     * Starts a sender/rule cooldown unless one is already active anywhere in the cluster
+     *
+     * @param sender     the transaction sender
+     * @param ruleId     the rule identifier
+     * @param cooldownMs cooldown duration in milliseconds
+     * @return true if the cooldown was started, false if one was already active
+     */
+    public boolean tryStartCooldown(String sender, String ruleId, long cooldownMs) {
+        return acquire(sender, CooldownStore.key(sender, ruleId), cooldownMs) == 0;
+    }
+
+    /**
+     * Checks whether a sender/rule pair is in cooldown
+     *
+     * @param sender the transaction sender
+     * @param ruleId the rule identifier
+     * @return true if a cooldown is active
+     */
+    public boolean isInCooldown(String sender, String ruleId) {
+        return remaining(sender, CooldownStore.key(sender, ruleId)) > 0;
+    }
+
+    /**
+     * Starts or restarts a sender/rule cooldown
+     *
+     * @param sender     the transaction sender
+     * @param ruleId     the rule identifier
+     * @param cooldownMs cooldown duration in milliseconds
+     */
+    public void registerCooldown(String sender, String ruleId, long cooldownMs) {
+        long key = CooldownStore.key(sender, ruleId);
+        try {
+            backendCalls.incrementAndGet();
+            backend.put(shardOf(sender), key, cooldownMs);
+        } catch (DataAccessException e) {
+            backendFailures.incrementAndGet();
+            logger.warn("Suppression backend unavailable, cooldown registered locally only: {}", e.getMessage());
+        }
+        if (backend.isShared()) {
+            nearCache.register(key, Math.min(cooldownMs, nearCacheMaxMs));
+        }
+    }
+
+    /**
+     * Lists active claims (for admin views)
+     *
+     * @return map of hex key to remaining milliseconds
+     */
+    public Map<String, Long> snapshot() {
+        try {
+            return backend.snapshot();
+        } catch (DataAccessException e) {
+            backendFailures.incrementAndGet();
+            return nearCache.snapshot();
+        }
+    }
+
+    /**
+     * Removes all claims, on the backend and in this instance's near-cache
+     */
+    public void clear() {
+        backend.clear();
+        nearCache.clear();
+    }
+
+    /**
+     * Gets the sender shard of a sender
+     *
+     * @param sender the transaction sender
+     * @return shard number in [0, shards)
+     */
+    public int shardOf(String sender) {
+        return CooldownStore.senderPrefix(sender) % Math.max(1, shardCount);
+    }
+
+    @Override
+    public String getStateName() {
+        return "suppression";
+    }
+
+    @Override
+    public Map<String, Object> exportState(IntPredicate senderPrefixFilter) {
+        LongPredicate keyFilter = key -> senderPrefixFilter.test(CooldownStore.senderPrefixOf(key));
+        // Cached copies of shared claims are simply dropped; the new owner reads the backend
+        nearCache.drain(keyFilter);
+        Map<Long, Long> drained = backend.drain(keyFilter);
+        Map<String, Object> state = new HashMap<>();
+        if (drained.isEmpty()) {
+            return state;
+        }
+        Map<String, Long> claims = new HashMap<>();
+        drained.forEach((key, remaining) -> claims.put(Long.toHexString(key), remaining));
+        state.put("claims", claims);
+        return state;
+    }
+
+    @Override
+    public void importState(Map<String, Object> state) {
+        Object claims = state.get("claims");
+        if (!(claims instanceof Map<?, ?> entries)) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            long key = Long.parseUnsignedLong(String.valueOf(entry.getKey()), 16);
+            long remaining = ((Number) entry.getValue()).longValue();
+            backend.put(CooldownStore.senderPrefixOf(key) % Math.max(1, shardCount), key, remaining);
+        }
+    }
+
+    /**
+     * Gets coordinator, near-cache and backend statistics
+     *
+     * @return map containing suppression statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("backend", backendType);
+        stats.put("shared", backend.isShared());
+        stats.put("shards", shardCount);
+        stats.put("nearCacheHits", nearCacheHits.get());
+        stats.put("nearCacheSize", nearCache.size());
+        stats.put("backendCalls", backendCalls.get());
+        stats.put("backendFailures", backendFailures.get());
+        stats.put("claimsWon", claimsWon.get());
+        stats.put("claimsLost", claimsLost.get());
+        stats.put("backendStats", backend.getStats());
+        return stats;
+    }
+
+    private long acquire(String sender, long key, long ttlMs) {
+        boolean shared = backend.isShared();
+        if (shared) {
+            long cached = nearCache.remainingMillis(key);
+            if (cached > 0) {
+                nearCacheHits.incrementAndGet();
+                claimsLost.incrementAndGet();
+                return cached;
+            }
+        }
+        long remaining;
+        try {
+            backendCalls.incrementAndGet();
+            remaining = backend.tryAcquire(shardOf(sender), key, ttlMs);
+        } catch (DataAccessException e) {
+            backendFailures.incrementAndGet();
+            logger.warn("Suppression backend unavailable, allowing alert: {}", e.getMessage());
+            return 0;
+        }
+        if (remaining > 0) {
+            claimsLost.incrementAndGet();
+        } else {
+            claimsWon.incrementAndGet();
+        }
+        if (shared) {
+            nearCache.register(key, Math.min(remaining > 0 ? remaining : ttlMs, nearCacheMaxMs));
+        }
+        return remaining;
+    }
+
+    private long remaining(String sender, long key) {
+        if (backend.isShared()) {
+            long cached = nearCache.remainingMillis(key);
+            if (cached > 0) {
+                nearCacheHits.incrementAndGet();
+                return cached;
+            }
+        }
+        try {
+            backendCalls.incrementAndGet();
+            long remaining = backend.remainingMillis(shardOf(sender), key);
+            if (remaining > 0 && backend.isShared()) {
+                nearCache.register(key, Math.min(remaining, nearCacheMaxMs));
+            }
+            return remaining;
+        } catch (DataAccessException e) {
+            backendFailures.incrementAndGet();
+            logger.warn("Suppression backend unavailable, treating key as unclaimed: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private void purgeExpiredSafely() {
+        try {
+            long purged = backend.purgeExpired();
+            nearCache.evictExpired();
+            if (purged > 0) {
+                logger.debug("Purged {} expired suppression claims", purged);
+            }
+        } catch (Exception e) {
+            backendFailures.incrementAndGet();
+            logger.warn("Suppression purge failed: {}", e.getMessage());
+        }
+    }
+
+    // Folds both fingerprint halves into one key under the sender's prefix, distinct from cooldown keys
+    private static long alertKey(String sender, long high, long low) {
+        return CooldownStore.withSenderPrefix(CooldownStore.senderPrefix(sender),
+                high ^ Long.rotateLeft(low * 0x9E3779B97F4A7C15L, 29));
+    }
+}
@@ -0,0 +1,198 @@
+package com.leizo.admin.util;
+
+import com.leizo.pojo.entity.Transaction;
+
+import java.math.BigDecimal;
+
+/**
+ * Allocation-free 128-bit alert fingerprint for hot-path deduplication
+ *
+ * Hashes the deduplication fields (sender, receiver, amount, currency, country and the
+ * trimmed, lower-cased reason) straight into MurmurHash3 x64 128 without building
+ * intermediate strings. Each field is followed by its length so that field boundaries
+ * cannot shift between inputs. The amount is hashed by numeric value.
+ *
+ * {@link #compute(Transaction, String)} returns a per-thread instance that is overwritten by
+ * the next call on the same thread; read {@link #high()} and {@link #low()} straight away.
+ * The persisted audit fingerprint stays SHA-256 ({@link AlertUtils#generateAlertHash}).
+ */
+public final class AlertFingerprint {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final ThreadLocal<AlertFingerprint> STATE = ThreadLocal.withInitial(AlertFingerprint::new);
+
+    private long h1;
+    private long h2;
+    private long k1;
+    private long k2;
+    private int position;
+    private long length;
+
+    private AlertFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of an alert candidate
+     *
+     * @param transaction the transaction details
+     * @param reason      the alert reason
+     * @return this thread's fingerprint instance, valid until the next call on the same thread
+     */
+    public static AlertFingerprint compute(Transaction transaction, String reason) {
+        AlertFingerprint state = STATE.get();
+        state.reset();
+        state.putString(transaction.getSender());
+        state.putString(transaction.getReceiver());
+        state.putAmount(transaction.getAmount());
+        state.putString(transaction.getCurrency());
+        state.putString(transaction.getCountry());
+        state.putNormalizedReason(reason);
+        state.finish();
+        return state;
+    }
+
+    /**
+     * @return upper 64 bits of the fingerprint
+     */
+    public long high() {
+        return h1;
+    }
+
+    /**
+     * @return lower 64 bits of the fingerprint
+     */
+    public long low() {
+        return h2;
+    }
+
+    private void reset() {
+        h1 = 0;
+        h2 = 0;
+        k1 = 0;
+        k2 = 0;
+        position = 0;
+        length = 0;
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        int size = value.length();
+        for (int i = 0; i < size; i++) {
+            putChar(value.charAt(i));
+        }
+        putInt(size);
+    }
+
+    // Equivalent to hashing reason.trim().toLowerCase() without creating either string
+    private void putNormalizedReason(String reason) {
+        if (reason == null) {
+            putInt(-1);
+            return;
+        }
+        int start = 0;
+        int end = reason.length();
+        while (start < end && reason.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && reason.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        for (int i = start; i < end; i++) {
+            putChar(Character.toLowerCase(reason.charAt(i)));
+        }
+        putInt(end - start);
+    }
+
+    private void putAmount(BigDecimal amount) {
+        if (amount == null) {
+            putInt(-1);
+            return;
+        }
+        // doubleValue() takes an allocation-free fast path for ordinary monetary values
+        double value = amount.doubleValue();
+        putLong(Double.doubleToLongBits(value == 0.0d ? 0.0d : value));
+    }
+
+    private void putInt(int value) {
+        putChar((char) value);
+        putChar((char) (value >>> 16));
+    }
+
+    private void putLong(long value) {
+        putInt((int) value);
+        putInt((int) (value >>> 32));
+    }
+
+    // Little-endian UTF-16 code units, 8 per 16-byte block
+    private void putChar(char c) {
+        if (position < 8) {
+            k1 |= (long) c << (position * 8);
+        } else {
+            k2 |= (long) c << ((position - 8) * 8);
+        }
+        position += 2;
+        length += 2;
+        if (position == 16) {
+            mixBlock();
+        }
+    }
+
+    private void mixBlock() {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+
+        k1 = 0;
+        k2 = 0;
+        position = 0;
+    }
+
+    private void finish() {
+        if (position > 8) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (position > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
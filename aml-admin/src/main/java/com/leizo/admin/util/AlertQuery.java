@@ -0,0 +1,62 @@
+package com.leizo.admin.util;
+
+import com.leizo.pojo.entity.Alert;
+
+import java.util.Comparator;
+
+/**
+ * Query over alert history; null arguments leave a step out
+ *
+ * The alerts table only references its transaction, so the SQL conditions are written against
+ * {@link #FROM}: alerts as {@code a}, joined to their transactions as {@code t}.
+ */
+public class AlertQuery extends FSSQuery<Alert, AlertQuery> {
+
+    // Alerts with the sender and receiver of their transaction
+    public static final String FROM =
+            "alerts a LEFT JOIN transactions t ON t.id = a.transaction_id";
+
+    public static AlertQuery create() {
+        return new AlertQuery();
+    }
+
+    @Override
+    protected AlertQuery self() {
+        return this;
+    }
+
+    // Sender of the alerted transaction, ignoring case
+    public AlertQuery sender(String sender) {
+        if (sender == null) {
+            return this;
+        }
+        return where(a -> a.getTransaction() != null && sender.equalsIgnoreCase(a.getTransaction().getSender()),
+                "LOWER(t.sender) = ?", sender.toLowerCase());
+    }
+
+    // Priority level (HIGH, MEDIUM, LOW), ignoring case
+    public AlertQuery priorityLevel(String priorityLevel) {
+        if (priorityLevel == null) {
+            return this;
+        }
+        return where(a -> priorityLevel.equalsIgnoreCase(a.getPriorityLevel()),
+                "LOWER(a.priority_level) = ?", priorityLevel.toLowerCase());
+    }
+
+    // Reason containing the keyword, ignoring case
+    public AlertQuery reasonContains(String keyword) {
+        if (keyword == null) {
+            return this;
+        }
+        String lower = keyword.toLowerCase();
+        return where(a -> a.getReason() != null && a.getReason().toLowerCase().contains(lower),
+                "LOWER(a.reason) LIKE ?", containsPattern(keyword));
+    }
+
+    // Alerts without a priority score go last in either direction
+    public AlertQuery orderByPriority(boolean descending) {
+        Comparator<Integer> scores = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return orderBy(Comparator.comparing(Alert::getPriorityScore, Comparator.nullsLast(scores)),
+                "a.priority_score " + (descending ? "DESC" : "ASC") + " NULLS LAST");
+    }
+}
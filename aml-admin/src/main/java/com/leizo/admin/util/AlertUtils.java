@@ -5,12 +5,18 @@ import com.leizo.pojo.entity.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
 /**
  * Utility class for alert-related operations to eliminate code duplication
  */
 public class AlertUtils {
     
     private static final Logger log = LoggerFactory.getLogger(AlertUtils.class);
+    private static final HexFormat HEX = HexFormat.of();
     
     /**
      * Handles alert skipping with consistent logging
@@ -25,32 +31,27 @@ public class AlertUtils {
         return null;
     }
     
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to generate alert hash", e);
+        }
+    });
+    
     /**
-     * Generates a consistent alert hash for deduplication
+     * Generates the SHA-256 alert fingerprint persisted for audit purposes
+     * 
+     * Hot-path deduplication uses {@link AlertFingerprint} instead.
      * 
      * @param transaction the transaction details
      * @param reason the alert reason
-     * @return a hash string for deduplication
+     * @return a hex-encoded SHA-256 hash
      */
     public static String generateAlertHash(Transaction transaction, String reason) {
-        try {
-            String data = transaction.getSender() + "|" +
-                         transaction.getReceiver() + "|" +
-                         transaction.getAmount() + "|" +
-                         transaction.getCurrency() + "|" +
-                         transaction.getCountry() + "|" +
-                         reason.trim().toLowerCase();
-            
-            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(data.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (java.security.NoSuchAlgorithmException e) {
-            throw new RuntimeException("Unable to generate alert hash", e);
-        }
+        MessageDigest digest = SHA_256.get();
+        byte[] hashBytes = digest.digest(generateAlertKey(transaction, reason).getBytes(StandardCharsets.UTF_8));
+        return HEX.formatHex(hashBytes);
     }
     
     /**
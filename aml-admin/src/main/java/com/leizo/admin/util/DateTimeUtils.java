@@ -0,0 +1,72 @@
+package com.leizo.admin.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Utility class for parsing the timestamps and date filters that arrive as request strings
+ */
+public class DateTimeUtils {
+
+    /**
+     * Parses an ISO-8601 timestamp, with or without offset, or a plain date
+     *
+     * Offset timestamps are normalised to UTC so they line up with partition bounds.
+     *
+     * @param value the value to parse
+     * @return the parsed timestamp, or null if the value is blank or not a recognised format
+     */
+    public static LocalDateTime parseTimestamp(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return OffsetDateTime.parse(trimmed).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException ignored) {
+            // fall through to local formats
+        }
+        try {
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException ignored) {
+            // fall through to date-only format
+        }
+        try {
+            return LocalDate.parse(trimmed).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the lower bound of a date filter; a plain date means the start of that day
+     *
+     * @param value the dateFrom filter value
+     * @return the inclusive lower bound, or null if not provided
+     */
+    public static LocalDateTime parseRangeStart(String value) {
+        return parseTimestamp(value);
+    }
+
+    /**
+     * Parses the upper bound of a date filter; a plain date means the end of that day
+     *
+     * @param value the dateTo filter value
+     * @return the inclusive upper bound, or null if not provided
+     */
+    public static LocalDateTime parseRangeEnd(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return LocalDate.parse(trimmed).atTime(LocalTime.MAX);
+        } catch (DateTimeParseException e) {
+            return parseTimestamp(trimmed);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.leizo.admin.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Lazy, composable filter → search → sort → limit pipeline shared by the FSS queries
+ *
+ * Building a query only records its steps. Every condition is kept twice: as an in-memory
+ * predicate and as a SQL fragment, so a history service can push the whole query down to
+ * the database and materialize only the requested page, while {@link #apply(Iterable)} runs
+ * all conditions fused in a single pass over a list that is already in memory.
+ *
+ * @param <T> element type
+ * @param <Q> concrete query type, returned by the builder methods
+ */
+public abstract class FSSQuery<T, Q extends FSSQuery<T, Q>> {
+
+    private final List<Predicate<? super T>> predicates = new ArrayList<>();
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> args = new ArrayList<>();
+    private Comparator<? super T> order;
+    private String orderSql;
+    private int limit = -1;
+
+    protected abstract Q self();
+
+    /**
+     * Adds a condition
+     *
+     * @param predicate in-memory form of the condition
+     * @param condition SQL form of the condition, with one placeholder per argument
+     * @param conditionArgs arguments of the SQL condition
+     */
+    protected Q where(Predicate<? super T> predicate, String condition, Object... conditionArgs) {
+        predicates.add(predicate);
+        conditions.add(condition);
+        args.addAll(List.of(conditionArgs));
+        return self();
+    }
+
+    /**
+     * Sets the result order, replacing any earlier one
+     *
+     * @param comparator in-memory form of the order
+     * @param sql SQL ORDER BY expression of the same order
+     */
+    protected Q orderBy(Comparator<? super T> comparator, String sql) {
+        this.order = comparator;
+        this.orderSql = sql;
+        return self();
+    }
+
+    /**
+     * Caps the number of results
+     *
+     * @param limit maximum number of results; negative for no cap
+     */
+    public Q limit(int limit) {
+        this.limit = limit;
+        return self();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return whether the element passes every condition
+     */
+    public boolean matches(T element) {
+        for (Predicate<? super T> predicate : predicates) {
+            if (!predicate.test(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the query over elements already in memory in one pass
+     *
+     * Unordered queries stop reading at the limit; ordered queries with a limit keep only the
+     * best {@code limit} matches in a bounded heap instead of sorting every match.
+     *
+     * @param elements elements to query
+     * @return the matching page
+     */
+    public List<T> apply(Iterable<? extends T> elements) {
+        List<T> matched = new ArrayList<>();
+        if (limit == 0) {
+            return matched;
+        }
+        for (T element : elements) {
+            if (matches(element)) {
+                matched.add(element);
+                if (order == null && matched.size() == limit) {
+                    break;
+                }
+            }
+        }
+        if (order == null) {
+            return matched;
+        }
+        if (limit > 0) {
+            return SortUtils.topK(matched, order, limit);
+        }
+        matched.sort(order);
+        return matched;
+    }
+
+    /**
+     * Builds the SQL of the query on top of a SELECT ... FROM clause
+     *
+     * @param select the SELECT ... FROM part of the statement
+     * @return the full statement; its arguments are {@link #sqlArgs()}
+     */
+    public String toSql(String select) {
+        StringBuilder sql = new StringBuilder(select);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (orderSql != null) {
+            sql.append(" ORDER BY ").append(orderSql);
+        }
+        if (limit >= 0) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * @return arguments of {@link #toSql(String)}, in placeholder order
+     */
+    public List<Object> sqlArgs() {
+        List<Object> all = new ArrayList<>(args);
+        if (limit >= 0) {
+            all.add(limit);
+        }
+        return all;
+    }
+
+    /**
+     * Pattern for a case-insensitive SQL LIKE containment test, with wildcards in the keyword escaped
+     */
+    protected static String containsPattern(String keyword) {
+        String escaped = keyword.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
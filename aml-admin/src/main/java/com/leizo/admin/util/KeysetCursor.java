@@ -0,0 +1,65 @@
+package com.leizo.admin.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset (seek) pagination on (timestamp, id)
+ *
+ * The cursor encodes the sort key of the last row of a page; the next page is read with
+ * a seek predicate on that key, so every page costs the same regardless of its depth.
+ */
+public class KeysetCursor {
+
+    private final LocalDateTime timestamp;
+    private final Integer id;
+
+    public KeysetCursor(LocalDateTime timestamp, Integer id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Encodes the cursor as a URL-safe token
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token
+     *
+     * @param token the encoded cursor
+     * @return the decoded cursor, or null if the token is blank
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
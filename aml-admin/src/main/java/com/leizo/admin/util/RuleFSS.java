@@ -32,27 +32,13 @@ public class RuleFSS {
         return result;
     }
 
-    // Sort rules by sensitivity (ascending or descending by weight)
+    // Sort rules by sensitivity (ascending or descending by weight), keeping the order of equal weights
     public static Rule[] sortBySensitivity(List<Rule> rules, boolean descending) {
         Rule[] array = rules.toArray(new Rule[0]);
-
-        for (int i = 1; i < array.length; i++) {
-            Rule key = array[i];
-            int j = i - 1;
-
-            while (j >= 0 && compare(array[j], key, descending)) {
-                array[j + 1] = array[j];
-                j--;
-            }
-            array[j + 1] = key;
-        }
-
-        return array;
+        return SortUtils.sortByIntKey(array, RuleFSS::weightKey, descending);
     }
 
-    private static boolean compare(Rule a, Rule b, boolean descending) {
-        int weightA = a.getSensitivity().getWeight();
-        int weightB = b.getSensitivity().getWeight();
-        return descending ? weightA < weightB : weightA > weightB;
+    private static int weightKey(Rule rule) {
+        return rule.getSensitivity() != null ? rule.getSensitivity().getWeight() : SortUtils.MISSING_KEY;
     }
-} 
\ No newline at end of file
+}
@@ -3,6 +3,8 @@ package com.leizo.admin.util;
 import com.leizo.pojo.entity.SanctionedEntity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 public class SanctionedEntityFSS {
@@ -29,26 +31,11 @@ public class SanctionedEntityFSS {
         return result;
     }
 
-    // Sort by name (A-Z or Z-A)
+    // Sort by name (A-Z or Z-A); a stable parallel sort, entities without a name go last
     public static SanctionedEntity[] sortByName(List<SanctionedEntity> list, boolean descending) {
         SanctionedEntity[] array = list.toArray(new SanctionedEntity[0]);
-
-        for (int i = 1; i < array.length; i++) {
-            SanctionedEntity key = array[i];
-            int j = i - 1;
-
-            while (j >= 0 && compare(array[j], key, descending)) {
-                array[j + 1] = array[j];
-                j--;
-            }
-            array[j + 1] = key;
-        }
-
+        Comparator<String> names = descending ? String.CASE_INSENSITIVE_ORDER.reversed() : String.CASE_INSENSITIVE_ORDER;
+        Arrays.parallelSort(array, Comparator.comparing(SanctionedEntity::getName, Comparator.nullsLast(names)));
         return array;
     }
-
-    private static boolean compare(SanctionedEntity a, SanctionedEntity b, boolean descending) {
-        int cmp = a.getName().compareToIgnoreCase(b.getName());
-        return descending ? cmp < 0 : cmp > 0;
-    }
-} 
\ No newline at end of file
+}
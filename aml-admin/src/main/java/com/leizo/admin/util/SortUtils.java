@@ -0,0 +1,90 @@
+package com.leizo.admin.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Utility class for the sorting and top-K selection shared by the FSS helpers
+ *
+ * Integer keys are sorted as packed primitives: each element becomes one long holding its key
+ * in the high bits and its position in the low bits, so a single {@link Arrays#parallelSort(long[])}
+ * orders the whole array stably without comparing objects or allocating per merge.
+ */
+public class SortUtils {
+
+    /**
+     * Key returned by a key extractor for elements that have no key; they sort last in either direction
+     */
+    public static final int MISSING_KEY = Integer.MIN_VALUE;
+
+    // Array indexes fit in 31 bits, leaving 33 signed bits for the key and its negation
+    private static final int INDEX_BITS = 31;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    /**
+     * Sorts the array in place by an integer key, keeping the input order of equal keys
+     *
+     * @param items array to sort
+     * @param key key extractor, returning {@link #MISSING_KEY} for elements without a key
+     * @param descending whether larger keys come first
+     * @return the sorted array
+     */
+    public static <T> T[] sortByIntKey(T[] items, ToIntFunction<? super T> key, boolean descending) {
+        if (items.length < 2) {
+            return items;
+        }
+        long[] packed = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            int value = key.applyAsInt(items[i]);
+            long sortKey;
+            if (value == MISSING_KEY) {
+                sortKey = Integer.MAX_VALUE + 1L;
+            } else {
+                sortKey = descending ? -(long) value : value;
+            }
+            packed[i] = (sortKey << INDEX_BITS) | i;
+        }
+        Arrays.parallelSort(packed);
+        T[] source = items.clone();
+        for (int i = 0; i < packed.length; i++) {
+            items[i] = source[(int) (packed[i] & INDEX_MASK)];
+        }
+        return items;
+    }
+
+    /**
+     * Selects the first {@code limit} elements of the given order with a bounded heap
+     *
+     * Runs in O(n log limit) and keeps only {@code limit} elements, so picking a page of top
+     * results never sorts the whole collection.
+     *
+     * @param items elements to select from
+     * @param order order of the result
+     * @param limit maximum number of elements to return
+     * @return the selected elements in the given order
+     */
+    public static <T> List<T> topK(Collection<? extends T> items, Comparator<? super T> order, int limit) {
+        if (limit <= 0 || items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // The heap head is the worst element kept so far
+        Comparator<? super T> reversed = order.reversed();
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(limit, items.size()) + 1, reversed);
+        for (T item : items) {
+            if (heap.size() < limit) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
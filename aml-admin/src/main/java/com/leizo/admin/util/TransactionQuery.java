@@ -0,0 +1,76 @@
+package com.leizo.admin.util;
+
+import com.leizo.enums.RiskScore;
+import com.leizo.pojo.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+/**
+ * Query over stored transactions; null arguments leave a step out
+ */
+public class TransactionQuery extends FSSQuery<Transaction, TransactionQuery> {
+
+    private static final String RISK_ORDER_SQL =
+            "CASE risk_score WHEN 'LOW' THEN 0 WHEN 'MEDIUM' THEN 1 WHEN 'HIGH' THEN 2 END";
+
+    public static TransactionQuery create() {
+        return new TransactionQuery();
+    }
+
+    @Override
+    protected TransactionQuery self() {
+        return this;
+    }
+
+    // Sender, ignoring case
+    public TransactionQuery sender(String sender) {
+        if (sender == null) {
+            return this;
+        }
+        return where(t -> sender.equalsIgnoreCase(t.getSender()), "LOWER(sender) = ?", sender.toLowerCase());
+    }
+
+    // Country, ignoring case
+    public TransactionQuery country(String country) {
+        if (country == null) {
+            return this;
+        }
+        return where(t -> country.equalsIgnoreCase(t.getCountry()), "LOWER(country) = ?", country.toLowerCase());
+    }
+
+    // Inclusive amount range
+    public TransactionQuery amountBetween(BigDecimal min, BigDecimal max) {
+        if (min != null) {
+            where(t -> t.getAmount() != null && t.getAmount().compareTo(min) >= 0, "amount >= ?", min);
+        }
+        if (max != null) {
+            where(t -> t.getAmount() != null && t.getAmount().compareTo(max) <= 0, "amount <= ?", max);
+        }
+        return this;
+    }
+
+    // Receiver name containing the keyword, ignoring case
+    public TransactionQuery receiverContains(String keyword) {
+        if (keyword == null) {
+            return this;
+        }
+        String lower = keyword.toLowerCase();
+        return where(t -> t.getReceiver() != null && t.getReceiver().toLowerCase().contains(lower),
+                "LOWER(receiver) LIKE ?", containsPattern(keyword));
+    }
+
+    // Transactions without an amount go last in either direction
+    public TransactionQuery orderByAmount(boolean descending) {
+        Comparator<BigDecimal> amounts = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return orderBy(Comparator.comparing(Transaction::getAmount, Comparator.nullsLast(amounts)),
+                "amount " + (descending ? "DESC" : "ASC") + " NULLS LAST");
+    }
+
+    // Transactions without a risk score go last in either direction
+    public TransactionQuery orderByRiskScore(boolean descending) {
+        Comparator<RiskScore> scores = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return orderBy(Comparator.comparing(Transaction::getRiskScore, Comparator.nullsLast(scores)),
+                RISK_ORDER_SQL + (descending ? " DESC" : " ASC") + " NULLS LAST");
+    }
+}
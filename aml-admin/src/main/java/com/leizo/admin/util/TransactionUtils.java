@@ -1,7 +1,6 @@
 package com.leizo.admin.util;
 
 import com.leizo.pojo.entity.Transaction;
-import java.util.Map;
 
 /**
  * Utility class for transaction-related operations to eliminate code duplication
@@ -9,38 +8,16 @@ import java.util.Map;
 public class TransactionUtils {
     
     /**
-     * Checks if a transaction has a manual flag in its metadata
-     * 
+     * Checks if a transaction has a manual flag
+     *
+     * Reads the typed manual_flag column, which the "manualFlag" metadata key (from CSV parsing)
+     * and the legacy "flagged" key both write to, so no metadata map is consulted.
+     *
      * @param transaction the transaction to check
      * @return true if the transaction has a manual flag, false otherwise
      */
     public static boolean hasManualFlag(Transaction transaction) {
-        if (transaction.getMetadata() == null) {
-            System.out.println("[TransactionUtils] hasManualFlag: metadata is null for transaction [" + transaction.getSender() + "]");
-            return false;
-        }
-        
-        Map<String, String> metadata = (Map<String, String>) transaction.getMetadata();
-        System.out.println("[TransactionUtils] hasManualFlag: checking metadata for [" + transaction.getSender() + "]: " + metadata);
-        
-        // Check for "manualFlag" key (from CSV parsing)
-        if (metadata.containsKey("manualFlag")) {
-            String manualFlagValue = metadata.get("manualFlag");
-            boolean result = "true".equalsIgnoreCase(manualFlagValue);
-            System.out.println("[TransactionUtils] hasManualFlag: found manualFlag key with value [" + manualFlagValue + "], result: " + result);
-            return result;
-        }
-        
-        // Also check for "flagged" key (legacy)
-        if (metadata.containsKey("flagged")) {
-            String flaggedValue = metadata.get("flagged");
-            boolean result = "true".equalsIgnoreCase(flaggedValue);
-            System.out.println("[TransactionUtils] hasManualFlag: found flagged key with value [" + flaggedValue + "], result: " + result);
-            return result;
-        }
-        
-        System.out.println("[TransactionUtils] hasManualFlag: no manual flag found for [" + transaction.getSender() + "]");
-        return false;
+        return Boolean.TRUE.equals(transaction.getManualFlag());
     }
     
     /**
@@ -1,31 +1,123 @@
 package com.leizo.loader;
 
 import com.fasterxml.jackson.databind.*;
-import com.leizo.enums.RuleSensitivity;
+import com.leizo.admin.service.cluster.SenderStateParticipant;
+import com.leizo.admin.service.rules.RuleCompiler;
+import com.leizo.admin.service.rules.RuleDefinitionException;
+import com.leizo.admin.service.rules.SenderWindowStore;
+import com.leizo.admin.util.TransactionUtils;
 import com.leizo.pojo.entity.Transaction;
 import com.leizo.pojo.entity.Rule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.math.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /**
  * RuleLoader handles the logic of dynamically importing rule definitions
  * from a JSON file and registering them into the RuleRepository.
  *
+ * Definitions use the declarative format described in {@link RuleCompiler} and are compiled
+ * to predicates once per load. A new rule set is validated as a whole and swapped in
+ * atomically; if it is invalid the active rules stay in place. Rules are reloaded when the
+ * file at {@code aml.rules.location} changes, or on demand through {@link #reload()} and
+ * {@link #replaceRules(JsonNode)}. Listeners are told about every swap.
+ *
+ * The loader owns the sender windows of aggregate conditions and takes part in sender
+ * partition handoff on their behalf, so moved senders keep their windows on the new owner.
+ *
  * This supports scalable, rule-driven AML detection logic with externalized configuration.
  */
 @Component
-public class RuleLoader {
-    private final List<Rule> rules = new ArrayList<>();
+public class RuleLoader implements SenderStateParticipant {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleLoader.class);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+    private final List<Consumer<List<Rule>>> listeners = new CopyOnWriteArrayList<>();
+    private SenderWindowStore windowStore;
+    private RuleCompiler compiler;
+    private final ThreadLocal<SenderWindowStore> shadowWindows = new ThreadLocal<>();
+
+    private volatile List<Rule> rules = List.of();
+    private volatile boolean recordWindows;
+    private volatile boolean shadowRecordWindows;
+    private volatile String source;
+    private volatile long sourceModified;
+    private volatile String lastError;
+
+    private final AtomicLong reloads = new AtomicLong(0);
+    private final AtomicLong reloadFailures = new AtomicLong(0);
+
+    @Value("${aml.rules.location:classpath:rules.json}")
+    private String location = "classpath:rules.json";
+
+    @Value("${aml.rules.reload-interval-seconds:30}")
+    private long reloadIntervalSeconds = 30;
+
+    @Value("${aml.rules.window.max-minutes:60}")
+    private int windowMaxMinutes = 60;
+
+    @Value("${aml.rules.window.buckets:60}")
+    private int windowBuckets = 60;
 
     /**
      * Constructor for RuleLoader
      */
     public RuleLoader() {
-        // Initialize with empty list, rules will be loaded when needed
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rule-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a loader over a given window store without background reloading (for tests)
+     *
+     * @param windowStore sender windows for aggregate conditions
+     */
+    public RuleLoader(SenderWindowStore windowStore) {
+        this.scheduler = null;
+        this.windowStore = windowStore;
+    }
+
+    @PostConstruct
+    public void start() {
+        loadFromJson(location);
+        if (scheduler == null) {
+            return;
+        }
+        if (reloadIntervalSeconds > 0 && !location.startsWith("classpath:")) {
+            scheduler.scheduleWithFixedDelay(this::reloadIfModified, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(() -> windowStore().evictIdle(), 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
     }
 
     /**
@@ -34,106 +126,159 @@ public class RuleLoader {
      * - description: textual summary of the rule
      * - sensitivity: LOW, MEDIUM, HIGH
      * - tags: metadata keywords
-     * - type: determines internal BiPredicate condition mapping
+     * - when: the rule condition (or type: the name of a built-in predicate)
+     *
+     * Failures are logged and leave the current rules active.
      *
      * @param filePath path to the rules.json file
      */
-
     public void loadFromJson(String filePath) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root;
-            
-            // Try to load from classpath first, then from file system
-            try {
-                root = mapper.readTree(getClass().getClassLoader().getResourceAsStream(filePath.replace("classpath:", "")));
-            } catch (Exception e) {
-                root = mapper.readTree(new File(filePath));
-            }
-            
-            for (JsonNode ruleNode : root) {
-                // Extract rule properties
-                String description = ruleNode.get("description").asText();
-                RuleSensitivity sensitivity = RuleSensitivity.valueOf(ruleNode.get("sensitivity").asText().toUpperCase());
-
-                // Extract tags array
-                Set<String> tags = new HashSet<>();
-                for (JsonNode tag : ruleNode.get("tags")) {
-                    tags.add(tag.asText());
-                }
-
-                // Map rule type to a condition
-                BiPredicate<Transaction, BigDecimal> condition = createConditionFromType(ruleNode.get("type").asText());
-
-                // Add rule to repository if valid
-                if (condition != null) {
-                    Rule rule = new Rule(description, sensitivity, condition, tags);
-                    rules.add(rule);
-                }
-            }
+            reload(filePath);
         } catch (Exception e) {
-            System.err.println("[ERROR] Failed to load rules from JSON: " + e.getMessage());
+            logger.error("Failed to load rules from {}: {}", filePath, e.getMessage());
         }
     }
 
     /**
-     * Maps a rule 'type' string to a predefined BiPredicate logic.
-     * Future enhancement: move to external scripting or strategy pattern.
+     * Reloads the rules from the configured location
      *
-     * @param type the rule type from JSON (e.g. "high_value")
-     * @return BiPredicate evaluating the rule's matching logic
-     */
-    private BiPredicate<Transaction, BigDecimal> createConditionFromType(String type) {
-        return switch (type.toLowerCase()) {
-            case "high_value" -> (txn, amt) -> amt.compareTo(new BigDecimal("10000")) > 0;
-            case "medium_risk_country" -> (txn, amt) -> {
-                String country = txn.getCountry();
-                return country != null && (country.equalsIgnoreCase("Turkey") || country.equalsIgnoreCase("Mexico"));
-            };
-            case "low_value" -> (txn, amt) -> amt.compareTo(new BigDecimal("500")) < 0;
-            case "manual_flag" -> (txn, amt) -> com.leizo.admin.util.TransactionUtils.hasManualFlag(txn);
-            case "high_risk_country" -> (txn, amt) -> {
-                String country = txn.getCountry();
-                return country != null && (
-                    country.equalsIgnoreCase("Iran") || 
-                    country.equalsIgnoreCase("North Korea") || 
-                    country.equalsIgnoreCase("Syria") ||
-                    country.equalsIgnoreCase("Russia") ||
-                    country.equalsIgnoreCase("Venezuela") ||
-                    country.equalsIgnoreCase("Belarus") ||
-                    country.equalsIgnoreCase("Zimbabwe") ||
-                    country.equalsIgnoreCase("Sudan") ||
-                    country.equalsIgnoreCase("Libya") ||
-                    country.equalsIgnoreCase("Somalia")
-                );
-            };
-            case "fatf_grey_list" -> (txn, amt) -> {
-                String country = txn.getCountry();
-                return country != null && (
-                    country.equalsIgnoreCase("Panama") || 
-                    country.equalsIgnoreCase("Albania") || 
-                    country.equalsIgnoreCase("Barbados") ||
-                    country.equalsIgnoreCase("Cayman Islands") ||
-                    country.equalsIgnoreCase("Turkey") ||
-                    country.equalsIgnoreCase("Mexico")
-                );
-            };
-            case "money_laundering_risk" -> (txn, amt) -> {
-                String country = txn.getCountry();
-                return country != null && (
-                    country.equalsIgnoreCase("Cayman Islands") || 
-                    country.equalsIgnoreCase("Bahamas") || 
-                    country.equalsIgnoreCase("Bermuda") ||
-                    country.equalsIgnoreCase("Cyprus") ||
-                    country.equalsIgnoreCase("Liechtenstein") ||
-                    country.equalsIgnoreCase("San Marino")
-                );
-            };
-            case "always_true" -> (txn, amt) -> true;
-            default -> null;
-        };
-    }
-    
+     * @return the reload status
+     * @throws RuleDefinitionException if the definitions are invalid
+     * @throws IOException             if the file cannot be read
+     */
+    public Map<String, Object> reload() throws IOException {
+        return reload(location);
+    }
+
+    /**
+     * Reloads the rules from a classpath resource or file
+     *
+     * @param filePath "classpath:" resource or file system path
+     * @return the reload status
+     * @throws RuleDefinitionException if the definitions are invalid
+     * @throws IOException             if the file cannot be read
+     */
+    public Map<String, Object> reload(String filePath) throws IOException {
+        long modified = lastModified(filePath);
+        return apply(read(filePath), filePath, modified);
+    }
+
+    /**
+     * Validates, compiles and activates rule definitions supplied directly, e.g. by an admin API.
+     * They stay active until the next change of the rules file or the next reload.
+     *
+     * @param definitions array of rule definitions
+     * @return the reload status
+     * @throws RuleDefinitionException if the definitions are invalid
+     */
+    public Map<String, Object> replaceRules(JsonNode definitions) {
+        return apply(definitions, "api", sourceModified);
+    }
+
+    /**
+     * Validates rule definitions without activating them
+     *
+     * @param definitions array of rule definitions
+     * @return the problems found, empty if the definitions are valid
+     */
+    public List<String> validate(JsonNode definitions) {
+        try {
+            compiler().compile(definitions);
+            return List.of();
+        } catch (RuleDefinitionException e) {
+            return e.getErrors();
+        }
+    }
+
+    /**
+     * Compiles shadow rule definitions without activating them; shadow rules share the sender
+     * windows of the active rules, which are recorded while either set needs them. Their
+     * aggregate conditions read the snapshot passed to {@link #evaluateShadow} when there is one.
+     *
+     * @param definitions array of rule definitions
+     * @return the compiled shadow rules
+     * @throws RuleDefinitionException if the definitions are invalid
+     */
+    public List<Rule> compileShadowRules(JsonNode definitions) {
+        RuleCompiler.CompiledRules compiled = new RuleCompiler(this::shadowWindowStore, namedPredicates()).compile(definitions);
+        shadowRecordWindows = compiled.usesWindows();
+        return compiled.getRules();
+    }
+
+    /**
+     * Copies a sender's windows for a shadow evaluation that runs after the transaction has
+     * been recorded; null when no shadow rule aggregates over windows
+     */
+    public SenderWindowStore snapshotShadowWindows(String sender) {
+        return shadowRecordWindows ? windowStore().snapshot(sender) : null;
+    }
+
+    /**
+     * Runs a shadow evaluation on the calling thread with the aggregate conditions of shadow
+     * rules reading the given snapshot instead of the live windows
+     *
+     * @param snapshot   windows from {@link #snapshotShadowWindows}, or null to read the live ones
+     * @param evaluation the shadow evaluation
+     */
+    public <T> T evaluateShadow(SenderWindowStore snapshot, Supplier<T> evaluation) {
+        if (snapshot == null) {
+            return evaluation.get();
+        }
+        shadowWindows.set(snapshot);
+        try {
+            return evaluation.get();
+        } finally {
+            shadowWindows.remove();
+        }
+    }
+
+    /**
+     * Compiles rule definitions against sender windows other than the live ones, so that
+     * replaying history (back-testing) does not disturb production aggregates
+     *
+     * @param definitions array of rule definitions
+     * @param windows     windows read by the aggregate conditions of the compiled rules
+     * @return the compiled rules
+     * @throws RuleDefinitionException if the definitions are invalid
+     */
+    public RuleCompiler.CompiledRules compileDetached(JsonNode definitions, SenderWindowStore windows) {
+        return new RuleCompiler(windows, namedPredicates()).compile(definitions);
+    }
+
+    /**
+     * Creates sender windows sized like the live ones but driven by the given clock
+     *
+     * @param clock time source in epoch milliseconds, e.g. the event time of replayed transactions
+     */
+    public SenderWindowStore newWindowStore(LongSupplier clock) {
+        return new SenderWindowStore(windowMaxMinutes, windowBuckets, clock);
+    }
+
+    /**
+     * Stops recording sender windows on behalf of shadow rules
+     */
+    public void clearShadowRules() {
+        shadowRecordWindows = false;
+    }
+
+    /**
+     * Records a transaction in the sender windows once it has been evaluated; a no-op unless
+     * an active or shadow rule aggregates over windows
+     */
+    public void recordTransaction(Transaction transaction, BigDecimal normalizedAmount) {
+        if ((recordWindows || shadowRecordWindows) && normalizedAmount != null) {
+            windowStore().record(transaction.getSender(), normalizedAmount.doubleValue());
+        }
+    }
+
+    /**
+     * Registers a callback invoked with the new rules after every successful load
+     */
+    public void addRulesListener(Consumer<List<Rule>> listener) {
+        listeners.add(listener);
+    }
+
     /**
      * Get the list of loaded rules
      * @return List of loaded rules
@@ -141,7 +286,7 @@ public class RuleLoader {
     public List<Rule> getRules() {
         return new ArrayList<>(rules);
     }
-    
+
     /**
      * Get the number of loaded rules
      * @return Number of loaded rules
@@ -149,5 +294,123 @@ public class RuleLoader {
     public int getRuleCount() {
         return rules.size();
     }
-}
 
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("location", location);
+        status.put("source", source);
+        status.put("ruleCount", rules.size());
+        status.put("rules", rules.stream().map(Rule::getDescription).toList());
+        status.put("reloads", reloads.get());
+        status.put("reloadFailures", reloadFailures.get());
+        status.put("lastError", lastError);
+        status.put("windows", windowStore().getStats());
+        return status;
+    }
+
+    @Override
+    public String getStateName() {
+        return windowStore().getStateName();
+    }
+
+    @Override
+    public Map<String, Object> exportState(IntPredicate senderPrefixFilter) {
+        return windowStore().exportState(senderPrefixFilter);
+    }
+
+    @Override
+    public void importState(Map<String, Object> state) {
+        windowStore().importState(state);
+    }
+
+    private Map<String, Object> apply(JsonNode definitions, String from, long modified) {
+        RuleCompiler.CompiledRules compiled;
+        try {
+            compiled = compiler().compile(definitions);
+        } catch (RuleDefinitionException e) {
+            reloadFailures.incrementAndGet();
+            lastError = e.getMessage();
+            logger.error("Rejected rules from {}: {}", from, e.getErrors());
+            throw e;
+        }
+        synchronized (this) {
+            rules = compiled.getRules();
+            recordWindows = compiled.usesWindows();
+            source = from;
+            sourceModified = modified;
+            lastError = null;
+        }
+        reloads.incrementAndGet();
+        logger.info("Loaded {} rules from {}", compiled.getRules().size(), from);
+        for (Consumer<List<Rule>> listener : listeners) {
+            try {
+                listener.accept(compiled.getRules());
+            } catch (Exception e) {
+                logger.error("Rule listener failed: {}", e.getMessage(), e);
+            }
+        }
+        return getStatus();
+    }
+
+    private void reloadIfModified() {
+        try {
+            long modified = lastModified(location);
+            if (modified != sourceModified) {
+                reload(location);
+            }
+        } catch (Exception e) {
+            // Remember the failed version so a broken file is reported once, not on every poll
+            sourceModified = lastModified(location);
+            logger.warn("Rules file {} changed but was not loaded: {}", location, e.getMessage());
+        }
+    }
+
+    private JsonNode read(String filePath) throws IOException {
+        // Try to load from classpath first, then from file system
+        InputStream resource = getClass().getClassLoader().getResourceAsStream(filePath.replace("classpath:", ""));
+        if (resource != null) {
+            try (InputStream in = resource) {
+                return mapper.readTree(in);
+            }
+        }
+        return mapper.readTree(new File(filePath));
+    }
+
+    private static long lastModified(String filePath) {
+        try {
+            return filePath.startsWith("classpath:") ? 0 : Files.getLastModifiedTime(Path.of(filePath)).toMillis();
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private synchronized SenderWindowStore windowStore() {
+        if (windowStore == null) {
+            windowStore = new SenderWindowStore(windowMaxMinutes, windowBuckets, System::currentTimeMillis);
+        }
+        return windowStore;
+    }
+
+    private SenderWindowStore shadowWindowStore() {
+        SenderWindowStore snapshot = shadowWindows.get();
+        return snapshot != null ? snapshot : windowStore();
+    }
+
+    private synchronized RuleCompiler compiler() {
+        if (compiler == null) {
+            compiler = new RuleCompiler(windowStore(), namedPredicates());
+        }
+        return compiler;
+    }
+
+    /**
+     * Conditions that need application code rather than data; rules refer to them by name
+     */
+    private static Map<String, BiPredicate<Transaction, BigDecimal>> namedPredicates() {
+        Map<String, BiPredicate<Transaction, BigDecimal>> predicates = new HashMap<>();
+        predicates.put("manual_flag", (txn, amt) -> TransactionUtils.hasManualFlag(txn));
+        predicates.put("high_risk_currency", (txn, amt) -> TransactionUtils.isHighRiskCurrency(txn));
+        predicates.put("always_true", (txn, amt) -> true);
+        return predicates;
+    }
+}
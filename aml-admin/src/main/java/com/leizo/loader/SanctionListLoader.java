@@ -693,17 +693,9 @@ public class SanctionListLoader {
     }
 
     // Checks if a name exists (exact match) in any sanctioned record.
+    // Called per screened transaction, so it does not log; the decision trace records the outcome
     public boolean isNameSanctioned(String name) {
-        System.out.println("[SanctionListLoader] Checking name: [" + name + "] against " + consolidatedList.size() + " entities");
-        boolean found = consolidatedList.stream().anyMatch(e -> {
-            boolean matches = e.getName().equalsIgnoreCase(name);
-            if (matches) {
-                System.out.println("[SanctionListLoader] MATCH FOUND: [" + name + "] matches [" + e.getName() + "]");
-            }
-            return matches;
-        });
-        System.out.println("[SanctionListLoader] Name check result for [" + name + "]: " + found);
-        return found;
+        return consolidatedList.stream().anyMatch(e -> e.getName().equalsIgnoreCase(name));
     }
 
     // Check if a country is high risk based on entities
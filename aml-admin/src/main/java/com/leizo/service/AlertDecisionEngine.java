@@ -76,7 +76,7 @@ public interface AlertDecisionEngine {
     /**
      * Gets the current cooldown status for all sender-rule combinations
      * 
-     * @return map of cooldown status
+     * @return map of hashed sender-rule key (hex) to remaining cooldown in milliseconds
      */
     Map<String, Long> getCooldownStatus();
     
@@ -86,9 +86,9 @@ public interface AlertDecisionEngine {
     void clearAllCooldowns();
     
     /**
-     * Gets duplicate alert hashes for debugging
+     * Gets the most recently suppressed duplicate alert hashes for debugging
      * 
-     * @return set of alert hashes
+     * @return list of alert hashes, oldest first
      */
     List<String> getDuplicateAlertHashes();
 } 
\ No newline at end of file
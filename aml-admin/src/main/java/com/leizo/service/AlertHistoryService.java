@@ -1,5 +1,6 @@
 package com.leizo.service;
 
+import com.leizo.admin.util.AlertQuery;
 import com.leizo.pojo.entity.Alert;
 
 import java.util.List;
@@ -9,5 +10,8 @@ public interface AlertHistoryService {
 
     List<Alert> getAllAlerts();
 
+    // Runs the query in the database, returning only its page; a failed query throws rather than returning no rows
+    List<Alert> findAlerts(AlertQuery query);
+
 
 }
@@ -12,5 +12,7 @@ public interface AlertService {
     boolean isDuplicateAlert(Transaction txn, String reason);
     String generateFingerPrint(Transaction txn, String reason);
     boolean isInCooldown(String sender, String ruleId);
+    boolean tryStartCooldown(String sender, String ruleId);
+    boolean tryStartCooldown(String sender, Rule rule, int priorityScore);
 
 }
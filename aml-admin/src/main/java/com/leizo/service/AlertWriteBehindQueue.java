@@ -0,0 +1,40 @@
+package com.leizo.service;
+
+import com.leizo.pojo.entity.Alert;
+
+import java.util.Map;
+
+/**
+ * Alert Write-Behind Queue
+ *
+ * Decouples alert side effects from the evaluating thread:
+ * - Alerts are journaled and queued, then group-committed to the database in batches
+ * - Case management and audit sinks are notified asynchronously after commit
+ * - Producers are throttled when the queue is full instead of alerts being dropped
+ * - Alerts that cannot be inserted are dead-lettered instead of blocking the pipeline
+ */
+public interface AlertWriteBehindQueue {
+
+    /**
+     * Accepts an alert for asynchronous persistence and fan-out
+     *
+     * @param alert the alert to persist
+     * @return true if the alert was accepted (queued or persisted inline under back-pressure),
+     *         false if it was rejected as invalid or could not be persisted inline
+     */
+    boolean enqueue(Alert alert);
+
+    /**
+     * Commits everything currently queued on the calling thread
+     *
+     * @return number of alerts committed
+     */
+    int flush();
+
+    /**
+     * Gets queue depth, throughput and back-pressure statistics
+     *
+     * @return map containing queue statistics
+     */
+    Map<String, Object> getQueueStats();
+}
@@ -44,6 +44,16 @@ public interface TransactionEvaluatorService {
      */
     AlertDecisionResult evaluateForAlert(Transaction transaction);
     
+    /**
+     * Checks if a transaction should trigger an alert
+     * 
+     * @param transaction the transaction to check
+     * @param explain     evaluate every rule and report all matches instead of stopping at
+     *                    the first rule that decides the alert
+     * @return Alert if triggered, null otherwise
+     */
+    AlertDecisionResult evaluateForAlert(Transaction transaction, boolean explain);
+    
     /**
      * Gets the current risk score for a transaction
      * 
@@ -1,5 +1,6 @@
 package com.leizo.service;
 
+import com.leizo.admin.util.TransactionQuery;
 import com.leizo.pojo.entity.Transaction;
 
 import java.math.BigDecimal;
@@ -17,5 +18,8 @@ public interface TransactionHistoryService {
 
     List<Transaction> getAllTransactions();
 
+    // Runs the query in the database, returning only its page; a failed query throws rather than returning no rows
+    List<Transaction> findTransactions(TransactionQuery query);
+
 
 }
@@ -3,18 +3,17 @@ package com.leizo.service.impl;
 import com.leizo.pojo.entity.Alert;
 import com.leizo.pojo.entity.Transaction;
 import com.leizo.pojo.entity.Rule;
-import com.leizo.admin.repository.AlertRepository;
+import com.leizo.admin.service.suppression.CooldownPolicyRegistry;
+import com.leizo.admin.service.suppression.SuppressionCoordinator;
+import com.leizo.admin.util.AlertFingerprint;
+import com.leizo.admin.service.suppression.DuplicateAlertFilter;
 import com.leizo.service.AlertDecisionEngine;
-import com.leizo.service.LoggerService;
-import com.leizo.service.CaseManager;
-import com.leizo.service.AlertHistoryService;
+import com.leizo.service.AlertWriteBehindQueue;
 import com.leizo.service.SanctionsMatchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -25,9 +24,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * 
  * Provides comprehensive alert lifecycle management including:
  * - Alert creation with proper metadata
- * - Duplicate detection using SHA-256 hashing
- * - Cooldown management with configurable periods
- * - Alert persistence and routing to case management
+ * - Duplicate detection using a MurmurHash3 128-bit fingerprint checked against a
+ *   time-windowed filter and claimed cluster-wide
+ * - Cooldown management with per-rule, per-sensitivity and per-alert-type policies
+ * - Write-behind alert persistence, case routing and live dashboard push
  * - Comprehensive audit trails
  */
 @Service
@@ -36,19 +36,16 @@ public class AlertDecisionEngineImpl implements AlertDecisionEngine {
     private static final Logger logger = LoggerFactory.getLogger(AlertDecisionEngineImpl.class);
     
     // Core services
-    private final AlertRepository alertRepository;
-    private final LoggerService loggerService;
-    private final CaseManager caseManager;
-    private final AlertHistoryService alertHistoryService;
+    private final AlertWriteBehindQueue alertWriteBehindQueue;
     
-    // Duplicate detection
-    private final Set<String> alertHashes = ConcurrentHashMap.newKeySet();
+    // Duplicate detection (time-windowed, fixed memory)
+    private final DuplicateAlertFilter duplicateAlertFilter = new DuplicateAlertFilter();
+    private static final int RECENT_DUPLICATES_LIMIT = 100;
+    private final Deque<String> recentDuplicateHashes = new ArrayDeque<>();
     
-    // Cooldown management
-    private final Map<String, Long> cooldownMap = new ConcurrentHashMap<>();
-    private static final long DEFAULT_COOLDOWN_TIME_MS = 10 * 60 * 1000; // 10 minutes
-    private static final long SANCTIONS_COOLDOWN_TIME_MS = 30 * 60 * 1000; // 30 minutes
-    private static final long HIGH_PRIORITY_COOLDOWN_TIME_MS = 5 * 60 * 1000; // 5 minutes
+    // Cooldown management and cluster-wide claims
+    private final SuppressionCoordinator suppressionCoordinator;
+    private final CooldownPolicyRegistry cooldownPolicies;
     
     // Statistics tracking
     private final AtomicLong totalAlertsCreated = new AtomicLong(0);
@@ -58,14 +55,12 @@ public class AlertDecisionEngineImpl implements AlertDecisionEngine {
     private final Map<String, Long> alertTypeCounts = new ConcurrentHashMap<>();
     private final Map<String, Long> ruleMatchCounts = new ConcurrentHashMap<>();
     
-    public AlertDecisionEngineImpl(AlertRepository alertRepository,
-                                 LoggerService loggerService,
-                                 CaseManager caseManager,
-                                 AlertHistoryService alertHistoryService) {
-        this.alertRepository = alertRepository;
-        this.loggerService = loggerService;
-        this.caseManager = caseManager;
-        this.alertHistoryService = alertHistoryService;
+    public AlertDecisionEngineImpl(AlertWriteBehindQueue alertWriteBehindQueue,
+                                   SuppressionCoordinator suppressionCoordinator,
+                                   CooldownPolicyRegistry cooldownPolicies) {
+        this.alertWriteBehindQueue = alertWriteBehindQueue;
+        this.suppressionCoordinator = suppressionCoordinator;
+        this.cooldownPolicies = cooldownPolicies;
     }
     
     @Override
@@ -116,33 +111,29 @@ public class AlertDecisionEngineImpl implements AlertDecisionEngine {
     
     @Override
     public boolean shouldSuppressAlert(Transaction transaction, String reason) {
-        String alertHash = generateAlertHash(transaction, reason);
+        AlertFingerprint fingerprint = AlertFingerprint.compute(transaction, reason);
         
-        if (alertHashes.contains(alertHash)) {
+        // Checks the current and previous window and records the fingerprint to prevent future duplicates,
+        // then claims it cluster-wide so another instance cannot raise the same alert
+        if (duplicateAlertFilter.checkAndAdd(fingerprint.high(), fingerprint.low())
+                || !suppressionCoordinator.claimAlert(transaction.getSender(), fingerprint.high(), fingerprint.low(),
+                        duplicateAlertFilter.getWindowMs())) {
             totalDuplicatesDetected.incrementAndGet();
             totalAlertsSuppressed.incrementAndGet();
+            rememberDuplicate(HexFormat.of().toHexDigits(fingerprint.high()) + HexFormat.of().toHexDigits(fingerprint.low()));
             
             logger.debug("Suppressing duplicate alert for transaction: {} with reason: {}", 
                         transaction.getId(), reason);
             return true;
         }
         
-        // Add hash to prevent future duplicates
-        alertHashes.add(alertHash);
         return false;
     }
     
     @Override
     public boolean isInCooldown(String sender, String ruleId) {
-        String key = sender + "|" + ruleId;
-        Long lastAlertTime = cooldownMap.get(key);
-        
-        if (lastAlertTime == null) {
-            return false;
-        }
-        
-        long cooldownTime = getCooldownTimeForRule(ruleId);
-        boolean inCooldown = (System.currentTimeMillis() - lastAlertTime) < cooldownTime;
+        // The cooldown period for the rule is applied when the cooldown is registered
+        boolean inCooldown = suppressionCoordinator.isInCooldown(sender, ruleId);
         
         if (inCooldown) {
             totalCooldownSuppressions.incrementAndGet();
@@ -157,43 +148,28 @@ public class AlertDecisionEngineImpl implements AlertDecisionEngine {
     
     @Override
     public void registerCooldown(String sender, String ruleId) {
-        String key = sender + "|" + ruleId;
-        cooldownMap.put(key, System.currentTimeMillis());
+        // Only the rule name is known here, so the rule and alert-type policies apply
+        long cooldownMs = cooldownPolicies.policyFor(ruleId, "RULE_MATCH").cooldownFor(0);
+        suppressionCoordinator.registerCooldown(sender, ruleId, cooldownMs);
         
         logger.debug("Registered cooldown for sender: {} and rule: {}", sender, ruleId);
     }
     
     @Override
     public boolean processAlert(Alert alert) {
-        try {
-            // Persist alert to database
-            Alert savedAlert = alertRepository.save(alert);
-            
-            // Log alert creation
-            loggerService.logAlert(savedAlert);
-            
-            // Route to case management
-            if (caseManager != null) {
-                caseManager.reviewAlert(savedAlert);
-            }
-            
-            // Save to alert history
-            if (alertHistoryService != null) {
-                alertHistoryService.saveAlert(savedAlert);
-            }
-            
-            // Log comprehensive audit trail
-            logAlertAudit(savedAlert);
-            
-            logger.info("Successfully processed alert: {} for transaction: {}", 
-                       savedAlert.getAlertId(), savedAlert.getTransactionId());
-            
-            return true;
-            
-        } catch (Exception e) {
-            logger.error("Failed to process alert: {}", e.getMessage(), e);
-            return false;
+        // Persistence, case routing, audit logging and the live dashboard push happen on the
+        // write-behind pipeline once the alert is committed; the alerts table is the alert
+        // history, so no second history insert is issued
+        boolean accepted = alertWriteBehindQueue.enqueue(alert);
+
+        if (accepted) {
+            logger.debug("Queued alert: {} for transaction: {}",
+                        alert.getAlertId(), alert.getTransactionId());
+        } else {
+            logger.error("Failed to queue alert: {}", alert.getAlertId());
         }
+
+        return accepted;
     }
     
     @Override
@@ -205,83 +181,46 @@ public class AlertDecisionEngineImpl implements AlertDecisionEngine {
         stats.put("totalCooldownSuppressions", totalCooldownSuppressions.get());
         stats.put("alertTypeCounts", new HashMap<>(alertTypeCounts));
         stats.put("ruleMatchCounts", new HashMap<>(ruleMatchCounts));
-        stats.put("activeCooldowns", cooldownMap.size());
-        stats.put("duplicateHashesCount", alertHashes.size());
+        stats.put("suppression", suppressionCoordinator.getStats());
+        stats.put("cooldownPolicies", cooldownPolicies.getPolicies());
+        stats.put("duplicateFilter", duplicateAlertFilter.getStats());
+        stats.put("writeBehind", alertWriteBehindQueue.getQueueStats());
         return stats;
     }
     
     @Override
     public Map<String, Long> getCooldownStatus() {
-        Map<String, Long> status = new HashMap<>();
-        long currentTime = System.currentTimeMillis();
-        
-        for (Map.Entry<String, Long> entry : cooldownMap.entrySet()) {
-            String key = entry.getKey();
-            Long lastAlertTime = entry.getValue();
-            long timeRemaining = Math.max(0, getCooldownTimeForRule(key) - (currentTime - lastAlertTime));
-            status.put(key, timeRemaining);
-        }
-        
-        return status;
+        return suppressionCoordinator.snapshot();
     }
     
     @Override
     public void clearAllCooldowns() {
-        cooldownMap.clear();
+        // Clears every suppression claim, including those shared with other instances
+        suppressionCoordinator.clear();
         logger.info("Cleared all cooldowns");
     }
     
     @Override
     public List<String> getDuplicateAlertHashes() {
-        return new ArrayList<>(alertHashes);
+        synchronized (recentDuplicateHashes) {
+            return new ArrayList<>(recentDuplicateHashes);
+        }
     }
     
     // Helper methods
     
+    private void rememberDuplicate(String alertHash) {
+        synchronized (recentDuplicateHashes) {
+            if (recentDuplicateHashes.size() == RECENT_DUPLICATES_LIMIT) {
+                recentDuplicateHashes.removeFirst();
+            }
+            recentDuplicateHashes.addLast(alertHash);
+        }
+    }
+    
     private String generateAlertId(Transaction transaction, String reason) {
         return "ALT-" + System.currentTimeMillis() + "-" + 
                Math.abs(transaction.getId().hashCode()) + "-" +
                Math.abs(reason.hashCode());
     }
-    
-    private String generateAlertHash(Transaction transaction, String reason) {
-        return com.leizo.admin.util.AlertUtils.generateAlertHash(transaction, reason);
-    }
-    
-    private long getCooldownTimeForRule(String ruleId) {
-        if (ruleId == null) {
-            return DEFAULT_COOLDOWN_TIME_MS;
-        }
-        
-        // Different cooldown periods based on rule type
-        if (ruleId.toLowerCase().contains("sanction")) {
-            return SANCTIONS_COOLDOWN_TIME_MS;
-        } else if (ruleId.toLowerCase().contains("high") || 
-                   ruleId.toLowerCase().contains("priority")) {
-            return HIGH_PRIORITY_COOLDOWN_TIME_MS;
-        } else {
-            return DEFAULT_COOLDOWN_TIME_MS;
-        }
-    }
-    
-    private void logAlertAudit(Alert alert) {
-        StringBuilder auditLog = new StringBuilder();
-        auditLog.append("Alert Audit - ID: ").append(alert.getAlertId())
-                .append(", Type: ").append(alert.getAlertType())
-                .append(", Priority: ").append(alert.getPriorityLevel())
-                .append(", Score: ").append(alert.getPriorityScore())
-                .append(", Transaction: ").append(alert.getTransactionId())
-                .append(", Reason: ").append(alert.getReason())
-                .append(", Timestamp: ").append(alert.getTimestamp());
-        
-        if (alert.getMatchedEntityName() != null) {
-            auditLog.append(", Matched Entity: ").append(alert.getMatchedEntityName());
-        }
-        
-        if (alert.getMatchedList() != null) {
-            auditLog.append(", Matched List: ").append(alert.getMatchedList());
-        }
-        
-        loggerService.logEvent("ALERT_AUDIT", "SYSTEM", auditLog.toString());
-    }
-} 
\ No newline at end of file
+}
@@ -1,9 +1,13 @@
 package com.leizo.service.impl;
 
+import com.leizo.admin.util.AlertQuery;
 import com.leizo.pojo.entity.Alert;
 import com.leizo.pojo.entity.Transaction;
 import com.leizo.service.AlertHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.stereotype.Service;
 
 import java.sql.*;
@@ -24,6 +28,11 @@ import java.util.List;
 @Service
 public class AlertHistoryServiceImpl implements AlertHistoryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AlertHistoryServiceImpl.class);
+
+    // The sender and receiver of an alert live on its transaction
+    private static final String SELECT_ALERTS = "SELECT a.*, t.sender, t.receiver FROM " + AlertQuery.FROM;
+
     @Value("${spring.datasource.url}")
     private String URL;
 
@@ -71,28 +80,14 @@ public class AlertHistoryServiceImpl implements AlertHistoryService {
         @Override
         public List<Alert> getAllAlerts() {
             List<Alert> result = new ArrayList<>();
-            String sql = "SELECT * FROM alerts";
+            String sql = SELECT_ALERTS;
 
             try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
                  PreparedStatement ps = conn.prepareStatement(sql);
                  ResultSet rs = ps.executeQuery()) {
 
                 while (rs.next()) {
-                    Transaction txn = new Transaction(
-                            rs.getString("sender"),
-                            rs.getString("receiver"),
-                            null, null, null, null
-                    );
-
-                    Alert alert = new Alert();
-                    alert.setAlertId(rs.getString("alert_id"));
-                    alert.setTransaction(txn);
-                    alert.setReason(rs.getString("reason"));
-                    alert.setPriorityScore(rs.getInt("priority_score"));
-                    alert.setPriorityLevel(rs.getString("priority_level"));
-                    alert.setAlertType(rs.getString("alert_type"));
-
-                    result.add(alert);
+                    result.add(mapRow(rs));
                 }
 
             } catch (SQLException e) {
@@ -101,4 +96,54 @@ public class AlertHistoryServiceImpl implements AlertHistoryService {
 
             return Collections.unmodifiableList(result);
         }
+
+        /**
+         * Runs the query in the database so that only the requested page is loaded.
+         *
+         * @param query conditions, order and limit of the page
+         * @return an unmodifiable list of the matching alerts
+         * @throws DataRetrievalFailureException if the query fails, rather than reporting no matches
+         */
+        @Override
+        public List<Alert> findAlerts(AlertQuery query) {
+            List<Alert> result = new ArrayList<>();
+            String sql = query.toSql(SELECT_ALERTS);
+
+            try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                List<Object> args = query.sqlArgs();
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(mapRow(rs));
+                    }
+                }
+
+            } catch (SQLException e) {
+                logger.error("Failed to query alert history: {}", sql, e);
+                throw new DataRetrievalFailureException("Failed to query alert history", e);
+            }
+
+            return Collections.unmodifiableList(result);
+        }
+
+        private static Alert mapRow(ResultSet rs) throws SQLException {
+            Transaction txn = new Transaction(
+                    rs.getString("sender"),
+                    rs.getString("receiver"),
+                    null, null, null, null
+            );
+
+            Alert alert = new Alert();
+            alert.setAlertId(rs.getString("alert_id"));
+            alert.setTransaction(txn);
+            alert.setReason(rs.getString("reason"));
+            alert.setPriorityScore(rs.getInt("priority_score"));
+            alert.setPriorityLevel(rs.getString("priority_level"));
+            alert.setAlertType(rs.getString("alert_type"));
+            return alert;
+        }
     }
@@ -4,14 +4,15 @@ import com.leizo.pojo.entity.Alert;
 import com.leizo.pojo.entity.Transaction;
 import com.leizo.pojo.entity.Rule;
 import com.leizo.admin.repository.AlertRepository;
+import com.leizo.admin.service.suppression.CooldownPolicyRegistry;
+import com.leizo.admin.service.suppression.DuplicateAlertFilter;
+import com.leizo.admin.service.suppression.SuppressionCoordinator;
+import com.leizo.admin.util.AlertFingerprint;
 import com.leizo.service.AlertService;
 import org.springframework.stereotype.Service;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AlertServiceImpl manages the creation and persistence of alerts generated
@@ -23,24 +24,29 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class AlertServiceImpl implements AlertService {
 
-    private final Set<String> alertHashes = new HashSet<>();
-    private final Map<String, Long> cooldownMap = new ConcurrentHashMap<>();
-    private static final long COOLDOWN_TIME_MS = 10 * 60 * 1000; // 10 minutes
+    private final DuplicateAlertFilter duplicateAlertFilter = new DuplicateAlertFilter();
 
     private final AlertRepository alertRepository;
+    private final SuppressionCoordinator suppressionCoordinator;
+    private final CooldownPolicyRegistry cooldownPolicies;
 
     /**
      * Constructs the AlertServiceImpl with a reference to the AlertRepository.
      *
-     * @param alertRepository the repository responsible for alert persistence
+     * @param alertRepository        the repository responsible for alert persistence
+     * @param suppressionCoordinator cooldown and cluster-wide duplicate claims
+     * @param cooldownPolicies       cooldown period per rule, sensitivity and alert type
      */
-    public AlertServiceImpl(AlertRepository alertRepository) {
+    public AlertServiceImpl(AlertRepository alertRepository, SuppressionCoordinator suppressionCoordinator,
+                            CooldownPolicyRegistry cooldownPolicies) {
         this.alertRepository = alertRepository;
+        this.suppressionCoordinator = suppressionCoordinator;
+        this.cooldownPolicies = cooldownPolicies;
     }
 
     /**
      * Checks if the sender is in cooldown for a specific rule.
-     * Prevents repeated alert spam within a 10-minute interval.
+     * Prevents repeated alert spam within the rule's cooldown period.
      *
      * @param sender the sender of the transaction
      * @param ruleId the identifier of the triggered rule
@@ -48,9 +54,7 @@ public class AlertServiceImpl implements AlertService {
      */
     @Override
     public boolean isInCooldown(String sender, String ruleId) {
-        String key = sender + "|" + ruleId;
-        Long lastAlertTime = cooldownMap.get(key);
-        return lastAlertTime != null && (System.currentTimeMillis() - lastAlertTime < COOLDOWN_TIME_MS);
+        return suppressionCoordinator.isInCooldown(sender, ruleId);
     }
 
     /**
@@ -61,8 +65,37 @@ public class AlertServiceImpl implements AlertService {
      */
     @Override
     public void registerCooldown(String sender, String ruleId) {
-        String key = sender + "|" + ruleId;
-        cooldownMap.put(key, System.currentTimeMillis());
+        suppressionCoordinator.registerCooldown(sender, ruleId,
+                cooldownPolicies.policyFor(ruleId, "RULE_MATCH").cooldownFor(0));
+    }
+
+    /**
+     * Starts the cooldown for a sender-rule combination unless one is already active on any
+     * instance, in a single atomic step.
+     *
+     * @param sender the sender of the transaction
+     * @param ruleId the rule that triggered the alert
+     * @return true if the cooldown was started, false if the sender is already in cooldown
+     */
+    @Override
+    public boolean tryStartCooldown(String sender, String ruleId) {
+        return suppressionCoordinator.tryStartCooldown(sender, ruleId,
+                cooldownPolicies.policyFor(ruleId, "RULE_MATCH").cooldownFor(0));
+    }
+
+    /**
+     * Starts the cooldown for a sender and a compiled rule, using the policy attached to the
+     * rule; alerts at or above the escalation priority get the shorter escalation cooldown.
+     *
+     * @param sender        the transaction sender
+     * @param rule          the rule that triggered the alert
+     * @param priorityScore the priority score of the alert
+     * @return true if the cooldown was started, false if the sender is already in cooldown
+     */
+    @Override
+    public boolean tryStartCooldown(String sender, Rule rule, int priorityScore) {
+        long cooldownMs = cooldownPolicies.policyFor(rule).cooldownFor(priorityScore);
+        return suppressionCoordinator.tryStartCooldown(sender, rule.getDescription(), cooldownMs);
     }
 
     /**
@@ -76,7 +109,10 @@ public class AlertServiceImpl implements AlertService {
      */
     @Override
     public com.leizo.pojo.entity.Alert generateAlert(com.leizo.pojo.entity.Transaction txn, com.leizo.pojo.entity.Rule rule, String reason) {
-        if (isDuplicateAlert(txn, reason)) {
+        AlertFingerprint fingerprint = AlertFingerprint.compute(txn, reason);
+        if (duplicateAlertFilter.checkAndAdd(fingerprint.high(), fingerprint.low())
+                || !suppressionCoordinator.claimAlert(txn.getSender(), fingerprint.high(), fingerprint.low(),
+                        duplicateAlertFilter.getWindowMs())) {
             System.out.println("[AlertService] Duplicate alert skipped for sender: " + txn.getSender());
             return null;
         }
@@ -106,19 +142,9 @@ public class AlertServiceImpl implements AlertService {
      */
     @Override
     public boolean isDuplicateAlert(com.leizo.pojo.entity.Transaction txn, String reason) {
-        String key = generateAlertKey(txn, reason);
-        return alertHashes.contains(key);
-    }
-
-    /**
-     * Generates a hashable key representing the unique characteristics of an alert.
-     *
-     * @param txn    the transaction being evaluated
-     * @param reason the reason for alert creation
-     * @return a deduplication key string
-     */
-    private String generateAlertKey(com.leizo.pojo.entity.Transaction txn, String reason) {
-        return com.leizo.admin.util.AlertUtils.generateAlertKey(txn, reason);
+        AlertFingerprint fingerprint = AlertFingerprint.compute(txn, reason);
+        return duplicateAlertFilter.mightContain(fingerprint.high(), fingerprint.low())
+                || suppressionCoordinator.isAlertClaimed(txn.getSender(), fingerprint.high(), fingerprint.low());
     }
 
     /**
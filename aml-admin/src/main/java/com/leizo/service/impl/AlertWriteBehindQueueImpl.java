@@ -0,0 +1,652 @@
+package com.leizo.service.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.leizo.admin.service.analytics.DashboardAggregates;
+import com.leizo.admin.service.stream.AlertStreamHub;
+import com.leizo.pojo.entity.Alert;
+import com.leizo.service.AlertWriteBehindQueue;
+import com.leizo.service.CaseManager;
+import com.leizo.service.LoggerService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind alert persistence pipeline.
+ *
+ * Every accepted alert is first appended to a local journal, then placed on a bounded
+ * queue. A single flusher thread drains the queue and inserts alerts with one multi-row
+ * INSERT per transaction (group commit), after which the dashboard aggregates, live alert stream, logger,
+ * case manager and audit sinks are notified on a separate fan-out pool. The journal is truncated once nothing is pending and
+ * replayed on startup, so alerts accepted before a crash are committed on the next boot;
+ * inserts use ON CONFLICT DO NOTHING to keep replays idempotent (on the time-partitioned
+ * table the arbiter is the (alert_id, timestamp) unique constraint). The insert returns the
+ * rows it wrote with their generated ids; rows it skipped as already present are not counted
+ * again in the dashboard aggregates or pushed to the live stream again.
+ *
+ * When the queue is full the producer waits up to the offer timeout and then persists the
+ * alert inline on its own thread, which slows ingestion down instead of dropping alerts.
+ *
+ * Alerts missing a required column are rejected on enqueue. When a batch fails it is retried
+ * row by row: rows that fail on their own are moved to a dead-letter file, so one bad alert
+ * cannot stall the flusher or poison the next replay. Only connection and other transient
+ * failures are retried with backoff; alerts put back on the queue for a retry that no longer
+ * fit are dead-lettered as well.
+ */
+@Service
+public class AlertWriteBehindQueueImpl implements AlertWriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertWriteBehindQueueImpl.class);
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO alerts (alert_id, transaction_id, reason, timestamp, alert_type, priority_level, " +
+            "matched_entity_name, matched_list, match_reason, priority_score) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Only inserted rows are returned, so alerts ON CONFLICT skipped are told apart exactly
+    private static final String INSERT_SUFFIX = " ON CONFLICT DO NOTHING RETURNING alert_id, id";
+
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    // Length of the alerts.alert_id column
+    private static final int ALERT_ID_MAX_LENGTH = 100;
+
+    @Value("${aml.alerts.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${aml.alerts.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${aml.alerts.write-behind.flush-interval-ms:250}")
+    private long flushIntervalMs;
+
+    @Value("${aml.alerts.write-behind.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${aml.alerts.write-behind.journal-path:logs/alert-journal.ndjson}")
+    private String journalPath;
+
+    @Value("${aml.alerts.write-behind.dead-letter-path:logs/alert-dead-letter.ndjson}")
+    private String deadLetterPath;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LoggerService loggerService;
+    private final CaseManager caseManager;
+    private final DashboardAggregates dashboardAggregates;
+    private final AlertStreamHub alertStreamHub;
+    private final ObjectMapper objectMapper;
+
+    private BlockingQueue<Alert> queue;
+    private ExecutorService flusher;
+    private ThreadPoolExecutor fanOut;
+    private volatile boolean running;
+
+    // Journal state, guarded by journalLock
+    private final Object journalLock = new Object();
+    private BufferedWriter journalWriter;
+    private long journalPending;
+
+    // Dead-letter file, guarded by deadLetterLock
+    private final Object deadLetterLock = new Object();
+
+    // Statistics tracking
+    private final AtomicLong totalEnqueued = new AtomicLong(0);
+    private final AtomicLong totalCommitted = new AtomicLong(0);
+    private final AtomicLong totalBatches = new AtomicLong(0);
+    private final AtomicLong totalInlineCommits = new AtomicLong(0);
+    private final AtomicLong totalCommitFailures = new AtomicLong(0);
+    private final AtomicLong totalReplayed = new AtomicLong(0);
+    private final AtomicLong totalRejected = new AtomicLong(0);
+    private final AtomicLong totalDeadLettered = new AtomicLong(0);
+    private final AtomicLong totalDuplicates = new AtomicLong(0);
+    private final AtomicLong totalRequeueFailures = new AtomicLong(0);
+
+    public AlertWriteBehindQueueImpl(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     LoggerService loggerService,
+                                     CaseManager caseManager,
+                                     DashboardAggregates dashboardAggregates,
+                                     AlertStreamHub alertStreamHub) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loggerService = loggerService;
+        this.caseManager = caseManager;
+        this.dashboardAggregates = dashboardAggregates;
+        this.alertStreamHub = alertStreamHub;
+        this.objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        fanOut = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                daemonThreads("alert-fanout"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        openJournal();
+        replayJournal();
+
+        running = true;
+        flusher = Executors.newSingleThreadExecutor(daemonThreads("alert-write-behind"));
+        flusher.submit(this::runFlushLoop);
+
+        logger.info("Alert write-behind queue started (capacity: {}, batch size: {}, journal: {})",
+                capacity, batchSize, journalPath);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (fanOut != null) {
+            fanOut.shutdown();
+        }
+        closeJournal();
+    }
+
+    @Override
+    public boolean enqueue(Alert alert) {
+        if (alert == null) {
+            return false;
+        }
+        String invalid = validate(alert);
+        if (invalid != null) {
+            // The insert could never succeed, so keep the alert out of the journal and the queue
+            totalRejected.incrementAndGet();
+            deadLetter(alert, invalid, false);
+            return false;
+        }
+        if (!appendToJournal(alert)) {
+            // Without a journal entry the alert is not durable until committed, so commit now
+            totalInlineCommits.incrementAndGet();
+            return commit(List.of(alert), false).committed() == 1;
+        }
+        totalEnqueued.incrementAndGet();
+
+        try {
+            if (queue.offer(alert, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Queue is full: make the producer pay for the write instead of dropping the alert
+        totalInlineCommits.incrementAndGet();
+        return commit(List.of(alert), true).committed() == 1;
+    }
+
+    @Override
+    public int flush() {
+        int committed = 0;
+        List<Alert> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            CommitOutcome outcome = commit(batch, true);
+            committed += outcome.committed();
+            if (!outcome.retry().isEmpty()) {
+                // Put the rest back so it is retried by the flusher or replayed from the journal
+                requeue(outcome.retry());
+                break;
+            }
+            batch.clear();
+        }
+        return committed;
+    }
+
+    @Override
+    public Map<String, Object> getQueueStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", capacity);
+        stats.put("totalEnqueued", totalEnqueued.get());
+        stats.put("totalCommitted", totalCommitted.get());
+        stats.put("totalBatches", totalBatches.get());
+        stats.put("totalInlineCommits", totalInlineCommits.get());
+        stats.put("totalCommitFailures", totalCommitFailures.get());
+        stats.put("totalReplayed", totalReplayed.get());
+        stats.put("totalRejected", totalRejected.get());
+        stats.put("totalDeadLettered", totalDeadLettered.get());
+        stats.put("totalDuplicates", totalDuplicates.get());
+        stats.put("totalRequeueFailures", totalRequeueFailures.get());
+        stats.put("deadLetterPath", deadLetterPath);
+        stats.put("fanOutBacklog", fanOut.getQueue().size());
+        synchronized (journalLock) {
+            stats.put("journalPending", journalPending);
+        }
+        return stats;
+    }
+
+    // Flusher
+
+    private void runFlushLoop() {
+        List<Alert> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Alert first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                // Retry what failed transiently; the queue filling up pushes back on producers meanwhile
+                List<Alert> pending = commit(batch, true).retry();
+                batch.clear();
+                while (!pending.isEmpty() && running) {
+                    Thread.sleep(RETRY_BACKOFF_MS);
+                    pending = commit(pending, true).retry();
+                }
+                batch.addAll(pending);
+                if (!batch.isEmpty()) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Alert write-behind flusher error: {}", e.getMessage(), e);
+            }
+        }
+        if (!batch.isEmpty()) {
+            requeue(batch);
+        }
+    }
+
+    /**
+     * Puts alerts that failed transiently back on the queue, waiting up to the offer timeout for
+     * room; producers may have filled the queue meanwhile, and an alert that still does not fit
+     * is dead-lettered rather than dropped with its journal entry left pending
+     */
+    private void requeue(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            boolean requeued = queue.offer(alert);
+            if (!requeued) {
+                try {
+                    requeued = queue.offer(alert, offerTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (!requeued) {
+                totalRequeueFailures.incrementAndGet();
+                deadLetter(alert, "Write-behind queue full when re-queueing after a failed commit", true);
+            }
+        }
+    }
+
+    /**
+     * Alerts written by a commit, and the alerts left to retry after a transient failure
+     */
+    private record CommitOutcome(int committed, List<Alert> retry) {
+    }
+
+    /**
+     * Commits a batch in one transaction. If that fails the batch is split and committed row by
+     * row; rows that fail on their own are dead-lettered, and the first transient failure stops
+     * the split and returns the remaining rows for a later retry.
+     */
+    private CommitOutcome commit(List<Alert> batch, boolean journaled) {
+        try {
+            onCommitted(batch, insert(batch), journaled);
+            return new CommitOutcome(batch.size(), List.of());
+        } catch (Exception e) {
+            totalCommitFailures.incrementAndGet();
+            logger.error("Failed to commit batch of {} alerts: {}", batch.size(), e.getMessage());
+            if (isTransient(e)) {
+                return new CommitOutcome(0, batch);
+            }
+        }
+
+        int committed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            List<Alert> single = List.of(batch.get(i));
+            try {
+                onCommitted(single, insert(single), journaled);
+                committed++;
+            } catch (Exception e) {
+                if (isTransient(e)) {
+                    return new CommitOutcome(committed, new ArrayList<>(batch.subList(i, batch.size())));
+                }
+                deadLetter(batch.get(i), e.getMessage(), journaled);
+            }
+        }
+        return new CommitOutcome(committed, List.of());
+    }
+
+    /**
+     * Inserts a batch as one multi-row statement in one transaction, and assigns the generated
+     * ids to the alerts it wrote
+     *
+     * @return per alert, whether the insert wrote it; false where ON CONFLICT skipped an existing row
+     */
+    private boolean[] insert(List<Alert> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(batch.size() * 10);
+        for (Alert alert : batch) {
+            sql.append(args.isEmpty() ? "" : ", ").append(INSERT_ROW);
+            args.add(alert.getAlertId());
+            // Typed, since either integer column may be null
+            args.add(new SqlParameterValue(Types.INTEGER, alert.getTransactionId()));
+            args.add(alert.getReason());
+            args.add(Timestamp.valueOf(alert.getTimestamp()));
+            args.add(alert.getAlertType());
+            args.add(alert.getPriorityLevel());
+            args.add(alert.getMatchedEntityName());
+            args.add(alert.getMatchedList());
+            args.add(alert.getMatchReason());
+            args.add(new SqlParameterValue(Types.INTEGER, alert.getPriorityScore()));
+        }
+        sql.append(INSERT_SUFFIX);
+
+        Map<String, Integer> inserted = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query(sql.toString(),
+                        (RowCallbackHandler) rs -> inserted.put(rs.getString("alert_id"), rs.getInt("id")),
+                        args.toArray()));
+
+        boolean[] written = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            // remove, so a second copy of the same alert in the batch counts as skipped
+            Integer id = inserted.remove(batch.get(i).getAlertId());
+            if (id != null) {
+                written[i] = true;
+                batch.get(i).setId(id);
+            }
+        }
+        return written;
+    }
+
+    private void onCommitted(List<Alert> batch, boolean[] written, boolean journaled) {
+        totalCommitted.addAndGet(batch.size());
+        totalBatches.incrementAndGet();
+        if (journaled) {
+            markCommitted(batch.size());
+        }
+
+        List<Alert> committed = new ArrayList<>(batch);
+        fanOut.execute(() -> {
+            for (int i = 0; i < committed.size(); i++) {
+                if (!written[i]) {
+                    totalDuplicates.incrementAndGet();
+                }
+                notifySinks(committed.get(i), written[i]);
+            }
+        });
+    }
+
+    /**
+     * Failures worth retrying the same rows for: lost connections, timeouts and the like.
+     * Anything else (constraint violations, bad values) fails again on every retry.
+     */
+    private static boolean isTransient(Exception e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    /**
+     * Checks the columns the insert cannot do without
+     *
+     * @return why the alert cannot be inserted, or null if it can
+     */
+    static String validate(Alert alert) {
+        if (alert.getAlertId() == null || alert.getAlertId().isBlank()) {
+            return "missing alert_id";
+        }
+        if (alert.getAlertId().length() > ALERT_ID_MAX_LENGTH) {
+            return "alert_id longer than " + ALERT_ID_MAX_LENGTH + " characters";
+        }
+        if (alert.getReason() == null) {
+            return "missing reason";
+        }
+        if (alert.getTimestamp() == null) {
+            return "missing timestamp";
+        }
+        return null;
+    }
+
+    // Sinks
+
+    /**
+     * @param written whether this commit wrote the alert; an alert that was already stored was
+     *                counted and streamed when it was first written
+     */
+    private void notifySinks(Alert alert, boolean written) {
+        try {
+            if (written) {
+                dashboardAggregates.recordAlert(alert);
+                // Live dashboards only see alerts that are in the alerts table
+                alertStreamHub.publish(alert);
+            }
+            loggerService.logAlert(alert);
+            if (caseManager != null) {
+                caseManager.reviewAlert(alert);
+            }
+            logAlertAudit(alert);
+        } catch (Exception e) {
+            logger.warn("Alert sink notification failed for {}: {}", alert.getAlertId(), e.getMessage());
+        }
+    }
+
+    private void logAlertAudit(Alert alert) {
+        StringBuilder auditLog = new StringBuilder();
+        auditLog.append("Alert Audit - ID: ").append(alert.getAlertId())
+                .append(", Type: ").append(alert.getAlertType())
+                .append(", Priority: ").append(alert.getPriorityLevel())
+                .append(", Score: ").append(alert.getPriorityScore())
+                .append(", Transaction: ").append(alert.getTransactionId())
+                .append(", Reason: ").append(alert.getReason())
+                .append(", Timestamp: ").append(alert.getTimestamp());
+
+        if (alert.getMatchedEntityName() != null) {
+            auditLog.append(", Matched Entity: ").append(alert.getMatchedEntityName());
+        }
+
+        if (alert.getMatchedList() != null) {
+            auditLog.append(", Matched List: ").append(alert.getMatchedList());
+        }
+
+        loggerService.logEvent("ALERT_AUDIT", "SYSTEM", auditLog.toString());
+    }
+
+    // Journal
+
+    private void openJournal() {
+        try {
+            Path path = Paths.get(journalPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            journalWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("Alert journal unavailable at {}, alerts will be committed inline: {}",
+                    journalPath, e.getMessage());
+            journalWriter = null;
+        }
+    }
+
+    private void closeJournal() {
+        synchronized (journalLock) {
+            if (journalWriter != null) {
+                try {
+                    journalWriter.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close alert journal: {}", e.getMessage());
+                }
+                journalWriter = null;
+            }
+        }
+    }
+
+    private void replayJournal() {
+        Path path = Paths.get(journalPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            List<Alert> replayed = new ArrayList<>();
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    replayed.add(objectMapper.readValue(line, Alert.class));
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable alert journal entry: {}", e.getMessage());
+                }
+            }
+
+            // Account for every entry before committing any, so the journal is not truncated early
+            synchronized (journalLock) {
+                journalPending += replayed.size();
+            }
+            for (Alert alert : replayed) {
+                totalReplayed.incrementAndGet();
+                String invalid = validate(alert);
+                if (invalid != null) {
+                    totalRejected.incrementAndGet();
+                    deadLetter(alert, invalid, true);
+                } else if (!queue.offer(alert)) {
+                    commit(List.of(alert), true);
+                }
+            }
+            if (totalReplayed.get() > 0) {
+                logger.info("Replayed {} alerts from journal {}", totalReplayed.get(), journalPath);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to replay alert journal {}: {}", journalPath, e.getMessage());
+        }
+    }
+
+    private boolean appendToJournal(Alert alert) {
+        synchronized (journalLock) {
+            if (journalWriter == null) {
+                return false;
+            }
+            try {
+                journalWriter.write(objectMapper.writeValueAsString(alert));
+                journalWriter.newLine();
+                journalWriter.flush();
+                journalPending++;
+                return true;
+            } catch (IOException e) {
+                logger.error("Failed to journal alert {}: {}", alert.getAlertId(), e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private void markCommitted(int count) {
+        synchronized (journalLock) {
+            journalPending = Math.max(0, journalPending - count);
+            if (journalPending == 0 && journalWriter != null) {
+                // Everything journaled so far is committed: start a fresh journal
+                try {
+                    journalWriter.close();
+                    journalWriter = Files.newBufferedWriter(Paths.get(journalPath), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.WRITE);
+                } catch (IOException e) {
+                    logger.error("Failed to truncate alert journal: {}", e.getMessage());
+                    journalWriter = null;
+                }
+            }
+        }
+    }
+
+    // Dead letters
+
+    /**
+     * Moves an alert that cannot be inserted out of the pipeline, keeping it for inspection
+     * and manual re-entry. A journaled alert counts as resolved, so it is not replayed again.
+     */
+    private void deadLetter(Alert alert, String error, boolean journaled) {
+        totalDeadLettered.incrementAndGet();
+        String entry;
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("deadLetteredAt", LocalDateTime.now().toString());
+            node.put("error", error);
+            node.set("alert", objectMapper.valueToTree(alert));
+            entry = objectMapper.writeValueAsString(node);
+        } catch (Exception e) {
+            entry = null;
+        }
+
+        boolean written = false;
+        if (entry != null) {
+            synchronized (deadLetterLock) {
+                try {
+                    Path path = Paths.get(deadLetterPath);
+                    if (path.getParent() != null) {
+                        Files.createDirectories(path.getParent());
+                    }
+                    Files.writeString(path, entry + System.lineSeparator(), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    written = true;
+                } catch (IOException e) {
+                    logger.error("Failed to write alert dead letter to {}: {}", deadLetterPath, e.getMessage());
+                }
+            }
+        }
+        if (written) {
+            logger.error("Dead-lettered alert {} to {}: {}", alert.getAlertId(), deadLetterPath, error);
+        } else {
+            // Last resort: the log line is the only copy left
+            logger.error("Dead-lettered alert {}: {} - {}", alert.getAlertId(), error, entry);
+        }
+
+        if (journaled) {
+            markCommitted(1);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
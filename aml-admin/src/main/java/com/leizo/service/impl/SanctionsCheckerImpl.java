@@ -5,6 +5,8 @@ import com.leizo.service.SanctionsChecker;
 import com.leizo.service.OfacXmlSanctionsApiClient;
 import com.leizo.pojo.entity.Alert;
 import com.leizo.admin.repository.AlertRepository;
+import com.leizo.admin.service.analytics.DashboardAggregates;
+import com.leizo.admin.service.stream.AlertStreamHub;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -19,11 +21,17 @@ public class SanctionsCheckerImpl implements SanctionsChecker {
     private final SanctionListLoader sanctionListLoader;
     private final OfacXmlSanctionsApiClient ofacSanctionsClient;
     private final AlertRepository alertRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final AlertStreamHub alertStreamHub;
 
-    public SanctionsCheckerImpl(SanctionListLoader sanctionListLoader, OfacXmlSanctionsApiClient ofacSanctionsClient, AlertRepository alertRepository) {
+    public SanctionsCheckerImpl(SanctionListLoader sanctionListLoader, OfacXmlSanctionsApiClient ofacSanctionsClient,
+                                AlertRepository alertRepository, DashboardAggregates dashboardAggregates,
+                                AlertStreamHub alertStreamHub) {
         this.sanctionListLoader = sanctionListLoader;
         this.ofacSanctionsClient = ofacSanctionsClient;
         this.alertRepository = alertRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.alertStreamHub = alertStreamHub;
     }
 
     @Override
@@ -75,7 +83,9 @@ public class SanctionsCheckerImpl implements SanctionsChecker {
             alert.setTimestamp(LocalDateTime.now());
             alert.setAlertType("SANCTIONS");
             alert.setPriorityLevel("HIGH");
-            alertRepository.save(alert);
+            Alert saved = alertRepository.save(alert);
+            dashboardAggregates.recordAlert(saved);
+            alertStreamHub.publish(saved);
             logger.warn("ALERT CREATED: Transaction [{}] flagged for OFAC sanctioned entity [{}]", transactionId, name);
             return alert;
         }
@@ -91,7 +101,9 @@ public class SanctionsCheckerImpl implements SanctionsChecker {
             alert.setTimestamp(LocalDateTime.now());
             alert.setAlertType("SANCTIONS");
             alert.setPriorityLevel("HIGH");
-            alertRepository.save(alert);
+            Alert saved = alertRepository.save(alert);
+            dashboardAggregates.recordAlert(saved);
+            alertStreamHub.publish(saved);
             logger.warn("ALERT CREATED: Transaction [{}] flagged for locally sanctioned entity [{}]", transactionId, name);
             return alert;
         }
@@ -4,6 +4,9 @@ import com.leizo.pojo.entity.Transaction;
 import com.leizo.pojo.entity.Rule;
 import com.leizo.pojo.entity.Alert;
 import com.leizo.common.entity.Users;
+import com.leizo.admin.monitoring.DecisionTrace;
+import com.leizo.admin.monitoring.RuleProfiler;
+import com.leizo.admin.service.rules.ShadowRuleEvaluator;
 import com.leizo.model.IngestionResult;
 import com.leizo.enums.IngestionStatus;
 import com.leizo.enums.RiskScore;
@@ -13,6 +16,7 @@ import com.leizo.loader.SanctionListLoader;
 import com.leizo.loader.RuleLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -30,7 +34,7 @@ import java.util.stream.Collectors;
  * - Sanctions screening with OFAC and local lists
  * - Risk scoring with enhanced country risk assessment
  * - Alert decision making with duplicate suppression and cooldowns
- * - Comprehensive logging and audit trails
+ * - One sampled decision-trace event per transaction instead of per-step logging
  */
 @Service
 public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorService {
@@ -42,20 +46,31 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
     private final SanctionsChecker sanctionsChecker;
     private final RiskScoringService riskScoringService;
     private final AlertService alertService;
-    private final LoggerService loggerService;
+    private final DecisionTrace decisionTrace;
     private final SanctionListLoader sanctionListLoader;
     private final RuleLoader ruleLoader;
+    private final RuleProfiler ruleProfiler;
+    private final ShadowRuleEvaluator shadowRuleEvaluator;
     
     // Enhanced rule management
     private final List<Rule> hardcodedRules = new ArrayList<>();
-    private final List<Rule> jsonRules = new ArrayList<>();
+    // Replaced as a whole when the rule loader swaps in a new rule set
+    private volatile List<Rule> jsonRules = List.of();
     private final Map<String, Rule> ruleRegistry = new ConcurrentHashMap<>();
+    // Active rules by descending sensitivity, then ascending evaluation cost; rebuilt on every rule change
+    private volatile List<Rule> evaluationOrder = List.of();
+    
+    // Full explanation evaluates every rule so all matches can be reported (audits)
+    @Value("${aml.rules.evaluation.explain:false}")
+    private boolean explainByDefault;
     
     // Performance tracking
     private final AtomicLong totalTransactionsEvaluated = new AtomicLong(0);
     private final AtomicLong totalAlertsGenerated = new AtomicLong(0);
     private final AtomicLong totalSanctionsMatches = new AtomicLong(0);
     private final Map<String, Long> ruleMatchCounts = new ConcurrentHashMap<>();
+    private final AtomicLong totalRulesEvaluated = new AtomicLong(0);
+    private final AtomicLong totalRulesSkipped = new AtomicLong(0);
     
     // Enhanced high-risk countries list
 
@@ -64,16 +79,20 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
                                          SanctionsChecker sanctionsChecker,
                                          RiskScoringService riskScoringService,
                                          AlertService alertService,
-                                         LoggerService loggerService,
+                                         DecisionTrace decisionTrace,
                                          SanctionListLoader sanctionListLoader,
-                                         RuleLoader ruleLoader) {
+                                         RuleLoader ruleLoader,
+                                         RuleProfiler ruleProfiler,
+                                         ShadowRuleEvaluator shadowRuleEvaluator) {
         this.ruleEngine = ruleEngine;
         this.sanctionsChecker = sanctionsChecker;
         this.riskScoringService = riskScoringService;
         this.alertService = alertService;
-        this.loggerService = loggerService;
+        this.decisionTrace = decisionTrace;
         this.sanctionListLoader = sanctionListLoader;
         this.ruleLoader = ruleLoader;
+        this.ruleProfiler = ruleProfiler;
+        this.shadowRuleEvaluator = shadowRuleEvaluator;
         
         initializeRules();
     }
@@ -160,26 +179,41 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
     }
     
     /**
-     * Load JSON-based rules from the rules.json file
+     * Load JSON-based rules from the rules.json file and follow later reloads
      */
     private void loadJsonRules() {
         try {
-            logger.info("LOADING JSON RULES: Attempting to load rules from classpath:rules.json");
-            // Load rules from JSON file
-            ruleLoader.loadFromJson("classpath:rules.json");
+            logger.info("LOADING JSON RULES: Using rules compiled by the rule loader");
             List<Rule> loadedRules = ruleLoader.getRules();
-            jsonRules.addAll(loadedRules);
+            jsonRules = List.copyOf(loadedRules);
             logger.info("LOADING JSON RULES: Successfully loaded [{}] JSON-based rules", jsonRules.size());
             
             // Log each loaded rule
             loadedRules.forEach(rule -> 
                 logger.info("LOADED JSON RULE: [{}] - [{}]", rule.getDescription(), rule.getSensitivity()));
-                
+            
+            ruleLoader.addRulesListener(this::replaceJsonRules);
         } catch (Exception e) {
             logger.error("LOADING JSON RULES: Failed to load JSON rules: {}", e.getMessage(), e);
         }
     }
     
+    /**
+     * Swap in a reloaded set of JSON rules; hardcoded and manually added rules are kept
+     */
+    private synchronized void replaceJsonRules(List<Rule> reloadedRules) {
+        for (Rule old : jsonRules) {
+            ruleRegistry.remove(old.getDescription(), old);
+        }
+        jsonRules = List.copyOf(reloadedRules);
+        for (Rule rule : jsonRules) {
+            ruleRegistry.put(rule.getDescription(), rule);
+        }
+        rebuildEvaluationOrder();
+        ruleProfiler.retain(evaluationOrder);
+        logger.info("RELOADED JSON RULES: [{}] JSON-based rules active", jsonRules.size());
+    }
+    
     /**
      * Register all rules in the rule registry for quick lookup
      */
@@ -192,9 +226,22 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
             ruleRegistry.put(rule.getDescription(), rule);
         }
         
+        rebuildEvaluationOrder();
         logger.info("Registered {} total rules in rule registry", ruleRegistry.size());
     }
     
+    /**
+     * Order rules so the first match is always the rule that would be selected: the highest
+     * sensitivity wins, and among equal sensitivities the cheaper, then the earlier, rule
+     */
+    private synchronized void rebuildEvaluationOrder() {
+        List<Rule> ordered = new ArrayList<>(getActiveRules());
+        ordered.removeIf(Objects::isNull);
+        ordered.sort(Comparator.<Rule>comparingInt(rule -> rule.getSensitivity().getWeight()).reversed()
+            .thenComparingInt(Rule::getEvaluationCost));
+        evaluationOrder = List.copyOf(ordered);
+    }
+    
     @Override
     public IngestionResult evaluateTransaction(Transaction transaction) {
         totalTransactionsEvaluated.incrementAndGet();
@@ -209,12 +256,9 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
             int riskScore = calculateRiskScore(transaction);
             transaction.setRiskScore(RiskScore.valueOf(getRiskScoreLevel(riskScore)));
             
-            // Evaluate for alerts
+            // Evaluate for alerts; the decision is traced there
             AlertDecisionResult alertResult = evaluateForAlert(transaction);
             
-            // Log evaluation
-            logEvaluation(transaction, alertResult, riskScore);
-            
             // Update statistics
             if (alertResult.shouldTriggerAlert()) {
                 totalAlertsGenerated.incrementAndGet();
@@ -235,9 +279,18 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
     
     @Override
     public AlertDecisionResult evaluateForAlert(Transaction transaction) {
-        logger.info("ALERT EVALUATION: Starting evaluation for transaction [{}] from [{}]", 
-                   transaction.getSender(), transaction.getCountry());
-        
+        return evaluateForAlert(transaction, explainByDefault);
+    }
+    
+    @Override
+    public AlertDecisionResult evaluateForAlert(Transaction transaction, boolean explain) {
+        long startNanos = System.nanoTime();
+        AlertDecisionResult result = decide(transaction, explain);
+        decisionTrace.record(transaction, result, explain, startNanos);
+        return result;
+    }
+    
+    private AlertDecisionResult decide(Transaction transaction, boolean explain) {
         // TEMPORARILY DISABLED: Sanctions checking to test other alert factors
         // Check for sanctions first (highest priority)
         /*
@@ -260,26 +313,15 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
         }
         */
         
-        logger.info("SANCTIONS CHECKING DISABLED: Proceeding to rule evaluation for [{}]", transaction.getSender());
-        
         // Check for rule matches
-        List<Rule> matchedRules = findMatchingRules(transaction);
-        logger.info("RULE EVALUATION RESULT: Found [{}] matching rules for [{}]", 
-                   matchedRules.size(), transaction.getSender());
+        List<Rule> matchedRules = findMatchingRules(transaction, explain);
         
         if (matchedRules.isEmpty()) {
-            logger.info("NO RULE MATCHES: No rules matched for transaction [{}]", transaction.getSender());
             return AlertDecisionResult.noAlert(transaction, calculateRiskScore(transaction));
         }
         
-        // Select the rule with highest sensitivity
-        Rule selectedRule = matchedRules.stream()
-            .max(Comparator.comparingInt(r -> r.getSensitivity().getWeight()))
-            .orElse(null);
-        
-        if (selectedRule == null) {
-            return AlertDecisionResult.noAlert(transaction, calculateRiskScore(transaction));
-        }
+        // Rules are evaluated by descending sensitivity, so the first match has the highest sensitivity
+        Rule selectedRule = matchedRules.get(0);
         
         // Check for duplicate rule alert
         String ruleReason = "Rule matched: " + selectedRule.getDescription();
@@ -287,29 +329,22 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
             return AlertDecisionResult.duplicateAlert(transaction, "Duplicate rule alert");
         }
         
-        // Check cooldown
-        String sender = transaction.getSender();
-        String ruleId = selectedRule.getDescription();
-        if (alertService.isInCooldown(sender, ruleId)) {
-            return AlertDecisionResult.cooldownAlert(transaction, "Cooldown active for rule: " + ruleId);
-        }
-        
-        // Calculate enhanced risk score
+        // Calculate enhanced risk score; the priority decides whether the escalation cooldown applies
         int riskScore = calculateRiskScore(transaction);
         int priorityScore = calculatePriorityScore(transaction, selectedRule, riskScore);
         
+        // Check and start cooldown in one step so concurrent instances cannot both raise the alert
+        String sender = transaction.getSender();
+        if (!alertService.tryStartCooldown(sender, selectedRule, priorityScore)) {
+            return AlertDecisionResult.cooldownAlert(transaction, "Cooldown active for rule: " + selectedRule.getDescription());
+        }
+        
         // Create rule alert
         Alert alert = createRuleAlert(transaction, selectedRule, ruleReason, priorityScore);
-        logger.warn("ALERT CREATED: Rule alert created for [{}] with rule [{}], priority score: [{}]", 
-                   transaction.getSender(), selectedRule.getDescription(), priorityScore);
-        
-        // Register cooldown
-        alertService.registerCooldown(sender, ruleId);
         
         // Update rule match statistics
         ruleMatchCounts.merge(selectedRule.getDescription(), 1L, Long::sum);
         
-        logger.warn("ALERT DECISION: Returning rule alert for [{}]", transaction.getSender());
         return AlertDecisionResult.ruleAlert(
             transaction, alert, selectedRule, ruleReason, 
             riskScore, priorityScore, 
@@ -325,14 +360,14 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
     @Override
     public SanctionsMatchResult checkSanctions(Transaction transaction) {
         try {
-            logger.info("SANCTIONS CHECK: Checking transaction sender: [{}], country: [{}]", 
+            logger.debug("SANCTIONS CHECK: Checking transaction sender: [{}], country: [{}]", 
                        transaction.getSender(), transaction.getCountry());
             
             // Check OFAC SDN list first
             if (sanctionsChecker.isSanctionedEntity(transaction.getSender(), 
                                                    transaction.getCountry(), 
                                                    transaction.getDob(), "Any")) {
-                logger.warn("SANCTIONS MATCH: OFAC SDN match for [{}] from [{}]", 
+                logger.debug("SANCTIONS MATCH: OFAC SDN match for [{}] from [{}]", 
                            transaction.getSender(), transaction.getCountry());
                 return SanctionsMatchResult.ofacMatch(
                     transaction.getSender(), 
@@ -344,7 +379,7 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
             
             // Check country sanctions
             if (sanctionsChecker.checkCountry(transaction.getCountry())) {
-                logger.warn("SANCTIONS MATCH: Country sanctions match for [{}]", 
+                logger.debug("SANCTIONS MATCH: Country sanctions match for [{}]", 
                            transaction.getCountry());
                 return SanctionsMatchResult.countryMatch(
                     transaction.getCountry(), 
@@ -354,7 +389,7 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
             
             // Check name-based sanctions
             if (sanctionsChecker.checkName(transaction.getSender())) {
-                logger.warn("SANCTIONS MATCH: Name match for [{}] in local sanctions list", 
+                logger.debug("SANCTIONS MATCH: Name match for [{}] in local sanctions list", 
                            transaction.getSender());
                 return SanctionsMatchResult.localMatch(
                     transaction.getSender(), 
@@ -366,7 +401,7 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
             
             // Check partial name matches
             if (sanctionsChecker.checkPartialName(transaction.getSender())) {
-                logger.warn("SANCTIONS MATCH: Partial name match for [{}] in local sanctions list", 
+                logger.debug("SANCTIONS MATCH: Partial name match for [{}] in local sanctions list", 
                            transaction.getSender());
                 return SanctionsMatchResult.localMatch(
                     transaction.getSender(), 
@@ -376,7 +411,7 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
                 );
             }
             
-            logger.info("SANCTIONS CHECK: No sanctions match found for [{}]", transaction.getSender());
+            logger.debug("SANCTIONS CHECK: No sanctions match found for [{}]", transaction.getSender());
             return SanctionsMatchResult.noMatch();
             
         } catch (Exception e) {
@@ -402,6 +437,7 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
         if (rule != null) {
             ruleRegistry.put(rule.getDescription(), rule);
             hardcodedRules.add(rule);
+            rebuildEvaluationOrder();
             logger.info("Added new rule: {}", rule.getDescription());
         }
     }
@@ -411,7 +447,11 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
         Rule removed = ruleRegistry.remove(ruleDescription);
         if (removed != null) {
             hardcodedRules.remove(removed);
-            jsonRules.remove(removed);
+            synchronized (this) {
+                jsonRules = jsonRules.stream().filter(rule -> rule != removed).toList();
+            }
+            rebuildEvaluationOrder();
+            ruleProfiler.retain(evaluationOrder);
             logger.info("Removed rule: {}", ruleDescription);
         }
     }
@@ -426,6 +466,9 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
         stats.put("hardcodedRulesCount", hardcodedRules.size());
         stats.put("jsonRulesCount", jsonRules.size());
         stats.put("ruleMatchCounts", new HashMap<>(ruleMatchCounts));
+        stats.put("totalRulesEvaluated", totalRulesEvaluated.get());
+        stats.put("totalRulesSkipped", totalRulesSkipped.get());
+        stats.put("explainByDefault", explainByDefault);
         stats.put("highRiskCountriesCount", riskScoringService.getHighRiskCountries().size());
         return stats;
     }
@@ -436,25 +479,35 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
         return com.leizo.admin.util.TransactionUtils.isValidTransaction(transaction);
     }
     
-    private List<Rule> findMatchingRules(Transaction transaction) {
+    /**
+     * Evaluates rules in evaluation order. Without explain, evaluation stops at the first match,
+     * since no later rule can outrank it; with explain every rule is evaluated and all matches
+     * are returned, the selected rule first.
+     */
+    private List<Rule> findMatchingRules(Transaction transaction, boolean explain) {
         BigDecimal normalizedAmount = normalizeAmount(transaction);
-        List<Rule> activeRules = getActiveRules();
-        
-        logger.info("RULE EVALUATION: Transaction [{}] from [{}], amount: [{}], active rules: [{}]", 
-                   transaction.getSender(), transaction.getCountry(), normalizedAmount, activeRules.size());
-        
-        List<Rule> matchedRules = activeRules.stream()
-            .filter(rule -> rule != null && rule.appliesTo(transaction, normalizedAmount))
-            .collect(Collectors.toList());
+        List<Rule> orderedRules = evaluationOrder;
+        
+        List<Rule> matchedRules = new ArrayList<>();
+        int evaluated = 0;
+        for (Rule rule : orderedRules) {
+            evaluated++;
+            if (ruleProfiler.evaluate(rule, transaction, normalizedAmount)) {
+                matchedRules.add(rule);
+                if (!explain) {
+                    break;
+                }
+            }
+        }
+        totalRulesEvaluated.addAndGet(evaluated);
+        totalRulesSkipped.addAndGet(orderedRules.size() - evaluated);
         
-        logger.info("RULE MATCHES: Found [{}] matching rules for transaction [{}]", 
-                   matchedRules.size(), transaction.getSender());
+        // Shadow rules run on their own executor and never affect the decision; submitted before
+        // recording so they snapshot the same windows production read
+        shadowRuleEvaluator.submit(transaction, normalizedAmount, matchedRules.isEmpty() ? null : matchedRules.get(0));
         
-        if (!matchedRules.isEmpty()) {
-            matchedRules.forEach(rule -> 
-                logger.warn("RULE MATCH: [{}] matched for transaction [{}]", 
-                           rule.getDescription(), transaction.getSender()));
-        }
+        // Recorded after matching; window aggregates add the transaction being evaluated themselves
+        ruleLoader.recordTransaction(transaction, normalizedAmount);
         
         return matchedRules;
     }
@@ -528,12 +581,4 @@ public class TransactionEvaluatorServiceImpl implements TransactionEvaluatorServ
         alert.updatePriorityLevel();
         return alert;
     }
-    
-    private void logEvaluation(Transaction transaction, AlertDecisionResult alertResult, int riskScore) {
-        String eventType = alertResult.shouldTriggerAlert() ? "ALERT_TRIGGERED" : "TRANSACTION_CLEARED";
-        String details = String.format("Risk Score: %d, Priority Score: %d, Reason: %s", 
-                                     riskScore, alertResult.getPriorityScore(), alertResult.getReason());
-        
-        loggerService.logEvent(eventType, transaction.getSender(), details);
-    }
 } 
\ No newline at end of file
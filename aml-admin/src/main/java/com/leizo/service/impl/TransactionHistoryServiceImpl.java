@@ -1,10 +1,14 @@
 package com.leizo.service.impl;
 
+import com.leizo.admin.util.TransactionQuery;
 import com.leizo.pojo.entity.Transaction;
 import com.leizo.enums.RiskScore;
 import com.leizo.service.TransactionHistoryService;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.stereotype.Service;
 import java.sql.*;
 import java.util.*;
@@ -13,6 +17,8 @@ import java.math.*;
 @Service
 public class TransactionHistoryServiceImpl implements TransactionHistoryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TransactionHistoryServiceImpl.class);
+
     @Value("${spring.datasource.url}")
     private String URL;
     @Value("${spring.datasource.username}")
@@ -116,22 +122,51 @@ public class TransactionHistoryServiceImpl implements TransactionHistoryService
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                Transaction txn = new Transaction(
-                        rs.getString("sender"),
-                        rs.getString("receiver"),
-                        rs.getBigDecimal("amount"),
-                        rs.getString("currency"),
-                        rs.getString("country"),
-                        null
-                );
-                if (rs.getString("risk_score") != null) {
-                    txn.setRiskScore(RiskScore.valueOf(rs.getString("risk_score")));
-                }
-                result.add(txn);
+                result.add(mapRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return result;
     }
+
+    @Override
+    public List<Transaction> findTransactions(TransactionQuery query) {
+        List<Transaction> result = new ArrayList<>();
+        String sql = query.toSql("SELECT * FROM transactions");
+
+        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            List<Object> args = query.sqlArgs();
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            // Failing loudly, so that a broken query is not mistaken for an empty page
+            logger.error("Failed to query transaction history: {}", sql, e);
+            throw new DataRetrievalFailureException("Failed to query transaction history", e);
+        }
+        return result;
+    }
+
+    private static Transaction mapRow(ResultSet rs) throws SQLException {
+        Transaction txn = new Transaction(
+                rs.getString("sender"),
+                rs.getString("receiver"),
+                rs.getBigDecimal("amount"),
+                rs.getString("currency"),
+                rs.getString("country"),
+                null
+        );
+        if (rs.getString("risk_score") != null) {
+            txn.setRiskScore(RiskScore.valueOf(rs.getString("risk_score")));
+        }
+        return txn;
+    }
 }
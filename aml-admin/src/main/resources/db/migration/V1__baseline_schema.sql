@@ -0,0 +1,44 @@
+-- =====================================================
+-- AML Application - Baseline Schema
+-- =====================================================
+-- Tables the indexed query paths depend on, matching the JPA mappings of
+-- com.leizo.pojo.entity.Transaction and Alert. Idempotent so it can run on
+-- databases created earlier by ddl-auto=update; other tables are still
+-- created by Hibernate.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id SERIAL PRIMARY KEY,
+    sender VARCHAR(255) NOT NULL,
+    receiver VARCHAR(255) NOT NULL,
+    amount NUMERIC(19, 2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    country VARCHAR(100) NOT NULL,
+    risk_score VARCHAR(20),
+    dob VARCHAR(20),
+    timestamp TIMESTAMP
+);
+
+-- Databases created before transactions carried a partition key
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS timestamp TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS transaction_metadata (
+    transaction_id INTEGER NOT NULL,
+    meta_value VARCHAR(255),
+    meta_key VARCHAR(255) NOT NULL,
+    PRIMARY KEY (transaction_id, meta_key)
+);
+
+CREATE TABLE IF NOT EXISTS alerts (
+    id SERIAL PRIMARY KEY,
+    alert_id VARCHAR(100) NOT NULL UNIQUE,
+    transaction_id INTEGER,
+    reason TEXT NOT NULL,
+    timestamp TIMESTAMP NOT NULL,
+    alert_type VARCHAR(50),
+    priority_level VARCHAR(20),
+    matched_entity_name VARCHAR(255),
+    matched_list VARCHAR(255),
+    match_reason VARCHAR(255),
+    priority_score INTEGER
+);
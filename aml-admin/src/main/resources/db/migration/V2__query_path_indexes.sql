@@ -0,0 +1,48 @@
+-- =====================================================
+-- AML Application - Query Path Indexes
+-- =====================================================
+-- One index per repository access path. On the time-partitioned tables
+-- (scripts/partition_transactions_alerts.sql) indexes created on the parent
+-- are propagated to every partition.
+-- =====================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Step 1: Alerts
+-- Exact lookups: findByAlertType, findByPriorityLevel, findByTransactionId
+CREATE INDEX IF NOT EXISTS idx_alerts_type ON alerts(alert_type);
+CREATE INDEX IF NOT EXISTS idx_alerts_priority ON alerts(priority_level);
+CREATE INDEX IF NOT EXISTS idx_alerts_transaction_id ON alerts(transaction_id);
+
+-- Time-ordered listing and timestamp range queries (findByTimestampRange, keyset order)
+CREATE INDEX IF NOT EXISTS idx_alerts_ts_id ON alerts(timestamp DESC, id DESC);
+
+-- Filtered listings ordered newest first (exact type / priority filters)
+CREATE INDEX IF NOT EXISTS idx_alerts_priority_ts ON alerts(priority_level, timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_alerts_type_ts ON alerts(alert_type, timestamp DESC);
+
+-- Substring searches: findByReasonContaining uses LOWER(reason) LIKE '%kw%',
+-- the paged *ContainingIgnoreCase filters use UPPER(col) LIKE UPPER('%kw%')
+CREATE INDEX IF NOT EXISTS idx_alerts_reason_trgm ON alerts USING GIN (LOWER(reason) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_alerts_type_trgm ON alerts USING GIN (UPPER(alert_type) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_alerts_priority_trgm ON alerts USING GIN (UPPER(priority_level) gin_trgm_ops);
+
+-- Step 2: Transactions
+-- Party lookups: findBySender, findByReceiver, findBySenderAndReceiver, findByParty (OR -> bitmap OR)
+CREATE INDEX IF NOT EXISTS idx_transactions_sender_receiver ON transactions(sender, receiver);
+CREATE INDEX IF NOT EXISTS idx_transactions_receiver ON transactions(receiver);
+
+-- Keyset listing filtered by risk score or currency (/ingest/transactions)
+CREATE INDEX IF NOT EXISTS idx_transactions_ts_id ON transactions(timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_risk_ts_id ON transactions(risk_score, timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_currency_ts_id ON transactions(currency, timestamp DESC, id DESC);
+
+-- Covering indexes: countByCountry, sumAmountsByCurrency, findByCurrency
+CREATE INDEX IF NOT EXISTS idx_transactions_country ON transactions(country);
+CREATE INDEX IF NOT EXISTS idx_transactions_currency_amount ON transactions(currency) INCLUDE (amount);
+
+-- Amount thresholds: findByAmountGreaterThan, findHighValueTransactions
+CREATE INDEX IF NOT EXISTS idx_transactions_amount ON transactions(amount);
+
+-- Step 3: Transaction metadata (batch-fetched EAGER collection)
+CREATE INDEX IF NOT EXISTS idx_transaction_metadata_transaction_id ON transaction_metadata(transaction_id);
@@ -0,0 +1,16 @@
+-- =====================================================
+-- AML Application - Alert Full-Text Search
+-- =====================================================
+-- Weighted tsvector over reason (A), matched entity name (B) and match
+-- reason (C), kept current by PostgreSQL as a stored generated column,
+-- with a GIN inverted index for ranked search (AlertRepository.searchAlerts).
+-- =====================================================
+
+ALTER TABLE alerts ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(reason, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(matched_entity_name, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(match_reason, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_alerts_search_vector ON alerts USING GIN (search_vector);
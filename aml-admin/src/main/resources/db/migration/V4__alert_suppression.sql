@@ -0,0 +1,30 @@
+-- =====================================================
+-- AML Application - Shared Alert Suppression
+-- =====================================================
+-- Cluster-wide duplicate alert and cooldown claims used when
+-- aml.suppression.backend=jdbc (JdbcSuppressionBackend). Rows are
+-- list-partitioned by sender shard, so one sender's claims always live
+-- in the same partition and expired-row purges touch small tables.
+-- Shards outside 0-15 (aml.suppression.shards > 16) use the default partition.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS alert_suppression (
+    sender_shard    SMALLINT    NOT NULL,
+    suppression_key BIGINT      NOT NULL,
+    expires_at      TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (sender_shard, suppression_key)
+) PARTITION BY LIST (sender_shard);
+
+DO $$
+BEGIN
+    FOR shard IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS alert_suppression_s%s PARTITION OF alert_suppression FOR VALUES IN (%s)',
+            lpad(shard::text, 2, '0'), shard);
+    END LOOP;
+END $$;
+
+CREATE TABLE IF NOT EXISTS alert_suppression_default PARTITION OF alert_suppression DEFAULT;
+
+-- Supports the periodic purge of expired claims
+CREATE INDEX IF NOT EXISTS idx_alert_suppression_expires_at ON alert_suppression (expires_at);
@@ -0,0 +1,65 @@
+-- =====================================================
+-- AML Application - Transaction Metadata Columns
+-- =====================================================
+-- Transaction metadata used to be an EAGER element collection: one
+-- transaction_metadata row per key, loaded with every transaction and
+-- written with every save. The keys read on hot paths become typed columns
+-- and the rest one JSONB column, so a transaction is read and written as a
+-- single row. transaction_metadata is backfilled from and then left in
+-- place (no longer written) so the change can be rolled back.
+-- =====================================================
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS external_id VARCHAR(100);
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS sender_account VARCHAR(100);
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS receiver_account VARCHAR(100);
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS manual_flag BOOLEAN;
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS extra_metadata JSONB;
+
+-- Step 1: Event time. For rows ingested before transactions had a timestamp
+-- column, the "timestamp" key is the only record of it and the column holds
+-- the backfill time, so the key wins. ISO-8601 values with an offset are
+-- stored in UTC, as ingest does; values in any other format are left alone.
+UPDATE transactions t
+SET timestamp = m.event_time
+FROM (
+    SELECT transaction_id,
+           CASE WHEN meta_value ~ '\d{2}:\d{2}(:\d{2}(\.\d+)?)?(Z|[+-]\d{2}(:?\d{2})?)$'
+                THEN meta_value::timestamptz AT TIME ZONE 'UTC'
+                ELSE meta_value::timestamp END AS event_time
+    FROM transaction_metadata
+    WHERE meta_key = 'timestamp'
+      AND meta_value ~ '^\d{4}-\d{2}-\d{2}([T ]\d{2}:\d{2}(:\d{2}(\.\d+)?)?(Z|[+-]\d{2}(:?\d{2})?)?)?$'
+) m
+WHERE m.transaction_id = t.id
+  AND t.timestamp IS DISTINCT FROM m.event_time;
+
+-- Step 2: Promoted keys (the "timestamp" key is now in the timestamp column and is dropped)
+UPDATE transactions t
+SET external_id      = COALESCE(t.external_id, m.external_id),
+    sender_account   = COALESCE(t.sender_account, m.sender_account),
+    receiver_account = COALESCE(t.receiver_account, m.receiver_account),
+    manual_flag      = COALESCE(t.manual_flag, m.manual_flag, m.flagged)
+FROM (
+    SELECT transaction_id,
+           MAX(meta_value) FILTER (WHERE meta_key = 'transactionId')          AS external_id,
+           MAX(meta_value) FILTER (WHERE meta_key = 'senderAccount')          AS sender_account,
+           MAX(meta_value) FILTER (WHERE meta_key = 'receiverAccount')        AS receiver_account,
+           BOOL_OR(LOWER(meta_value) = 'true') FILTER (WHERE meta_key = 'manualFlag') AS manual_flag,
+           BOOL_OR(LOWER(meta_value) = 'true') FILTER (WHERE meta_key = 'flagged')    AS flagged
+    FROM transaction_metadata
+    GROUP BY transaction_id
+) m
+WHERE m.transaction_id = t.id;
+
+-- Step 3: Everything else into the JSONB column
+UPDATE transactions t
+SET extra_metadata = m.extra
+FROM (
+    SELECT transaction_id, jsonb_object_agg(meta_key, meta_value) AS extra
+    FROM transaction_metadata
+    WHERE meta_key NOT IN ('transactionId', 'senderAccount', 'receiverAccount', 'manualFlag', 'timestamp')
+      AND meta_value IS NOT NULL
+    GROUP BY transaction_id
+) m
+WHERE m.transaction_id = t.id
+  AND t.extra_metadata IS NULL;
@@ -0,0 +1,72 @@
+package com.leizo.admin.controller;
+
+import com.leizo.admin.dto.AlertSummary;
+import com.leizo.admin.repository.AlertRepository;
+import com.leizo.admin.service.export.ExportDataset;
+import com.leizo.admin.service.export.ExportFormat;
+import com.leizo.admin.service.export.StreamingExporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlertControllerTest {
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private StreamingExporter streamingExporter;
+
+    @InjectMocks
+    private AlertController alertController;
+
+    private static AlertSummary summary(int id) {
+        return new AlertSummary(id, "ALERT-" + id, id * 10, "SANCTIONS", "HIGH", 90,
+                "Entity " + id, "OFAC", LocalDateTime.of(2025, 1, 1, 12, 0), "Matched sanctioned entity");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAllAlerts_ReturnsSummaryProjectionPage() {
+        when(alertRepository.findSummaries(eq("sanctions"), eq(""), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(summary(1), summary(2))));
+
+        // Execute
+        ResponseEntity<?> response = alertController.getAllAlerts(0, 10, null, "sanctions", null, null, null, null);
+
+        // Verify
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertEquals(List.of(summary(1), summary(2)), body.get("content"));
+        assertEquals(2L, body.get("totalElements"));
+        verify(alertRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void testExportAlerts_DelegatesToStreamingExporterAsNdjson() throws Exception {
+        // Execute
+        ResponseEntity<StreamingResponseBody> response = alertController.exportAlerts();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Verify
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        verify(streamingExporter).export(ExportDataset.ALERTS, ExportFormat.NDJSON, null, null, false, out);
+        verifyNoInteractions(alertRepository);
+    }
+}
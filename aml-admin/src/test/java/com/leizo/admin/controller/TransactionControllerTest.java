@@ -8,16 +8,23 @@ import com.leizo.service.RuleEngine;
 import com.leizo.service.RiskScoringService;
 import com.leizo.service.SanctionsChecker;
 import com.leizo.enums.RiskScore;
+import com.leizo.admin.util.KeysetCursor;
+import com.leizo.admin.service.ingest.TransactionIngestService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +49,9 @@ class TransactionControllerTest {
     @Mock
     private AlertRepository alertRepository;
 
+    @Mock
+    private TransactionIngestService transactionIngestService;
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -101,20 +111,35 @@ class TransactionControllerTest {
         );
     }
 
+    @Test
+    void testIngestCsvFile_HandsValidRowsToIngestService() {
+        String csv = "transactionId,timestamp,amount,currency,senderName,receiverName,senderAccount,receiverAccount,country,manualFlag,description\n" +
+                "TXN-001,2025-07-25T14:22:30Z,1000.00,USD,John Doe,Jane Smith,ACC-001,ACC-002,US,true,Salary payment\n" +
+                "TXN-002,2025-07-25T15:10:00Z,-5,EUR,Maria Garcia,Carlos Rodriguez,ACC-003,ACC-004,ES,false,Invoice settlement";
+        MockMultipartFile file = new MockMultipartFile("file", "transactions.csv", "text/csv", csv.getBytes());
+        when(transactionIngestService.ingest(anyList())).thenReturn(Map.of(
+            "successful", 1, "failed", 0, "forwarded", 1, "alertsGenerated", 1, "errors", List.of()));
+
+        // Execute
+        ResponseEntity<?> response = transactionController.ingestFile(file);
+
+        // Verify only the valid row is ingested, and the ingest counts are merged with row errors
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertNotNull(responseBody);
+        assertEquals(2, responseBody.get("processed"));
+        assertEquals(1, responseBody.get("successful"));
+        assertEquals(1, responseBody.get("failed"));
+        assertEquals(1, responseBody.get("forwarded"));
+        assertEquals(1, responseBody.get("alertsGenerated"));
+        verify(transactionIngestService).ingest(argThat(rows ->
+            rows.size() == 1 && "John Doe".equals(rows.get(0).getSenderName())));
+    }
+
     @Test
     void testIngestValidCsvFile() {
-        // Mock dependencies for successful processing
-        Transaction savedTransaction1 = new Transaction("John Doe", "Jane Smith", new BigDecimal("1000"), "USD", "US", "2025-01-01");
-        savedTransaction1.setId(1);
-        Transaction savedTransaction2 = new Transaction("Maria Garcia", "Carlos Rodriguez", new BigDecimal("2500.50"), "EUR", "ES", "2025-01-01");
-        savedTransaction2.setId(2);
-        
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenReturn(savedTransaction1)
-            .thenReturn(savedTransaction2);
-        when(riskScoringService.assessRisk(any(Transaction.class))).thenReturn(RiskScore.LOW);
-        when(ruleEngine.getActiveRules()).thenReturn(new ArrayList<>());
-        when(sanctionsChecker.isSanctionedEntity(anyString(), anyString(), any(), any())).thenReturn(false);
+        // Mock successful storage and evaluation of both rows
+        when(transactionIngestService.ingest(anyList())).thenReturn(Map.of(
+            "successful", 2, "failed", 0, "forwarded", 0, "alertsGenerated", 0, "errors", List.of()));
 
         // Execute
         ResponseEntity<?> response = transactionController.ingestFile(validCsvFile);
@@ -127,8 +152,8 @@ class TransactionControllerTest {
         assertEquals(2, responseBody.get("successful"));
         assertEquals(0, responseBody.get("failed"));
 
-        // Verify repository was called exactly twice
-        verify(transactionRepository, times(2)).save(any(Transaction.class));
+        // Verify both rows were handed to the ingest service
+        verify(transactionIngestService, times(1)).ingest(argThat(rows -> rows.size() == 2));
     }
 
     @Test
@@ -234,16 +259,17 @@ class TransactionControllerTest {
             new Transaction("John", "Jane", new BigDecimal("1000"), "USD", "US", "2025-01-01"),
             new Transaction("Bob", "Alice", new BigDecimal("2000"), "EUR", "UK", "2025-01-02")
         );
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        when(transactionRepository.findAll(any(Specification.class), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(transactions, PageRequest.of(0, 10), 2));
 
         // Execute
-        ResponseEntity<?> response = transactionController.getTransactions(0, 10, null, null, null, null);
+        ResponseEntity<?> response = transactionController.getTransactions(0, 10, null, null, null, null, null, null);
 
         // Verify exact controller response format
         assertEquals(200, response.getStatusCodeValue());
         Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
         assertNotNull(responseBody);
-        assertEquals(2, responseBody.get("totalElements"));
+        assertEquals(2L, responseBody.get("totalElements"));
         assertEquals(1, responseBody.get("totalPages"));
         assertEquals(0, responseBody.get("currentPage"));
         assertEquals(10, responseBody.get("size"));
@@ -265,16 +291,55 @@ class TransactionControllerTest {
         );
         transactions.get(0).setRiskScore(RiskScore.LOW);
         transactions.get(1).setRiskScore(RiskScore.HIGH);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        // Filtering happens in the database, so the repository only returns the LOW risk row
+        when(transactionRepository.findAll(any(Specification.class), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(transactions.subList(0, 1), PageRequest.of(0, 10), 1));
 
         // Execute with status filter
-        ResponseEntity<?> response = transactionController.getTransactions(0, 10, "LOW", null, null, null);
+        ResponseEntity<?> response = transactionController.getTransactions(0, 10, "LOW", null, null, "2025-01-01", "2025-01-31", null);
 
         // Verify filtered response
         assertEquals(200, response.getStatusCodeValue());
         Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
         assertNotNull(responseBody);
-        assertEquals(1, responseBody.get("totalElements")); // Only LOW risk transactions
+        assertEquals(1L, responseBody.get("totalElements")); // Only LOW risk transactions
+        verify(transactionRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetTransactionsWithKeysetCursor() {
+        // Mock repository returning one row more than the page size
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 3; i >= 1; i--) {
+            Transaction transaction = new Transaction("John", "Jane", new BigDecimal("1000"), "USD", "US", "2025-01-01");
+            transaction.setId(i);
+            transaction.setTimestamp(LocalDateTime.of(2025, 1, i, 12, 0));
+            rows.add(transaction);
+        }
+        when(transactionRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+
+        // Execute first keyset page
+        ResponseEntity<?> response = transactionController.getTransactions(0, 2, null, null, null, null, null, "");
+
+        // Verify page is trimmed and the cursor points at its last row
+        Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
+        assertNotNull(responseBody);
+        assertEquals(2, ((List<?>) responseBody.get("content")).size());
+        assertTrue((Boolean) responseBody.get("hasNext"));
+        KeysetCursor cursor = KeysetCursor.decode((String) responseBody.get("nextCursor"));
+        assertEquals(2, cursor.getId());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 12, 0), cursor.getTimestamp());
+        assertFalse(responseBody.containsKey("totalElements"));
+    }
+
+    @Test
+    void testGetTransactionsWithInvalidCursor() {
+        // Execute
+        ResponseEntity<?> response = transactionController.getTransactions(0, 10, null, null, null, null, null, "not-a-cursor");
+
+        // Verify
+        assertEquals(400, response.getStatusCodeValue());
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
@@ -327,10 +392,11 @@ class TransactionControllerTest {
     @Test
     void testGetTransactionsWithException() {
         // Mock repository to throw exception
-        when(transactionRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+        when(transactionRepository.findAll(any(Specification.class), any(Pageable.class)))
+            .thenThrow(new RuntimeException("Database error"));
 
         // Execute
-        ResponseEntity<?> response = transactionController.getTransactions(0, 10, null, null, null, null);
+        ResponseEntity<?> response = transactionController.getTransactions(0, 10, null, null, null, null, null, null);
 
         // Verify exact controller response format (200 OK with error status)
         assertEquals(200, response.getStatusCodeValue());
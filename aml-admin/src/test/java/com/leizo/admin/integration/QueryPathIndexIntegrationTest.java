@@ -0,0 +1,184 @@
+package com.leizo.admin.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that every repository access path is served by an index created by the
+ * Flyway migrations. The SQL mirrors what Hibernate generates for each repository method.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPathIndexIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO transactions (sender, receiver, amount, currency, country, risk_score, timestamp) " +
+                    "SELECT 'sender' || (g % 500), 'receiver' || (g % 700), g * 10, " +
+                    "(ARRAY['USD','EUR','GBP'])[g % 3 + 1], (ARRAY['US','UK','DE','IR'])[g % 4 + 1], " +
+                    "(ARRAY['LOW','MEDIUM','HIGH'])[g % 3 + 1], TIMESTAMP '2025-01-01' + g * INTERVAL '1 minute' " +
+                    "FROM generate_series(1, 5000) g");
+            statement.execute("INSERT INTO alerts (alert_id, transaction_id, reason, timestamp, alert_type, priority_level) " +
+                    "SELECT 'ALERT-' || g, g, 'Rule matched: structuring pattern ' || g, " +
+                    "TIMESTAMP '2025-01-01' + g * INTERVAL '1 minute', " +
+                    "(ARRAY['RULE_MATCH','SANCTIONS_MATCH'])[g % 2 + 1], (ARRAY['LOW','MEDIUM','HIGH'])[g % 3 + 1] " +
+                    "FROM generate_series(1, 5000) g");
+            statement.execute("ANALYZE transactions");
+            statement.execute("ANALYZE alerts");
+        }
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                // AlertRepository
+                Arguments.of("findByAlertId", "SELECT * FROM alerts WHERE alert_id = 'ALERT-42'",
+                        List.of("alerts_alert_id_key")),
+                Arguments.of("findByTransactionId", "SELECT * FROM alerts WHERE transaction_id = 42",
+                        List.of("idx_alerts_transaction_id")),
+                Arguments.of("findByAlertType", "SELECT * FROM alerts WHERE alert_type = 'RULE_MATCH'",
+                        List.of("idx_alerts_type", "idx_alerts_type_ts")),
+                Arguments.of("findByPriorityLevel", "SELECT * FROM alerts WHERE priority_level = 'HIGH'",
+                        List.of("idx_alerts_priority", "idx_alerts_priority_ts")),
+                // A top-N page may also walk the time index and filter, which avoids sorting the matches
+                Arguments.of("findByAlertTypeContainingIgnoreCase",
+                        "SELECT * FROM alerts WHERE UPPER(alert_type) LIKE UPPER('%sanctions%') ESCAPE '\\' " +
+                        "ORDER BY timestamp DESC OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY",
+                        List.of("idx_alerts_type_trgm", "idx_alerts_ts_id")),
+                Arguments.of("findByPriorityLevelContainingIgnoreCase",
+                        "SELECT * FROM alerts WHERE UPPER(priority_level) LIKE UPPER('%med%') ESCAPE '\\' " +
+                        "ORDER BY timestamp DESC OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY",
+                        List.of("idx_alerts_priority_trgm", "idx_alerts_ts_id")),
+                Arguments.of("findByReasonContaining",
+                        "SELECT * FROM alerts WHERE LOWER(reason) LIKE LOWER(('%' || 'structuring' || '%'))",
+                        List.of("idx_alerts_reason_trgm")),
+                Arguments.of("findByTimestampRange",
+                        "SELECT * FROM alerts WHERE timestamp BETWEEN '2025-01-02' AND '2025-01-03'",
+                        List.of("idx_alerts_ts_id")),
+                Arguments.of("searchAlerts",
+                        "SELECT a.* FROM alerts a, websearch_to_tsquery('english', 'structuring') q " +
+                        "WHERE a.search_vector @@ q AND a.timestamp BETWEEN '1970-01-01' AND '2125-01-01' " +
+                        "ORDER BY ts_rank_cd(a.search_vector, q) DESC, a.timestamp DESC, a.id DESC " +
+                        "OFFSET 0 ROWS FETCH FIRST 20 ROWS ONLY",
+                        List.of("idx_alerts_search_vector")),
+                Arguments.of("countByPriorityLevel", "SELECT priority_level, COUNT(*) FROM alerts GROUP BY priority_level",
+                        List.of("idx_alerts_priority", "idx_alerts_priority_ts")),
+
+                // TransactionRepository
+                Arguments.of("findBySender", "SELECT * FROM transactions WHERE sender = 'sender42'",
+                        List.of("idx_transactions_sender_receiver")),
+                Arguments.of("findByReceiver", "SELECT * FROM transactions WHERE receiver = 'receiver42'",
+                        List.of("idx_transactions_receiver")),
+                Arguments.of("findBySenderAndReceiver",
+                        "SELECT * FROM transactions WHERE sender = 'sender42' AND receiver = 'receiver42'",
+                        List.of("idx_transactions_sender_receiver")),
+                Arguments.of("findByParty",
+                        "SELECT * FROM transactions WHERE sender = 'sender42' OR receiver = 'sender42'",
+                        List.of("idx_transactions_sender_receiver")),
+                Arguments.of("findByCountry", "SELECT * FROM transactions WHERE country = 'IR'",
+                        List.of("idx_transactions_country")),
+                Arguments.of("findByCurrency", "SELECT * FROM transactions WHERE currency = 'EUR'",
+                        List.of("idx_transactions_currency_amount", "idx_transactions_currency_ts_id")),
+                Arguments.of("findByRiskScore", "SELECT * FROM transactions WHERE risk_score = 'HIGH'",
+                        List.of("idx_transactions_risk_ts_id")),
+                Arguments.of("findByAmountGreaterThan", "SELECT * FROM transactions WHERE amount > 45000",
+                        List.of("idx_transactions_amount")),
+                Arguments.of("findByTimestampRange (transactions)",
+                        "SELECT * FROM transactions WHERE timestamp BETWEEN '2025-01-02' AND '2025-01-03'",
+                        List.of("idx_transactions_ts_id")),
+                Arguments.of("countByCountry", "SELECT country, COUNT(*) FROM transactions GROUP BY country",
+                        List.of("idx_transactions_country")),
+                Arguments.of("sumAmountsByCurrency", "SELECT currency, SUM(amount) FROM transactions GROUP BY currency",
+                        List.of("idx_transactions_currency_amount"))
+        );
+    }
+
+    /**
+     * Pages that must be read in index order; a Sort above the scan would read every match
+     */
+    static Stream<Arguments> keysetQueries() {
+        String seek = "(timestamp < '2025-01-03' OR (timestamp = '2025-01-03' AND id < 100)) " +
+                "ORDER BY timestamp DESC, id DESC FETCH FIRST 21 ROWS ONLY";
+        return Stream.of(
+                Arguments.of("keyset page", "SELECT * FROM transactions WHERE " + seek,
+                        "idx_transactions_ts_id"),
+                Arguments.of("keyset page filtered by risk score",
+                        "SELECT * FROM transactions WHERE risk_score = 'HIGH' AND " + seek,
+                        "idx_transactions_risk_ts_id"),
+                Arguments.of("keyset page filtered by currency",
+                        "SELECT * FROM transactions WHERE currency = 'EUR' AND " + seek,
+                        "idx_transactions_currency_ts_id"),
+                Arguments.of("alerts newest first",
+                        "SELECT * FROM alerts ORDER BY timestamp DESC, id DESC FETCH FIRST 20 ROWS ONLY",
+                        "idx_alerts_ts_id"),
+                Arguments.of("alerts by priority newest first",
+                        "SELECT * FROM alerts WHERE priority_level = 'HIGH' ORDER BY timestamp DESC FETCH FIRST 20 ROWS ONLY",
+                        "idx_alerts_priority_ts")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void testRepositoryQueryUsesIndex(String repositoryMethod, String sql, List<String> indexes) throws SQLException {
+        // Execute
+        String plan = explain(sql);
+
+        // Verify
+        assertTrue(indexes.stream().anyMatch(index -> plan.contains(" " + index)),
+                repositoryMethod + " is not served by " + indexes + ":\n" + plan);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("keysetQueries")
+    void testKeysetPageReadsIndexInOrder(String queryPath, String sql, String index) throws SQLException {
+        // Execute
+        String plan = explain(sql);
+
+        // Verify
+        assertTrue(plan.contains(" " + index), queryPath + " is not served by " + index + ":\n" + plan);
+        assertFalse(plan.contains("Sort"), queryPath + " sorts instead of reading the index in order:\n" + plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // Make the planner pick an index whenever one applies, regardless of table size
+            statement.execute("SET enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -0,0 +1,96 @@
+package com.leizo.admin.monitoring;
+
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.pojo.entity.Alert;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import com.leizo.service.AlertDecisionResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DecisionTraceTest {
+
+    private Logger sink;
+    private Transaction transaction;
+    private Rule rule;
+
+    @BeforeEach
+    void setUp() {
+        sink = mock(Logger.class);
+        when(sink.isInfoEnabled()).thenReturn(true);
+        transaction = new Transaction("Alice \"A\"", "Bob", new BigDecimal("15000.00"), "USD", "USA", null);
+        transaction.setId(42);
+        rule = new Rule("Large amount", RuleSensitivity.HIGH, (txn, amount) -> true);
+    }
+
+    private AlertDecisionResult ruleAlert() {
+        return AlertDecisionResult.ruleAlert(transaction, new Alert(), rule, "Rule matched: Large amount",
+                60, 85, List.of("Large amount", "High-risk country"));
+    }
+
+    @Test
+    void testRecord_AlwaysTracesAlertsAndSamplesClearedTransactions() {
+        DecisionTrace trace = new DecisionTrace(DecisionTrace.Level.SUMMARY, 0.0, sink);
+
+        // Execute
+        trace.record(transaction, AlertDecisionResult.noAlert(transaction, 10), false, System.nanoTime());
+        trace.record(transaction, ruleAlert(), false, System.nanoTime());
+        trace.record(transaction, AlertDecisionResult.cooldownAlert(transaction, "Cooldown"), false, System.nanoTime());
+
+        // Verify
+        ArgumentCaptor<String> events = ArgumentCaptor.forClass(String.class);
+        verify(sink, times(2)).info(events.capture());
+        String alertEvent = events.getAllValues().get(0);
+        assertTrue(alertEvent.startsWith("txn=42 sender=\"Alice \\\"A\\\"\" country=\"USA\" outcome=RULE_ALERT rule=\"Large amount\""));
+        assertTrue(alertEvent.contains(" risk=60 priority=85 us="));
+        assertFalse(alertEvent.contains("matched="));
+        assertTrue(events.getAllValues().get(1).contains("outcome=COOLDOWN"));
+        assertEquals(1L, trace.getStats().get("sampledOut"));
+    }
+
+    @Test
+    void testRecord_EscapesLineBreaksAndQuotesInValues() {
+        DecisionTrace trace = new DecisionTrace(DecisionTrace.Level.SUMMARY, 1.0, sink);
+        Transaction forged = new Transaction("Mallory\r\ntxn=1 outcome=CLEARED", "Bob", new BigDecimal("10"),
+                "USD", "US\" outcome=CLEARED\\", null);
+
+        // Execute
+        trace.record(forged, AlertDecisionResult.noAlert(forged, 10), false, System.nanoTime());
+
+        // Verify
+        ArgumentCaptor<String> events = ArgumentCaptor.forClass(String.class);
+        verify(sink).info(events.capture());
+        String event = events.getValue();
+        assertFalse(event.contains("\r") || event.contains("\n"));
+        assertTrue(event.contains(" sender=\"Mallory\\r\\ntxn=1 outcome=CLEARED\""));
+        assertTrue(event.contains(" country=\"US\\\" outcome=CLEARED\\\\\" outcome=CLEARED "));
+    }
+
+    @Test
+    void testConfigure_SwitchesDetailAndOffAtRuntime() {
+        DecisionTrace trace = new DecisionTrace(DecisionTrace.Level.SUMMARY, 1.0, sink);
+
+        // Execute
+        trace.configure("detail", null);
+        trace.record(transaction, ruleAlert(), true, System.nanoTime());
+        trace.configure("OFF", 0.5);
+        trace.record(transaction, ruleAlert(), true, System.nanoTime());
+
+        // Verify
+        ArgumentCaptor<String> events = ArgumentCaptor.forClass(String.class);
+        verify(sink, times(1)).info(events.capture());
+        assertTrue(events.getValue().contains(" amount=15000.00 explain=true matched=\"Large amount|High-risk country\""));
+        assertEquals(0.5, trace.getSampleRate());
+        assertThrows(IllegalArgumentException.class, () -> trace.configure("VERBOSE", null));
+        verify(sink, never()).info(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,87 @@
+package com.leizo.admin.monitoring;
+
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleProfilerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RuleProfiler ruleProfiler;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ruleProfiler = new RuleProfiler(meterRegistry, 1);
+        transaction = new Transaction("Alice", "Bob", new BigDecimal("5000"), "USD", "USA", "1990-01-01");
+    }
+
+    private static Rule rule(String description, BiPredicate<Transaction, BigDecimal> condition) {
+        return new Rule(description, RuleSensitivity.MEDIUM, condition);
+    }
+
+    @Test
+    void testEvaluate_CountsInvocationsAndMatches() {
+        Rule large = rule("Large", (txn, amount) -> amount.compareTo(new BigDecimal("1000")) > 0);
+
+        // Execute
+        assertTrue(ruleProfiler.evaluate(large, transaction, new BigDecimal("5000")));
+        assertFalse(ruleProfiler.evaluate(large, transaction, new BigDecimal("10")));
+
+        // Verify
+        assertEquals(2.0, meterRegistry.get("aml.rule.evaluations").tag("rule", "Large").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("aml.rule.evaluation.matches").tag("rule", "Large").functionCounter().count());
+        assertEquals(2, meterRegistry.get("aml.rule.evaluation.time").tag("rule", "Large").timer().count());
+        Map<String, Object> profile = ruleProfiler.getProfile().get(0);
+        assertEquals(0.5, profile.get("matchRate"));
+    }
+
+    @Test
+    void testEvaluate_CountsAndRethrowsExceptions() {
+        Rule broken = rule("Broken", (txn, amount) -> { throw new IllegalStateException("bad rule"); });
+
+        // Execute
+        assertThrows(IllegalStateException.class, () -> ruleProfiler.evaluate(broken, transaction, BigDecimal.ONE));
+
+        // Verify
+        assertEquals(1.0, meterRegistry.get("aml.rule.evaluation.errors").tag("rule", "Broken").functionCounter().count());
+    }
+
+    @Test
+    void testSummary_ReportsRulesThatNeverMatch() {
+        Rule never = rule("Never", (txn, amount) -> false);
+        Rule always = rule("Always", (txn, amount) -> true);
+        ruleProfiler.evaluate(never, transaction, BigDecimal.ONE);
+        ruleProfiler.evaluate(always, transaction, BigDecimal.ONE);
+
+        // Verify
+        assertEquals(List.of("Never"), ruleProfiler.getSummary().get("neverMatched"));
+    }
+
+    @Test
+    void testRetain_RemovesStatsAndMetersOfInactiveRules() {
+        Rule kept = rule("Kept", (txn, amount) -> true);
+        Rule dropped = rule("Dropped", (txn, amount) -> true);
+        ruleProfiler.evaluate(kept, transaction, BigDecimal.ONE);
+        ruleProfiler.evaluate(dropped, transaction, BigDecimal.ONE);
+
+        // Execute
+        ruleProfiler.retain(List.of(kept));
+
+        // Verify
+        assertEquals(1, ruleProfiler.getProfile().size());
+        assertNull(meterRegistry.find("aml.rule.evaluations").tag("rule", "Dropped").functionCounter());
+        assertNotNull(meterRegistry.find("aml.rule.evaluations").tag("rule", "Kept").functionCounter());
+    }
+}
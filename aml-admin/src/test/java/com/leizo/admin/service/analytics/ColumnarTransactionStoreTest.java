@@ -0,0 +1,124 @@
+package com.leizo.admin.service.analytics;
+
+import com.leizo.enums.RiskScore;
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTransactionStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+    private ColumnarTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarTransactionStore(1000, 4, 30);
+    }
+
+    private void append(String sender, String country, String currency, String amount, RiskScore risk, LocalDateTime timestamp) {
+        Transaction txn = new Transaction(sender, "Receiver", new BigDecimal(amount), currency, country, null);
+        txn.setRiskScore(risk);
+        txn.setTimestamp(timestamp);
+        store.append(txn);
+    }
+
+    @Test
+    void testGroupBy_CountsAndSumsAcrossSegments() {
+        append("Alice", "USA", "USD", "100.50", RiskScore.LOW, NOW);
+        append("Bob", "Panama", "USD", "2000", RiskScore.HIGH, NOW);
+        append("Alice", "USA", "EUR", "10", RiskScore.LOW, NOW);
+        append("Carol", "USA", "USD", "5", null, NOW);
+        append("Alice", "Panama", "USD", "1", RiskScore.MEDIUM, NOW);
+
+        // Execute
+        List<Map<String, Object>> byCountry = store.groupBy(ColumnarTransactionStore.Dimension.COUNTRY, ColumnarTransactionStore.Filter.all(), 10);
+
+        // Verify
+        assertEquals("USA", byCountry.get(0).get("key"));
+        assertEquals(3L, byCountry.get(0).get("count"));
+        assertEquals(new BigDecimal("115.50"), byCountry.get(0).get("amount"));
+        assertEquals(Map.of("LOW", 2L, "MEDIUM", 1L, "HIGH", 1L),
+                store.countBy(ColumnarTransactionStore.Dimension.RISK_SCORE, ColumnarTransactionStore.Filter.all()));
+        assertEquals(2, (Integer) store.getStats().get("segments"));
+    }
+
+    @Test
+    void testFilter_CombinesColumnPredicates() {
+        append("Alice", "USA", "USD", "100", RiskScore.LOW, NOW.minusDays(3));
+        append("Alice", "USA", "USD", "900", RiskScore.HIGH, NOW);
+        append("Bob", "USA", "USD", "950", RiskScore.HIGH, NOW);
+        append("Alice", "USA", "EUR", "990", RiskScore.HIGH, NOW);
+
+        ColumnarTransactionStore.Filter filter = ColumnarTransactionStore.Filter.all()
+                .between(NOW.minusDays(1), null)
+                .sender("Alice")
+                .currency("USD")
+                .riskScore(RiskScore.HIGH)
+                .amountBetween(new BigDecimal("500"), null);
+
+        // Execute
+        Map<String, Long> counts = store.countBy(ColumnarTransactionStore.Dimension.SENDER, filter);
+
+        // Verify
+        assertEquals(Map.of("Alice", 1L), counts);
+        assertTrue(store.countBy(ColumnarTransactionStore.Dimension.SENDER,
+                ColumnarTransactionStore.Filter.all().country("Atlantis")).isEmpty());
+    }
+
+    @Test
+    void testLargest_ReturnsTopNByAmount() {
+        for (int i = 1; i <= 9; i++) {
+            append("Sender" + i, "USA", "USD", String.valueOf(i * 100), RiskScore.LOW, NOW);
+        }
+
+        // Execute
+        List<Map<String, Object>> largest = store.largest(3, ColumnarTransactionStore.Filter.all());
+
+        // Verify
+        assertEquals(List.of("Sender9", "Sender8", "Sender7"), largest.stream().map(row -> row.get("sender")).toList());
+        assertEquals(new BigDecimal("900.00"), largest.get(0).get("amount"));
+    }
+
+    @Test
+    void testAppend_DropsOldestSegmentsBeyondCapacityAndRetention() {
+        ColumnarTransactionStore small = new ColumnarTransactionStore(8, 4, 30);
+        for (int i = 0; i < 12; i++) {
+            Transaction txn = new Transaction("S" + i, "R", BigDecimal.ONE, "USD", "USA", null);
+            txn.setTimestamp(NOW);
+            small.append(txn);
+        }
+        for (int i = 0; i < 4; i++) {
+            append("Old", "USA", "USD", "1", null, NOW.minusDays(90));
+        }
+        append("New", "USA", "USD", "1", null, NOW);
+
+        // Verify
+        assertEquals(8L, small.size());
+        assertEquals(4L, small.getStats().get("evicted"));
+        // The full segment of stale rows has left the retention window
+        assertFalse(store.countBy(ColumnarTransactionStore.Dimension.SENDER, ColumnarTransactionStore.Filter.all()).containsKey("Old"));
+    }
+
+    @Test
+    void testGroupBy_DaysInChronologicalOrder() {
+        append("Alice", "USA", "USD", "1", null, NOW.minusDays(1));
+        append("Alice", "USA", "USD", "2", null, NOW);
+        append("Alice", "USA", "USD", "3", null, NOW.minusDays(1));
+
+        // Execute
+        List<Map<String, Object>> days = store.groupBy(ColumnarTransactionStore.Dimension.DAY, ColumnarTransactionStore.Filter.all(), 10);
+
+        // Verify
+        assertEquals(2, days.size());
+        assertEquals(NOW.minusDays(1).toLocalDate().toString(), days.get(0).get("key"));
+        assertEquals(2L, days.get(0).get("count"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.leizo.admin.service.analytics;
+
+import com.leizo.pojo.entity.Alert;
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardAggregatesTest {
+
+    private static Transaction transaction(String country, String currency, LocalDateTime timestamp) {
+        Transaction txn = new Transaction("Alice", "Bob", BigDecimal.TEN, currency, country, null);
+        txn.setTimestamp(timestamp);
+        return txn;
+    }
+
+    private static Alert alert(String priorityLevel, String alertType) {
+        Alert alert = new Alert();
+        alert.setPriorityLevel(priorityLevel);
+        alert.setAlertType(alertType);
+        alert.setTimestamp(LocalDateTime.now());
+        return alert;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecord_MaintainsCountsGroupsAndHistogram() {
+        DashboardAggregates aggregates = new DashboardAggregates(24);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Execute
+        aggregates.recordTransaction(transaction("USA", "USD", now));
+        aggregates.recordTransaction(transaction("USA", "EUR", now));
+        aggregates.recordTransaction(transaction("Panama", "USD", now.minusHours(2)));
+        aggregates.recordTransaction(transaction("USA", "USD", now.minusDays(3)));
+        aggregates.recordAlert(alert("HIGH", "SANCTIONS"));
+        aggregates.recordAlert(alert("LOW", null));
+
+        // Verify
+        Map<String, Object> snapshot = aggregates.getSnapshot();
+        assertEquals(4L, snapshot.get("transactions"));
+        assertEquals(2L, snapshot.get("alerts"));
+        assertEquals(Map.of("USA", 3L, "Panama", 1L), snapshot.get("transactionsByCountry"));
+        assertEquals(Map.of("SANCTIONS", 1L, "UNKNOWN", 1L), snapshot.get("alertsByType"));
+        // The three-day-old transaction is outside the 24 hour histogram
+        List<Map<String, Object>> hours = (List<Map<String, Object>>) snapshot.get("transactionsByHour");
+        assertEquals(2, hours.size());
+        assertEquals(2L, hours.get(1).get("count"));
+    }
+
+    @Test
+    void testRecordAlertPriorityChange_MovesAlertBetweenLevels() {
+        DashboardAggregates aggregates = new DashboardAggregates(24);
+        aggregates.recordAlert(alert("HIGH", "RULE"));
+        aggregates.recordAlert(alert("HIGH", "RULE"));
+
+        // Execute
+        aggregates.recordAlertPriorityChange("HIGH", "LOW");
+
+        // Verify
+        assertEquals(Map.of("HIGH", 1L, "LOW", 1L), aggregates.getSnapshot().get("alertsByPriority"));
+        assertEquals(2L, aggregates.getAlertCount());
+
+        aggregates.recordAlertsCleared();
+        assertEquals(0L, aggregates.getAlertCount());
+        assertEquals(Map.of(), aggregates.getSnapshot().get("alertsByPriority"));
+    }
+
+    @Test
+    void testReconcile_ReplacesCountsAndKeepsWritesMadeMeanwhile() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        DashboardAggregates aggregates = new DashboardAggregates(jdbcTemplate);
+        aggregates.recordTransaction(transaction("USA", "USD", LocalDateTime.now()));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0, String.class).contains("FROM transactions")) {
+                // A write that commits after the count query has read the table
+                aggregates.recordTransaction(transaction("Panama", "USD", LocalDateTime.now()));
+            }
+            return 100L;
+        });
+
+        // Execute
+        aggregates.reconcile();
+
+        // Verify
+        assertEquals(100L, aggregates.getUserCount());
+        assertEquals(101L, aggregates.getTransactionCount());
+        assertEquals(100L, aggregates.getAlertCount());
+        assertEquals(1L, aggregates.getStats().get("reconciles"));
+        assertNotNull(aggregates.getSnapshot().get("lastReconciled"));
+    }
+}
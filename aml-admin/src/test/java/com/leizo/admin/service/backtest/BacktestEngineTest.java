@@ -0,0 +1,121 @@
+package com.leizo.admin.service.backtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leizo.admin.service.rules.RuleDefinitionException;
+import com.leizo.admin.service.rules.SenderWindowStore;
+import com.leizo.loader.RuleLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktestEngineTest {
+
+    private static final String RULES = "[" +
+            "{\"description\": \"Large Amount\", \"sensitivity\": \"HIGH\", \"when\": {\"field\": \"amount\", \"op\": \"gte\", \"value\": 10000}}," +
+            "{\"description\": \"Burst\", \"sensitivity\": \"MEDIUM\", \"when\": {\"aggregate\": \"count\", \"minutes\": 10, \"op\": \"gte\", \"value\": 3}}]";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RuleLoader ruleLoader;
+    private BacktestEngine backtestEngine;
+
+    @BeforeEach
+    void setUp() {
+        ruleLoader = new RuleLoader(new SenderWindowStore(60, 60, System::currentTimeMillis));
+        backtestEngine = new BacktestEngine(ruleLoader, null, 2, 2);
+        backtestEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        backtestEngine.stop();
+    }
+
+    private CsvTransactionChunkSource export(String... rows) throws Exception {
+        Path file = tempDir.resolve("export.csv");
+        Files.writeString(file, "timestamp,sender,receiver,amount,currency,country\n" + String.join("\n", rows));
+        return new CsvTransactionChunkSource(file, 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> ruleEntry(Map<String, Object> report, String rule) {
+        return ((List<Map<String, Object>>) report.get("rules")).stream()
+                .filter(entry -> rule.equals(entry.get("rule")))
+                .findFirst().orElseThrow();
+    }
+
+    @Test
+    void testSubmit_ReportsMatchesAndAlertsPerRuleAndDay() throws Exception {
+        CsvTransactionChunkSource source = export(
+                "2025-03-01T10:00:00,Alice,Bob,50,USD,USA",
+                "2025-03-01T10:01:00,Carol,Bob,20000,USD,USA",
+                "2025-03-01T10:02:00,Alice,Bob,50,USD,USA",
+                "2025-03-01T10:03:00,Alice,Bob,15000,USD,USA",
+                "2025-03-02T09:00:00,Alice,Bob,50,USD,USA",
+                "not-a-row");
+
+        // Execute
+        BacktestJob job = backtestEngine.submit(mapper.readTree(RULES), source);
+        assertTrue(job.await(10, TimeUnit.SECONDS));
+
+        // Verify
+        assertEquals(BacktestJob.Status.COMPLETED, job.getStatus());
+        Map<String, Object> report = job.getReport().describe();
+        assertEquals(5L, report.get("transactions"));
+        // Alice's third transaction within ten minutes matches both rules but alerts once, on the HIGH rule
+        assertEquals(2L, ruleEntry(report, "Large Amount").get("matches"));
+        assertEquals(2L, ruleEntry(report, "Large Amount").get("alerts"));
+        assertEquals(1L, ruleEntry(report, "Burst").get("matches"));
+        assertEquals(0L, ruleEntry(report, "Burst").get("alerts"));
+        assertEquals(2L, report.get("alerts"));
+
+        List<?> daily = (List<?>) report.get("daily");
+        assertEquals(2, daily.size());
+        assertEquals(1L, job.describe(false).get("skippedRows"));
+    }
+
+    @Test
+    void testSubmit_DoesNotTouchLiveWindows() throws Exception {
+        SenderWindowStore live = new SenderWindowStore(60, 60, System::currentTimeMillis);
+        ruleLoader = new RuleLoader(live);
+        BacktestEngine engine = new BacktestEngine(ruleLoader, null, 2, 1);
+        engine.start();
+
+        // Execute
+        BacktestJob job = engine.submit(mapper.readTree(RULES), export("2025-03-01T10:00:00,Alice,Bob,50,USD,USA"));
+        assertTrue(job.await(10, TimeUnit.SECONDS));
+        engine.stop();
+
+        // Verify
+        assertEquals(0L, live.getStats().get("recorded"));
+    }
+
+    @Test
+    void testSubmit_InvalidRulesAreRejectedBeforeQueueing() throws Exception {
+        JsonNode invalid = mapper.readTree("[{\"description\": \"Bad\", \"sensitivity\": \"EXTREME\", \"type\": \"always_true\"}]");
+        CsvTransactionChunkSource source = export("2025-03-01T10:00:00,Alice,Bob,50,USD,USA");
+
+        // Execute / Verify
+        assertThrows(RuleDefinitionException.class, () -> backtestEngine.submit(invalid, source));
+        assertTrue(backtestEngine.getJobs().isEmpty());
+    }
+
+    @Test
+    void testSubmitExport_RejectsPathsOutsideExportDirectory() {
+        // Execute / Verify
+        assertThrows(IllegalArgumentException.class,
+                () -> backtestEngine.submitExport(mapper.readTree(RULES), "../../etc/passwd"));
+    }
+}
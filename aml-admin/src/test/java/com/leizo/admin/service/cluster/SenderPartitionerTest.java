@@ -0,0 +1,173 @@
+package com.leizo.admin.service.cluster;
+
+import com.leizo.admin.dto.TransactionDTO;
+import com.leizo.admin.service.suppression.CooldownStore;
+import com.leizo.admin.service.suppression.InMemorySuppressionBackend;
+import com.leizo.admin.service.suppression.SuppressionCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SenderPartitionerTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final int SENDERS = 2000;
+
+    private AtomicLong clock;
+    private InProcessTransport transport;
+    private final Map<String, SuppressionCoordinator> coordinators = new HashMap<>();
+
+    /**
+     * Connects partitioners running in the same JVM, addressed by their URL
+     */
+    private static class InProcessTransport implements ClusterTransport {
+        final Map<String, SenderPartitioner> nodes = new HashMap<>();
+        boolean failHandoffs;
+
+        @Override
+        public Map<String, Object> forwardIngest(String nodeUrl, List<TransactionDTO> transactions) {
+            return Map.of("processed", transactions.size(), "successful", transactions.size(), "failed", 0);
+        }
+
+        @Override
+        public void sendHandoff(String nodeUrl, String stateName, Map<String, Object> state) {
+            if (failHandoffs) {
+                throw new IllegalStateException("node unreachable");
+            }
+            nodes.get(nodeUrl).receiveHandoff(stateName, state);
+        }
+
+        @Override
+        public void sendMembership(String nodeUrl, String action, String nodeId, String url) {
+            SenderPartitioner target = nodes.get(nodeUrl);
+            if ("join".equals(action)) {
+                target.join(nodeId, url, false);
+            } else {
+                target.leave(nodeId, false);
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_700_000_000_000L);
+        transport = new InProcessTransport();
+    }
+
+    private SenderPartitioner startNode(String nodeId) {
+        SuppressionCoordinator coordinator = new SuppressionCoordinator(
+                new InMemorySuppressionBackend(new CooldownStore(4, 1000, 64, clock::get)), 16, 30_000, clock::get);
+        coordinators.put(nodeId, coordinator);
+        SenderPartitioner node = new SenderPartitioner(nodeId, "mem://" + nodeId, 256, 64, List.of(coordinator), transport);
+        transport.nodes.put("mem://" + nodeId, node);
+        return node;
+    }
+
+    @Test
+    void testJoin_AllNodesAgreeOnOwnership() {
+        SenderPartitioner a = startNode("a");
+        SenderPartitioner b = startNode("b");
+        SenderPartitioner c = startNode("c");
+        a.join("b", "mem://b", true);
+        a.join("c", "mem://c", true);
+
+        for (int i = 0; i < SENDERS; i++) {
+            String sender = "sender-" + i;
+            String owner = a.ownerOf(sender);
+            assertEquals(owner, b.ownerOf(sender));
+            assertEquals(owner, c.ownerOf(sender));
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Integer> perNode = (Map<String, Integer>) c.getStatus().get("partitionsPerNode");
+        assertEquals(3, perNode.size());
+        perNode.values().forEach(count -> assertTrue(count > 256 / 3 / 2, "unbalanced: " + perNode));
+    }
+
+    @Test
+    void testJoin_MovesOnlyPartitionsTakenByNewNode() {
+        SenderPartitioner a = startNode("a");
+        startNode("b");
+        startNode("c");
+        a.join("b", "mem://b", true);
+
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < SENDERS; i++) {
+            before.put("sender-" + i, a.ownerOf("sender-" + i));
+        }
+        a.join("c", "mem://c", true);
+
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String after = a.ownerOf(entry.getKey());
+            assertTrue(after.equals(entry.getValue()) || after.equals("c"),
+                    entry.getKey() + " moved between existing nodes");
+        }
+    }
+
+    @Test
+    void testJoin_HandsOffCooldownsOfMovedSenders() {
+        SenderPartitioner a = startNode("a");
+        startNode("b");
+        for (int i = 0; i < SENDERS; i++) {
+            assertTrue(coordinators.get("a").tryStartCooldown("sender-" + i, "RULE-1", 10 * MINUTE));
+        }
+
+        a.join("b", "mem://b", true);
+
+        int movedToB = 0;
+        for (int i = 0; i < SENDERS; i++) {
+            String sender = "sender-" + i;
+            String owner = a.ownerOf(sender);
+            // The owner still refuses a second cooldown; the old owner no longer holds the state
+            assertFalse(coordinators.get(owner).tryStartCooldown(sender, "RULE-1", 10 * MINUTE), sender);
+            if (owner.equals("b")) {
+                movedToB++;
+                assertFalse(coordinators.get("a").isInCooldown(sender, "RULE-1"), sender);
+            }
+        }
+        assertTrue(movedToB > 0);
+    }
+
+    @Test
+    void testLeave_HandsOffEverythingToRemainingNodes() {
+        SenderPartitioner a = startNode("a");
+        SenderPartitioner b = startNode("b");
+        a.join("b", "mem://b", true);
+        for (int i = 0; i < SENDERS; i++) {
+            String sender = "sender-" + i;
+            coordinators.get(a.ownerOf(sender)).tryStartCooldown(sender, "RULE-1", 10 * MINUTE);
+        }
+
+        a.leave("b", true);
+
+        assertEquals("a", b.ownerOf("sender-0"));
+        for (int i = 0; i < SENDERS; i++) {
+            String sender = "sender-" + i;
+            assertNull(a.remoteOwnerOf(sender));
+            assertTrue(coordinators.get("a").isInCooldown(sender, "RULE-1"), sender);
+        }
+    }
+
+    @Test
+    void testHandoffFailure_KeepsStateLocally() {
+        SenderPartitioner a = startNode("a");
+        startNode("b");
+        for (int i = 0; i < SENDERS; i++) {
+            coordinators.get("a").tryStartCooldown("sender-" + i, "RULE-1", 10 * MINUTE);
+        }
+        transport.failHandoffs = true;
+
+        a.join("b", "mem://b", true);
+
+        for (int i = 0; i < SENDERS; i++) {
+            assertTrue(coordinators.get("a").isInCooldown("sender-" + i, "RULE-1"));
+        }
+        assertEquals(1L, a.getStatus().get("handoffFailures"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.leizo.admin.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StreamingExporterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private Connection connection;
+    private PreparedStatement statement;
+    private StreamingExporter exporter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0, ConnectionCallback.class).doInConnection(connection));
+        exporter = new StreamingExporter(jdbcTemplate, 2);
+    }
+
+    private void givenRows(List<String> columns, Object[]... rows) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(meta.getColumnCount()).thenReturn(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            when(meta.getColumnLabel(i + 1)).thenReturn(columns.get(i));
+        }
+        int[] cursor = {-1};
+        when(rs.next()).thenAnswer(invocation -> ++cursor[0] < rows.length);
+        when(rs.getObject(anyInt())).thenAnswer(invocation -> rows[cursor[0]][invocation.getArgument(0, Integer.class) - 1]);
+    }
+
+    @Test
+    void testExport_ReadsThroughForwardOnlyCursorAndRestoresConnection() throws Exception {
+        givenRows(List.of("id"), new Object[]{1}, new Object[]{2}, new Object[]{3});
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        // Execute
+        long rows = exporter.export(ExportDataset.TRANSACTIONS, ExportFormat.CSV, from, null, false,
+                new ByteArrayOutputStream());
+
+        // Verify
+        assertEquals(3, rows);
+        verify(connection).setAutoCommit(false);
+        verify(connection).prepareStatement(
+                eq("SELECT id, external_id, sender, sender_account, receiver, receiver_account, amount, currency, "
+                        + "country, risk_score, manual_flag, extra_metadata::text AS extra_metadata, timestamp "
+                        + "FROM transactions WHERE timestamp >= ? ORDER BY id"),
+                eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        verify(statement).setFetchSize(2);
+        verify(statement).setObject(1, Timestamp.valueOf(from));
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+        assertEquals(3L, exporter.getStats().get("rowsWritten"));
+    }
+
+    @Test
+    void testExport_WritesQuotedCsv() throws Exception {
+        givenRows(List.of("id", "reason", "timestamp"),
+                new Object[]{1, "Sanctions match, \"OFAC\"", Timestamp.valueOf(LocalDateTime.of(2025, 3, 1, 9, 30))},
+                new Object[]{2, null, null});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Execute
+        exporter.export(ExportDataset.ALERTS, ExportFormat.CSV, null, null, false, out);
+
+        // Verify
+        assertEquals("id,reason,timestamp\r\n"
+                        + "1,\"Sanctions match, \"\"OFAC\"\"\",2025-03-01T09:30\r\n"
+                        + "2,,\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExport_WritesGzippedNdjsonLines() throws Exception {
+        givenRows(List.of("id", "amount", "country"),
+                new Object[]{1, new BigDecimal("1500.25"), "USA"},
+                new Object[]{2, new BigDecimal("10"), null});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Execute
+        exporter.export(ExportDataset.TRANSACTIONS, ExportFormat.NDJSON, null, null, true, out);
+
+        // Verify
+        String text = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        String[] lines = text.split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals(1500.25, first.get("amount").asDouble());
+        assertEquals("USA", first.get("country").asText());
+        assertTrue(mapper.readTree(lines[1]).get("country").isNull());
+    }
+}
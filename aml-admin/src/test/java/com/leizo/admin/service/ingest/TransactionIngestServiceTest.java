@@ -0,0 +1,144 @@
+package com.leizo.admin.service.ingest;
+
+import com.leizo.admin.dto.TransactionDTO;
+import com.leizo.admin.repository.TransactionRepository;
+import com.leizo.admin.service.analytics.ColumnarTransactionStore;
+import com.leizo.admin.service.analytics.DashboardAggregates;
+import com.leizo.admin.service.cluster.SenderPartitioner;
+import com.leizo.enums.RiskScore;
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.pojo.entity.Alert;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import com.leizo.service.AlertDecisionEngine;
+import com.leizo.service.AlertDecisionResult;
+import com.leizo.service.RiskScoringService;
+import com.leizo.service.TransactionEvaluatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransactionIngestServiceTest {
+
+    private TransactionRepository transactionRepository;
+    private TransactionEvaluatorService transactionEvaluatorService;
+    private AlertDecisionEngine alertDecisionEngine;
+    private SenderPartitioner senderPartitioner;
+    private TransactionIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        RiskScoringService riskScoringService = mock(RiskScoringService.class);
+        transactionEvaluatorService = mock(TransactionEvaluatorService.class);
+        alertDecisionEngine = mock(AlertDecisionEngine.class);
+        senderPartitioner = mock(SenderPartitioner.class);
+        ingestService = new TransactionIngestService(transactionRepository, riskScoringService,
+                transactionEvaluatorService, alertDecisionEngine, senderPartitioner,
+                mock(ColumnarTransactionStore.class), mock(DashboardAggregates.class));
+
+        AtomicInteger ids = new AtomicInteger();
+        when(riskScoringService.assessRisk(any(Transaction.class))).thenReturn(RiskScore.LOW);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction txn = invocation.getArgument(0);
+            txn.setId(ids.incrementAndGet());
+            return txn;
+        });
+        when(transactionEvaluatorService.evaluateForAlert(any(Transaction.class)))
+                .thenAnswer(invocation -> AlertDecisionResult.noAlert(invocation.getArgument(0), 10));
+    }
+
+    private static TransactionDTO row(String transactionId, String sender) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setTransactionId(transactionId);
+        dto.setTimestamp("2025-07-25T14:22:30Z");
+        dto.setAmount(new BigDecimal("1000.00"));
+        dto.setCurrency("USD");
+        dto.setSenderName(sender);
+        dto.setReceiverName("Jane Smith");
+        dto.setSenderAccount("ACC-001");
+        dto.setReceiverAccount("ACC-002");
+        dto.setCountry("US");
+        dto.setManualFlag(false);
+        dto.setDescription("Salary payment");
+        return dto;
+    }
+
+    @Test
+    void testIngest_EvaluatesOwnedRowsAndForwardsTheRest() {
+        Rule rule = new Rule("Large amount", RuleSensitivity.HIGH, (txn, amount) -> true);
+        Alert alert = new Alert();
+        when(senderPartitioner.remoteOwnerOf("John Doe")).thenReturn(null);
+        when(senderPartitioner.remoteOwnerOf("Maria Garcia")).thenReturn("node-2");
+        when(senderPartitioner.forwardIngest(eq("node-2"), anyList())).thenReturn(Map.of(
+                "processed", 1, "successful", 1, "failed", 0, "alertsGenerated", 1,
+                "errors", List.of(Map.of("transactionId", "TXN-009", "error", "Alert evaluation failed: boom"))));
+        when(transactionEvaluatorService.evaluateForAlert(any(Transaction.class))).thenAnswer(invocation ->
+                AlertDecisionResult.ruleAlert(invocation.getArgument(0), new Alert(), rule,
+                        "Rule matched: Large amount", 60, 85, List.of("Large amount")));
+        when(alertDecisionEngine.createAlert(any(Transaction.class), eq(rule), eq("Rule matched: Large amount"), eq(85), isNull()))
+                .thenReturn(alert);
+        when(alertDecisionEngine.processAlert(alert)).thenReturn(true);
+
+        // Execute
+        Map<String, Object> result = ingestService.ingest(List.of(row("TXN-001", "John Doe"), row("TXN-002", "Maria Garcia")));
+
+        // Verify the local row is stored and evaluated here and the other by its owner
+        assertEquals(2, result.get("successful"));
+        assertEquals(1, result.get("forwarded"));
+        assertEquals(2, result.get("alertsGenerated"));
+        verify(transactionRepository, times(1)).save(argThat(txn -> "John Doe".equals(txn.getSender())));
+        verify(transactionEvaluatorService, times(1)).evaluateForAlert(argThat(txn -> txn.getId() != null));
+        verify(alertDecisionEngine).processAlert(alert);
+        verify(senderPartitioner).forwardIngest(eq("node-2"), argThat(rows ->
+                rows.size() == 1 && "Maria Garcia".equals(rows.get(0).getSenderName())));
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) result.get("errors");
+        assertEquals(Map.of("node", "node-2", "transactionId", "TXN-009", "error", "Alert evaluation failed: boom"), errors.get(0));
+    }
+
+    @Test
+    void testIngest_ForwardFailureReportsRowsAsRetryable() {
+        when(senderPartitioner.remoteOwnerOf(anyString())).thenReturn("node-2");
+        when(senderPartitioner.forwardIngest(eq("node-2"), anyList()))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        // Execute
+        Map<String, Object> result = ingestService.ingest(List.of(row("TXN-001", "John Doe"), row("TXN-002", "Maria Garcia")));
+
+        // Verify the rows go back to the caller instead of being stored without the owner
+        assertEquals(0, result.get("successful"));
+        assertEquals(2, result.get("failed"));
+        assertEquals(2, result.get("retryable"));
+        assertEquals(0, result.get("forwarded"));
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) result.get("errors");
+        assertEquals("TXN-001", errors.get(0).get("transactionId"));
+        assertEquals("node-2", errors.get(0).get("node"));
+        assertEquals(true, errors.get(0).get("retryable"));
+        verifyNoInteractions(transactionRepository, transactionEvaluatorService, alertDecisionEngine);
+    }
+
+    @Test
+    void testIngestOwned_KeepsStoredRowWhenEvaluationFails() {
+        when(transactionEvaluatorService.evaluateForAlert(any(Transaction.class)))
+                .thenThrow(new IllegalStateException("rules unavailable"));
+
+        // Execute
+        Map<String, Object> result = ingestService.ingestOwned(List.of(row("TXN-001", "John Doe")));
+
+        // Verify
+        assertEquals(1, result.get("successful"));
+        assertEquals(0, result.get("failed"));
+        verifyNoInteractions(senderPartitioner);
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) result.get("errors");
+        assertEquals("Alert evaluation failed: rules unavailable", errors.get(0).get("error"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.leizo.admin.service.partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TimePartitionManagerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TimePartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        manager = new TimePartitionManager(jdbcTemplate);
+        ReflectionTestUtils.setField(manager, "postgres", true);
+        ReflectionTestUtils.setField(manager, "granularity", "monthly");
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), anyString()))
+                .thenReturn(true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBackfillTimestamps_UsesRecordedEventTimeAndSkipsUnparseableValues() throws Exception {
+        ResultSet rows = mock(ResultSet.class);
+        when(rows.getInt("id")).thenReturn(1, 2);
+        when(rows.getString("meta_value")).thenReturn("2025-07-25T14:22:30+02:00", "yesterday");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rows);
+            handler.processRow(rows);
+            return null;
+        }).when(jdbcTemplate).query(contains("meta_key = 'timestamp'"), any(RowCallbackHandler.class));
+
+        // Execute
+        int filled = manager.backfillTimestamps("transactions");
+
+        // Verify the offset value is stored in UTC and the unparseable one is left null
+        assertEquals(1, filled);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE transactions SET timestamp = ? WHERE id = ? AND timestamp IS NULL"),
+                (List<Object[]>) argThat(updates -> ((List<Object[]>) updates).size() == 1
+                        && Timestamp.valueOf(LocalDateTime.of(2025, 7, 25, 12, 22, 30)).equals(((List<Object[]>) updates).get(0)[0])
+                        && Integer.valueOf(1).equals(((List<Object[]>) updates).get(0)[1])));
+        verify(jdbcTemplate, never()).update(contains("CURRENT_TIMESTAMP"));
+    }
+
+    @Test
+    void testRunMaintenance_DetachesExpiredPartitionsWithoutDropping() {
+        ReflectionTestUtils.setField(manager, "retention", 1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyString())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq("transactions")))
+                .thenReturn(List.of(Map.of("partition_name", "transactions_p2020_01")));
+
+        // Execute
+        manager.runMaintenance();
+
+        // Verify
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION transactions_p2020_01");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+        assertEquals(1L, manager.getPartitionStats().get("partitionsDetached"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.leizo.admin.service.rules;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleCompilerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private AtomicLong clock;
+    private SenderWindowStore windows;
+    private RuleCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_700_000_000_000L);
+        windows = new SenderWindowStore(60, 60, clock::get);
+        compiler = new RuleCompiler(windows, Map.of("always_true", (txn, amt) -> true));
+    }
+
+    private Rule compileOne(String when) throws Exception {
+        JsonNode root = mapper.readTree("[{\"description\": \"Test Rule\", \"sensitivity\": \"high\", \"when\": " + when + "}]");
+        return compiler.compile(root).getRules().get(0);
+    }
+
+    private static Transaction txn(String sender, String country, String amount) {
+        return new Transaction(sender, "Receiver", new BigDecimal(amount), "USD", country, "1990-01-01");
+    }
+
+    @Test
+    void testCompile_AmountComparison() throws Exception {
+        Rule rule = compileOne("{\"field\": \"amount\", \"op\": \"gte\", \"value\": 10000}");
+
+        // Verify
+        assertEquals(RuleSensitivity.HIGH, rule.getSensitivity());
+        assertTrue(rule.appliesTo(txn("A", "USA", "10000"), new BigDecimal("10000")));
+        assertFalse(rule.appliesTo(txn("A", "USA", "9999.99"), new BigDecimal("9999.99")));
+    }
+
+    @Test
+    void testCompile_SetMembershipIsCaseInsensitive() throws Exception {
+        Rule rule = compileOne("{\"field\": \"country\", \"in\": [\"Iran\", \"North Korea\"]}");
+
+        // Verify
+        assertTrue(rule.appliesTo(txn("A", "north korea", "1"), BigDecimal.ONE));
+        assertFalse(rule.appliesTo(txn("A", "Norway", "1"), BigDecimal.ONE));
+        assertFalse(rule.appliesTo(txn("A", null, "1"), BigDecimal.ONE));
+    }
+
+    @Test
+    void testCompile_Combinators() throws Exception {
+        Rule rule = compileOne("{\"all\": [" +
+                "{\"field\": \"amount\", \"op\": \"gt\", \"value\": 1000}," +
+                "{\"any\": [{\"field\": \"currency\", \"op\": \"eq\", \"value\": \"usd\"}, {\"field\": \"metadata.flagged\", \"exists\": true}]}," +
+                "{\"not\": {\"field\": \"country\", \"in\": [\"USA\"]}}]}");
+        Transaction foreign = txn("A", "Panama", "5000");
+        Transaction domestic = txn("A", "USA", "5000");
+
+        // Verify
+        assertTrue(rule.appliesTo(foreign, new BigDecimal("5000")));
+        assertFalse(rule.appliesTo(domestic, new BigDecimal("5000")));
+        assertFalse(rule.appliesTo(foreign, new BigDecimal("500")));
+    }
+
+    @Test
+    void testCompile_WindowAggregateIncludesCurrentTransaction() throws Exception {
+        RuleCompiler.CompiledRules compiled = compiler.compile(mapper.readTree(
+                "[{\"description\": \"Structuring\", \"sensitivity\": \"HIGH\", " +
+                "\"when\": {\"aggregate\": \"sum\", \"minutes\": 10, \"op\": \"gte\", \"value\": 9000}}]"));
+        Rule rule = compiled.getRules().get(0);
+        assertTrue(compiled.usesWindows());
+
+        windows.record("Alice", 4000);
+        windows.record("Alice", 4000);
+
+        // Execute / Verify
+        assertTrue(rule.appliesTo(txn("Alice", "USA", "1000"), new BigDecimal("1000")));
+        assertFalse(rule.appliesTo(txn("Bob", "USA", "1000"), new BigDecimal("1000")));
+
+        // Older transactions leave the window
+        clock.addAndGet(11 * 60_000L);
+        assertFalse(rule.appliesTo(txn("Alice", "USA", "1000"), new BigDecimal("1000")));
+    }
+
+    @Test
+    void testCompile_InvalidDefinitionsReportEveryError() throws Exception {
+        JsonNode root = mapper.readTree("[" +
+                "{\"description\": \"A\", \"sensitivity\": \"EXTREME\", \"when\": {\"field\": \"amount\", \"op\": \"gt\", \"value\": 1}}," +
+                "{\"description\": \"B\", \"sensitivity\": \"LOW\", \"when\": {\"field\": \"country\", \"op\": \"gt\", \"value\": \"X\"}}," +
+                "{\"description\": \"C\", \"sensitivity\": \"LOW\", \"type\": \"unknown_type\"}," +
+                "{\"description\": \"D\", \"sensitivity\": \"LOW\", \"when\": {\"aggregate\": \"count\", \"minutes\": 600, \"op\": \"gt\", \"value\": 3}}]");
+
+        // Execute
+        RuleDefinitionException e = assertThrows(RuleDefinitionException.class, () -> compiler.compile(root));
+
+        // Verify
+        assertEquals(4, e.getErrors().size(), e.getErrors().toString());
+        assertTrue(e.getErrors().get(0).startsWith("$[0].sensitivity"));
+        assertTrue(e.getErrors().get(1).startsWith("$[1].when.op"));
+    }
+
+    @Test
+    void testCompile_EstimatesEvaluationCost() throws Exception {
+        Rule cheap = compileOne("{\"field\": \"amount\", \"op\": \"gt\", \"value\": 1}");
+        Rule windowed = compileOne("{\"any\": [{\"aggregate\": \"count\", \"minutes\": 5, \"op\": \"gt\", \"value\": 3}," +
+                "{\"field\": \"country\", \"in\": [\"Iran\"]}]}");
+
+        // Verify
+        assertTrue(cheap.getEvaluationCost() < windowed.getEvaluationCost());
+        // The cheap branch decides without touching the window
+        assertTrue(windowed.appliesTo(txn("A", "Iran", "1"), BigDecimal.ONE));
+    }
+
+    @Test
+    void testCompile_LegacyTypeResolvesNamedPredicate() throws Exception {
+        JsonNode root = mapper.readTree("[{\"description\": \"Always\", \"sensitivity\": \"LOW\", \"type\": \"always_true\"}]");
+
+        // Verify
+        assertTrue(compiler.compile(root).getRules().get(0).appliesTo(txn("A", "USA", "1"), BigDecimal.ONE));
+    }
+
+    @Test
+    void testCompile_LegacyTypeTranslatesToCondition() throws Exception {
+        JsonNode root = mapper.readTree("[" +
+                "{\"description\": \"High value\", \"sensitivity\": \"HIGH\", \"type\": \"high_value\"}," +
+                "{\"description\": \"High risk country\", \"sensitivity\": \"HIGH\", \"type\": \"high_risk_country\"}]");
+
+        // Execute
+        RuleCompiler.CompiledRules compiled = compiler.compile(root);
+
+        // Verify
+        Rule highValue = compiled.getRules().get(0);
+        assertTrue(highValue.appliesTo(txn("A", "USA", "15000"), new BigDecimal("15000")));
+        assertFalse(highValue.appliesTo(txn("A", "USA", "10000"), new BigDecimal("10000")));
+        Rule highRiskCountry = compiled.getRules().get(1);
+        assertTrue(highRiskCountry.appliesTo(txn("A", "north korea", "1"), BigDecimal.ONE));
+        assertFalse(highRiskCountry.appliesTo(txn("A", "USA", "1"), BigDecimal.ONE));
+        assertFalse(compiled.usesWindows());
+    }
+}
@@ -0,0 +1,67 @@
+package com.leizo.admin.service.rules;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leizo.admin.service.suppression.CooldownStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SenderWindowStoreTest {
+
+    private static final long TEN_MINUTES = 10 * 60_000L;
+
+    private AtomicLong clock;
+    private SenderWindowStore previousOwner;
+    private SenderWindowStore newOwner;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_700_000_000_000L);
+        previousOwner = new SenderWindowStore(60, 60, clock::get);
+        newOwner = new SenderWindowStore(60, 60, clock::get);
+    }
+
+    @Test
+    void testHandoff_MovesOnlyMatchingSendersAndMergesWindows() throws Exception {
+        int alicePrefix = CooldownStore.senderPrefix("Alice");
+        previousOwner.record("Alice", 4000);
+        clock.addAndGet(60_000L);
+        previousOwner.record("Alice", 3000);
+        previousOwner.record("Bob", 500);
+        newOwner.record("Alice", 1000);
+
+        // Execute
+        Map<String, Object> state = previousOwner.exportState(prefix -> prefix == alicePrefix);
+        // The state travels between nodes as JSON
+        ObjectMapper mapper = new ObjectMapper();
+        newOwner.importState(mapper.readValue(mapper.writeValueAsString(state), new TypeReference<Map<String, Object>>() {}));
+
+        // Verify
+        assertEquals(3, newOwner.count("Alice", TEN_MINUTES));
+        assertEquals(8000.0, newOwner.sum("Alice", TEN_MINUTES));
+        assertEquals(0, previousOwner.count("Alice", TEN_MINUTES));
+        assertEquals(1, previousOwner.count("Bob", TEN_MINUTES));
+        assertEquals(1L, previousOwner.getStats().get("handedOff"));
+    }
+
+    @Test
+    void testHandoff_SkipsExpiredBucketsAndRejectsOtherBucketLengths() {
+        previousOwner.record("Alice", 4000);
+        clock.addAndGet(61 * 60_000L);
+
+        // Execute
+        Map<String, Object> expired = previousOwner.exportState(prefix -> true);
+
+        // Verify
+        assertTrue(expired.isEmpty());
+        SenderWindowStore coarser = new SenderWindowStore(60, 30, clock::get);
+        previousOwner.record("Alice", 4000);
+        Map<String, Object> state = previousOwner.exportState(prefix -> true);
+        assertThrows(IllegalArgumentException.class, () -> coarser.importState(state));
+    }
+}
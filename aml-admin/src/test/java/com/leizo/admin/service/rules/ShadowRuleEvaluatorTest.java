@@ -0,0 +1,121 @@
+package com.leizo.admin.service.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.loader.RuleLoader;
+import com.leizo.pojo.entity.Rule;
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShadowRuleEvaluatorTest {
+
+    private static final String SHADOW_RULES = "[" +
+            "{\"description\": \"Large Amount\", \"sensitivity\": \"HIGH\", \"when\": {\"field\": \"amount\", \"op\": \"gt\", \"value\": 1000}}," +
+            "{\"description\": \"Panama\", \"sensitivity\": \"LOW\", \"when\": {\"field\": \"country\", \"in\": [\"Panama\"]}}]";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RuleLoader ruleLoader;
+    private ShadowRuleEvaluator shadowRuleEvaluator;
+    private Rule productionRule;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ruleLoader = new RuleLoader(new SenderWindowStore(60, 60, System::currentTimeMillis));
+        shadowRuleEvaluator = new ShadowRuleEvaluator(ruleLoader, Runnable::run, 1.0);
+        shadowRuleEvaluator.load(mapper.readTree(SHADOW_RULES));
+        productionRule = new Rule("Large Amount", RuleSensitivity.HIGH, (txn, amount) -> amount.compareTo(new BigDecimal("5000")) > 0);
+    }
+
+    private static Transaction txn(String country, String amount) {
+        return new Transaction("Alice", "Bob", new BigDecimal(amount), "USD", country, "1990-01-01");
+    }
+
+    @Test
+    void testSubmit_RecordsWouldFireAndDiffs() {
+        // Execute
+        shadowRuleEvaluator.submit(txn("USA", "9000"), new BigDecimal("9000"), productionRule);
+        shadowRuleEvaluator.submit(txn("USA", "2000"), new BigDecimal("2000"), null);
+        shadowRuleEvaluator.submit(txn("Panama", "10"), new BigDecimal("10"), productionRule);
+
+        // Verify
+        Map<String, Object> status = shadowRuleEvaluator.getStatus();
+        assertEquals(3L, status.get("evaluated"));
+        assertEquals(1L, status.get("agreements"));
+        assertEquals(1L, status.get("shadowOnly"));
+        assertEquals(1L, status.get("differentRule"));
+        assertEquals(Map.of("Large Amount", 2L, "Panama", 1L), status.get("wouldFire"));
+        assertEquals(2, ((List<?>) status.get("recentDiffs")).size());
+    }
+
+    @Test
+    void testSubmit_ShedsWorkWhenExecutorRejects() throws Exception {
+        ShadowRuleEvaluator saturated = new ShadowRuleEvaluator(ruleLoader, task -> {
+            throw new RejectedExecutionException("queue full");
+        }, 1.0);
+        saturated.load(mapper.readTree(SHADOW_RULES));
+
+        // Execute
+        saturated.submit(txn("USA", "9000"), new BigDecimal("9000"), productionRule);
+
+        // Verify
+        assertEquals(1L, saturated.getStatus().get("shed"));
+        assertEquals(0L, saturated.getStatus().get("evaluated"));
+    }
+
+    @Test
+    void testSubmit_SamplingAndClearSkipEvaluation() throws Exception {
+        ShadowRuleEvaluator unsampled = new ShadowRuleEvaluator(ruleLoader, Runnable::run, 0.0);
+        unsampled.load(mapper.readTree(SHADOW_RULES));
+
+        // Execute
+        unsampled.submit(txn("USA", "9000"), new BigDecimal("9000"), productionRule);
+        shadowRuleEvaluator.clear();
+        shadowRuleEvaluator.submit(txn("USA", "9000"), new BigDecimal("9000"), productionRule);
+
+        // Verify
+        assertEquals(1L, unsampled.getStatus().get("sampledOut"));
+        assertEquals(0L, unsampled.getStatus().get("evaluated"));
+        assertFalse(shadowRuleEvaluator.isActive());
+        assertEquals(0L, shadowRuleEvaluator.getStatus().get("submitted"));
+    }
+
+    @Test
+    void testSubmit_WindowAggregatesSeeWindowsAtSubmitTime() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        ShadowRuleEvaluator delayed = new ShadowRuleEvaluator(ruleLoader, queued::add, 1.0);
+        delayed.load(mapper.readTree("[{\"description\": \"Burst\", \"sensitivity\": \"HIGH\", "
+                + "\"when\": {\"aggregate\": \"count\", \"minutes\": 60, \"op\": \"gte\", \"value\": 2}}]"));
+
+        // Execute: each transaction is recorded right after submit, as production does
+        for (int i = 0; i < 2; i++) {
+            Transaction transaction = txn("USA", "100");
+            delayed.submit(transaction, new BigDecimal("100"), null);
+            ruleLoader.recordTransaction(transaction, new BigDecimal("100"));
+        }
+        queued.forEach(Runnable::run);
+
+        // Verify: only the second transaction completes the burst
+        assertEquals(Map.of("Burst", 1L), delayed.getStatus().get("wouldFire"));
+        assertEquals(1L, delayed.getStatus().get("shadowOnly"));
+        assertEquals(1L, delayed.getStatus().get("agreements"));
+    }
+
+    @Test
+    void testLoad_InvalidDefinitionsKeepCurrentShadowRules() throws Exception {
+        // Execute
+        assertThrows(RuleDefinitionException.class, () -> shadowRuleEvaluator.load(mapper.readTree(
+                "[{\"description\": \"Bad\", \"sensitivity\": \"EXTREME\", \"type\": \"always_true\"}]")));
+
+        // Verify
+        assertEquals(List.of("Large Amount", "Panama"), shadowRuleEvaluator.getStatus().get("rules"));
+    }
+}
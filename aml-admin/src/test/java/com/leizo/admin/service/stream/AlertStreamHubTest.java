@@ -0,0 +1,143 @@
+package com.leizo.admin.service.stream;
+
+import com.leizo.pojo.entity.Alert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertStreamHubTest {
+
+    private static Alert alert(String alertId, String priorityLevel, String alertType) {
+        Alert alert = new Alert();
+        alert.setAlertId(alertId);
+        alert.setPriorityLevel(priorityLevel);
+        alert.setAlertType(alertType);
+        return alert;
+    }
+
+    private static class RecordingSink implements AlertStreamHub.EventSink {
+        final List<Long> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<Object> data = new ArrayList<>();
+
+        @Override
+        public void send(long id, String name, Object payload) {
+            ids.add(id);
+            names.add(name);
+            data.add(payload);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> alertIds() {
+            List<String> alertIds = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) {
+                if ("alert".equals(names.get(i))) {
+                    alertIds.add((String) ((Map<String, Object>) data.get(i)).get("alertId"));
+                }
+            }
+            return alertIds;
+        }
+    }
+
+    @Test
+    void testPublish_DeliversOnlyMatchingPrioritiesAndTypes() {
+        AlertStreamHub hub = new AlertStreamHub(Runnable::run, 16, 16, 10);
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe(sink, Set.of("high"), Set.of(), AlertStreamHub.OverflowPolicy.DROP_OLDEST, null);
+
+        // Execute
+        hub.publish(alert("A1", "HIGH", "SANCTIONS"));
+        hub.publish(alert("A2", "LOW", "SANCTIONS"));
+        hub.publish(alert("A3", "High", "RULE"));
+
+        // Verify
+        assertEquals(List.of("A1", "A3"), sink.alertIds());
+        assertEquals(List.of(1L, 3L), sink.ids);
+    }
+
+    @Test
+    void testSubscribe_ResumesFromCursorWithoutRepeats() {
+        AlertStreamHub hub = new AlertStreamHub(Runnable::run, 16, 16, 10);
+        hub.publish(alert("A1", "HIGH", "RULE"));
+        hub.publish(alert("A2", "HIGH", "RULE"));
+        hub.publish(alert("A3", "HIGH", "RULE"));
+        RecordingSink sink = new RecordingSink();
+
+        // Execute
+        hub.subscribe(sink, null, null, null, 1L);
+        hub.publish(alert("A4", "HIGH", "RULE"));
+
+        // Verify
+        assertEquals(List.of("A2", "A3", "A4"), sink.alertIds());
+    }
+
+    @Test
+    void testSubscribe_SendsResetWhenCursorLeftTheReplayWindow() {
+        AlertStreamHub hub = new AlertStreamHub(Runnable::run, 4, 16, 10);
+        for (int i = 1; i <= 10; i++) {
+            hub.publish(alert("A" + i, "HIGH", "RULE"));
+        }
+        RecordingSink stale = new RecordingSink();
+        RecordingSink restarted = new RecordingSink();
+
+        // Execute
+        hub.subscribe(stale, null, null, null, 2L);
+        hub.subscribe(restarted, null, null, null, 50L);
+
+        // Verify
+        assertEquals(List.of("reset"), stale.names);
+        assertEquals(List.of(10L), stale.ids);
+        assertEquals(List.of("reset"), restarted.names);
+        assertEquals(2L, hub.getStats().get("resets"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOverflow_DropOldestKeepsNewestAndCoalesceReplacesBuffer() {
+        List<Runnable> pending = new ArrayList<>();
+        AlertStreamHub hub = new AlertStreamHub(pending::add, 16, 2, 10);
+        RecordingSink dropOldest = new RecordingSink();
+        RecordingSink coalesce = new RecordingSink();
+        hub.subscribe(dropOldest, null, null, AlertStreamHub.OverflowPolicy.DROP_OLDEST, null);
+        hub.subscribe(coalesce, null, null, AlertStreamHub.OverflowPolicy.COALESCE, null);
+
+        // Execute: the drains stay queued while four alerts arrive
+        for (int i = 1; i <= 4; i++) {
+            hub.publish(alert("A" + i, "HIGH", "RULE"));
+        }
+        new ArrayList<>(pending).forEach(Runnable::run);
+
+        // Verify
+        assertEquals(List.of("A3", "A4"), dropOldest.alertIds());
+        assertEquals(List.of("coalesced"), coalesce.names);
+        Map<String, Object> notice = (Map<String, Object>) coalesce.data.get(0);
+        assertEquals(4L, notice.get("skipped"));
+        assertEquals(4L, notice.get("cursor"));
+    }
+
+    @Test
+    void testSubscribe_RejectsBeyondMaxSubscribers() {
+        AlertStreamHub hub = new AlertStreamHub(Runnable::run, 16, 16, 1);
+        long id = hub.subscribe(new RecordingSink(), null, null, null, null);
+
+        // Execute & Verify
+        assertThrows(IllegalStateException.class,
+                () -> hub.subscribe(new RecordingSink(), null, null, null, null));
+        hub.unsubscribe(id);
+        assertDoesNotThrow(() -> hub.subscribe(new RecordingSink(), null, null, null, null));
+        assertEquals(1L, hub.getStats().get("rejectedSubscribers"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.leizo.admin.service.suppression;
+
+import com.leizo.enums.RuleSensitivity;
+import com.leizo.model.CooldownPolicy;
+import com.leizo.pojo.entity.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooldownPolicyRegistryTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private static Rule rule(String description, RuleSensitivity sensitivity) {
+        return new Rule(description, sensitivity, (txn, amount) -> true);
+    }
+
+    @Test
+    void testPolicyFor_MostSpecificMatchWins() {
+        CooldownPolicyRegistry registry = new CooldownPolicyRegistry(Map.of(
+                "rules", "Manual Flag Rule=60000",
+                "sensitivities", "high=120000",
+                "alert-types", "RULE_MATCH=180000"));
+
+        // Execute / Verify
+        assertEquals(MINUTE, registry.policyFor(rule("Manual Flag Rule", RuleSensitivity.HIGH)).cooldownFor(0));
+        assertEquals(2 * MINUTE, registry.policyFor(rule("High Value Transfer Rule", RuleSensitivity.HIGH)).cooldownFor(0));
+        assertEquals(3 * MINUTE, registry.policyFor(rule("Currency Risk Rule", RuleSensitivity.MEDIUM)).cooldownFor(0));
+        assertEquals(10 * MINUTE, registry.policyFor("Unknown", "GENERIC").cooldownFor(0));
+    }
+
+    @Test
+    void testPolicyFor_DefaultsMatchPreviousCooldowns() {
+        CooldownPolicyRegistry registry = new CooldownPolicyRegistry(Map.of());
+
+        // Execute / Verify
+        assertEquals(30 * MINUTE, registry.policyFor("Sanctions Match", "SANCTIONS").cooldownFor(0));
+        assertEquals(10 * MINUTE, registry.policyFor(rule("Frequent Sender Rule", RuleSensitivity.MEDIUM)).cooldownFor(0));
+        assertEquals(5 * MINUTE, registry.policyFor(rule("High Value Transfer Rule", RuleSensitivity.HIGH)).cooldownFor(0));
+        assertEquals(5 * MINUTE, registry.policyFor(rule("High Risk Country Transfer", RuleSensitivity.HIGH)).cooldownFor(0));
+        assertEquals(10 * MINUTE, registry.policyFor(rule("Manual Flag Rule", RuleSensitivity.HIGH)).cooldownFor(0));
+    }
+
+    @Test
+    void testCooldownFor_EscalationShortensCooldown() {
+        CooldownPolicyRegistry registry = new CooldownPolicyRegistry(Map.of(
+                "escalation.priority-score", "80",
+                "escalation.cooldown-ms", "300000"));
+        CooldownPolicy policy = registry.policyFor(rule("Manual Flag Rule", RuleSensitivity.HIGH));
+
+        // Verify
+        assertEquals(10 * MINUTE, policy.cooldownFor(79));
+        assertEquals(5 * MINUTE, policy.cooldownFor(80));
+    }
+
+    @Test
+    void testPolicyFor_AttachesPolicyToRuleUntilReload() {
+        CooldownPolicyRegistry registry = new CooldownPolicyRegistry(Map.of());
+        Rule rule = rule("Manual Flag Rule", RuleSensitivity.HIGH);
+
+        CooldownPolicy first = registry.policyFor(rule);
+        assertSame(first, rule.getCooldownPolicy());
+        assertSame(first, registry.policyFor(rule));
+
+        // Execute
+        registry.reload(Map.of("rules", "Manual Flag Rule=60000"));
+
+        // Verify
+        assertEquals(MINUTE, registry.policyFor(rule).cooldownFor(0));
+        assertNotSame(first, rule.getCooldownPolicy());
+    }
+
+    @Test
+    void testReload_InvalidValueKeepsCurrentPolicies() {
+        CooldownPolicyRegistry registry = new CooldownPolicyRegistry(Map.of());
+
+        // Execute / Verify
+        assertThrows(IllegalArgumentException.class, () -> registry.reload(Map.of("sensitivities", "EXTREME=1000")));
+        assertThrows(IllegalArgumentException.class, () -> registry.reload(Map.of("default-ms", "ten minutes")));
+        assertEquals(10 * MINUTE, registry.policyFor("Any Rule", null).cooldownFor(0));
+    }
+}
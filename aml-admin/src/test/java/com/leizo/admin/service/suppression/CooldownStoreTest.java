@@ -0,0 +1,138 @@
+package com.leizo.admin.service.suppression;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooldownStoreTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private AtomicLong clock;
+    private CooldownStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_700_000_000_000L);
+        store = new CooldownStore(4, 1000, 64, clock::get);
+    }
+
+    @Test
+    void testIsInCooldown_WithinAndAfterPeriod() {
+        store.register("Alice", "RULE-1", 10 * MINUTE);
+
+        assertTrue(store.isInCooldown("Alice", "RULE-1"));
+        assertFalse(store.isInCooldown("Alice", "RULE-2"));
+        assertFalse(store.isInCooldown("Bob", "RULE-1"));
+
+        clock.addAndGet(10 * MINUTE - 1);
+        assertTrue(store.isInCooldown("Alice", "RULE-1"));
+
+        clock.addAndGet(1);
+        assertFalse(store.isInCooldown("Alice", "RULE-1"));
+    }
+
+    @Test
+    void testKey_DoesNotDependOnConcatenation() {
+        // "ab" + "c" and "a" + "bc" concatenate to the same string but are different pairs
+        assertNotEquals(CooldownStore.key("ab", "c"), CooldownStore.key("a", "bc"));
+        assertEquals(CooldownStore.key("Alice", "RULE-1"), CooldownStore.key("Alice", "RULE-1"));
+        assertNotEquals(0L, CooldownStore.key(null, null));
+    }
+
+    @Test
+    void testEvictExpired_RemovesEntriesAndCountsEvictions() {
+        for (int i = 0; i < 1000; i++) {
+            store.register("sender-" + i, "RULE-1", (i % 2 == 0 ? 5 : 30) * MINUTE);
+        }
+        assertEquals(1000, store.size());
+
+        clock.addAndGet(6 * MINUTE);
+        long evicted = store.evictExpired();
+
+        assertEquals(500, evicted);
+        assertEquals(500, store.size());
+        assertFalse(store.isInCooldown("sender-0", "RULE-1"));
+        assertTrue(store.isInCooldown("sender-1", "RULE-1"));
+    }
+
+    @Test
+    void testEvictExpired_CooldownLongerThanWheelSpan() {
+        // Wheel spans 64 seconds; the entry must survive several rotations
+        store.register("Alice", "SANCTIONS", 30 * MINUTE);
+
+        for (int i = 0; i < 29; i++) {
+            clock.addAndGet(MINUTE);
+            store.evictExpired();
+        }
+        assertTrue(store.isInCooldown("Alice", "SANCTIONS"));
+
+        clock.addAndGet(MINUTE);
+        store.evictExpired();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRegister_RestartExtendsCooldown() {
+        store.register("Alice", "RULE-1", 5 * MINUTE);
+        clock.addAndGet(4 * MINUTE);
+        store.register("Alice", "RULE-1", 5 * MINUTE);
+
+        clock.addAndGet(2 * MINUTE);
+        store.evictExpired();
+
+        assertTrue(store.isInCooldown("Alice", "RULE-1"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testEvictExpired_ShrinksAfterBurst() {
+        for (int i = 0; i < 10_000; i++) {
+            store.register("sender-" + i, "RULE-1", MINUTE);
+        }
+        long capacityAtPeak = (long) store.getStats().get("capacity");
+
+        clock.addAndGet(2 * MINUTE);
+        store.evictExpired();
+        store.evictExpired();
+
+        Long capacityAfter = (Long) store.getStats().get("capacity");
+        assertEquals(0, store.size());
+        assertTrue(capacityAfter < capacityAtPeak);
+        assertEquals(10_000L, store.getStats().get("evictions"));
+    }
+
+    @Test
+    void testDrain_CountsHandoffsApartFromEvictions() {
+        store.register("Alice", "RULE-1", 10 * MINUTE);
+        store.register("Alice", "RULE-2", MINUTE);
+        store.register("Bob", "RULE-1", 10 * MINUTE);
+        clock.addAndGet(MINUTE + 500);
+        int alice = CooldownStore.senderPrefix("Alice");
+
+        // Execute
+        Map<Long, Long> drained = store.drain(key -> CooldownStore.senderPrefixOf(key) == alice);
+        store.clear();
+
+        // Verify: the lapsed Alice cooldown is the only eviction; Bob's is cleared, not evicted
+        assertEquals(1, drained.size());
+        assertEquals(1L, store.getStats().get("handedOff"));
+        assertEquals(1L, store.getStats().get("evictions"));
+    }
+
+    @Test
+    void testSnapshotAndClear() {
+        store.register("Alice", "RULE-1", 10 * MINUTE);
+        clock.addAndGet(MINUTE);
+
+        assertEquals(9 * MINUTE, store.snapshot().get(Long.toHexString(CooldownStore.key("Alice", "RULE-1"))));
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertFalse(store.isInCooldown("Alice", "RULE-1"));
+    }
+}
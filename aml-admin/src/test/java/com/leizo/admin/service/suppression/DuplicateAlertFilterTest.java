@@ -0,0 +1,89 @@
+package com.leizo.admin.service.suppression;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateAlertFilterTest {
+
+    private static final long WINDOW = 60_000L;
+
+    private AtomicLong clock;
+    private DuplicateAlertFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_700_000_000_000L);
+        filter = new DuplicateAlertFilter(1000, 0.01, WINDOW, clock::get);
+    }
+
+    @Test
+    void testCheckAndAdd_DetectsDuplicate() {
+        assertFalse(filter.checkAndAdd(1L, 2L));
+        assertTrue(filter.checkAndAdd(1L, 2L));
+        assertFalse(filter.checkAndAdd(3L, 4L));
+    }
+
+    @Test
+    void testMightContain_DoesNotRecord() {
+        assertFalse(filter.mightContain(1L, 2L));
+        assertFalse(filter.mightContain(1L, 2L));
+        assertFalse(filter.checkAndAdd(1L, 2L));
+        assertTrue(filter.mightContain(1L, 2L));
+    }
+
+    @Test
+    void testCheckAndAdd_HexDigest() {
+        String digest = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+        assertFalse(filter.checkAndAdd(digest));
+        assertTrue(filter.mightContain(digest));
+        assertFalse(filter.mightContain("0" + digest.substring(1)));
+    }
+
+    @Test
+    void testWindowRotation_ForgetsAfterTwoWindows() {
+        filter.checkAndAdd(1L, 2L);
+
+        // Still remembered during the following window
+        clock.addAndGet(WINDOW + 1);
+        assertTrue(filter.mightContain(1L, 2L));
+
+        // Forgotten once its window is two rotations old
+        clock.addAndGet(WINDOW);
+        assertFalse(filter.mightContain(1L, 2L));
+    }
+
+    @Test
+    void testExactTable_NoFalsePositivesWithinCapacity() {
+        for (long i = 1; i <= 1000; i++) {
+            assertFalse(filter.checkAndAdd(i * 0x9E3779B97F4A7C15L, i));
+        }
+        int falsePositives = 0;
+        for (long i = 1001; i <= 11_000; i++) {
+            if (filter.mightContain(i * 0x9E3779B97F4A7C15L, i)) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0, falsePositives);
+        assertEquals(0L, filter.getStats().get("probabilisticAnswers"));
+    }
+
+    @Test
+    void testSaturation_FallsBackToBloomWithBoundedFalsePositives() {
+        for (long i = 1; i <= 1200; i++) {
+            filter.checkAndAdd(i * 0x9E3779B97F4A7C15L, i * 31);
+        }
+        int falsePositives = 0;
+        for (long i = 1201; i <= 11_200; i++) {
+            if (filter.mightContain(i * 0x9E3779B97F4A7C15L, i * 31)) {
+                falsePositives++;
+            }
+        }
+        // Sized for 1000 at 1%; 20% over capacity the expected rate is about 2.3%
+        assertTrue(falsePositives < 500, "false positives: " + falsePositives);
+    }
+}
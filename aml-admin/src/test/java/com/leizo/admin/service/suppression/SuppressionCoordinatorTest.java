@@ -0,0 +1,124 @@
+package com.leizo.admin.service.suppression;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuppressionCoordinatorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private AtomicLong clock;
+    private CountingSharedBackend sharedBackend;
+    private SuppressionCoordinator nodeA;
+    private SuppressionCoordinator nodeB;
+
+    /**
+     * Embedded stand-in for the shared database backend, visible to every coordinator using it
+     */
+    private static class CountingSharedBackend extends InMemorySuppressionBackend {
+        long acquireCalls;
+        boolean failing;
+
+        CountingSharedBackend(CooldownStore store) {
+            super(store);
+        }
+
+        @Override
+        public long tryAcquire(int shard, long key, long ttlMs) {
+            if (failing) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            acquireCalls++;
+            return super.tryAcquire(shard, key, ttlMs);
+        }
+
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_700_000_000_000L);
+        sharedBackend = new CountingSharedBackend(new CooldownStore(4, 1000, 64, clock::get));
+        nodeA = new SuppressionCoordinator(sharedBackend, 16, 30_000, clock::get);
+        nodeB = new SuppressionCoordinator(sharedBackend, 16, 30_000, clock::get);
+    }
+
+    @Test
+    void testTryStartCooldown_OnlyOneInstanceWins() {
+        assertTrue(nodeA.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE));
+        assertFalse(nodeB.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE));
+        assertTrue(nodeB.isInCooldown("Alice", "RULE-1"));
+
+        clock.addAndGet(10 * MINUTE);
+        assertTrue(nodeB.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE));
+    }
+
+    @Test
+    void testClaimAlert_DuplicateAcrossInstances() {
+        assertTrue(nodeA.claimAlert("Alice", 11L, 22L, MINUTE));
+        assertFalse(nodeB.claimAlert("Alice", 11L, 22L, MINUTE));
+        assertTrue(nodeB.isAlertClaimed("Alice", 11L, 22L));
+        assertTrue(nodeB.claimAlert("Alice", 11L, 23L, MINUTE));
+    }
+
+    @Test
+    void testNearCache_AvoidsBackendRoundTrips() {
+        nodeA.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE);
+        long callsAfterClaim = sharedBackend.acquireCalls;
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(nodeA.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE));
+        }
+
+        assertEquals(callsAfterClaim, sharedBackend.acquireCalls);
+        assertEquals(100L, nodeA.getStats().get("nearCacheHits"));
+    }
+
+    @Test
+    void testNearCache_CappedToBoundStaleness() {
+        nodeA.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE);
+        sharedBackend.clear();
+
+        // Still served from the near-cache until the cap elapses
+        assertFalse(nodeA.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE));
+        clock.addAndGet(30_000);
+        assertTrue(nodeA.tryStartCooldown("Alice", "RULE-1", 10 * MINUTE));
+    }
+
+    @Test
+    void testBackendFailure_FailsOpen() {
+        sharedBackend.failing = true;
+
+        assertTrue(nodeA.claimAlert("Alice", 11L, 22L, MINUTE));
+        assertTrue(nodeA.tryStartCooldown("Alice", "RULE-1", MINUTE));
+        assertEquals(2L, nodeA.getStats().get("backendFailures"));
+    }
+
+    @Test
+    void testShardOf_StableAndInRange() {
+        for (int i = 0; i < 1000; i++) {
+            int shard = nodeA.shardOf("sender-" + i);
+            assertTrue(shard >= 0 && shard < 16);
+            assertEquals(shard, nodeB.shardOf("sender-" + i));
+        }
+    }
+
+    @Test
+    void testMemoryBackend_ClaimAlertDefersToLocalFilter() {
+        SuppressionCoordinator local = new SuppressionCoordinator(
+                new InMemorySuppressionBackend(new CooldownStore(4, 1000, 64, clock::get)), 16, 30_000, clock::get);
+
+        assertTrue(local.claimAlert("Alice", 11L, 22L, MINUTE));
+        assertTrue(local.claimAlert("Alice", 11L, 22L, MINUTE));
+        assertTrue(local.tryStartCooldown("Alice", "RULE-1", MINUTE));
+        assertFalse(local.tryStartCooldown("Alice", "RULE-1", MINUTE));
+    }
+}
@@ -0,0 +1,59 @@
+package com.leizo.admin.util;
+
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertFingerprintTest {
+
+    private static Transaction txn(String sender, String receiver, String amount) {
+        return new Transaction(sender, receiver, new BigDecimal(amount), "USD", "US", null);
+    }
+
+    private static long[] fingerprint(Transaction transaction, String reason) {
+        AlertFingerprint fp = AlertFingerprint.compute(transaction, reason);
+        return new long[]{fp.high(), fp.low()};
+    }
+
+    @Test
+    void testCompute_Deterministic() {
+        long[] first = fingerprint(txn("Alice", "Bob", "1000.00"), "Sanctions match");
+        long[] second = fingerprint(txn("Alice", "Bob", "1000.00"), "Sanctions match");
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void testCompute_ReasonNormalized() {
+        long[] expected = fingerprint(txn("Alice", "Bob", "1000.00"), "sanctions match");
+
+        assertArrayEquals(expected, fingerprint(txn("Alice", "Bob", "1000.00"), "  Sanctions MATCH \n"));
+        assertArrayEquals(expected, fingerprint(txn("Alice", "Bob", "1000"), "sanctions match"));
+    }
+
+    @Test
+    void testCompute_FieldBoundariesMatter() {
+        // "AliceB" + "ob" and "Alice" + "Bob" concatenate to the same string
+        assertFalse(Arrays.equals(
+                fingerprint(txn("AliceB", "ob", "1000.00"), "reason"),
+                fingerprint(txn("Alice", "Bob", "1000.00"), "reason")));
+        assertFalse(Arrays.equals(
+                fingerprint(txn("Alice", "Bob", "1000.00"), "reason"),
+                fingerprint(txn("Alice", "Bob", "1000.01"), "reason")));
+        assertFalse(Arrays.equals(
+                fingerprint(new Transaction(null, "Bob", BigDecimal.ONE, "USD", "US", null), "reason"),
+                fingerprint(new Transaction("", "Bob", BigDecimal.ONE, "USD", "US", null), "reason")));
+    }
+
+    @Test
+    void testGenerateAlertHash_StableSha256Hex() {
+        String hash = AlertUtils.generateAlertHash(txn("Alice", "Bob", "1000.00"), "Sanctions match");
+
+        assertEquals(64, hash.length());
+        assertEquals(hash, AlertUtils.generateAlertHash(txn("Alice", "Bob", "1000.00"), " sanctions match "));
+    }
+}
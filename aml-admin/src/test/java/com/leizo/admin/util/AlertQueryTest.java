@@ -0,0 +1,50 @@
+package com.leizo.admin.util;
+
+import com.leizo.pojo.entity.Alert;
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertQueryTest {
+
+    private static Alert alert(String sender, String priorityLevel, int priorityScore) {
+        Alert alert = new Alert();
+        alert.setTransaction(new Transaction(sender, "Bob", null, null, null, null));
+        alert.setPriorityLevel(priorityLevel);
+        alert.setPriorityScore(priorityScore);
+        alert.setReason("Rule matched: Large amount");
+        return alert;
+    }
+
+    @Test
+    void testApply_FiltersOnTheTransactionSender() {
+        List<Alert> alerts = List.of(alert("Alice", "HIGH", 80), alert("alice", "LOW", 20), alert("David", "HIGH", 90));
+
+        // Execute
+        List<Alert> result = AlertQuery.create().sender("ALICE").priorityLevel("high").apply(alerts);
+
+        // Verify
+        assertEquals(1, result.size());
+        assertEquals(80, result.get(0).getPriorityScore());
+    }
+
+    @Test
+    void testToSql_FiltersSenderThroughTheJoinedTransaction() {
+        AlertQuery query = AlertQuery.create()
+                .sender("Alice")
+                .reasonContains("large")
+                .orderByPriority(true)
+                .limit(10);
+
+        // Execute
+        String sql = query.toSql("SELECT a.* FROM " + AlertQuery.FROM);
+
+        // Verify
+        assertEquals("SELECT a.* FROM alerts a LEFT JOIN transactions t ON t.id = a.transaction_id"
+                + " WHERE LOWER(t.sender) = ? AND LOWER(a.reason) LIKE ? ORDER BY a.priority_score DESC NULLS LAST LIMIT ?", sql);
+        assertEquals(List.of("alice", "%large%", 10), query.sqlArgs());
+    }
+}
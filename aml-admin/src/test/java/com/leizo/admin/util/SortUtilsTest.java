@@ -0,0 +1,62 @@
+package com.leizo.admin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortUtilsTest {
+
+    private record Item(String name, int key) {
+    }
+
+    @Test
+    void testSortByIntKey_StableInBothDirectionsWithMissingKeysLast() {
+        Item[] items = {
+                new Item("a", 2), new Item("b", SortUtils.MISSING_KEY), new Item("c", -5),
+                new Item("d", 2), new Item("e", Integer.MAX_VALUE), new Item("f", 7)
+        };
+
+        // Execute
+        Item[] ascending = SortUtils.sortByIntKey(items.clone(), Item::key, false);
+        Item[] descending = SortUtils.sortByIntKey(items.clone(), Item::key, true);
+
+        // Verify
+        assertEquals(List.of("c", "a", "d", "f", "e", "b"), Arrays.stream(ascending).map(Item::name).toList());
+        assertEquals(List.of("e", "f", "a", "d", "c", "b"), Arrays.stream(descending).map(Item::name).toList());
+    }
+
+    @Test
+    void testSortByIntKey_MatchesComparatorSortOnLargeInput() {
+        Random random = new Random(42);
+        Item[] items = new Item[50_000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(String.valueOf(i), random.nextInt(1000) - 500);
+        }
+        Item[] expected = items.clone();
+        Arrays.sort(expected, Comparator.comparingInt(Item::key).reversed());
+
+        // Execute
+        Item[] sorted = SortUtils.sortByIntKey(items, Item::key, true);
+
+        // Verify
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    void testTopK_ReturnsLimitInOrder() {
+        List<Integer> values = List.of(5, 1, 9, 3, 7, 9, 2);
+
+        // Execute
+        List<Integer> top = SortUtils.topK(values, Comparator.reverseOrder(), 3);
+
+        // Verify
+        assertEquals(List.of(9, 9, 7), top);
+        assertEquals(7, SortUtils.topK(values, Comparator.naturalOrder(), 100).size());
+        assertTrue(SortUtils.topK(values, Comparator.naturalOrder(), 0).isEmpty());
+    }
+}
@@ -135,6 +135,14 @@ class TransactionFSSUtilTest {
         assertEquals(4, sorted.length);
     }
 
+    @Test
+    void testTopByAmount_ReturnsLargestFirst() {
+        List<Transaction> top = TransactionFSS.topByAmount(transactions, 2);
+        assertEquals(2, top.size());
+        assertEquals(new BigDecimal("20000"), top.get(0).getAmount());
+        assertEquals(new BigDecimal("5000"), top.get(1).getAmount());
+    }
+
     @Test
     void testFilter_EmptyList() {
         List<Transaction> emptyList = new ArrayList<>();
@@ -0,0 +1,89 @@
+package com.leizo.admin.util;
+
+import com.leizo.enums.RiskScore;
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionQueryTest {
+
+    private List<Transaction> transactions;
+
+    @BeforeEach
+    void setUp() {
+        transactions = new ArrayList<>();
+        transactions.add(transaction("Alice", "Bob", "1000", "USA", RiskScore.LOW));
+        transactions.add(transaction("alice", "Charlie", "5000", "USA", RiskScore.HIGH));
+        transactions.add(transaction("David", "Bobby", "20000", "Canada", RiskScore.MEDIUM));
+        transactions.add(transaction("Alice", "Bo_b", "7000", "usa", null));
+    }
+
+    private static Transaction transaction(String sender, String receiver, String amount, String country, RiskScore risk) {
+        Transaction txn = new Transaction(sender, receiver, new BigDecimal(amount), "USD", country, null);
+        txn.setRiskScore(risk);
+        return txn;
+    }
+
+    @Test
+    void testApply_CombinesFilterSearchSortAndLimit() {
+        TransactionQuery query = TransactionQuery.create()
+                .sender("ALICE")
+                .country("USA")
+                .amountBetween(new BigDecimal("2000"), null)
+                .receiverContains("b")
+                .orderByAmount(true)
+                .limit(1);
+
+        // Execute
+        List<Transaction> result = query.apply(transactions);
+
+        // Verify
+        assertEquals(1, result.size());
+        assertEquals("Bo_b", result.get(0).getReceiver());
+    }
+
+    @Test
+    void testApply_UnorderedQueryStopsAtLimit() {
+        // Execute
+        List<Transaction> result = TransactionQuery.create().country("usa").limit(2).apply(transactions);
+
+        // Verify
+        assertEquals(List.of(transactions.get(0), transactions.get(1)), result);
+    }
+
+    @Test
+    void testApply_RiskOrderPutsMissingScoresLast() {
+        // Execute
+        List<Transaction> result = TransactionQuery.create().orderByRiskScore(true).apply(transactions);
+
+        // Verify
+        assertEquals(RiskScore.HIGH, result.get(0).getRiskScore());
+        assertEquals(RiskScore.LOW, result.get(2).getRiskScore());
+        assertNull(result.get(3).getRiskScore());
+    }
+
+    @Test
+    void testToSql_PushesConditionsOrderAndLimitDown() {
+        TransactionQuery query = TransactionQuery.create()
+                .sender("Alice")
+                .amountBetween(BigDecimal.TEN, null)
+                .receiverContains("50%_off")
+                .orderByAmount(false)
+                .limit(25);
+
+        // Execute
+        String sql = query.toSql("SELECT * FROM transactions");
+
+        // Verify
+        assertEquals("SELECT * FROM transactions WHERE LOWER(sender) = ? AND amount >= ? AND LOWER(receiver) LIKE ?"
+                + " ORDER BY amount ASC NULLS LAST LIMIT ?", sql);
+        assertEquals(List.of("alice", BigDecimal.TEN, "%50\\%\\_off%", 25), query.sqlArgs());
+        assertEquals("SELECT * FROM transactions", TransactionQuery.create().toSql("SELECT * FROM transactions"));
+    }
+}
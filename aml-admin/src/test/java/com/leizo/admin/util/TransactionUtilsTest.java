@@ -0,0 +1,67 @@
+package com.leizo.admin.util;
+
+import com.leizo.pojo.entity.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionUtilsTest {
+
+    private static Transaction transaction() {
+        return new Transaction("Alice", "Bob", BigDecimal.TEN, "USD", "USA", null);
+    }
+
+    @Test
+    void testHasManualFlag_ReadsTypedColumnWrittenThroughMetadata() {
+        Transaction flagged = transaction();
+        Transaction legacy = transaction();
+        Transaction unflagged = transaction();
+
+        // Execute
+        flagged.getMetadata().put("manualFlag", "TRUE");
+        legacy.getMetadata().put("flagged", "true");
+        unflagged.getMetadata().put("manualFlag", "null");
+
+        // Verify
+        assertTrue(TransactionUtils.hasManualFlag(flagged));
+        assertEquals(Boolean.TRUE, flagged.getManualFlag());
+        assertTrue(TransactionUtils.hasManualFlag(legacy));
+        assertEquals("true", legacy.getMetadata().get("flagged"));
+        assertFalse(TransactionUtils.hasManualFlag(unflagged));
+        assertFalse(TransactionUtils.hasManualFlag(transaction()));
+    }
+
+    @Test
+    void testSetMetadata_SplitsPromotedKeysFromExtraMetadata() {
+        Transaction txn = transaction();
+        txn.setTimestamp(LocalDateTime.of(2025, 7, 25, 14, 22, 30));
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("transactionId", "TXN-001");
+        metadata.put("senderAccount", "ACC-001");
+        metadata.put("receiverAccount", null);
+        metadata.put("timestamp", "2020-01-01T00:00:00Z");
+        metadata.put("description", "Salary payment");
+
+        // Execute
+        txn.setMetadata(metadata);
+
+        // Verify
+        assertEquals("TXN-001", txn.getExternalId());
+        assertEquals("ACC-001", txn.getSenderAccount());
+        assertNull(txn.getReceiverAccount());
+        // The timestamp column wins over the raw metadata value
+        assertEquals(LocalDateTime.of(2025, 7, 25, 14, 22, 30), txn.getTimestamp());
+        assertEquals(Map.of("transactionId", "TXN-001", "senderAccount", "ACC-001",
+                "timestamp", "2025-07-25T14:22:30", "description", "Salary payment"), txn.getMetadata());
+
+        // Clearing leaves only the timestamp, which is a column of its own
+        txn.setMetadata(null);
+        assertEquals(Map.of("timestamp", "2025-07-25T14:22:30"), txn.getMetadata());
+        assertNull(txn.getExternalId());
+    }
+}
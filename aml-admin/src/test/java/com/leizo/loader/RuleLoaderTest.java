@@ -0,0 +1,73 @@
+package com.leizo.loader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leizo.admin.service.rules.RuleDefinitionException;
+import com.leizo.admin.service.rules.SenderWindowStore;
+import com.leizo.pojo.entity.Rule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RuleLoader ruleLoader;
+    private final List<List<Rule>> notifications = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ruleLoader = new RuleLoader(new SenderWindowStore(60, 60, System::currentTimeMillis));
+        ruleLoader.addRulesListener(notifications::add);
+    }
+
+    @Test
+    void testLoadFromJson_BundledRulesCompile() {
+        // Execute
+        ruleLoader.loadFromJson("classpath:rules.json");
+
+        // Verify
+        assertEquals(8, ruleLoader.getRuleCount());
+        assertNull(ruleLoader.getStatus().get("lastError"));
+    }
+
+    @Test
+    void testReload_SwapsRulesFromFile() throws Exception {
+        Path file = tempDir.resolve("rules.json");
+        Files.writeString(file, "[{\"description\": \"Big\", \"sensitivity\": \"HIGH\", \"when\": {\"field\": \"amount\", \"op\": \"gt\", \"value\": 100}}]");
+        ruleLoader.reload(file.toString());
+
+        Files.writeString(file, "[{\"description\": \"Bigger\", \"sensitivity\": \"HIGH\", \"when\": {\"field\": \"amount\", \"op\": \"gt\", \"value\": 1000}}," +
+                "{\"description\": \"Flagged\", \"sensitivity\": \"HIGH\", \"when\": {\"predicate\": \"manual_flag\"}}]");
+
+        // Execute
+        ruleLoader.reload(file.toString());
+
+        // Verify
+        assertEquals(List.of("Bigger", "Flagged"), ruleLoader.getRules().stream().map(Rule::getDescription).toList());
+        assertEquals(2, notifications.size());
+    }
+
+    @Test
+    void testReplaceRules_InvalidSetKeepsActiveRules() throws Exception {
+        ruleLoader.loadFromJson("classpath:rules.json");
+        List<Rule> before = ruleLoader.getRules();
+
+        // Execute
+        assertThrows(RuleDefinitionException.class, () -> ruleLoader.replaceRules(new ObjectMapper().readTree(
+                "[{\"description\": \"Broken\", \"sensitivity\": \"HIGH\", \"when\": {\"field\": \"iban\", \"op\": \"eq\", \"value\": \"X\"}}]")));
+
+        // Verify
+        assertEquals(before, ruleLoader.getRules());
+        assertEquals(1, notifications.size());
+        assertEquals(1L, ruleLoader.getStatus().get("reloadFailures"));
+    }
+}
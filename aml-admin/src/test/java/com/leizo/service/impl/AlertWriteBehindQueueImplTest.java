@@ -0,0 +1,206 @@
+package com.leizo.service.impl;
+
+import com.leizo.admin.service.analytics.DashboardAggregates;
+import com.leizo.admin.service.stream.AlertStreamHub;
+import com.leizo.pojo.entity.Alert;
+import com.leizo.service.CaseManager;
+import com.leizo.service.LoggerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AlertWriteBehindQueueImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private DashboardAggregates dashboardAggregates;
+    private AlertStreamHub alertStreamHub;
+    private AlertWriteBehindQueueImpl writeBehindQueue;
+    private BlockingQueue<Alert> queue;
+    private Path deadLetters;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        dashboardAggregates = mock(DashboardAggregates.class);
+        alertStreamHub = mock(AlertStreamHub.class);
+        writeBehindQueue = new AlertWriteBehindQueueImpl(jdbcTemplate, mock(PlatformTransactionManager.class),
+                mock(LoggerService.class), mock(CaseManager.class), dashboardAggregates, alertStreamHub);
+
+        // Wire the queue without starting the flusher or the journal, so flush() runs on the test thread
+        queue = new ArrayBlockingQueue<>(10);
+        deadLetters = tempDir.resolve("dead-letter.ndjson");
+        ReflectionTestUtils.setField(writeBehindQueue, "queue", queue);
+        ReflectionTestUtils.setField(writeBehindQueue, "fanOut", new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(10)));
+        ReflectionTestUtils.setField(writeBehindQueue, "batchSize", 10);
+        ReflectionTestUtils.setField(writeBehindQueue, "deadLetterPath", deadLetters.toString());
+    }
+
+    private static Alert alert(String alertId) {
+        Alert alert = new Alert();
+        alert.setAlertId(alertId);
+        alert.setReason("Rule matched: Large amount");
+        alert.setTimestamp(LocalDateTime.of(2025, 7, 25, 14, 22, 30));
+        return alert;
+    }
+
+    /**
+     * Stubs the insert to return every alert id in the statement not in skipped, as RETURNING would
+     */
+    private void returnInsertedRows(String failingAlertId, RuntimeException failure, String... skipped) {
+        doAnswer(invocation -> {
+            // The statement parameters follow the SQL and the handler as varargs
+            Object[] args = Arrays.copyOfRange(invocation.getArguments(), 2, invocation.getArguments().length);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            // Ten parameters per row, alert_id first
+            for (int i = 0; i < args.length; i += 10) {
+                if (args[i].equals(failingAlertId)) {
+                    throw failure;
+                }
+            }
+            for (int i = 0; i < args.length; i += 10) {
+                if (!List.of(skipped).contains(args[i])) {
+                    ResultSet row = mock(ResultSet.class);
+                    when(row.getString("alert_id")).thenReturn((String) args[i]);
+                    when(row.getInt("id")).thenReturn(i / 10 + 1);
+                    handler.processRow(row);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private void failInsertsContaining(String alertId, RuntimeException failure) {
+        returnInsertedRows(alertId, failure);
+    }
+
+    @Test
+    void testFlush_DeadLettersRowsThatFailOnTheirOwn() throws Exception {
+        failInsertsContaining("ALERT-2", new DataIntegrityViolationException("value too long"));
+        queue.addAll(List.of(alert("ALERT-1"), alert("ALERT-2"), alert("ALERT-3")));
+
+        // Execute
+        int committed = writeBehindQueue.flush();
+
+        // Verify
+        assertEquals(2, committed);
+        assertTrue(queue.isEmpty());
+        List<String> entries = Files.readAllLines(deadLetters, StandardCharsets.UTF_8);
+        assertEquals(1, entries.size());
+        assertTrue(entries.get(0).contains("\"alertId\":\"ALERT-2\""));
+        assertTrue(entries.get(0).contains("value too long"));
+        Map<String, Object> stats = writeBehindQueue.getQueueStats();
+        assertEquals(2L, stats.get("totalCommitted"));
+        assertEquals(1L, stats.get("totalDeadLettered"));
+    }
+
+    @Test
+    void testFlush_KeepsBatchQueuedOnConnectionFailure() {
+        failInsertsContaining("ALERT-1", new CannotGetJdbcConnectionException("connection refused"));
+        queue.addAll(List.of(alert("ALERT-1"), alert("ALERT-2")));
+
+        // Execute
+        int committed = writeBehindQueue.flush();
+
+        // Verify
+        assertEquals(0, committed);
+        assertEquals(2, queue.size());
+        verifyNoInteractions(alertStreamHub);
+        assertFalse(Files.exists(deadLetters));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void testFlush_DeadLettersRetriesThatNoLongerFitTheQueue() throws Exception {
+        queue = new ArrayBlockingQueue<>(2);
+        ReflectionTestUtils.setField(writeBehindQueue, "queue", queue);
+        queue.addAll(List.of(alert("ALERT-1"), alert("ALERT-2")));
+        // Producers fill the drained queue while the failing insert is in flight
+        doAnswer(invocation -> {
+            queue.addAll(List.of(alert("ALERT-3"), alert("ALERT-4")));
+            throw new CannotGetJdbcConnectionException("connection refused");
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        // Execute
+        int committed = writeBehindQueue.flush();
+
+        // Verify
+        assertEquals(0, committed);
+        assertEquals(List.of("ALERT-3", "ALERT-4"), queue.stream().map(Alert::getAlertId).toList());
+        List<String> entries = Files.readAllLines(deadLetters, StandardCharsets.UTF_8);
+        assertEquals(2, entries.size());
+        assertTrue(entries.get(0).contains("\"alertId\":\"ALERT-1\""));
+        Map<String, Object> stats = writeBehindQueue.getQueueStats();
+        assertEquals(2L, stats.get("totalRequeueFailures"));
+        assertEquals(2L, stats.get("totalDeadLettered"));
+    }
+
+    @Test
+    void testFlush_CountsAndStreamsOnlyWrittenRows() {
+        // ALERT-2 is already stored, so ON CONFLICT DO NOTHING skips it and RETURNING leaves it out
+        returnInsertedRows(null, null, "ALERT-2");
+        Alert stored = alert("ALERT-2");
+        queue.addAll(List.of(alert("ALERT-1"), stored, alert("ALERT-3")));
+
+        // Execute
+        int committed = writeBehindQueue.flush();
+
+        // Verify
+        assertEquals(3, committed);
+        verify(dashboardAggregates, timeout(1000).times(2)).recordAlert(any(Alert.class));
+        verify(dashboardAggregates, never()).recordAlert(stored);
+        verify(alertStreamHub, timeout(1000).times(2)).publish(any(Alert.class));
+        verify(alertStreamHub, never()).publish(stored);
+        assertEquals(1L, writeBehindQueue.getQueueStats().get("totalDuplicates"));
+        assertNull(stored.getId());
+        verify(alertStreamHub).publish(argThat(alert -> "ALERT-3".equals(alert.getAlertId()) && alert.getId() == 3));
+    }
+
+    @Test
+    void testEnqueue_RejectsAlertsMissingRequiredColumns() throws Exception {
+        Alert noTimestamp = alert("ALERT-1");
+        noTimestamp.setTimestamp(null);
+        Alert longId = alert("A".repeat(101));
+
+        // Execute
+        boolean acceptedNoTimestamp = writeBehindQueue.enqueue(noTimestamp);
+        boolean acceptedLongId = writeBehindQueue.enqueue(longId);
+
+        // Verify
+        assertFalse(acceptedNoTimestamp);
+        assertFalse(acceptedLongId);
+        assertTrue(queue.isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+        List<String> entries = Files.readAllLines(deadLetters, StandardCharsets.UTF_8);
+        assertEquals(2, entries.size());
+        assertTrue(entries.get(0).contains("missing timestamp"));
+        assertTrue(entries.get(1).contains("alert_id longer than 100 characters"));
+        assertEquals(2L, writeBehindQueue.getQueueStats().get("totalRejected"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.leizo.model;
+
+/**
+ * Resolved cooldown policy of a rule
+ *
+ * Immutable; a rule keeps the policy it was resolved with together with the generation of the
+ * policy configuration, so a configuration reload is picked up on the rule's next alert.
+ */
+public class CooldownPolicy {
+
+    private final long generation;
+    private final long cooldownMs;
+    private final int escalationScore;
+    private final long escalatedCooldownMs;
+    private final String source;
+
+    public CooldownPolicy(long generation, long cooldownMs, int escalationScore, long escalatedCooldownMs, String source) {
+        this.generation = generation;
+        this.cooldownMs = cooldownMs;
+        this.escalationScore = escalationScore;
+        this.escalatedCooldownMs = escalatedCooldownMs;
+        this.source = source;
+    }
+
+    /**
+     * Cooldown to apply for an alert with the given priority score; escalated alerts never
+     * wait longer than the escalation cooldown
+     */
+    public long cooldownFor(int priorityScore) {
+        if (escalationScore > 0 && priorityScore >= escalationScore) {
+            return Math.min(cooldownMs, escalatedCooldownMs);
+        }
+        return cooldownMs;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getCooldownMs() {
+        return cooldownMs;
+    }
+
+    public int getEscalationScore() {
+        return escalationScore;
+    }
+
+    public long getEscalatedCooldownMs() {
+        return escalatedCooldownMs;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return "CooldownPolicy{cooldownMs=" + cooldownMs + ", escalationScore=" + escalationScore +
+                ", escalatedCooldownMs=" + escalatedCooldownMs + ", source='" + source + "'}";
+    }
+}
@@ -1,6 +1,7 @@
 package com.leizo.pojo.entity;
 
 import com.leizo.enums.RuleSensitivity;
+import com.leizo.model.CooldownPolicy;
 
 import java.math.BigDecimal;
 import java.util.Set;
@@ -13,6 +14,10 @@ public class Rule {
     private final RuleSensitivity sensitivity;
     private final BiPredicate<Transaction, BigDecimal> condition;
     private final Set<String> tags;
+    // Attached by the cooldown policy registry when the rule first alerts or the policies are reloaded
+    private volatile CooldownPolicy cooldownPolicy;
+    // Relative cost of evaluating the condition; cheaper rules of equal sensitivity are tried first
+    private int evaluationCost = 1;
 
     public Rule(String description, RuleSensitivity sensitivity, BiPredicate<Transaction, BigDecimal> condition) {
         this.description = description;
@@ -56,6 +61,22 @@ public class Rule {
         }
     }
 
+    public int getEvaluationCost() {
+        return evaluationCost;
+    }
+
+    public void setEvaluationCost(int evaluationCost) {
+        this.evaluationCost = evaluationCost;
+    }
+
+    public CooldownPolicy getCooldownPolicy() {
+        return cooldownPolicy;
+    }
+
+    public void setCooldownPolicy(CooldownPolicy cooldownPolicy) {
+        this.cooldownPolicy = cooldownPolicy;
+    }
+
     @Override
     public String toString() {
         return "Rule{" +
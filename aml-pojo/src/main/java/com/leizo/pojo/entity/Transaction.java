@@ -2,15 +2,29 @@ package com.leizo.pojo.entity;
 
 import com.leizo.enums.RiskScore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Entity
 @Table(name = "transactions")
 public class Transaction {
 
+    private static final List<String> PROMOTED_METADATA_KEYS =
+            List.of("transactionId", "senderAccount", "receiverAccount", "manualFlag", "timestamp");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -30,11 +44,26 @@ public class Transaction {
     @Column(name = "country", nullable = false, length = 100)
     private String country;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "transaction_metadata", joinColumns = @JoinColumn(name = "transaction_id"))
-    @MapKeyColumn(name = "meta_key")
-    @Column(name = "meta_value")
-    private Map<String, String> metadata = new HashMap<>();
+    // Metadata read on hot paths, promoted from the free-form map to typed columns
+    @Column(name = "external_id", length = 100)
+    private String externalId;
+
+    @Column(name = "sender_account", length = 100)
+    private String senderAccount;
+
+    @Column(name = "receiver_account", length = 100)
+    private String receiverAccount;
+
+    @Column(name = "manual_flag")
+    private Boolean manualFlag;
+
+    // Remaining metadata, kept in the transaction row rather than one row per key
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "extra_metadata", columnDefinition = "jsonb")
+    private Map<String, String> extraMetadata;
+
+    @Transient
+    private final Map<String, String> metadata = new MetadataView();
 
     @Enumerated(EnumType.STRING)
     @Column(name = "risk_score", length = 20)
@@ -43,6 +72,10 @@ public class Transaction {
     @Column(name = "dob", length = 20)
     private String dob;
 
+    // Partition key for the time-partitioned transactions table
+    @Column(name = "timestamp")
+    private LocalDateTime timestamp;
+
     // Constructors
     public Transaction() {}
 
@@ -112,12 +145,51 @@ public class Transaction {
         this.riskScore = riskScore;
     }
 
+    /**
+     * Metadata as a single map. The promoted keys (transactionId, senderAccount, receiverAccount,
+     * manualFlag, timestamp) read and write their typed columns; any other key is kept in the
+     * extra_metadata JSON column. The legacy "flagged" key also sets manualFlag when it is unset.
+     */
     public Map<String, String> getMetadata() {
         return metadata;
     }
 
     public void setMetadata(Map<String, String> metadata) {
-        this.metadata = metadata;
+        Map<String, String> copy = metadata != null ? new HashMap<>(metadata) : Map.of();
+        this.metadata.clear();
+        this.metadata.putAll(copy);
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public void setExternalId(String externalId) {
+        this.externalId = externalId;
+    }
+
+    public String getSenderAccount() {
+        return senderAccount;
+    }
+
+    public void setSenderAccount(String senderAccount) {
+        this.senderAccount = senderAccount;
+    }
+
+    public String getReceiverAccount() {
+        return receiverAccount;
+    }
+
+    public void setReceiverAccount(String receiverAccount) {
+        this.receiverAccount = receiverAccount;
+    }
+
+    public Boolean getManualFlag() {
+        return manualFlag;
+    }
+
+    public void setManualFlag(Boolean manualFlag) {
+        this.manualFlag = manualFlag;
     }
 
     public String getDob() {
@@ -128,6 +200,131 @@ public class Transaction {
         this.dob = dob;
     }
 
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Map view over the promoted columns and the extra metadata; null values are treated as absent
+     */
+    private final class MetadataView extends AbstractMap<String, String> {
+
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof String name)) {
+                return null;
+            }
+            return switch (name) {
+                case "transactionId" -> externalId;
+                case "senderAccount" -> senderAccount;
+                case "receiverAccount" -> receiverAccount;
+                case "manualFlag" -> manualFlag != null ? manualFlag.toString() : null;
+                case "timestamp" -> timestamp != null ? timestamp.toString() : null;
+                default -> extraMetadata != null ? extraMetadata.get(name) : null;
+            };
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public String put(String key, String value) {
+            String previous = get(key);
+            switch (key) {
+                case "transactionId" -> externalId = value;
+                case "senderAccount" -> senderAccount = value;
+                case "receiverAccount" -> receiverAccount = value;
+                case "manualFlag" -> manualFlag = value != null ? Boolean.valueOf(value.trim()) : null;
+                case "timestamp" -> {
+                    // The timestamp column is authoritative; the raw value only fills it in when unset
+                    if (timestamp == null && value != null) {
+                        timestamp = parseTimestamp(value);
+                    }
+                }
+                default -> {
+                    if ("flagged".equals(key) && manualFlag == null && value != null) {
+                        manualFlag = Boolean.valueOf(value.trim());
+                    }
+                    if (value != null) {
+                        if (extraMetadata == null) {
+                            extraMetadata = new HashMap<>();
+                        }
+                        extraMetadata.put(key, value);
+                    } else if (extraMetadata != null) {
+                        extraMetadata.remove(key);
+                    }
+                }
+            }
+            return previous;
+        }
+
+        @Override
+        public String remove(Object key) {
+            String previous = get(key);
+            if (previous != null) {
+                put((String) key, null);
+            }
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            externalId = null;
+            senderAccount = null;
+            receiverAccount = null;
+            manualFlag = null;
+            if (extraMetadata != null) {
+                extraMetadata.clear();
+            }
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            Map<String, String> snapshot = new LinkedHashMap<>();
+            for (String key : PROMOTED_METADATA_KEYS) {
+                String value = get(key);
+                if (value != null) {
+                    snapshot.put(key, value);
+                }
+            }
+            if (extraMetadata != null) {
+                extraMetadata.forEach((key, value) -> {
+                    if (value != null) {
+                        snapshot.putIfAbsent(key, value);
+                    }
+                });
+            }
+            return Collections.unmodifiableMap(snapshot).entrySet();
+        }
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        String trimmed = value.trim();
+        try {
+            return OffsetDateTime.parse(trimmed).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException ignored) {
+            // fall through to local format
+        }
+        try {
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     @Override
     public String toString() {
         return "Transaction{" +
@@ -139,6 +336,7 @@ public class Transaction {
                 ", country='" + country + '\'' +
                 ", riskScore='" + riskScore + '\'' +
                 ", dob='" + dob + '\'' +
+                ", timestamp=" + timestamp +
                 '}';
     }
 } 
\ No newline at end of file
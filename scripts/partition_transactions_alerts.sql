@@ -0,0 +1,169 @@
+-- =====================================================
+-- AML Application - Time-Partitioned Transactions and Alerts
+-- =====================================================
+-- Converts the transactions and alerts tables into tables range-partitioned
+-- by timestamp, so time-bounded queries only scan the matching partitions.
+-- Monthly partitions are created from the oldest row up to three months ahead,
+-- plus a default partition; TimePartitionManager keeps creating partitions ahead
+-- and applies retention afterwards (aml.partitions.* properties).
+--
+-- Rows are partitioned by their recorded event time. Transactions ingested
+-- before the timestamp column existed carry it in transaction_metadata under
+-- 'timestamp', and alerts without one take their transaction's. If any row
+-- is still left without an event time, the conversion is aborted rather than
+-- dating it with the conversion time.
+--
+-- The original tables are kept as <table>_legacy until verified.
+-- Safe to re-run: tables that are already partitioned are skipped.
+-- =====================================================
+
+BEGIN;
+
+DO $$
+DECLARE
+    tbl TEXT;
+    legacy TEXT;
+    seq TEXT;
+    min_ts TIMESTAMP;
+    part_start DATE;
+    fk RECORD;
+    idx RECORD;
+    cols TEXT;
+    missing BIGINT;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['transactions', 'alerts'] LOOP
+        legacy := tbl || '_legacy';
+        seq := tbl || '_part_id_seq';
+
+        IF EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid
+                   WHERE c.relname = tbl AND c.relnamespace = current_schema()::regnamespace) THEN
+            RAISE NOTICE '% is already partitioned, skipping', tbl;
+            CONTINUE;
+        END IF;
+
+        -- Step 1: Make sure every row has a partition key, taken from the recorded event time
+        EXECUTE format('ALTER TABLE %I ADD COLUMN IF NOT EXISTS timestamp TIMESTAMP', tbl);
+        IF tbl = 'transactions' AND to_regclass('transaction_metadata') IS NOT NULL THEN
+            -- ISO-8601 values as ingested; values with an offset are stored in UTC like the application does
+            UPDATE transactions t
+            SET timestamp = CASE WHEN m.meta_value ~ '\d{2}:\d{2}(:\d{2}(\.\d+)?)?(Z|[+-]\d{2}(:?\d{2})?)$'
+                                 THEN m.meta_value::timestamptz AT TIME ZONE 'UTC'
+                                 ELSE m.meta_value::timestamp END
+            FROM transaction_metadata m
+            WHERE t.timestamp IS NULL
+              AND m.transaction_id = t.id
+              AND m.meta_key = 'timestamp'
+              AND m.meta_value ~ '^\d{4}-\d{2}-\d{2}([T ]\d{2}:\d{2}(:\d{2}(\.\d+)?)?(Z|[+-]\d{2}(:?\d{2})?)?)?$';
+        ELSIF tbl = 'alerts' THEN
+            UPDATE alerts a
+            SET timestamp = t.timestamp
+            FROM transactions t
+            WHERE a.timestamp IS NULL AND t.id = a.transaction_id AND t.timestamp IS NOT NULL;
+        END IF;
+        EXECUTE format('SELECT COUNT(*) FROM %I WHERE timestamp IS NULL', tbl) INTO missing;
+        IF missing > 0 THEN
+            RAISE EXCEPTION '% rows of % have no recorded event time; set their timestamp before partitioning', missing, tbl;
+        END IF;
+
+        -- Step 2: Drop foreign keys pointing at the table (a partitioned table can only be
+        -- referenced through a key that includes the partition column)
+        FOR fk IN SELECT conname, conrelid::regclass AS child FROM pg_constraint
+                  WHERE contype = 'f' AND confrelid = tbl::regclass LOOP
+            RAISE NOTICE 'Dropping foreign key % on %', fk.conname, fk.child;
+            EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.child, fk.conname);
+        END LOOP;
+
+        -- Step 3: Move the existing table aside
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', tbl, legacy);
+        -- Index names are schema-wide; free them up for the new parent
+        FOR idx IN SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+                   WHERE i.indrelid = legacy::regclass LOOP
+            EXECUTE format('ALTER INDEX %I RENAME TO %I', idx.relname, left(idx.relname, 55) || '_legacy');
+        END LOOP;
+
+        -- Step 4: Create the partitioned parent with the same columns
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING GENERATED) PARTITION BY RANGE (timestamp)', tbl, legacy);
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I', seq);
+        EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)', seq, legacy);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, seq);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN timestamp SET DEFAULT CURRENT_TIMESTAMP', tbl);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN timestamp SET NOT NULL', tbl);
+        EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, timestamp)', tbl);
+        IF tbl = 'alerts' THEN
+            -- Unique constraints must include the partition key
+            ALTER TABLE alerts ADD CONSTRAINT uk_alerts_alert_id_timestamp UNIQUE (alert_id, timestamp);
+        END IF;
+
+        -- Step 5: Monthly partitions covering existing data and the next three months
+        EXECUTE format('SELECT MIN(timestamp) FROM %I', legacy) INTO min_ts;
+        part_start := date_trunc('month', COALESCE(min_ts, CURRENT_TIMESTAMP))::date;
+        WHILE part_start < (date_trunc('month', CURRENT_DATE) + INTERVAL '4 months')::date LOOP
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           tbl || '_p' || to_char(part_start, 'YYYY_MM'), tbl,
+                           part_start, (part_start + INTERVAL '1 month')::date);
+            part_start := (part_start + INTERVAL '1 month')::date;
+        END LOOP;
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I DEFAULT', tbl || '_default', tbl);
+
+        -- Step 6: Copy the data (generated columns such as alerts.search_vector are recomputed)
+        SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position) INTO cols
+        FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = legacy AND is_generated = 'NEVER';
+        EXECUTE format('INSERT INTO %I (%s) SELECT %s FROM %I', tbl, cols, cols, legacy);
+
+        -- Step 7: Parent indexes (propagated to every partition)
+        EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON %I (timestamp DESC, id DESC)', 'idx_' || tbl || '_ts_id', tbl);
+    END LOOP;
+END $$;
+
+-- Recreate the query path indexes on the new parents
+-- (keep in sync with aml-admin/src/main/resources/db/migration/V2 and V3)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Alerts
+-- Exact lookups: findByAlertType, findByPriorityLevel, findByTransactionId
+CREATE INDEX IF NOT EXISTS idx_alerts_type ON alerts(alert_type);
+CREATE INDEX IF NOT EXISTS idx_alerts_priority ON alerts(priority_level);
+CREATE INDEX IF NOT EXISTS idx_alerts_transaction_id ON alerts(transaction_id);
+
+-- Time-ordered listing and timestamp range queries (findByTimestampRange, keyset order)
+CREATE INDEX IF NOT EXISTS idx_alerts_ts_id ON alerts(timestamp DESC, id DESC);
+
+-- Filtered listings ordered newest first (exact type / priority filters)
+CREATE INDEX IF NOT EXISTS idx_alerts_priority_ts ON alerts(priority_level, timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_alerts_type_ts ON alerts(alert_type, timestamp DESC);
+
+-- Substring searches: findByReasonContaining uses LOWER(reason) LIKE '%kw%',
+-- the paged *ContainingIgnoreCase filters use UPPER(col) LIKE UPPER('%kw%')
+CREATE INDEX IF NOT EXISTS idx_alerts_reason_trgm ON alerts USING GIN (LOWER(reason) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_alerts_type_trgm ON alerts USING GIN (UPPER(alert_type) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_alerts_priority_trgm ON alerts USING GIN (UPPER(priority_level) gin_trgm_ops);
+
+-- Full-text search (V3__alert_full_text_search.sql)
+CREATE INDEX IF NOT EXISTS idx_alerts_search_vector ON alerts USING GIN (search_vector);
+
+-- Transactions
+-- Party lookups: findBySender, findByReceiver, findBySenderAndReceiver, findByParty (OR -> bitmap OR)
+CREATE INDEX IF NOT EXISTS idx_transactions_sender_receiver ON transactions(sender, receiver);
+CREATE INDEX IF NOT EXISTS idx_transactions_receiver ON transactions(receiver);
+
+-- Keyset listing filtered by risk score or currency (/ingest/transactions)
+CREATE INDEX IF NOT EXISTS idx_transactions_ts_id ON transactions(timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_risk_ts_id ON transactions(risk_score, timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_currency_ts_id ON transactions(currency, timestamp DESC, id DESC);
+
+-- Covering indexes: countByCountry, sumAmountsByCurrency, findByCurrency
+CREATE INDEX IF NOT EXISTS idx_transactions_country ON transactions(country);
+CREATE INDEX IF NOT EXISTS idx_transactions_currency_amount ON transactions(currency) INCLUDE (amount);
+
+-- Amount thresholds: findByAmountGreaterThan, findHighValueTransactions
+CREATE INDEX IF NOT EXISTS idx_transactions_amount ON transactions(amount);
+
+COMMIT;
+
+-- Step 8: Verify partition pruning (only the October partition should be scanned)
+-- EXPLAIN SELECT * FROM alerts WHERE timestamp BETWEEN '2026-10-01' AND '2026-10-31 23:59:59';
+
+-- Step 9: Once verified, drop the legacy copies
+-- DROP TABLE transactions_legacy CASCADE;
+-- DROP TABLE alerts_legacy CASCADE;
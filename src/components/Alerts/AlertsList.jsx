@@ -69,6 +69,33 @@ const AlertsList = () => {
     fetchAlerts()
   }, [page, rowsPerPage, filters])
 
+  // New alerts are pushed onto the first page while it is showing; other pages keep their rows stable
+  useEffect(() => {
+    if (page !== 0 || filters.dateFrom || filters.dateTo) return undefined
+    return alertsService.subscribeToAlerts({
+      priorities: filters.riskLevel ? [filters.riskLevel] : [],
+      onAlert: (live) => {
+        if (filters.status && filters.status !== 'OPEN') return
+        // Streamed alerts are committed but may lack the database id, so rows are matched on alertId
+        const row = {
+          id: live.id,
+          alertId: live.alertId,
+          riskLevel: live.priorityLevel,
+          status: 'OPEN',
+          description: live.reason,
+          matchedRules: [],
+          sanctionFlags: live.matchedList ? [live.matchedList] : [],
+          timestamp: live.timestamp,
+          transactionId: live.transactionId,
+        }
+        setAlerts(prev => [row, ...prev.filter(a => a?.alertId !== row.alertId)].slice(0, rowsPerPage))
+        setTotalCount(prev => prev + 1)
+      },
+      // The stream skipped alerts (slow client or restarted server), so reload the page
+      onRefetch: () => fetchAlerts(),
+    })
+  }, [page, rowsPerPage, filters])
+
   const fetchAlerts = async () => {
     setLoading(true)
     try {
@@ -321,8 +348,8 @@ const AlertsList = () => {
                 </TableRow>
               ) : (
                 alerts.map((alert) => (
-                  <TableRow key={alert?.id}>
-                    <TableCell>{alert?.id}</TableCell>
+                  <TableRow key={alert?.alertId ?? alert?.id}>
+                    <TableCell>{alert?.id ?? alert?.alertId}</TableCell>
                     <TableCell>
                       <Chip
                         label={alert?.riskLevel || ''}
@@ -337,7 +364,7 @@ const AlertsList = () => {
                         size="small"
                       />
                     </TableCell>
-                    <TableCell>{alert?.description || ''}</TableCell>
+                    <TableCell>{alert?.description || alert?.reason || ''}</TableCell>
                     <TableCell>
                       {alert?.matchedRules?.map((rule, index) => (
                         <Chip
@@ -366,30 +393,39 @@ const AlertsList = () => {
                     <TableCell>
                       <Box display="flex" gap={1}>
                         <Tooltip title="View Details">
-                          <IconButton
-                            size="small"
-                            onClick={() => navigate(`/alerts/${alert?.id}`)}
-                          >
-                            <Visibility />
-                          </IconButton>
+                          <span>
+                            <IconButton
+                              size="small"
+                              disabled={alert?.id == null}
+                              onClick={() => navigate(`/alerts/${alert?.id}`)}
+                            >
+                              <Visibility />
+                            </IconButton>
+                          </span>
                         </Tooltip>
                         {alert?.status === 'OPEN' && (
                           <>
                             <Tooltip title="Dismiss Alert">
-                              <IconButton
-                                size="small"
-                                onClick={() => handleActionClick(alert?.id, 'dismiss')}
-                              >
-                                <Close />
-                              </IconButton>
+                              <span>
+                                <IconButton
+                                  size="small"
+                                  disabled={alert?.id == null}
+                                  onClick={() => handleActionClick(alert?.id, 'dismiss')}
+                                >
+                                  <Close />
+                                </IconButton>
+                              </span>
                             </Tooltip>
                             <Tooltip title="Mark as False Positive">
-                              <IconButton
-                                size="small"
-                                onClick={() => handleActionClick(alert?.id, 'false-positive')}
-                              >
-                                <Flag />
-                              </IconButton>
+                              <span>
+                                <IconButton
+                                  size="small"
+                                  disabled={alert?.id == null}
+                                  onClick={() => handleActionClick(alert?.id, 'false-positive')}
+                                >
+                                  <Flag />
+                                </IconButton>
+                              </span>
                             </Tooltip>
                           </>
                         )}
@@ -12,6 +12,16 @@ export const alertsService = {
     }
   },
 
+  searchAlerts: async (query, params = {}) => {
+    try {
+      const response = await adminApi.get('/alerts/search', { params: { ...params, q: query } })
+      return response.data
+    } catch (error) {
+      console.error('Failed to search alerts:', error)
+      return { content: [], totalElements: 0, totalPages: 0 }
+    }
+  },
+
   getAlertById: async (id) => {
     try {
       const response = await adminApi.get(`/alerts/${id}`)
@@ -51,4 +61,77 @@ export const alertsService = {
       return null
     }
   },
+
+  // Live alerts over server-sent events. fetch is used instead of EventSource so the
+  // JWT can go in the Authorization header; reconnects resume from the last event id.
+  // Returns a function that closes the stream.
+  subscribeToAlerts: ({ priorities = [], types = [], policy = 'COALESCE', onAlert, onRefetch } = {}) => {
+    let lastEventId = null
+    let controller = null
+    let closed = false
+
+    const dispatch = (frame) => {
+      let id = null
+      let name = 'message'
+      const data = []
+      frame.split('\n').forEach((line) => {
+        if (line.startsWith(':')) return
+        const separator = line.indexOf(':')
+        const field = separator === -1 ? line : line.slice(0, separator)
+        const value = separator === -1 ? '' : line.slice(separator + 1).replace(/^ /, '')
+        if (field === 'id') id = value
+        else if (field === 'event') name = value
+        else if (field === 'data') data.push(value)
+      })
+      if (id !== null) lastEventId = id
+      if (data.length === 0) return
+      const payload = JSON.parse(data.join('\n'))
+      if (name === 'alert') onAlert?.(payload)
+      else if (name === 'reset' || name === 'coalesced') onRefetch?.(payload)
+    }
+
+    const connect = async () => {
+      while (!closed) {
+        controller = new AbortController()
+        try {
+          const params = new URLSearchParams({ policy })
+          if (priorities.length) params.set('priority', priorities.join(','))
+          if (types.length) params.set('type', types.join(','))
+          const headers = { Accept: 'text/event-stream' }
+          const token = localStorage.getItem('token')
+          if (token) headers.Authorization = `Bearer ${token}`
+          if (lastEventId !== null) headers['Last-Event-ID'] = lastEventId
+          const response = await fetch(`${adminApi.defaults.baseURL}/alerts/stream?${params}`, {
+            headers,
+            signal: controller.signal,
+          })
+          // Authentication failures will not fix themselves by retrying
+          if (response.status === 401 || response.status === 403) return
+          if (!response.ok || !response.body) throw new Error(`Alert stream failed: ${response.status}`)
+          const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+          let buffered = ''
+          while (!closed) {
+            const { value, done } = await reader.read()
+            if (done) break
+            buffered += value.replace(/\r\n?/g, '\n')
+            let boundary
+            while ((boundary = buffered.indexOf('\n\n')) !== -1) {
+              dispatch(buffered.slice(0, boundary))
+              buffered = buffered.slice(boundary + 2)
+            }
+          }
+        } catch (error) {
+          if (closed) return
+          console.error('Alert stream disconnected:', error)
+        }
+        if (!closed) await new Promise((resolve) => setTimeout(resolve, 3000))
+      }
+    }
+
+    connect()
+    return () => {
+      closed = true
+      controller?.abort()
+    }
+  },
 } 
\ No newline at end of file